@@ -0,0 +1,164 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.util.*;
+
+/**
+ * Dictionary encoded column vector for Categorical columns: each value is stored as an int code, that is an index into
+ * the dictionary of category names.<br>
+ * The dictionary is initialized with the state names from the column metadata (so codes match the state indices used
+ * by transforms such as CategoricalToIntegerTransform). Values not in the dictionary are added to it as they are seen.
+ */
+public class CategoricalColumnVector extends ColumnVector {
+
+    private int[] codes;
+    private final List<String> dictionary;
+    private final Map<String, Integer> codeLookup;
+
+    public CategoricalColumnVector(List<String> stateNames) {
+        this(stateNames, DEFAULT_CAPACITY);
+    }
+
+    public CategoricalColumnVector(List<String> stateNames, int capacity) {
+        super(ColumnType.Categorical);
+        this.codes = new int[capacity];
+        this.dictionary = new ArrayList<>(stateNames);
+        this.codeLookup = new HashMap<>();
+        for (int i = 0; i < dictionary.size(); i++) {
+            codeLookup.put(dictionary.get(i), i);
+        }
+    }
+
+    /**
+     * Create a column vector backed by the given array of codes (not copied), with no missing values
+     *
+     * @param dictionary Category names, indexed by code
+     * @param codes      Codes
+     * @param size       Number of values (the first size values of codes are used)
+     */
+    public CategoricalColumnVector(List<String> dictionary, int[] codes, int size) {
+        this(dictionary, 0);
+        for (int i = 0; i < size; i++) {
+            checkCode(codes[i]);
+        }
+        this.codes = codes;
+        this.size = size;
+    }
+
+    /**
+     * Get the code for the given category, adding it to the dictionary if necessary
+     */
+    public int codeOf(String category) {
+        Integer code = codeLookup.get(category);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(category);
+            codeLookup.put(category, code);
+        }
+        return code;
+    }
+
+    public int getCode(int row) {
+        checkRow(row);
+        return codes[row];
+    }
+
+    public void setCode(int row, int code) {
+        checkRow(row);
+        checkCode(code);
+        codes[row] = code;
+        setValid(row);
+    }
+
+    public void appendCode(int code) {
+        checkCode(code);
+        ensureCapacity(size + 1);
+        codes[size++] = code;
+    }
+
+    public String getCategory(int row) {
+        return (isNull(row) ? null : dictionary.get(getCode(row)));
+    }
+
+    /**
+     * The underlying array of codes. Only the first {@link #size()} values are used; values for missing rows are
+     * undefined
+     */
+    public int[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * The category names, indexed by code
+     */
+    public List<String> getDictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    private void checkCode(int code) {
+        if (code < 0 || code >= dictionary.size()) {
+            throw new IllegalArgumentException(
+                            "Invalid code " + code + ": dictionary has " + dictionary.size() + " categories");
+        }
+    }
+
+    @Override
+    public CategoricalColumnVector select(int[] rows, int numRows) {
+        int[] out = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            out[i] = codes[rows[i]];
+        }
+        CategoricalColumnVector v = new CategoricalColumnVector(dictionary, out, numRows);
+        v.selectNulls(this, rows, numRows);
+        return v;
+    }
+
+    @Override
+    protected void appendValue(Writable w) {
+        codes[size] = (w == null ? 0 : codeOf(w.toString()));
+    }
+
+    @Override
+    protected Writable getValue(int row) {
+        return new Text(dictionary.get(codes[row]));
+    }
+
+    @Override
+    protected void setValue(int row, Writable w) {
+        codes[row] = codeOf(w.toString());
+    }
+
+    @Override
+    protected int capacity() {
+        return codes.length;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        codes = Arrays.copyOf(codes, newCapacity);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return super.sizeInBytes() + 4L * codes.length;
+    }
+}
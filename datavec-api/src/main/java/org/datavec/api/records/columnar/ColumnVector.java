@@ -0,0 +1,252 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A single column of a {@link ColumnarBatch}: values are stored in a primitive (or otherwise compact) array, instead of
+ * as one {@link Writable} object per value.<br>
+ * Missing values (null, or {@link NullWritable}) are recorded in a validity bitmap. The bitmap is only allocated once
+ * the first missing value is added; {@link #get(int)} returns {@link NullWritable#INSTANCE} for missing values.<br>
+ * Values added via {@link #append(Writable)} or {@link #set(int, Writable)} are converted to the type of the column:
+ * for example, a Text value of "1.5" in a Double column is stored as the double 1.5.
+ */
+public abstract class ColumnVector implements Serializable {
+
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    protected final ColumnType type;
+    protected int size;
+    //Bit set: value is valid (not null). If null: all values are valid
+    protected long[] validity;
+    protected int nullCount;
+
+    protected ColumnVector(ColumnType type) {
+        this.type = type;
+    }
+
+    /**
+     * Create an empty column vector for the given column
+     *
+     * @param metaData Column metadata
+     * @param capacity Initial capacity (number of values)
+     */
+    public static ColumnVector create(ColumnMetaData metaData, int capacity) {
+        ColumnType type = metaData.getColumnType();
+        switch (type) {
+            case Integer:
+                return new IntColumnVector(capacity);
+            case Long:
+            case Time:
+                return new LongColumnVector(type, capacity);
+            case Double:
+            case Float:
+                return new DoubleColumnVector(type, capacity);
+            case Categorical:
+                return new CategoricalColumnVector(((CategoricalMetaData) metaData).getStateNames(), capacity);
+            case String:
+                return new TextColumnVector(capacity);
+            default: //Boolean, Bytes
+                return new WritableColumnVector(type, capacity);
+        }
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    /**
+     * @return Number of values in the column
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of missing values in the column
+     */
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public boolean hasNulls() {
+        return nullCount > 0;
+    }
+
+    public boolean isNull(int row) {
+        return validity != null && (validity[row >>> 6] & (1L << row)) == 0;
+    }
+
+    /**
+     * Mark the value at the given row as missing
+     */
+    public void setNull(int row) {
+        checkRow(row);
+        if (validity == null) {
+            validity = new long[numWords(capacity())];
+            Arrays.fill(validity, -1L);
+        }
+        if (!isNull(row)) {
+            validity[row >>> 6] &= ~(1L << row);
+            nullCount++;
+        }
+    }
+
+    /**
+     * Mark the value at the given row as valid (not missing)
+     */
+    protected void setValid(int row) {
+        if (isNull(row)) {
+            validity[row >>> 6] |= (1L << row);
+            nullCount--;
+        }
+    }
+
+    /**
+     * Append a value to the end of the column. Null values and {@link NullWritable} are recorded as missing
+     */
+    public void append(Writable w) {
+        ensureCapacity(size + 1);
+        boolean isNull = (w == null || w instanceof NullWritable);
+        appendValue(isNull ? null : w);
+        size++;
+        if (isNull) {
+            setNull(size - 1);
+        }
+    }
+
+    /**
+     * Get the value at the given row as a Writable (a new object, for all but {@link WritableColumnVector})
+     */
+    public Writable get(int row) {
+        checkRow(row);
+        if (isNull(row)) {
+            return NullWritable.INSTANCE;
+        }
+        return getValue(row);
+    }
+
+    /**
+     * Replace the value at the given row. Null values and {@link NullWritable} are recorded as missing
+     */
+    public void set(int row, Writable w) {
+        checkRow(row);
+        if (w == null || w instanceof NullWritable) {
+            setNull(row);
+        } else {
+            setValue(row, w);
+            setValid(row);
+        }
+    }
+
+    /**
+     * Ensure the column can hold at least the given number of values without reallocating
+     */
+    public void ensureCapacity(int minCapacity) {
+        int capacity = capacity();
+        if (minCapacity <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(Math.max(DEFAULT_CAPACITY, minCapacity), 2 * capacity);
+        grow(newCapacity);
+        if (validity != null) {
+            int oldWords = validity.length;
+            validity = Arrays.copyOf(validity, numWords(newCapacity));
+            Arrays.fill(validity, oldWords, validity.length, -1L);
+        }
+    }
+
+    /**
+     * Mark the same rows as missing as in the given column (of the same size). Used when deriving a new column from
+     * an existing one
+     */
+    public void copyNullsFrom(ColumnVector source) {
+        if (source.size() != size) {
+            throw new IllegalArgumentException("Column sizes differ: " + source.size() + " vs. " + size);
+        }
+        if (source.nullCount == 0) {
+            validity = null;
+            nullCount = 0;
+        } else {
+            validity = Arrays.copyOf(source.validity, numWords(capacity()));
+            if (validity.length > source.validity.length) {
+                Arrays.fill(validity, source.validity.length, validity.length, -1L);
+            }
+            nullCount = source.nullCount;
+        }
+    }
+
+    /**
+     * Create a new column vector containing the values at the given rows, in order
+     *
+     * @param rows    Indices of the rows to select
+     * @param numRows Number of entries of rows to use
+     */
+    public abstract ColumnVector select(int[] rows, int numRows);
+
+    /**
+     * Mark rows of this (newly selected) column as missing, where the corresponding source rows are missing
+     */
+    protected void selectNulls(ColumnVector source, int[] rows, int numRows) {
+        if (source.nullCount == 0) {
+            return;
+        }
+        for (int i = 0; i < numRows; i++) {
+            if (source.isNull(rows[i])) {
+                setNull(i);
+            }
+        }
+    }
+
+    protected void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Invalid row " + row + " for column of size " + size);
+        }
+    }
+
+    private static int numWords(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * Write the value for row {@link #size()} (capacity has already been ensured). If w is null, write a default value
+     */
+    protected abstract void appendValue(Writable w);
+
+    protected abstract Writable getValue(int row);
+
+    protected abstract void setValue(int row, Writable w);
+
+    protected abstract int capacity();
+
+    protected abstract void grow(int newCapacity);
+
+    /**
+     * Estimated size of the column data in memory, in bytes
+     */
+    public long sizeInBytes() {
+        return (validity == null ? 0 : 8L * validity.length);
+    }
+}
@@ -0,0 +1,210 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of records stored column by column: one {@link ColumnVector} per column of the {@link Schema}, holding the
+ * values in primitive arrays (double[], long[], int[]), dictionary encoded codes (categorical columns) or offsets plus
+ * UTF-8 bytes (String columns). This avoids one Writable object (and one list per record) per value.<br>
+ * Conversion to and from the List&lt;List&lt;Writable&gt;&gt; representation used elsewhere:
+ * <ul>
+ *     <li>{@link #fromRecords(Schema, List)}: copies the values of the records into a new batch</li>
+ *     <li>{@link #asRecords()}: a List&lt;List&lt;Writable&gt;&gt; view of this batch, without copying. Writable
+ *     objects are created on access</li>
+ *     <li>{@link #toRecords()}: copies the batch into new lists of Writables</li>
+ * </ul>
+ */
+public class ColumnarBatch implements Serializable {
+
+    private final Schema schema;
+    private final ColumnVector[] columns;
+
+    /**
+     * Create an empty batch for the given schema
+     */
+    public ColumnarBatch(Schema schema) {
+        this(schema, ColumnVector.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty batch for the given schema
+     *
+     * @param schema   Schema of the records
+     * @param capacity Initial capacity (number of records)
+     */
+    public ColumnarBatch(Schema schema, int capacity) {
+        this.schema = schema;
+        this.columns = new ColumnVector[schema.numColumns()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnVector.create(schema.getMetaData(i), capacity);
+        }
+    }
+
+    /**
+     * Create a batch from existing column vectors
+     *
+     * @param schema  Schema of the records
+     * @param columns One column vector per column in the schema. All columns must have the same size
+     */
+    public ColumnarBatch(Schema schema, ColumnVector... columns) {
+        if (columns.length != schema.numColumns()) {
+            throw new IllegalArgumentException("Number of columns (" + columns.length
+                            + ") does not match number of columns in schema (" + schema.numColumns() + ")");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].size() != columns[0].size()) {
+                throw new IllegalArgumentException("Column " + i + " (\"" + schema.getName(i) + "\") has size "
+                                + columns[i].size() + "; expected " + columns[0].size());
+            }
+            if (columns[i].getType() != schema.getType(i)) {
+                throw new IllegalArgumentException("Column " + i + " (\"" + schema.getName(i) + "\") has type "
+                                + columns[i].getType() + "; schema type is " + schema.getType(i));
+            }
+        }
+        this.schema = schema;
+        this.columns = columns;
+    }
+
+    /**
+     * Create a new batch containing (a copy of) the values of the given records
+     *
+     * @param schema  Schema of the records
+     * @param records Records to convert
+     */
+    public static ColumnarBatch fromRecords(Schema schema, List<? extends List<Writable>> records) {
+        ColumnarBatch batch = new ColumnarBatch(schema, Math.max(1, records.size()));
+        for (List<Writable> record : records) {
+            batch.addRecord(record);
+        }
+        return batch;
+    }
+
+    /**
+     * Append a record to the end of this batch
+     */
+    public void addRecord(List<Writable> record) {
+        if (record.size() != columns.length) {
+            throw new IllegalArgumentException("Record has " + record.size() + " values; schema has "
+                            + columns.length + " columns: " + record);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].append(record.get(i));
+        }
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public int numRows() {
+        return (columns.length == 0 ? 0 : columns[0].size());
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    public ColumnVector getColumn(int column) {
+        return columns[column];
+    }
+
+    public ColumnVector getColumn(String columnName) {
+        return columns[schema.getIndexOfColumn(columnName)];
+    }
+
+    public ColumnVector[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * A view of the given row as a list of Writables; values are read from the column vectors on access
+     */
+    public List<Writable> getRecord(final int row) {
+        if (row < 0 || row >= numRows()) {
+            throw new IndexOutOfBoundsException("Invalid row " + row + " for batch with " + numRows() + " rows");
+        }
+        return new AbstractList<Writable>() {
+            @Override
+            public Writable get(int index) {
+                return columns[index].get(row);
+            }
+
+            @Override
+            public int size() {
+                return columns.length;
+            }
+        };
+    }
+
+    /**
+     * A view of this batch as a list of records, without copying the values. The view reflects later changes to
+     * the batch
+     */
+    public List<List<Writable>> asRecords() {
+        return new AbstractList<List<Writable>>() {
+            @Override
+            public List<Writable> get(int index) {
+                return getRecord(index);
+            }
+
+            @Override
+            public int size() {
+                return numRows();
+            }
+        };
+    }
+
+    /**
+     * Copy this batch into a new list of records
+     */
+    public List<List<Writable>> toRecords() {
+        int numRows = numRows();
+        List<List<Writable>> out = new ArrayList<>(numRows);
+        for (int r = 0; r < numRows; r++) {
+            List<Writable> record = new ArrayList<>(columns.length);
+            for (ColumnVector c : columns) {
+                record.add(c.get(r));
+            }
+            out.add(record);
+        }
+        return out;
+    }
+
+    /**
+     * Estimated size of the batch data in memory, in bytes
+     */
+    public long sizeInBytes() {
+        long sum = 0;
+        for (ColumnVector c : columns) {
+            sum += c.sizeInBytes();
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarBatch(numRows=" + numRows() + ", schema=" + schema.getColumnNames() + ")";
+    }
+}
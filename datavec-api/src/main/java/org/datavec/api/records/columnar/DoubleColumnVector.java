@@ -0,0 +1,128 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.FloatWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+
+/**
+ * Column vector for Double and Float columns, backed by a double[]. Float columns return {@link FloatWritable}s.
+ */
+public class DoubleColumnVector extends ColumnVector {
+
+    private double[] data;
+
+    public DoubleColumnVector() {
+        this(ColumnType.Double, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param type     Column type: Double or Float
+     * @param capacity Initial capacity
+     */
+    public DoubleColumnVector(ColumnType type, int capacity) {
+        super(type);
+        if (type != ColumnType.Double && type != ColumnType.Float) {
+            throw new IllegalArgumentException("Invalid column type for DoubleColumnVector: " + type);
+        }
+        this.data = new double[capacity];
+    }
+
+    /**
+     * Create a column vector backed by the given array (not copied), with no missing values
+     *
+     * @param type Column type: Double or Float
+     * @param data Values
+     * @param size Number of values (the first size values of data are used)
+     */
+    public DoubleColumnVector(ColumnType type, double[] data, int size) {
+        this(type, 0);
+        this.data = data;
+        this.size = size;
+    }
+
+    public double getDouble(int row) {
+        checkRow(row);
+        return data[row];
+    }
+
+    public void setDouble(int row, double value) {
+        checkRow(row);
+        data[row] = value;
+        setValid(row);
+    }
+
+    public void appendDouble(double value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    /**
+     * The underlying array. Only the first {@link #size()} values are used; values for missing rows are undefined
+     */
+    public double[] getData() {
+        return data;
+    }
+
+    @Override
+    public DoubleColumnVector select(int[] rows, int numRows) {
+        double[] out = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            out[i] = data[rows[i]];
+        }
+        DoubleColumnVector v = new DoubleColumnVector(type, out, numRows);
+        v.selectNulls(this, rows, numRows);
+        return v;
+    }
+
+    @Override
+    protected void appendValue(Writable w) {
+        data[size] = (w == null ? 0.0 : w.toDouble());
+    }
+
+    @Override
+    protected Writable getValue(int row) {
+        if (type == ColumnType.Float) {
+            return new FloatWritable((float) data[row]);
+        }
+        return new DoubleWritable(data[row]);
+    }
+
+    @Override
+    protected void setValue(int row, Writable w) {
+        data[row] = w.toDouble();
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return super.sizeInBytes() + 8L * data.length;
+    }
+}
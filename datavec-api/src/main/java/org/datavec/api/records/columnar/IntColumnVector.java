@@ -0,0 +1,116 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+
+/**
+ * Column vector for Integer columns, backed by an int[]
+ */
+public class IntColumnVector extends ColumnVector {
+
+    private int[] data;
+
+    public IntColumnVector() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntColumnVector(int capacity) {
+        super(ColumnType.Integer);
+        this.data = new int[capacity];
+    }
+
+    /**
+     * Create a column vector backed by the given array (not copied), with no missing values
+     *
+     * @param data Values
+     * @param size Number of values (the first size values of data are used)
+     */
+    public IntColumnVector(int[] data, int size) {
+        super(ColumnType.Integer);
+        this.data = data;
+        this.size = size;
+    }
+
+    public int getInt(int row) {
+        checkRow(row);
+        return data[row];
+    }
+
+    public void setInt(int row, int value) {
+        checkRow(row);
+        data[row] = value;
+        setValid(row);
+    }
+
+    public void appendInt(int value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    /**
+     * The underlying array. Only the first {@link #size()} values are used; values for missing rows are undefined
+     */
+    public int[] getData() {
+        return data;
+    }
+
+    @Override
+    public IntColumnVector select(int[] rows, int numRows) {
+        int[] out = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            out[i] = data[rows[i]];
+        }
+        IntColumnVector v = new IntColumnVector(out, numRows);
+        v.selectNulls(this, rows, numRows);
+        return v;
+    }
+
+    @Override
+    protected void appendValue(Writable w) {
+        data[size] = (w == null ? 0 : w.toInt());
+    }
+
+    @Override
+    protected Writable getValue(int row) {
+        return new IntWritable(data[row]);
+    }
+
+    @Override
+    protected void setValue(int row, Writable w) {
+        data[row] = w.toInt();
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return super.sizeInBytes() + 4L * data.length;
+    }
+}
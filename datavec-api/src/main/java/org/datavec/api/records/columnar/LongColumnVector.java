@@ -0,0 +1,124 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+
+/**
+ * Column vector for Long and Time (epoch milliseconds) columns, backed by a long[]
+ */
+public class LongColumnVector extends ColumnVector {
+
+    private long[] data;
+
+    public LongColumnVector() {
+        this(ColumnType.Long, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param type     Column type: Long or Time
+     * @param capacity Initial capacity
+     */
+    public LongColumnVector(ColumnType type, int capacity) {
+        super(type);
+        if (type != ColumnType.Long && type != ColumnType.Time) {
+            throw new IllegalArgumentException("Invalid column type for LongColumnVector: " + type);
+        }
+        this.data = new long[capacity];
+    }
+
+    /**
+     * Create a column vector backed by the given array (not copied), with no missing values
+     *
+     * @param type Column type: Long or Time
+     * @param data Values
+     * @param size Number of values (the first size values of data are used)
+     */
+    public LongColumnVector(ColumnType type, long[] data, int size) {
+        this(type, 0);
+        this.data = data;
+        this.size = size;
+    }
+
+    public long getLong(int row) {
+        checkRow(row);
+        return data[row];
+    }
+
+    public void setLong(int row, long value) {
+        checkRow(row);
+        data[row] = value;
+        setValid(row);
+    }
+
+    public void appendLong(long value) {
+        ensureCapacity(size + 1);
+        data[size++] = value;
+    }
+
+    /**
+     * The underlying array. Only the first {@link #size()} values are used; values for missing rows are undefined
+     */
+    public long[] getData() {
+        return data;
+    }
+
+    @Override
+    public LongColumnVector select(int[] rows, int numRows) {
+        long[] out = new long[numRows];
+        for (int i = 0; i < numRows; i++) {
+            out[i] = data[rows[i]];
+        }
+        LongColumnVector v = new LongColumnVector(type, out, numRows);
+        v.selectNulls(this, rows, numRows);
+        return v;
+    }
+
+    @Override
+    protected void appendValue(Writable w) {
+        data[size] = (w == null ? 0L : w.toLong());
+    }
+
+    @Override
+    protected Writable getValue(int row) {
+        return new LongWritable(data[row]);
+    }
+
+    @Override
+    protected void setValue(int row, Writable w) {
+        data[row] = w.toLong();
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return super.sizeInBytes() + 8L * data.length;
+    }
+}
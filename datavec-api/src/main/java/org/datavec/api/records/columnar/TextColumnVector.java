@@ -0,0 +1,138 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Column vector for String columns: the UTF-8 bytes of all values are stored in a single byte[], with an int[] of
+ * offsets (value i is bytes offsets[i] to offsets[i+1]).<br>
+ * Values are stored contiguously, so this vector is append only: {@link #set(int, Writable)} is not supported.
+ */
+public class TextColumnVector extends ColumnVector {
+
+    private int[] offsets;
+    private byte[] data;
+
+    public TextColumnVector() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TextColumnVector(int capacity) {
+        super(ColumnType.String);
+        this.offsets = new int[capacity + 1];
+        this.data = new byte[Math.max(16, 8 * capacity)];
+    }
+
+    public String getString(int row) {
+        checkRow(row);
+        if (isNull(row)) {
+            return null;
+        }
+        return new String(data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append a value, as UTF-8 bytes
+     */
+    public void appendBytes(byte[] utf8, int start, int length) {
+        ensureCapacity(size + 1);
+        writeBytes(utf8, start, length);
+        size++;
+    }
+
+    /**
+     * The underlying array of UTF-8 bytes for all values
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * The offsets of each value in {@link #getData()}: value i is bytes offsets[i] (inclusive) to offsets[i+1]
+     * (exclusive)
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    private void writeBytes(byte[] utf8, int start, int length) {
+        int end = offsets[size];
+        if (end + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(end + length, 2 * data.length));
+        }
+        System.arraycopy(utf8, start, data, end, length);
+        offsets[size + 1] = end + length;
+    }
+
+    @Override
+    public TextColumnVector select(int[] rows, int numRows) {
+        TextColumnVector v = new TextColumnVector(numRows);
+        for (int i = 0; i < numRows; i++) {
+            int r = rows[i];
+            v.appendBytes(data, offsets[r], offsets[r + 1] - offsets[r]);
+        }
+        v.selectNulls(this, rows, numRows);
+        return v;
+    }
+
+    @Override
+    protected void appendValue(Writable w) {
+        if (w == null) {
+            offsets[size + 1] = offsets[size];
+        } else if (w instanceof Text) {
+            Text t = (Text) w;
+            writeBytes(t.getBytes(), 0, t.getLength());
+        } else {
+            byte[] b = w.toString().getBytes(StandardCharsets.UTF_8);
+            writeBytes(b, 0, b.length);
+        }
+    }
+
+    @Override
+    protected Writable getValue(int row) {
+        Text t = new Text();
+        t.set(data, offsets[row], offsets[row + 1] - offsets[row]);
+        return t;
+    }
+
+    @Override
+    protected void setValue(int row, Writable w) {
+        throw new UnsupportedOperationException("Values in a TextColumnVector cannot be replaced: "
+                        + "create a new column vector instead");
+    }
+
+    @Override
+    protected int capacity() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        offsets = Arrays.copyOf(offsets, newCapacity + 1);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return super.sizeInBytes() + 4L * offsets.length + data.length;
+    }
+}
@@ -0,0 +1,78 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+
+/**
+ * Fallback column vector that stores Writable objects as-is. Used for column types without a primitive representation
+ * (Boolean, Bytes).
+ */
+public class WritableColumnVector extends ColumnVector {
+
+    private Writable[] data;
+
+    public WritableColumnVector(ColumnType type, int capacity) {
+        super(type);
+        this.data = new Writable[capacity];
+    }
+
+    @Override
+    public WritableColumnVector select(int[] rows, int numRows) {
+        WritableColumnVector v = new WritableColumnVector(type, numRows);
+        for (int i = 0; i < numRows; i++) {
+            v.data[i] = data[rows[i]];
+        }
+        v.size = numRows;
+        v.selectNulls(this, rows, numRows);
+        return v;
+    }
+
+    @Override
+    protected void appendValue(Writable w) {
+        data[size] = w;
+    }
+
+    @Override
+    protected Writable getValue(int row) {
+        return data[row];
+    }
+
+    @Override
+    protected void setValue(int row, Writable w) {
+        data[row] = w;
+    }
+
+    @Override
+    protected int capacity() {
+        return data.length;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        //References only
+        return super.sizeInBytes() + 8L * data.length;
+    }
+}
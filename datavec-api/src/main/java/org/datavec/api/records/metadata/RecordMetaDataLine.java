@@ -23,7 +23,10 @@ import org.apache.commons.io.FilenameUtils;
 import java.net.URI;
 
 /**
- * A RecordMetaData instance for a line number, generall in a file
+ * A RecordMetaData instance for a line number, generall in a file.<br>
+ * Optionally, the byte offset of the start of the line within the file may also be recorded (-1 if unknown). When
+ * available, readers can seek directly to the line instead of scanning the file. The line number may be unknown
+ * (-1) when only the byte offset is available.
  *
  * @author Alex Black
  */
@@ -34,7 +37,11 @@ public class RecordMetaDataLine implements RecordMetaData {
     private int lineNumber;
     private URI uri;
     private Class<?> readerClass;
+    private long byteOffset;
 
+    public RecordMetaDataLine(int lineNumber, URI uri, Class<?> readerClass) {
+        this(lineNumber, uri, readerClass, -1);
+    }
 
     @Override
     public String getLocation() {
@@ -45,6 +52,9 @@ public class RecordMetaDataLine implements RecordMetaData {
         } else {
             filename = "";
         }
+        if (lineNumber < 0 && byteOffset >= 0) {
+            return filename + "offset " + byteOffset;
+        }
         return filename + "line " + lineNumber;
     }
 
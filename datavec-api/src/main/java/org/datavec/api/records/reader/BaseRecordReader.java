@@ -18,14 +18,21 @@ package org.datavec.api.records.reader;
 import java.util.*;
 
 import org.datavec.api.records.listener.RecordListener;
+import org.datavec.api.writable.Writable;
 
 /**
- * Manages record listeners.
+ * Manages record listeners, and provides batch reads: {@link #next(int)}, and {@link #readSequences(int)} for
+ * sequence readers. These are not part of the {@link RecordReader} interface, so that existing implementations of it
+ * are unaffected: callers check for a BaseRecordReader first.<br>
+ * The default implementations simply read a record (or sequence) at a time. Readers with an optimized
+ * implementation of {@link #next(int)} override {@link #batchesSupported()} to return true.
  *
  * @author saudet
  */
 public abstract class BaseRecordReader implements RecordReader {
 
+    private static final int MAX_BATCH_PREALLOCATE = 4096;
+
     protected List<RecordListener> listeners = new ArrayList<>();
 
     /** Invokes {@link RecordListener#recordRead(RecordReader, Object)} on all listeners. */
@@ -35,6 +42,64 @@ public abstract class BaseRecordReader implements RecordReader {
         }
     }
 
+    /**
+     * Get the next num records (or fewer, if fewer than num records remain).
+     * Readers that return true for {@link #batchesSupported()} implement this method without the per-record
+     * overhead of repeated calls to {@link #next()}
+     *
+     * @param num Maximum number of records to return
+     * @return The next records
+     * @throws NoSuchElementException if no more records are available
+     */
+    public List<List<Writable>> next(int num) {
+        List<List<Writable>> ret = newBatch(num);
+        while (ret.size() < num && hasNext()) {
+            ret.add(next());
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return ret;
+    }
+
+    /**
+     * Whether this reader provides an optimized implementation of {@link #next(int)}, rather than simply calling
+     * {@link #next()} repeatedly. Readers that do return true here; their subclasses that change what {@link #next()}
+     * returns must override this method to return false, so that {@link #next(int)} calls {@link #next()}
+     */
+    public boolean batchesSupported() {
+        return false;
+    }
+
+    /**
+     * Create an empty list for a batch of (up to) num records or sequences.
+     */
+    protected static <T> List<T> newBatch(int num) {
+        if (num <= 0) {
+            throw new IllegalArgumentException("Number of records must be positive: got " + num);
+        }
+        //Don't preallocate for very large values of num, that may be used to mean "all remaining records"
+        return new ArrayList<>(Math.min(num, MAX_BATCH_PREALLOCATE));
+    }
+
+    /**
+     * For sequence readers: returns the next num sequences (or fewer, if fewer remain), read a sequence at a time
+     * with {@link SequenceRecordReader#sequenceRecord()}
+     *
+     * @throws NoSuchElementException if no more sequences are available
+     */
+    protected List<List<List<Writable>>> readSequences(int num) {
+        SequenceRecordReader reader = (SequenceRecordReader) this;
+        List<List<List<Writable>>> ret = newBatch(num);
+        while (ret.size() < num && reader.hasNext()) {
+            ret.add(reader.sequenceRecord());
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return ret;
+    }
+
     @Override
     public List<RecordListener> getListeners() {
         return listeners;
@@ -43,6 +43,8 @@ public interface RecordReader extends Closeable, Serializable, Configurable {
 
     public final static String APPEND_LABEL = NAME_SPACE + ".appendlabel";
     public final static String LABELS = NAME_SPACE + ".labels";
+    /** If true: read local files via memory mapped I/O, where supported by the record reader */
+    public final static String MEMORY_MAPPED = NAME_SPACE + ".memorymapped";
 
     /**
      * Called once at initialization.
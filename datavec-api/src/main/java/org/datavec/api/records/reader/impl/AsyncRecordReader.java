@@ -0,0 +1,364 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A RecordReader decorator that reads (and parses) records from an underlying RecordReader on a background thread,
+ * so that I/O and parsing overlap with whatever the caller does with the records.<br>
+ * Records are passed to the caller via a bounded queue of batches: at most queueDepth batches of batchSize
+ * records are read ahead. Record metadata is retained, and exceptions thrown by the underlying reader are rethrown
+ * (wrapped in a RuntimeException) from {@link #hasNext()}/{@link #next()} at the point in the data where they occurred.
+ * {@link #reset()} stops the background thread, resets the underlying reader and discards any prefetched records.<br>
+ * Queue metrics ({@link #getAverageQueueOccupancy()}, {@link #getConsumerWaitTimeMs()},
+ * {@link #getProducerWaitTimeMs()}) show whether the pipeline is I/O bound (the queue is usually empty and the caller
+ * waits for records) or compute bound (the queue is usually full and the background thread waits for the caller).<br>
+ * Note: the underlying reader must not be used directly while this reader is in use. Methods that do not change
+ * the reader's position (such as {@link #loadFromMetaData(List)}) are delegated to the underlying reader, and may
+ * run concurrently with the background thread.<br>
+ * For sequence readers, use {@link AsyncSequenceRecordReader}.
+ */
+public class AsyncRecordReader extends BaseRecordReader {
+
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    private static final Object END = new Object();
+
+    protected final RecordReader underlying;
+    private final int queueDepth;
+    private final int batchSize;
+
+    private transient BlockingQueue<Object> queue;
+    private transient Thread worker;
+    private transient AtomicBoolean stopFlag;
+    private transient List<?> current;
+    private transient int currentPos;
+    private transient boolean finished;
+
+    private final AtomicLong consumerWaitNanos = new AtomicLong();
+    private final AtomicLong producerWaitNanos = new AtomicLong();
+    private final AtomicLong batchesTaken = new AtomicLong();
+    private final AtomicLong occupancySum = new AtomicLong();
+
+    public AsyncRecordReader(RecordReader underlying) {
+        this(underlying, DEFAULT_QUEUE_DEPTH, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param underlying The record reader to read from, on the background thread
+     * @param queueDepth Maximum number of batches to read ahead
+     * @param batchSize  Number of records per batch
+     */
+    public AsyncRecordReader(RecordReader underlying, int queueDepth, int batchSize) {
+        if (queueDepth <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Queue depth and batch size must be positive: got queueDepth="
+                            + queueDepth + ", batchSize=" + batchSize);
+        }
+        this.underlying = underlying;
+        this.queueDepth = queueDepth;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Read one element (a Record here; a SequenceRecord for sequence readers) from the underlying reader
+     */
+    protected Object readOne() {
+        return underlying.nextRecord();
+    }
+
+    private synchronized void ensureStarted() {
+        if (worker != null || finished) {
+            return;
+        }
+        final BlockingQueue<Object> q = new LinkedBlockingQueue<>(queueDepth);
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        queue = q;
+        stopFlag = stop;
+        current = null;
+        currentPos = 0;
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                List<Object> batch = null;
+                try {
+                    while (!stop.get() && underlying.hasNext()) {
+                        batch = new ArrayList<>(batchSize);
+                        while (batch.size() < batchSize && !stop.get() && underlying.hasNext()) {
+                            batch.add(readOne());
+                        }
+                        List<Object> full = batch;
+                        batch = null;
+                        put(q, full);
+                    }
+                    put(q, END);
+                } catch (InterruptedException e) {
+                    //Stopped via reset/close
+                } catch (Throwable t) {
+                    if (!stop.get()) {
+                        try {
+                            //Records read before the failure are returned before the exception is rethrown
+                            if (batch != null && !batch.isEmpty()) {
+                                put(q, batch);
+                            }
+                            put(q, t);
+                        } catch (InterruptedException e) {
+                            //Stopped via reset/close
+                        }
+                    }
+                }
+            }
+        }, "AsyncRecordReader");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void put(BlockingQueue<Object> q, Object o) throws InterruptedException {
+        if (!q.offer(o)) {
+            long start = System.nanoTime();
+            q.put(o);
+            producerWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stop the background thread (if running), and discard any prefetched records
+     */
+    protected synchronized void stop() {
+        if (worker != null) {
+            stopFlag.set(true);
+            worker.interrupt();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        queue = null;
+        current = null;
+        currentPos = 0;
+        finished = false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        ensureStarted();
+        while (current == null || currentPos >= current.size()) {
+            if (finished) {
+                return false;
+            }
+            Object o = queue.poll();
+            if (o == null) {
+                long start = System.nanoTime();
+                try {
+                    o = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for records", e);
+                }
+                consumerWaitNanos.addAndGet(System.nanoTime() - start);
+            }
+            occupancySum.addAndGet(queue.size() + 1);
+            batchesTaken.incrementAndGet();
+            if (o == END) {
+                finished = true;
+                current = null;
+                return false;
+            } else if (o instanceof Throwable) {
+                finished = true;
+                current = null;
+                throw new RuntimeException("Error in underlying record reader", (Throwable) o);
+            }
+            current = (List<?>) o;
+            currentPos = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Return the next element read by the background thread
+     */
+    protected Object nextElement() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return current.get(currentPos++);
+    }
+
+    @Override
+    public List<Writable> next() {
+        return nextRecord().getRecord();
+    }
+
+    @Override
+    public Record nextRecord() {
+        Record r = (Record) nextElement();
+        invokeListeners(r.getRecord());
+        return r;
+    }
+
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!batchesSupported()) {
+            return super.next(num);
+        }
+        List<List<Writable>> ret = newBatch(num);
+        boolean notifyListeners = !listeners.isEmpty();
+        while (ret.size() < num && hasNext()) {
+            //Take as many records as possible from the current prefetched batch
+            int n = Math.min(num - ret.size(), current.size() - currentPos);
+            for (int i = 0; i < n; i++) {
+                Record r = (Record) current.get(currentPos++);
+                if (notifyListeners) {
+                    invokeListeners(r.getRecord());
+                }
+                ret.add(r.getRecord());
+            }
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return ret;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        stop();
+        underlying.initialize(split);
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        stop();
+        underlying.initialize(conf, split);
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return underlying.getLabels();
+    }
+
+    @Override
+    public void reset() {
+        stop();
+        underlying.reset();
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        return underlying.record(uri, dataInputStream);
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return underlying.loadFromMetaData(recordMetaData);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        return underlying.loadFromMetaData(recordMetaDatas);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        underlying.close();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        underlying.setConf(conf);
+    }
+
+    @Override
+    public Configuration getConf() {
+        return underlying.getConf();
+    }
+
+    /**
+     * @return The current number of batches in the queue
+     */
+    public int getQueueSize() {
+        BlockingQueue<Object> q = queue;
+        return (q == null ? 0 : q.size());
+    }
+
+    /**
+     * @return The maximum number of batches in the queue
+     */
+    public int getQueueCapacity() {
+        return queueDepth;
+    }
+
+    /**
+     * @return The average number of batches available in the queue when the caller took a batch from it.
+     * Values close to 0 indicate that the caller is waiting on the underlying reader (I/O bound); values close to
+     * {@link #getQueueCapacity()} indicate that the underlying reader is waiting on the caller (compute bound)
+     */
+    public double getAverageQueueOccupancy() {
+        long n = batchesTaken.get();
+        return (n == 0 ? 0.0 : occupancySum.get() / (double) n);
+    }
+
+    /**
+     * @return Total time (milliseconds) the caller spent waiting for records from the background thread
+     */
+    public long getConsumerWaitTimeMs() {
+        return consumerWaitNanos.get() / 1000000;
+    }
+
+    /**
+     * @return Total time (milliseconds) the background thread spent waiting for space in the queue
+     */
+    public long getProducerWaitTimeMs() {
+        return producerWaitNanos.get() / 1000000;
+    }
+
+    /**
+     * Reset the queue metrics
+     */
+    public void resetMetrics() {
+        consumerWaitNanos.set(0);
+        producerWaitNanos.set(0);
+        batchesTaken.set(0);
+        occupancySum.set(0);
+    }
+}
@@ -0,0 +1,133 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.SequenceRecord;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.SequenceRecordReader;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * The sequence equivalent of {@link AsyncRecordReader}: sequences are read from the underlying
+ * {@link SequenceRecordReader} on a background thread, into a bounded queue of batches of sequences.<br>
+ * {@link #next()} and {@link #nextRecord()} are also supported, and read the underlying reader's records instead of
+ * its sequences. Whether sequences or records are read ahead is set by the first call that reads either: the two
+ * cannot be mixed until the reader is reset.
+ */
+public class AsyncSequenceRecordReader extends AsyncRecordReader implements SequenceRecordReader {
+
+    //Whether the background thread reads sequences (true) or records (false); null until the first read
+    private transient volatile Boolean sequenceMode;
+
+    public AsyncSequenceRecordReader(SequenceRecordReader underlying) {
+        super(underlying);
+    }
+
+    /**
+     * @param underlying The sequence record reader to read from, on the background thread
+     * @param queueDepth Maximum number of batches to read ahead
+     * @param batchSize  Number of sequences per batch
+     */
+    public AsyncSequenceRecordReader(SequenceRecordReader underlying, int queueDepth, int batchSize) {
+        super(underlying, queueDepth, batchSize);
+    }
+
+    @Override
+    protected Object readOne() {
+        return sequenceMode ? ((SequenceRecordReader) underlying).nextSequence() : underlying.nextRecord();
+    }
+
+    private void setSequenceMode(boolean sequences) {
+        if (sequenceMode == null) {
+            sequenceMode = sequences;
+        } else if (sequenceMode != sequences) {
+            throw new IllegalStateException("Cannot read " + (sequences ? "sequences" : "records") + ": this reader "
+                            + "has read " + (sequences ? "records" : "sequences") + " since it was last reset");
+        }
+    }
+
+    @Override
+    protected synchronized void stop() {
+        super.stop();
+        sequenceMode = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (sequenceMode == null) {
+            //Nothing read yet, so the background thread has not been started
+            return underlying.hasNext();
+        }
+        return super.hasNext();
+    }
+
+    @Override
+    public List<List<Writable>> sequenceRecord() {
+        return nextSequence().getSequenceRecord();
+    }
+
+    /**
+     * Returns the next num sequences (or fewer, if fewer than num sequences remain).
+     *
+     * @param num Maximum number of sequences to return
+     * @return The next sequences
+     */
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
+    @Override
+    public SequenceRecord nextSequence() {
+        setSequenceMode(true);
+        SequenceRecord r = (SequenceRecord) nextElement();
+        invokeListeners(r.getSequenceRecord());
+        return r;
+    }
+
+    @Override
+    public Record nextRecord() {
+        setSequenceMode(false);
+        return super.nextRecord();
+    }
+
+    @Override
+    public List<List<Writable>> next(int num) {
+        setSequenceMode(false);
+        return super.next(num);
+    }
+
+    @Override
+    public List<List<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
+        return ((SequenceRecordReader) underlying).sequenceRecord(uri, dataInputStream);
+    }
+
+    @Override
+    public SequenceRecord loadSequenceFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return ((SequenceRecordReader) underlying).loadSequenceFromMetaData(recordMetaData);
+    }
+
+    @Override
+    public List<SequenceRecord> loadSequenceFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        return ((SequenceRecordReader) underlying).loadSequenceFromMetaData(recordMetaDatas);
+    }
+}
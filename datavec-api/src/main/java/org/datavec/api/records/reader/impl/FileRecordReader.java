@@ -32,7 +32,9 @@ import java.net.URI;
 import java.util.*;
 
 /**
- * File reader/writer
+ * File reader/writer.<br>
+ * If {@link #MEMORY_MAPPED} is set in the configuration, local files are read via a memory mapping directly into
+ * {@link Text} objects (assumed to be UTF-8), instead of being decoded to a String first.
  *
  * @author Adam Gibson
  */
@@ -44,6 +46,7 @@ public class FileRecordReader extends BaseRecordReader {
     protected List<String> labels;
     protected boolean appendLabel = false;
     protected InputSplit inputSplit;
+    protected boolean memoryMapped = false;
 
     public FileRecordReader() {}
 
@@ -98,6 +101,7 @@ public class FileRecordReader extends BaseRecordReader {
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
         appendLabel = conf.getBoolean(APPEND_LABEL, true);
+        memoryMapped = conf.getBoolean(MEMORY_MAPPED, memoryMapped);
         doInitialize(split);
         this.inputSplit = split;
         this.conf = conf;
@@ -111,7 +115,11 @@ public class FileRecordReader extends BaseRecordReader {
     private List<Writable> loadFromFile(File next) {
         List<Writable> ret = new ArrayList<>();
         try {
-            ret.add(new Text(FileUtils.readFileToString(next)));
+            if (memoryMapped) {
+                ret.add(MappedLineIterator.readFile(next));
+            } else {
+                ret.add(new Text(FileUtils.readFileToString(next)));
+            }
             if (appendLabel)
                 ret.add(new IntWritable(labels.indexOf(next.getParentFile().getName())));
         } catch (IOException e) {
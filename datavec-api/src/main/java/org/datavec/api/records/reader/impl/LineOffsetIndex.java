@@ -0,0 +1,224 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * A sparse index of line start offsets for a text file: the byte offset of every Nth line is recorded.
+ * To find a line, the index is used to seek to the nearest preceding checkpoint, and at most N-1 lines are scanned
+ * from there - instead of scanning the file from the start.<br>
+ * Indexes can be persisted, either next to the data file (as [filename]{@link #INDEX_FILE_EXTENSION}) or in a
+ * separate cache directory. A persisted index records the length and last modified time of the data file, and is
+ * rebuilt if either has changed.<br>
+ * Note: lines are counted by "\n" terminators (so "\r\n" is also supported).
+ */
+public class LineOffsetIndex implements Serializable {
+
+    private static final Logger log = LoggerFactory.getLogger(LineOffsetIndex.class);
+
+    public static final String INDEX_FILE_EXTENSION = ".lineidx";
+    public static final int DEFAULT_INTERVAL = 1000;
+    private static final int MAGIC = 0x4C494458; //"LIDX"
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final long fileLength;
+    private final long lastModified;
+    private final int interval;
+    private final int numLines;
+    private final long[] offsets;
+
+    private LineOffsetIndex(long fileLength, long lastModified, int interval, int numLines, long[] offsets) {
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.interval = interval;
+        this.numLines = numLines;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Build an index for the given file, by scanning it once
+     *
+     * @param file     File to index
+     * @param interval Number of lines between checkpoints
+     */
+    public static LineOffsetIndex build(File file, int interval) throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: got " + interval);
+        }
+        long fileLength = file.length();
+        long lastModified = file.lastModified();
+        long[] offsets = new long[16];
+        int numCheckpoints = 0;
+        int numLines = 0;
+        boolean lastWasNewLine = true;
+        try (InputStream is = new FileInputStream(file)) {
+            byte[] block = new byte[BLOCK_SIZE];
+            long pos = 0;
+            int n;
+            while ((n = is.read(block)) >= 0) {
+                for (int i = 0; i < n; i++) {
+                    if (lastWasNewLine) {
+                        //Start of a new line
+                        if (numLines % interval == 0) {
+                            if (numCheckpoints == offsets.length) {
+                                offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                            }
+                            offsets[numCheckpoints++] = pos + i;
+                        }
+                        numLines++;
+                    }
+                    lastWasNewLine = (block[i] == '\n');
+                }
+                pos += n;
+            }
+        }
+        return new LineOffsetIndex(fileLength, lastModified, interval, numLines,
+                        Arrays.copyOf(offsets, numCheckpoints));
+    }
+
+    /**
+     * Load the index for the given data file if a valid (up to date) one exists; otherwise build it and attempt to
+     * persist it.
+     *
+     * @param file     Data file
+     * @param cacheDir Directory to store the index in. If null: the index is stored next to the data file
+     * @param interval Number of lines between checkpoints
+     */
+    public static LineOffsetIndex getOrBuild(File file, File cacheDir, int interval) throws IOException {
+        File indexFile = indexFileFor(file, cacheDir);
+        if (indexFile.exists()) {
+            try {
+                LineOffsetIndex index = load(indexFile);
+                if (index.isValidFor(file) && index.interval == interval) {
+                    return index;
+                }
+            } catch (IOException e) {
+                log.warn("Could not load line offset index {}; rebuilding", indexFile, e);
+            }
+        }
+        LineOffsetIndex index = build(file, interval);
+        try {
+            index.save(indexFile);
+        } catch (IOException e) {
+            log.warn("Could not save line offset index to {}", indexFile, e);
+        }
+        return index;
+    }
+
+    /**
+     * Location of the persisted index for the given data file
+     *
+     * @param file     Data file
+     * @param cacheDir Cache directory. If null: the index is stored next to the data file
+     */
+    public static File indexFileFor(File file, File cacheDir) {
+        if (cacheDir == null) {
+            return new File(file.getPath() + INDEX_FILE_EXTENSION);
+        }
+        //Include a hash of the full path: files in different directories may have the same name
+        String name = file.getName() + "_" + Integer.toHexString(file.getAbsolutePath().hashCode());
+        return new File(cacheDir, name + INDEX_FILE_EXTENSION);
+    }
+
+    public static LineOffsetIndex load(File indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a valid line offset index file: " + indexFile);
+            }
+            long fileLength = in.readLong();
+            long lastModified = in.readLong();
+            int interval = in.readInt();
+            int numLines = in.readInt();
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new LineOffsetIndex(fileLength, lastModified, interval, numLines, offsets);
+        }
+    }
+
+    public void save(File indexFile) throws IOException {
+        File parent = indexFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeInt(interval);
+            out.writeInt(numLines);
+            out.writeInt(offsets.length);
+            for (long l : offsets) {
+                out.writeLong(l);
+            }
+        }
+    }
+
+    /**
+     * Whether this index is up to date for the given data file
+     */
+    public boolean isValidFor(File file) {
+        return file.length() == fileLength && file.lastModified() == lastModified;
+    }
+
+    public int getNumLines() {
+        return numLines;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Find the byte offset of the start of the given line, seeking to the nearest checkpoint and scanning from there
+     *
+     * @param raf        The (indexed) data file
+     * @param lineNumber Line number (0 to {@link #getNumLines()}-1)
+     * @return Byte offset of the start of the line
+     */
+    public long findLineOffset(RandomAccessFile raf, int lineNumber) throws IOException {
+        if (lineNumber < 0 || lineNumber >= numLines) {
+            throw new IllegalStateException("Could not get line " + lineNumber + ": has only " + numLines + " lines");
+        }
+        int checkpoint = lineNumber / interval;
+        long pos = offsets[checkpoint];
+        int toSkip = lineNumber - checkpoint * interval;
+        if (toSkip == 0) {
+            return pos;
+        }
+        raf.seek(pos);
+        byte[] block = new byte[8192];
+        int n;
+        while ((n = raf.read(block)) > 0) {
+            for (int i = 0; i < n; i++) {
+                if (block[i] == '\n' && --toSkip == 0) {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        throw new IllegalStateException("Unexpected end of file when seeking to line " + lineNumber);
+    }
+}
@@ -40,12 +40,26 @@ import java.net.URI;
 import java.util.*;
 
 /**
- * Reads files line by line
+ * Reads files line by line.<br>
+ * Local files can also be read in parallel: set {@link #PARALLEL_THREADS} to more than 1 in the configuration. Each
+ * file is then cut into chunks of {@link #PARALLEL_CHUNK_SIZE} bytes, that are read and parsed by worker threads
+ * (see {@link ParallelLineIterator}). Records are returned in file order unless {@link #PARALLEL_ORDERED} is false.<br>
+ * If {@link #MEMORY_MAPPED} is set, local files are read via memory mapped I/O (see {@link MappedLineIterator}):
+ * lines are found by scanning the mapped bytes, and each line is copied directly into a {@link Text} object. The
+ * byte offset of each line is then also available in the record metadata.<br>
+ * If {@link #LINE_INDEX_INTERVAL} is set, {@link #loadFromMetaData(List)} uses a persisted {@link LineOffsetIndex}
+ * (stored next to each file, or in {@link #LINE_INDEX_DIR}) to seek to the requested lines of local files, instead
+ * of re-reading each file from the start.
  *
  * @author Adam Gibson
  */
 public class LineRecordReader extends BaseRecordReader {
 
+    public final static String PARALLEL_THREADS = NAME_SPACE + ".parallel.threads";
+    public final static String PARALLEL_CHUNK_SIZE = NAME_SPACE + ".parallel.chunksize";
+    public final static String PARALLEL_ORDERED = NAME_SPACE + ".parallel.ordered";
+    public final static String LINE_INDEX_INTERVAL = NAME_SPACE + ".lineindex.interval";
+    public final static String LINE_INDEX_DIR = NAME_SPACE + ".lineindex.dir";
 
     private Iterator<String> iter;
     protected URI[] locations;
@@ -53,26 +67,93 @@ public class LineRecordReader extends BaseRecordReader {
     protected int lineIndex = 0; //Line index within the current split
     protected Configuration conf;
     protected InputSplit inputSplit;
+    protected int parallelThreads = 1;
+    protected long parallelChunkSize = ParallelLineIterator.DEFAULT_CHUNK_SIZE;
+    protected boolean parallelOrdered = true;
+    protected boolean memoryMapped = false;
+    protected int lineIndexInterval = 0;
+    protected String lineIndexDir = null;
+    private transient Map<URI, LineOffsetIndex> lineIndexes;
+    protected ParallelLineIterator parallelIter;
+    private RecordMetaData parallelMeta;
 
     @Override
     public void initialize(InputSplit split) throws IOException, InterruptedException {
         this.inputSplit = split;
+        if (useParallel(split)) {
+            closeParallel();
+            this.locations = split.locations();
+            this.parallelIter = new ParallelLineIterator(locations, parallelThreads, parallelChunkSize,
+                            parallelOrdered, numLinesToSkip(), recordQuote(), new ParallelLineIterator.LineParser() {
+                                @Override
+                                public List<Writable> parse(byte[] bytes, int start, int length) {
+                                    return parseLine(bytes, start, length);
+                                }
+                            }, getClass());
+            return;
+        }
         this.iter = getIterator(0);
     }
 
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.conf = conf;
+        this.parallelThreads = conf.getInt(PARALLEL_THREADS, parallelThreads);
+        this.parallelChunkSize = conf.getLong(PARALLEL_CHUNK_SIZE, parallelChunkSize);
+        this.parallelOrdered = conf.getBoolean(PARALLEL_ORDERED, parallelOrdered);
+        this.memoryMapped = conf.getBoolean(MEMORY_MAPPED, memoryMapped);
+        this.lineIndexInterval = conf.getInt(LINE_INDEX_INTERVAL, lineIndexInterval);
+        this.lineIndexDir = conf.get(LINE_INDEX_DIR, lineIndexDir);
         initialize(split);
     }
 
+    /**
+     * Whether the given split will be read in parallel mode
+     */
+    protected boolean useParallel(InputSplit split) {
+        return parallelThreads > 1 && !(split instanceof StringSplit) && !(split instanceof InputStreamInputSplit);
+    }
+
+    /**
+     * Number of lines to skip at the start of each file, in parallel mode
+     */
+    protected int numLinesToSkip() {
+        return 0;
+    }
+
+    /**
+     * Quote character (ASCII) between which line terminators do not end a record, when finding records by byte offset
+     * (parallel mode, and loading from metadata with byte offsets); -1 if every line is a record
+     */
+    protected int recordQuote() {
+        return -1;
+    }
+
+    /**
+     * Parse a single line, provided as UTF-8 bytes (excluding the line terminator). Used in parallel mode, where this
+     * method is called concurrently by multiple worker threads: implementations must be thread safe.
+     */
+    protected List<Writable> parseLine(byte[] bytes, int start, int length) {
+        Text t = new Text();
+        t.set(bytes, start, length);
+        List<Writable> ret = new ArrayList<>(1);
+        ret.add(t);
+        return ret;
+    }
+
     @Override
     public List<Writable> next() {
+        if (parallelIter != null) {
+            Record r = parallelIter.next();
+            parallelMeta = r.getMetaData();
+            invokeListeners(r.getRecord());
+            lineIndex++;
+            return r.getRecord();
+        }
         List<Writable> ret = new ArrayList<>();
 
         if (iter.hasNext()) {
-            String record = iter.next();
-            invokeListeners(record);
-            ret.add(new Text(record));
+            ret.add(nextLine());
             lineIndex++;
             return ret;
         } else {
@@ -81,16 +162,14 @@ public class LineRecordReader extends BaseRecordReader {
                 lineIndex = 0; //New split opened -> reset line index
                 try {
                     close();
-                    iter = IOUtils.lineIterator(new InputStreamReader(locations[splitIndex].toURL().openStream()));
+                    iter = openLineIterator(locations[splitIndex]);
                     onLocationOpen(locations[splitIndex]);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
 
                 if (iter.hasNext()) {
-                    String record = iter.next();
-                    invokeListeners(record);
-                    ret.add(new Text(record));
+                    ret.add(nextLine());
                     lineIndex++;
                     return ret;
                 }
@@ -102,6 +181,9 @@ public class LineRecordReader extends BaseRecordReader {
 
     @Override
     public boolean hasNext() {
+        if (parallelIter != null) {
+            return parallelIter.hasNext();
+        }
         if (iter != null && iter.hasNext()) {
             return true;
         } else {
@@ -110,7 +192,7 @@ public class LineRecordReader extends BaseRecordReader {
                 lineIndex = 0; //New split -> reset line count
                 try {
                     close();
-                    iter = IOUtils.lineIterator(new InputStreamReader(locations[splitIndex].toURL().openStream()));
+                    iter = openLineIterator(locations[splitIndex]);
                     onLocationOpen(locations[splitIndex]);
                 } catch (IOException e) {
                     e.printStackTrace();
@@ -123,17 +205,114 @@ public class LineRecordReader extends BaseRecordReader {
         }
     }
 
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!batchesSupported()) {
+            return super.next(num);
+        }
+        if (parallelIter != null) {
+            return nextParallel(num);
+        }
+        List<List<Writable>> ret = newBatch(num);
+        boolean notifyListeners = !listeners.isEmpty();
+        while (ret.size() < num && hasNext()) {
+            List<Writable> l = new ArrayList<>(1);
+            l.add(nextLine(notifyListeners));
+            lineIndex++;
+            ret.add(l);
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return ret;
+    }
+
+    /**
+     * Implementation of {@link #next(int)} for parallel mode: parsed records are taken directly from the worker
+     * threads' output
+     */
+    protected List<List<Writable>> nextParallel(int num) {
+        List<List<Writable>> ret = newBatch(num);
+        boolean notifyListeners = !listeners.isEmpty();
+        while (ret.size() < num && parallelIter.hasNext()) {
+            Record r = parallelIter.next();
+            parallelMeta = r.getMetaData();
+            if (notifyListeners) {
+                invokeListeners(r.getRecord());
+            }
+            ret.add(r.getRecord());
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        lineIndex += ret.size();
+        return ret;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    private Text nextLine() {
+        return nextLine(true);
+    }
+
+    /**
+     * Read the next line from the current location. Must only be called after {@link #hasNext()} has returned true.
+     *
+     * @param notifyListeners If true: invoke the record listeners for the line
+     */
+    protected Text nextLine(boolean notifyListeners) {
+        if (iter instanceof MappedLineIterator) {
+            Text t = ((MappedLineIterator) iter).nextText();
+            if (notifyListeners) {
+                invokeListeners(t);
+            }
+            return t;
+        }
+        String record = iter.next();
+        if (notifyListeners) {
+            invokeListeners(record);
+        }
+        return new Text(record);
+    }
+
+    /**
+     * Open a line iterator for the given URI: memory mapped if enabled (and the URI is a local file), otherwise
+     * stream based
+     */
+    protected Iterator<String> openLineIterator(URI uri) throws IOException {
+        if (memoryMapped && "file".equalsIgnoreCase(uri.getScheme())) {
+            return new MappedLineIterator(new File(uri));
+        }
+        return IOUtils.lineIterator(new InputStreamReader(uri.toURL().openStream()));
+    }
+
+    /**
+     * @return The byte offset of the last line returned by {@link #next()}, or -1 if not known
+     */
+    protected long currentLineOffset() {
+        if (iter instanceof MappedLineIterator) {
+            return ((MappedLineIterator) iter).getLastLineOffset();
+        }
+        return -1;
+    }
+
     protected void onLocationOpen(URI location) {
 
     }
 
     @Override
     public void close() throws IOException {
-        if (iter != null) {
-            if (iter instanceof LineIterator) {
-                LineIterator iter2 = (LineIterator) iter;
-                iter2.close();
-            }
+        closeIfRequired(iter);
+        closeParallel();
+    }
+
+    private void closeParallel() {
+        if (parallelIter != null) {
+            parallelIter.close();
+            parallelIter = null;
         }
     }
 
@@ -187,13 +366,11 @@ public class LineRecordReader extends BaseRecordReader {
         } else {
             this.locations = inputSplit.locations();
             if (locations != null && locations.length > 0) {
-                InputStream inputStream;
                 try {
-                    inputStream = locations[location].toURL().openStream();
+                    iterator = openLineIterator(locations[location]);
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
-                iterator = IOUtils.lineIterator(new InputStreamReader(inputStream));
             }
         }
         if (iterator == null)
@@ -205,26 +382,79 @@ public class LineRecordReader extends BaseRecordReader {
         if (iterator instanceof LineIterator) {
             LineIterator iter = (LineIterator) iterator;
             iter.close();
+        } else if (iterator instanceof MappedLineIterator) {
+            try {
+                ((MappedLineIterator) iterator).close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
     }
 
     @Override
     public Record nextRecord() {
         List<Writable> next = next();
+        if (parallelIter != null) {
+            return new org.datavec.api.records.impl.Record(next, parallelMeta);
+        }
         URI uri = (locations == null || locations.length < 1 ? null : locations[splitIndex]);
-        RecordMetaData meta = new RecordMetaDataLine(this.lineIndex - 1, uri, LineRecordReader.class); //-1 as line number has been incremented already...
+        RecordMetaData meta = new RecordMetaDataLine(this.lineIndex - 1, uri, LineRecordReader.class,
+                        currentLineOffset()); //-1 as line number has been incremented already...
         return new org.datavec.api.records.impl.Record(next, meta);
     }
 
     @Override
     public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
-        return null;
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    private long findLineOffset(RecordMetaDataLine meta, RandomAccessFile raf) throws IOException {
+        if (lineIndexes == null) {
+            lineIndexes = new HashMap<>();
+        }
+        URI uri = meta.getURI();
+        File f = new File(uri);
+        LineOffsetIndex index = lineIndexes.get(uri);
+        if (index == null || !index.isValidFor(f)) {
+            index = LineOffsetIndex.getOrBuild(f, lineIndexDir == null ? null : new File(lineIndexDir),
+                            lineIndexInterval);
+            lineIndexes.put(uri, index);
+        }
+        return index.findLineOffset(raf, meta.getLineNumber());
+    }
+
+    private void loadFromOffsets(List<Triple<Integer, RecordMetaDataLine, List<Writable>>> list, List<Long> offsets)
+                    throws IOException {
+        Map<URI, RandomAccessFile> files = new HashMap<>();
+        try {
+            for (int i = 0; i < list.size(); i++) {
+                Triple<Integer, RecordMetaDataLine, List<Writable>> t = list.get(i);
+                URI uri = t.getSecond().getURI();
+                RandomAccessFile raf = files.get(uri);
+                if (raf == null) {
+                    raf = new RandomAccessFile(new File(uri), "r");
+                    files.put(uri, raf);
+                }
+                long offset = offsets.get(i);
+                if (offset < 0) {
+                    offset = findLineOffset(t.getSecond(), raf);
+                }
+                byte[] line = ParallelLineIterator.readLineAt(raf, offset, recordQuote());
+                t.setThird(Collections.<Writable>singletonList(new Text(line)));
+            }
+        } finally {
+            for (RandomAccessFile raf : files.values()) {
+                raf.close();
+            }
+        }
     }
 
     @Override
     public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
         //First: create a sorted list of the RecordMetaData
         List<Triple<Integer, RecordMetaDataLine, List<Writable>>> list = new ArrayList<>();
+        List<Triple<Integer, RecordMetaDataLine, List<Writable>>> withOffsets = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
         Set<URI> uris = new HashSet<>();
         Iterator<RecordMetaData> iter = recordMetaDatas.iterator();
         int count = 0;
@@ -234,6 +464,14 @@ public class LineRecordReader extends BaseRecordReader {
                 throw new IllegalArgumentException(
                                 "Invalid metadata; expected RecordMetaDataLine instance; got: " + rmd);
             }
+            RecordMetaDataLine rmdl = (RecordMetaDataLine) rmd;
+            if (rmd.getURI() != null && "file".equalsIgnoreCase(rmd.getURI().getScheme())
+                            && (rmdl.getByteOffset() >= 0 || lineIndexInterval > 0)) {
+                //Byte offset is known or can be found via the index: seek directly to the line, instead of scanning
+                withOffsets.add(new Triple<>(count++, rmdl, (List<Writable>) null));
+                offsets.add(rmdl.getByteOffset());
+                continue;
+            }
             list.add(new Triple<>(count++, (RecordMetaDataLine) rmd, (List<Writable>) null));
             if (rmd.getURI() != null)
                 uris.add(rmd.getURI());
@@ -263,8 +501,7 @@ public class LineRecordReader extends BaseRecordReader {
             Iterator<Triple<Integer, RecordMetaDataLine, List<Writable>>> metaIter = list.iterator(); //Currently sorted by URI, then line number
 
             URI currentURI = sortedURIs.get(0);
-            Iterator<String> currentUriIter =
-                            IOUtils.lineIterator(new InputStreamReader(currentURI.toURL().openStream()));
+            Iterator<String> currentUriIter = openLineIterator(currentURI);
             int currentURIIdx = 0; //Index of URI
             int currentLineIdx = 0; //Index of the line for the current URI
             String line = currentUriIter.next();
@@ -287,7 +524,7 @@ public class LineRecordReader extends BaseRecordReader {
                     if (currentURI.equals(thisURI)) {
                         //Found the correct URI for this MetaData instance
                         closeIfRequired(currentUriIter);
-                        currentUriIter = IOUtils.lineIterator(new InputStreamReader(currentURI.toURL().openStream()));
+                        currentUriIter = openLineIterator(currentURI);
                         line = currentUriIter.next();
                     }
                 }
@@ -303,7 +540,8 @@ public class LineRecordReader extends BaseRecordReader {
                 }
                 t.setThird(Collections.<Writable>singletonList(new Text(line)));
             }
-        } else {
+            closeIfRequired(currentUriIter);
+        } else if (!list.isEmpty()) {
             //Not URI based: String split, etc
             Iterator<String> iterator = getIterator(0);
             Iterator<Triple<Integer, RecordMetaDataLine, List<Writable>>> metaIter = list.iterator();
@@ -322,6 +560,9 @@ public class LineRecordReader extends BaseRecordReader {
         }
 
 
+        loadFromOffsets(withOffsets, offsets);
+        list.addAll(withOffsets);
+
         //Now, sort by the original (request) order:
         Collections.sort(list, new Comparator<Triple<Integer, RecordMetaDataLine, List<Writable>>>() {
             @Override
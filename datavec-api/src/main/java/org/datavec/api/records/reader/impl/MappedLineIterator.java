@@ -0,0 +1,173 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.writable.Text;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the lines of a local file using memory mapped I/O.<br>
+ * Line terminators are found by scanning the mapped bytes directly, and each line is copied from the mapping into a
+ * {@link Text} (see {@link #nextText()}), without decoding to a String. Files larger than the window size (and in
+ * particular, files larger than 2GB) are handled by mapping successive windows of the file.<br>
+ * Note: the file is assumed to be UTF-8 encoded; lines are terminated by "\n" or "\r\n".
+ */
+public class MappedLineIterator implements Iterator<String>, Closeable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long fileLength;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    //File offset of the start of the next line
+    private long position;
+    private long lastLineOffset = -1;
+
+    public MappedLineIterator(File f) throws IOException {
+        this(f, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param f          File to read
+     * @param windowSize Size of the mapped windows, in bytes. Windows are enlarged as required for lines longer
+     *                   than this
+     */
+    public MappedLineIterator(File f, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: got " + windowSize);
+        }
+        this.file = new RandomAccessFile(f, "r");
+        this.channel = file.getChannel();
+        this.fileLength = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < fileLength;
+    }
+
+    /**
+     * @return The byte offset (within the file) of the start of the line last returned by {@link #next()} or
+     * {@link #nextText()}
+     */
+    public long getLastLineOffset() {
+        return lastLineOffset;
+    }
+
+    /**
+     * Return the next line as a {@link Text} object, created directly from the mapped bytes
+     */
+    public Text nextText() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more lines");
+        }
+        try {
+            int size = windowSize;
+            while (true) {
+                map(position, size);
+                int start = (int) (position - windowStart);
+                int end = window.limit();
+                int idx = start;
+                while (idx < end && window.get(idx) != '\n') {
+                    idx++;
+                }
+                boolean atEof = windowStart + end >= fileLength;
+                if (idx < end || atEof) {
+                    int contentEnd = idx;
+                    if (contentEnd > start && window.get(contentEnd - 1) == '\r') {
+                        contentEnd--;
+                    }
+                    Text t = new Text();
+                    t.set(window, start, contentEnd - start);
+                    lastLineOffset = position;
+                    position = windowStart + Math.min(idx + 1, end);
+                    return t;
+                }
+                //Line extends past the end of the current window
+                if (start == 0) {
+                    if (size == Integer.MAX_VALUE) {
+                        throw new IllegalStateException("Line at offset " + position + " is too long");
+                    }
+                    size = (int) Math.min(Integer.MAX_VALUE, 2L * size);
+                }
+                window = null;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error mapping file", e);
+        }
+    }
+
+    /**
+     * Ensure that the current window starts at or before the given position, and includes it
+     */
+    private void map(long from, int size) throws IOException {
+        if (window != null && from >= windowStart && from < windowStart + window.limit()) {
+            return;
+        }
+        long len = Math.min(size, fileLength - from);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, len);
+        windowStart = from;
+    }
+
+    @Override
+    public String next() {
+        return nextText().toString();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+        file.close();
+    }
+
+    /**
+     * Read an entire (UTF-8) file into a single {@link Text} object via a memory mapping, without decoding it to a
+     * String.
+     *
+     * @param f File to read. Must be smaller than 2GB
+     */
+    public static Text readFile(File f) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel ch = raf.getChannel()) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("File is too large to load into a Text object: " + f);
+            }
+            Text t = new Text();
+            t.set(ch.map(FileChannel.MapMode.READ_ONLY, 0, size), 0, (int) size);
+            return t;
+        }
+    }
+}
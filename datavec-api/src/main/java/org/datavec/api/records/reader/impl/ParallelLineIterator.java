@@ -0,0 +1,504 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
+import org.datavec.api.writable.Writable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Reads lines from one or more local files in parallel.<br>
+ * Each file is cut into byte range chunks (in the same way as Hadoop's FileInputFormat): a chunk owns every line
+ * that starts within its byte range, so a chunk other than the first skips the (partial) line it starts in, and
+ * reads past its end to complete its last line. Chunks are read and parsed by a pool of worker threads; at most
+ * 2 x numThreads chunks are in flight at any time, so the reader cannot race arbitrarily far ahead of the consumer.<br>
+ * Records are returned either in file order (ordered mode) or in the order in which chunks complete (unordered mode).
+ * Each record has a {@link RecordMetaDataLine} with the byte offset of the line; the line number is available in
+ * ordered mode, and in unordered mode only for the first chunk of each file (-1 otherwise).<br>
+ * Lines are terminated by "\n" or "\r\n". If a quote character is given, a line terminator between quotes (as in a
+ * quoted CSV field) does not end the line: a chunk then also needs to know whether it starts between quotes, which
+ * it gets from the number of quotes in the previous chunks of the file (each worker counts the quotes in its chunk
+ * before parsing it, and waits for the count of the previous chunk).<br>
+ * The lines to skip at the start of each file are found (by byte offset) before the first chunk of the file is read,
+ * so they are skipped even if they extend past the first chunk.
+ */
+public class ParallelLineIterator implements Iterator<Record>, Closeable {
+
+    public static final long DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int EXTEND_BLOCK_SIZE = 8192;
+
+    /**
+     * Converts a single line (UTF-8 bytes, excluding the line terminator) to a record.
+     * Called concurrently from the worker threads.
+     */
+    public interface LineParser {
+        List<Writable> parse(byte[] bytes, int start, int length);
+    }
+
+    private final URI[] uris;
+    private final File[] files;
+    private final long chunkSize;
+    private final boolean ordered;
+    private final int skipNumLines;
+    private final int quote;
+    private final long[] skipEnds;
+    private final LineParser parser;
+    private final Class<?> readerClass;
+    private final int maxInFlight;
+
+    private final ExecutorService executor;
+    private final CompletionService<ChunkResult> completionService;
+    private final Deque<Future<ChunkResult>> pending = new ArrayDeque<>();
+    private int inFlight;
+
+    //Next chunk to submit
+    private int nextFileIdx = 0;
+    private long nextChunkStart = 0;
+    private QuoteState lastQuoteState;
+
+    //Ordered mode: number of lines in the already returned chunks of the current file
+    private int orderedFileIdx = -1;
+    private int orderedLineCount;
+
+    private ChunkResult current;
+    private int currentPos;
+
+    /**
+     * @param uris         Files to read. Must be local (file:) URIs
+     * @param numThreads   Number of worker threads
+     * @param chunkSize    Size of each chunk, in bytes
+     * @param ordered      If true: return records in file order. If false: return records in the order that chunks
+     *                     are completed
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param parser       Line parser
+     * @param readerClass  Reader class, for the record metadata
+     */
+    public ParallelLineIterator(URI[] uris, int numThreads, long chunkSize, boolean ordered, int skipNumLines,
+                    LineParser parser, Class<?> readerClass) {
+        this(uris, numThreads, chunkSize, ordered, skipNumLines, -1, parser, readerClass);
+    }
+
+    /**
+     * @param uris         Files to read. Must be local (file:) URIs
+     * @param numThreads   Number of worker threads
+     * @param chunkSize    Size of each chunk, in bytes
+     * @param ordered      If true: return records in file order. If false: return records in the order that chunks
+     *                     are completed
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param quote        Quote character (ASCII), between which line terminators do not end a line; -1 for none
+     * @param parser       Line parser
+     * @param readerClass  Reader class, for the record metadata
+     */
+    public ParallelLineIterator(URI[] uris, int numThreads, long chunkSize, boolean ordered, int skipNumLines,
+                    int quote, LineParser parser, Class<?> readerClass) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: got " + numThreads);
+        }
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE - EXTEND_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        if (quote < -1 || quote > 127) {
+            throw new IllegalArgumentException("Quote must be an ASCII character, or -1 for none: got " + quote);
+        }
+        this.uris = uris;
+        this.files = new File[uris.length];
+        for (int i = 0; i < uris.length; i++) {
+            if (!"file".equalsIgnoreCase(uris[i].getScheme())) {
+                throw new IllegalArgumentException("Parallel reading requires local files: got URI " + uris[i]);
+            }
+            files[i] = new File(uris[i]);
+        }
+        this.chunkSize = chunkSize;
+        this.ordered = ordered;
+        this.skipNumLines = skipNumLines;
+        this.quote = quote;
+        this.skipEnds = new long[uris.length];
+        this.parser = parser;
+        this.readerClass = readerClass;
+        this.maxInFlight = 2 * numThreads;
+
+        this.executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setName("ParallelLineIterator-" + t.getName());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        this.completionService = new ExecutorCompletionService<>(executor);
+
+        while (inFlight < maxInFlight && submitNext()) {
+            //Fill the pipeline
+        }
+    }
+
+    private boolean submitNext() {
+        while (nextFileIdx < files.length && nextChunkStart >= files[nextFileIdx].length()) {
+            nextFileIdx++;
+            nextChunkStart = 0;
+        }
+        if (nextFileIdx >= files.length) {
+            return false;
+        }
+        final int fileIdx = nextFileIdx;
+        final long start = nextChunkStart;
+        final long end = Math.min(start + chunkSize, files[fileIdx].length());
+        nextChunkStart = end;
+        if (start == 0 && skipNumLines > 0) {
+            try {
+                skipEnds[fileIdx] = skipLines(files[fileIdx], skipNumLines, quote);
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading " + files[fileIdx], e);
+            }
+        }
+        final QuoteState previous = (start == 0 ? null : lastQuoteState);
+        final QuoteState state = (quote < 0 ? null : new QuoteState());
+        lastQuoteState = state;
+
+        Callable<ChunkResult> task = new Callable<ChunkResult>() {
+            @Override
+            public ChunkResult call() throws Exception {
+                try {
+                    return readChunk(fileIdx, start, end, previous, state);
+                } catch (Exception e) {
+                    //Don't leave the next chunk waiting
+                    if (state != null) {
+                        state.fail();
+                    }
+                    throw e;
+                }
+            }
+        };
+        if (ordered) {
+            pending.add(executor.submit(task));
+        } else {
+            completionService.submit(task);
+        }
+        inFlight++;
+        return true;
+    }
+
+    private ChunkResult takeNext() {
+        if (inFlight == 0) {
+            return null;
+        }
+        ChunkResult r;
+        try {
+            Future<ChunkResult> f = (ordered ? pending.poll() : completionService.take());
+            r = f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for chunk", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error reading chunk", e.getCause());
+        }
+        inFlight--;
+        submitNext();
+
+        if (ordered) {
+            if (r.fileIdx != orderedFileIdx) {
+                orderedFileIdx = r.fileIdx;
+                orderedLineCount = 0;
+            }
+            r.firstLineNumber = orderedLineCount;
+            orderedLineCount += r.numLines;
+        } else if (r.start == 0) {
+            r.firstLineNumber = 0;
+        }
+        return r;
+    }
+
+    private ChunkResult readChunk(int fileIdx, long start, long end, QuoteState previous, QuoteState state)
+                    throws IOException, InterruptedException {
+        ChunkResult result = new ChunkResult(fileIdx, start);
+        long readStart = (start == 0 ? 0 : start - 1);
+        int len = (int) (end - readStart);
+        try (RandomAccessFile raf = new RandomAccessFile(files[fileIdx], "r")) {
+            ChunkBuffer b = new ChunkBuffer(raf, readStart, len);
+            byte[] buf = b.bytes;
+
+            //Whether this chunk starts between quotes: from the quotes in the previous chunks
+            boolean startInQuote = false;
+            if (state != null) {
+                boolean odd = false;
+                for (int i = (int) (start - readStart); i < len; i++) {
+                    if ((buf[i] & 0xFF) == quote) {
+                        odd = !odd;
+                    }
+                }
+                startInQuote = (previous != null && previous.await());
+                state.set(startInQuote != odd);
+            }
+
+            int lineStart = 0;
+            if (start > 0) {
+                //Skip the partial line: it is owned by the previous chunk
+                if (buf[0] == '\n' && !startInQuote) {
+                    lineStart = 1;
+                } else {
+                    int idx = indexOfLineEnd(buf, 1, len, startInQuote, quote);
+                    if (idx < 0) {
+                        //No line starts in this chunk
+                        return result;
+                    }
+                    lineStart = idx + 1;
+                }
+            }
+
+            List<List<Writable>> records = new ArrayList<>();
+            long[] offsets = new long[16];
+            int lineNum = 0;
+            while (lineStart < len) {
+                //Lines starting in this chunk are completed by reading past its end, if necessary
+                int idx;
+                while ((idx = indexOfLineEnd(b.bytes, lineStart, b.length, false, quote)) < 0 && b.extend()) {
+                }
+                buf = b.bytes;
+                int lineEnd = (idx < 0 ? b.length : idx);
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buf[contentEnd - 1] == '\r') {
+                    contentEnd--;
+                }
+                if (readStart + lineStart < skipEnds[fileIdx]) {
+                    result.numSkipped++;
+                } else {
+                    if (records.size() == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                    }
+                    offsets[records.size()] = readStart + lineStart;
+                    records.add(parser.parse(buf, lineStart, contentEnd - lineStart));
+                }
+                lineNum++;
+                lineStart = lineEnd + 1;
+            }
+            result.records = records;
+            result.offsets = offsets;
+            result.numLines = lineNum;
+        }
+        return result;
+    }
+
+    /**
+     * @return Index of the first line terminator in buf[from, to) that is not between quotes (given whether from is
+     *         between quotes), or -1 if there is none
+     */
+    private static int indexOfLineEnd(byte[] buf, int from, int to, boolean inQuote, int quote) {
+        for (int i = from; i < to; i++) {
+            int c = buf[i] & 0xFF;
+            if (c == '\n' && !inQuote) {
+                return i;
+            }
+            if (c == quote) {
+                inQuote = !inQuote;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Byte offset of the end of the first numLines lines of the file (or its length, if it has fewer lines)
+     */
+    private static long skipLines(File f, int numLines, int quote) throws IOException {
+        long offset = 0;
+        int lines = 0;
+        boolean inQuote = false;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(f))) {
+            int c;
+            while (lines < numLines && (c = in.read()) >= 0) {
+                offset++;
+                if (c == '\n' && !inQuote) {
+                    lines++;
+                } else if (c == quote) {
+                    inQuote = !inQuote;
+                }
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Read the single line starting at the given byte offset of a file, excluding the line terminator.
+     *
+     * @param raf    File to read from
+     * @param offset Byte offset of the start of the line
+     * @return Line contents (UTF-8 bytes)
+     */
+    public static byte[] readLineAt(RandomAccessFile raf, long offset) throws IOException {
+        return readLineAt(raf, offset, -1);
+    }
+
+    /**
+     * Read the single line starting at the given byte offset of a file, excluding the line terminator. Line
+     * terminators between quotes do not end the line, as with {@link #ParallelLineIterator(URI[], int, long, boolean,
+     * int, int, LineParser, Class)}
+     *
+     * @param raf    File to read from
+     * @param offset Byte offset of the start of the line
+     * @param quote  Quote character (ASCII), or -1 for none
+     * @return Line contents (UTF-8 bytes)
+     */
+    public static byte[] readLineAt(RandomAccessFile raf, long offset, int quote) throws IOException {
+        raf.seek(offset);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] block = new byte[512];
+        boolean inQuote = false;
+        int n;
+        while ((n = raf.read(block)) > 0) {
+            int idx = indexOfLineEnd(block, 0, n, inQuote, quote);
+            if (idx >= 0) {
+                baos.write(block, 0, idx);
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if ((block[i] & 0xFF) == quote) {
+                    inQuote = !inQuote;
+                }
+            }
+            baos.write(block, 0, n);
+        }
+        byte[] line = baos.toByteArray();
+        if (line.length > 0 && line[line.length - 1] == '\r') {
+            line = Arrays.copyOf(line, line.length - 1);
+        }
+        return line;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (current == null || currentPos >= current.records.size()) {
+            current = takeNext();
+            currentPos = 0;
+            if (current == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        int i = currentPos++;
+        int lineNumber = (current.firstLineNumber < 0 ? -1 : current.firstLineNumber + current.numSkipped + i);
+        RecordMetaDataLine meta = new RecordMetaDataLine(lineNumber, uris[current.fileIdx], readerClass,
+                        current.offsets[i]);
+        return new org.datavec.api.records.impl.Record(current.records.get(i), meta);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Bytes read from a file, that can be extended by reading further
+     */
+    private static class ChunkBuffer {
+        private final RandomAccessFile raf;
+        private byte[] bytes;
+        private int length;
+
+        private ChunkBuffer(RandomAccessFile raf, long offset, int length) throws IOException {
+            this.raf = raf;
+            raf.seek(offset);
+            this.bytes = new byte[length + EXTEND_BLOCK_SIZE];
+            raf.readFully(bytes, 0, length);
+            this.length = length;
+        }
+
+        /**
+         * Read the next block of the file
+         *
+         * @return False if at the end of the file
+         */
+        private boolean extend() throws IOException {
+            if (length + EXTEND_BLOCK_SIZE > bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            }
+            int n = raf.read(bytes, length, EXTEND_BLOCK_SIZE);
+            if (n <= 0) {
+                return false;
+            }
+            length += n;
+            return true;
+        }
+    }
+
+    /**
+     * Whether the end of a chunk is between quotes: set by the worker reading the chunk, once it knows
+     */
+    private static class QuoteState {
+        private final CountDownLatch known = new CountDownLatch(1);
+        private volatile boolean inQuote;
+        private volatile boolean failed;
+
+        private void set(boolean inQuote) {
+            this.inQuote = inQuote;
+            known.countDown();
+        }
+
+        private void fail() {
+            if (known.getCount() > 0) {
+                failed = true;
+                known.countDown();
+            }
+        }
+
+        private boolean await() throws IOException, InterruptedException {
+            known.await();
+            if (failed) {
+                throw new IOException("Error reading the previous chunk");
+            }
+            return inQuote;
+        }
+    }
+
+    private static class ChunkResult {
+        private final int fileIdx;
+        private final long start;
+        private List<List<Writable>> records = Collections.emptyList();
+        private long[] offsets;
+        private int numLines;
+        private int numSkipped;
+        private int firstLineNumber = -1;
+
+        private ChunkResult(int fileIdx, long start) {
+            this.fileIdx = fileIdx;
+            this.start = start;
+        }
+    }
+}
@@ -65,6 +65,33 @@ public class CollectionRecordReader extends BaseRecordReader {
         return record;
     }
 
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!batchesSupported()) {
+            return super.next(num);
+        }
+        List<List<Writable>> ret = newBatch(num);
+        boolean notifyListeners = !listeners.isEmpty();
+        while (ret.size() < num && records.hasNext()) {
+            Collection<Writable> next = records.next();
+            List<Writable> record = (next instanceof List ? (List<Writable>) next : new ArrayList<>(next));
+            if (notifyListeners) {
+                invokeListeners(record);
+            }
+            ret.add(record);
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        count += ret.size();
+        return ret;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
     @Override
     public boolean hasNext() {
         return records.hasNext();
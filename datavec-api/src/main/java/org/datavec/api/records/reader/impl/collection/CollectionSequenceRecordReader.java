@@ -131,6 +131,10 @@ public class CollectionSequenceRecordReader extends BaseRecordReader implements
         return record;
     }
 
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
     @Override
     public List<List<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
         throw new UnsupportedOperationException(
@@ -0,0 +1,300 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A single pass, byte level CSV tokenizer (RFC 4180).<br>
+ * Records are read directly from a buffered {@link InputStream}: no regular expressions are used, and each
+ * field is copied straight from the read buffer into a {@link Text} without going via a String.<br>
+ * Supported:<br>
+ * - Single byte (ASCII) delimiters<br>
+ * - Quoted fields, including delimiters, line terminators (multi-line fields) and escaped (doubled) quotes<br>
+ * - LF, CRLF and CR line terminators<br>
+ * Quotes are only interpreted at the start of a field; a quote anywhere else in an unquoted field is kept as-is.
+ * Any content after the closing quote of a quoted field (but before the next delimiter) is appended to the field.
+ */
+public class CSVByteTokenizer implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final char DEFAULT_QUOTE = '"';
+
+    private final InputStream in;
+    private final byte delimiter;
+    private final byte quote;
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    //Start of the field currently being parsed (-1 if none): bytes from here are retained when refilling the buffer
+    private int mark = -1;
+    //Write position for the (unescaped) content of the current field; always <= pos
+    private int write;
+    private boolean eof;
+    private int lastNumFields = 10;
+
+    /**
+     * @param in        Stream to read from
+     * @param delimiter Delimiter between fields. Must be a single byte (ASCII) character
+     */
+    public CSVByteTokenizer(InputStream in, char delimiter) {
+        this(in, delimiter, DEFAULT_QUOTE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param in         Stream to read from
+     * @param delimiter  Delimiter between fields. Must be a single byte (ASCII) character
+     * @param quote      Quote character. Must be a single byte (ASCII) character
+     * @param bufferSize Initial size of the read buffer, in bytes. The buffer grows as required for records longer
+     *                   than this
+     */
+    public CSVByteTokenizer(InputStream in, char delimiter, char quote, int bufferSize) {
+        validate(delimiter, quote);
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: got " + bufferSize);
+        }
+        this.in = in;
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Tokenize a range of an existing byte array, without copying it.
+     * Note that the contents of the array may be modified while parsing quoted fields.
+     *
+     * @param bytes     UTF-8 bytes to parse
+     * @param start     Start of the range to parse
+     * @param length    Number of bytes to parse
+     * @param delimiter Delimiter between fields. Must be a single byte (ASCII) character
+     * @param quote     Quote character. Must be a single byte (ASCII) character
+     */
+    public CSVByteTokenizer(byte[] bytes, int start, int length, char delimiter, char quote) {
+        validate(delimiter, quote);
+        this.in = null;
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.buf = bytes;
+        this.pos = start;
+        this.limit = start + length;
+        this.eof = true;
+    }
+
+    private static void validate(char delimiter, char quote) {
+        if (delimiter > 127 || quote > 127) {
+            throw new IllegalArgumentException("Delimiter and quote must be single byte (ASCII) characters: got "
+                            + "delimiter=\"" + delimiter + "\", quote=\"" + quote + "\"");
+        }
+        if (delimiter == quote || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter: \"" + delimiter + "\"");
+        }
+    }
+
+    /**
+     * Convert a CSVRecordReader style delimiter (a regex) to a single delimiter character, if possible.
+     * {@link CSVRecordReader#QUOTE_HANDLING_DELIMITER} maps to ',', as quotes are always handled by this tokenizer.
+     *
+     * @param delimiter Delimiter to convert
+     * @return Delimiter character
+     * @throws IllegalArgumentException If the delimiter cannot be represented as a single ASCII character
+     */
+    public static char toDelimiterChar(String delimiter) {
+        if (CSVRecordReader.QUOTE_HANDLING_DELIMITER.equals(delimiter)) {
+            return ',';
+        }
+        if (delimiter != null) {
+            if (delimiter.length() == 1 && delimiter.charAt(0) <= 127) {
+                return delimiter.charAt(0);
+            }
+            //Regex-escaped characters such as "\\|"
+            if (delimiter.length() == 2 && delimiter.charAt(0) == '\\' && delimiter.charAt(1) <= 127
+                            && !Character.isLetterOrDigit(delimiter.charAt(1))) {
+                return delimiter.charAt(1);
+            }
+        }
+        throw new IllegalArgumentException("Byte tokenizer requires a single (ASCII) character delimiter; got \""
+                        + delimiter + "\"");
+    }
+
+    /**
+     * Whether another record is available
+     */
+    public boolean hasNext() throws IOException {
+        return pos < limit || fill();
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return The next record, one {@link Text} per field
+     * @throws NoSuchElementException If no more records are available
+     */
+    public List<Writable> next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more records");
+        }
+        List<Writable> out = new ArrayList<>(lastNumFields);
+        while (true) {
+            int terminator = readField();
+            Text t = new Text();
+            t.set(buf, mark, write - mark);
+            out.add(t);
+            mark = -1;
+            if (terminator != delimiter) {
+                if (terminator == '\r') {
+                    pos++;
+                    if ((pos < limit || fill()) && buf[pos] == '\n') {
+                        pos++;
+                    }
+                } else if (terminator == '\n') {
+                    pos++;
+                }
+                break;
+            }
+        }
+        lastNumFields = out.size();
+        return out;
+    }
+
+    /**
+     * Skip the next record, without creating any fields for it
+     *
+     * @return True if a record was skipped; false if there are no more records
+     */
+    public boolean skip() throws IOException {
+        if (!hasNext()) {
+            return false;
+        }
+        while (true) {
+            int terminator = readField();
+            mark = -1;
+            if (terminator != delimiter) {
+                if (terminator == '\r') {
+                    pos++;
+                    if ((pos < limit || fill()) && buf[pos] == '\n') {
+                        pos++;
+                    }
+                } else if (terminator == '\n') {
+                    pos++;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Parse a single field into buf[mark, write).
+     * Leaves pos after the delimiter (if the field ended at a delimiter) or at the line terminator.
+     *
+     * @return The delimiter, '\r' or '\n' that terminated the field, or -1 for end of input
+     */
+    private int readField() throws IOException {
+        mark = pos;
+        write = pos;
+        boolean inQuotes = false;
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (inQuotes) {
+                    throw new IllegalStateException("Unterminated quoted field at end of input");
+                }
+                return -1;
+            }
+            byte b = buf[pos];
+            if (inQuotes) {
+                if (b == quote) {
+                    if (pos + 1 == limit) {
+                        fill();
+                    }
+                    if (pos + 1 < limit && buf[pos + 1] == quote) {
+                        //Escaped quote
+                        buf[write++] = quote;
+                        pos += 2;
+                    } else {
+                        inQuotes = false;
+                        pos++;
+                    }
+                } else {
+                    buf[write++] = b;
+                    pos++;
+                }
+            } else if (b == delimiter) {
+                pos++;
+                return delimiter;
+            } else if (b == '\n' || b == '\r') {
+                return b;
+            } else if (b == quote && pos == mark) {
+                inQuotes = true;
+                pos++;
+            } else {
+                buf[write++] = b;
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Read more bytes into the buffer, discarding everything before the current field (or everything, if no field
+     * is being parsed). The buffer is grown if the current field fills all of it.
+     *
+     * @return False if the end of the input has been reached
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int keepFrom = (mark >= 0 ? mark : pos);
+        if (keepFrom > 0) {
+            System.arraycopy(buf, keepFrom, buf, 0, limit - keepFrom);
+            limit -= keepFrom;
+            pos -= keepFrom;
+            if (mark >= 0) {
+                write -= keepFrom;
+                mark = 0;
+            }
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, 2 * buf.length);
+        }
+        int n;
+        do {
+            n = in.read(buf, limit, buf.length - limit);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+}
@@ -93,6 +93,10 @@ public class CSVNLinesSequenceRecordReader extends CSVRecordReader implements Se
         return sequence;
     }
 
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
     @Override
     public List<List<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
         throw new UnsupportedOperationException("Reading CSV data from DataInputStream not yet implemented");
@@ -23,17 +23,25 @@ import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataLine;
 import org.datavec.api.records.reader.impl.LineRecordReader;
+import org.datavec.api.split.InputStreamInputSplit;
+import org.datavec.api.split.StringSplit;
 import org.datavec.api.writable.Text;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.writable.Writable;
 
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.io.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
- * Simple csv record reader.
+ * Simple csv record reader.<br>
+ * By default, each line is split using the (regex) delimiter. Alternatively, a byte level RFC 4180 tokenizer
+ * ({@link CSVByteTokenizer}) can be used, by setting useByteTokenizer in the constructor or {@link #BYTE_TOKENIZER}
+ * in the configuration. The byte tokenizer is considerably faster, always handles quoted fields (including quoted
+ * line breaks - so a record may span multiple lines), but requires a single character delimiter. Note that
+ * {@link #parseLine(String)} is not used when the byte tokenizer is enabled, and line numbers in the record
+ * metadata are record indices.
  *
  * @author Adam Gibson
  */
@@ -50,6 +58,9 @@ public class CSVRecordReader extends LineRecordReader {
     public final static String SKIP_NUM_LINES = NAME_SPACE + ".skipnumlines";
     public final static String DELIMITER = NAME_SPACE + ".delimiter";
     public final static String QUOTE = NAME_SPACE + ".quote";
+    public final static String BYTE_TOKENIZER = NAME_SPACE + ".bytetokenizer";
+    protected boolean useByteTokenizer = false;
+    private CSVByteTokenizer tokenizer;
 
     /**
      * Skip first n lines
@@ -75,9 +86,21 @@ public class CSVRecordReader extends LineRecordReader {
      * @param quote the quote to strip
      */
     public CSVRecordReader(int skipNumLines, String delimiter, String quote) {
+        this(skipNumLines, delimiter, quote, false);
+    }
+
+    /**
+     * Skip lines, use delimiter, strip quotes, and optionally use the byte level tokenizer
+     * @param skipNumLines the number of lines to skip
+     * @param delimiter the delimiter. Must be a single character if the byte tokenizer is used
+     * @param quote the quote to strip. If null, the byte tokenizer uses {@link CSVByteTokenizer#DEFAULT_QUOTE}
+     * @param useByteTokenizer if true: parse using {@link CSVByteTokenizer} instead of splitting each line
+     */
+    public CSVRecordReader(int skipNumLines, String delimiter, String quote, boolean useByteTokenizer) {
         this.skipNumLines = skipNumLines;
         this.delimiter = delimiter;
         this.quote = quote;
+        this.useByteTokenizer = useByteTokenizer;
     }
 
     public CSVRecordReader() {
@@ -86,26 +109,204 @@ public class CSVRecordReader extends LineRecordReader {
 
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
-        super.initialize(conf, split);
+        this.useByteTokenizer = conf.getBoolean(BYTE_TOKENIZER, this.useByteTokenizer);
         this.skipNumLines = conf.getInt(SKIP_NUM_LINES, this.skipNumLines);
         this.delimiter = conf.get(DELIMITER, DEFAULT_DELIMITER);
         this.quote = conf.get(QUOTE, null);
+        super.initialize(conf, split);
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        if (!useByteTokenizer || useParallel(split)) {
+            super.initialize(split);
+            return;
+        }
+        this.inputSplit = split;
+        this.splitIndex = 0;
+        this.lineIndex = 0;
+        this.skippedLines = false;
+        close();
+        this.tokenizer = openTokenizer(0);
+    }
+
+    /**
+     * Open a {@link CSVByteTokenizer} for the given location of the current input split
+     */
+    protected CSVByteTokenizer openTokenizer(int location) throws IOException {
+        InputStream is;
+        if (inputSplit instanceof StringSplit) {
+            is = new ByteArrayInputStream(((StringSplit) inputSplit).getData().getBytes(StandardCharsets.UTF_8));
+        } else if (inputSplit instanceof InputStreamInputSplit) {
+            is = ((InputStreamInputSplit) inputSplit).getIs();
+        } else {
+            this.locations = inputSplit.locations();
+            if (locations == null || locations.length == 0) {
+                return null;
+            }
+            is = locations[location].toURL().openStream();
+        }
+        if (is == null) {
+            throw new UnsupportedOperationException("Unknown input split: " + inputSplit);
+        }
+        return openTokenizer(is);
+    }
+
+    protected CSVByteTokenizer openTokenizer(InputStream is) {
+        return new CSVByteTokenizer(is, CSVByteTokenizer.toDelimiterChar(delimiter), quoteChar(),
+                        CSVByteTokenizer.DEFAULT_BUFFER_SIZE);
+    }
+
+    private char quoteChar() {
+        return (quote == null || quote.isEmpty() ? CSVByteTokenizer.DEFAULT_QUOTE : quote.charAt(0));
+    }
+
+    @Override
+    protected int numLinesToSkip() {
+        return skipNumLines;
+    }
+
+    @Override
+    protected int recordQuote() {
+        //The byte tokenizer allows line terminators in quoted fields
+        char quoteChar = quoteChar();
+        return (useByteTokenizer && quoteChar < 128 ? quoteChar : -1);
+    }
+
+    @Override
+    protected List<Writable> parseLine(byte[] bytes, int start, int length) {
+        if (useByteTokenizer) {
+            if (length == 0) {
+                List<Writable> ret = new ArrayList<>(1);
+                ret.add(new Text(""));
+                return ret;
+            }
+            try {
+                return new CSVByteTokenizer(bytes, start, length, CSVByteTokenizer.toDelimiterChar(delimiter),
+                                quoteChar()).next();
+            } catch (IOException e) {
+                //Should never happen: no I/O when parsing from a byte array
+                throw new RuntimeException(e);
+            }
+        }
+        return parseLine(new String(bytes, start, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!useByteTokenizer || parallelIter != null) {
+            return super.hasNext();
+        }
+        try {
+            while (true) {
+                if (tokenizer != null) {
+                    while (!skippedLines && lineIndex < skipNumLines && tokenizer.skip()) {
+                        lineIndex++;
+                    }
+                    skippedLines = true;
+                    if (tokenizer.hasNext()) {
+                        return true;
+                    }
+                }
+                if (locations == null || inputSplit instanceof StringSplit || splitIndex >= locations.length - 1) {
+                    return false;
+                }
+                splitIndex++;
+                lineIndex = 0; //New split opened -> reset line index
+                close();
+                tokenizer = openTokenizer(splitIndex);
+                onLocationOpen(locations[splitIndex]);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV data", e);
+        }
     }
 
     @Override
     public List<Writable> next() {
+        if (parallelIter != null) {
+            //Lines are skipped and parsed by the worker threads
+            return super.next();
+        }
+        if (useByteTokenizer) {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements found!");
+            }
+            List<Writable> ret;
+            try {
+                ret = tokenizer.next();
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading CSV data", e);
+            }
+            invokeListeners(ret);
+            lineIndex++;
+            return ret;
+        }
+        if (!skipLines()) {
+            return new ArrayList<>();
+        }
+        Text t = (Text) super.next().iterator().next();
+        String val = t.toString();
+        return parseLine(val);
+    }
+
+    /**
+     * Skip the header lines, if this hasn't already been done (String parsing mode only)
+     *
+     * @return False if the data ended before all lines could be skipped
+     */
+    private boolean skipLines() {
         if (!skippedLines && skipNumLines > 0) {
             for (int i = 0; i < skipNumLines; i++) {
                 if (!hasNext()) {
-                    return new ArrayList<>();
+                    return false;
                 }
                 super.next();
             }
             skippedLines = true;
         }
-        Text t = (Text) super.next().iterator().next();
-        String val = t.toString();
-        return parseLine(val);
+        return true;
+    }
+
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!batchesSupported()) {
+            return super.next(num);
+        }
+        if (parallelIter != null) {
+            return nextParallel(num);
+        }
+        List<List<Writable>> ret = newBatch(num);
+        boolean notifyListeners = !listeners.isEmpty();
+        if (useByteTokenizer) {
+            try {
+                while (ret.size() < num && hasNext()) {
+                    List<Writable> record = tokenizer.next();
+                    if (notifyListeners) {
+                        invokeListeners(record);
+                    }
+                    ret.add(record);
+                    lineIndex++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading CSV data", e);
+            }
+        } else if (skipLines()) {
+            while (ret.size() < num && hasNext()) {
+                Text line = nextLine(notifyListeners);
+                lineIndex++;
+                ret.add(parseLine(line.toString()));
+            }
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return ret;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
     }
 
     protected List<Writable> parseLine(String line) {
@@ -123,9 +324,13 @@ public class CSVRecordReader extends LineRecordReader {
 
     @Override
     public Record nextRecord() {
+        if (parallelIter != null) {
+            return super.nextRecord();
+        }
         List<Writable> next = next();
         URI uri = (locations == null || locations.length < 1 ? null : locations[splitIndex]);
-        RecordMetaData meta = new RecordMetaDataLine(this.lineIndex - 1, uri, CSVRecordReader.class); //-1 as line number has been incremented already...
+        RecordMetaData meta = new RecordMetaDataLine(this.lineIndex - 1, uri, CSVRecordReader.class,
+                        currentLineOffset()); //-1 as line number has been incremented already...
         return new org.datavec.api.records.impl.Record(next, meta);
     }
 
@@ -136,16 +341,89 @@ public class CSVRecordReader extends LineRecordReader {
 
     @Override
     public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        if (useByteTokenizer && !allHaveByteOffsets(recordMetaDatas)) {
+            return loadFromMetaDataByteTokenizer(recordMetaDatas);
+        }
         List<Record> list = super.loadFromMetaData(recordMetaDatas);
 
         for (Record r : list) {
-            String line = r.getRecord().get(0).toString();
-            r.setRecord(parseLine(line));
+            Text line = (Text) r.getRecord().get(0);
+            r.setRecord(parseLine(line.getBytes(), 0, line.getLength()));
         }
 
         return list;
     }
 
+    private static boolean allHaveByteOffsets(List<RecordMetaData> recordMetaDatas) {
+        for (RecordMetaData rmd : recordMetaDatas) {
+            if (!(rmd instanceof RecordMetaDataLine) || ((RecordMetaDataLine) rmd).getByteOffset() < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Record> loadFromMetaDataByteTokenizer(List<RecordMetaData> recordMetaDatas) throws IOException {
+        //Group the requested record indices by URI (null URI: String split etc), then read each source once
+        Map<URI, List<Integer>> byUri = new LinkedHashMap<>();
+        for (int i = 0; i < recordMetaDatas.size(); i++) {
+            RecordMetaData rmd = recordMetaDatas.get(i);
+            if (!(rmd instanceof RecordMetaDataLine)) {
+                throw new IllegalArgumentException(
+                                "Invalid metadata; expected RecordMetaDataLine instance; got: " + rmd);
+            }
+            List<Integer> l = byUri.get(rmd.getURI());
+            if (l == null) {
+                l = new ArrayList<>();
+                byUri.put(rmd.getURI(), l);
+            }
+            l.add(i);
+        }
+
+        Record[] out = new Record[recordMetaDatas.size()];
+        for (Map.Entry<URI, List<Integer>> e : byUri.entrySet()) {
+            List<Integer> idxs = e.getValue();
+            final int[] lineNums = new int[recordMetaDatas.size()];
+            for (int i : idxs) {
+                lineNums[i] = ((RecordMetaDataLine) recordMetaDatas.get(i)).getLineNumber();
+            }
+            Collections.sort(idxs, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return Integer.compare(lineNums[o1], lineNums[o2]);
+                }
+            });
+
+            URI uri = e.getKey();
+            CSVByteTokenizer t = (uri == null ? openTokenizer(0) : openTokenizer(uri.toURL().openStream()));
+            try {
+                int currentIdx = 0; //Index of the next record to be read
+                int currentLineNum = -1;
+                List<Writable> current = null;
+                for (int i : idxs) {
+                    int lineNum = lineNums[i];
+                    if (lineNum != currentLineNum) {
+                        while (currentIdx < lineNum && t.skip()) {
+                            currentIdx++;
+                        }
+                        if (currentIdx < lineNum || !t.hasNext()) {
+                            throw new IllegalStateException("Could not get record " + lineNum
+                                            + (uri == null ? "" : " from URI " + uri) + ": has only " + currentIdx
+                                            + " records");
+                        }
+                        current = t.next();
+                        currentLineNum = currentIdx++;
+                    }
+                    out[i] = new org.datavec.api.records.impl.Record(new ArrayList<>(current),
+                                    recordMetaDatas.get(i));
+                }
+            } finally {
+                t.close();
+            }
+        }
+        return Arrays.asList(out);
+    }
+
     @Override
     public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
         //Here: we are reading a single line from the DataInputStream. How to handle skipLines???
@@ -158,6 +436,15 @@ public class CSVRecordReader extends LineRecordReader {
         skippedLines = false;
     }
 
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (tokenizer != null) {
+            tokenizer.close();
+            tokenizer = null;
+        }
+    }
+
     @Override
     protected void onLocationOpen(URI location) {
         skippedLines = false;
@@ -69,6 +69,10 @@ public class CSVSequenceRecordReader extends FileRecordReader implements Sequenc
         return nextSequence().getSequenceRecord();
     }
 
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
 
     @Override
     public SequenceRecord nextSequence() {
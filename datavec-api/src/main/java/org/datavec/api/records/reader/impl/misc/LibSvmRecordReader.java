@@ -56,6 +56,12 @@ public class LibSvmRecordReader extends LineRecordReader {
         numFeatures = conf.getInt(NUM_FEATURES, 0);
     }
 
+    @Override
+    public boolean batchesSupported() {
+        //Records are parsed by next(): read batches via next()
+        return false;
+    }
+
     @Override
     public List<Writable> next() {
         Text record2 = (Text) super.next().iterator().next();
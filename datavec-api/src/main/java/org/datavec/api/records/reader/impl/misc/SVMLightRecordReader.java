@@ -49,6 +49,12 @@ public class SVMLightRecordReader extends LineRecordReader {
 
     public SVMLightRecordReader() {}
 
+    @Override
+    public boolean batchesSupported() {
+        //Records are parsed by next(): read batches via next()
+        return false;
+    }
+
     @Override
     public List<Writable> next() {
         Text t = (Text) super.next().iterator().next();
@@ -66,6 +66,12 @@ public class RegexLineRecordReader extends LineRecordReader {
         this.skipNumLines = conf.getInt(SKIP_NUM_LINES, this.skipNumLines);
     }
 
+    @Override
+    public boolean batchesSupported() {
+        //Records are parsed by next(): read batches via next()
+        return false;
+    }
+
     @Override
     public List<Writable> next() {
         if (numLinesSkipped < skipNumLines) {
@@ -115,7 +121,8 @@ public class RegexLineRecordReader extends LineRecordReader {
     public Record nextRecord() {
         List<Writable> next = next();
         URI uri = (locations == null || locations.length < 1 ? null : locations[splitIndex]);
-        RecordMetaData meta = new RecordMetaDataLine(this.lineIndex - 1, uri, RegexLineRecordReader.class); //-1 as line number has been incremented already...
+        RecordMetaData meta = new RecordMetaDataLine(this.lineIndex - 1, uri, RegexLineRecordReader.class,
+                        currentLineOffset()); //-1 as line number has been incremented already...
         return new org.datavec.api.records.impl.Record(next, meta);
     }
 
@@ -101,6 +101,10 @@ public class RegexSequenceRecordReader extends FileRecordReader implements Seque
         return nextSequence().getSequenceRecord();
     }
 
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
     @Override
     public List<List<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
         String fileContents = org.apache.commons.io.IOUtils.toString(dataInputStream, charset.name());
@@ -22,6 +22,7 @@ import org.datavec.api.transform.reduce.Reducer;
 /**ReduceOp defines the type of column reductions that can be used when reducing
  * a set of values to a single value.<br>
  *
+ * Prod: Reduce by multiplying all values<br>
  * Min: take the minimum value<br>
  * Max: take the maximum value<br>
  * Range: output the value max-min<br>
@@ -17,9 +17,18 @@
 package org.datavec.api.transform;
 
 import com.google.common.collect.Sets;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ClassUtils;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.ColumnarCondition;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.plan.ExecutionPlan;
 import org.datavec.api.transform.transform.string.AppendStringColumnTransform;
 import org.datavec.api.transform.transform.string.ConvertToString;
 import org.datavec.api.util.reflections.DataVecSubTypesScanner;
@@ -92,11 +101,15 @@ import java.util.concurrent.TimeUnit;
  * @author Alex Black
  */
 @Data
+@ToString(exclude = "executionPlan")
 @Slf4j
 public class TransformProcess implements Serializable {
 
     private final Schema initialSchema;
     private List<DataAction> actionList;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient ExecutionPlan executionPlan;
 
     private static Set<Class<?>> subtypesClassCache = null;
     private static ObjectMapper jsonMapper = initMapperJson();
@@ -216,15 +229,49 @@ public class TransformProcess implements Serializable {
     }
 
 
+    public void setActionList(List<DataAction> actionList) {
+        this.actionList = actionList;
+        this.executionPlan = null;
+    }
+
+    /**
+     * Get the optimized plan used by {@link #execute(List)}. The plan is created on first use.
+     *
+     * @return Execution plan for this TransformProcess. If this TransformProcess contains operations that cannot be
+     * executed on individual examples (such as ConvertToSequence), the plan stops at the first of these
+     */
+    public ExecutionPlan getExecutionPlan() {
+        ExecutionPlan plan = executionPlan;
+        if (plan == null) {
+            plan = new ExecutionPlan(this);
+            executionPlan = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * @return A description of the optimized plan used by {@link #execute(List)}
+     * @see ExecutionPlan#explain()
+     */
+    public String explain() {
+        return getExecutionPlan().explain();
+    }
+
     /**
      * Execute the full sequence of transformations for a single example. May return null if example is filtered
      * <b>NOTE:</b> Some TransformProcess operations cannot be done on examples individually. Most notably, ConvertToSequence
-     * and ConvertFromSequence operations require the full data set to be processed at once
+     * and ConvertFromSequence operations require the full data set to be processed at once<br>
+     * Examples are executed using the optimized {@link #getExecutionPlan()}; examples with the wrong number of columns
+     * are executed one action at a time (so filters such as InvalidNumColumns can remove them).
      *
      * @param input
      * @return
      */
     public List<Writable> execute(List<Writable> input) {
+        if (input.size() == initialSchema.numColumns()) {
+            return getExecutionPlan().execute(input);
+        }
+
         List<Writable> currValues = input;
 
         for (DataAction d : actionList) {
@@ -253,6 +300,92 @@ public class TransformProcess implements Serializable {
         return currValues;
     }
 
+    /**
+     * Execute the full sequence of transformations for a batch of examples, column by column: see
+     * {@link #executeBatch(ColumnarBatch)}. Filtered examples are removed from the output.
+     *
+     * @param input Examples to transform
+     * @return Transformed examples (copied out of the columnar representation)
+     */
+    public List<List<Writable>> executeBatch(List<List<Writable>> input) {
+        return executeBatch(ColumnarBatch.fromRecords(initialSchema, input)).toRecords();
+    }
+
+    /**
+     * Execute the full sequence of transformations for a batch of examples. Each step is applied to the whole batch
+     * at once:
+     * <ul>
+     *     <li>Transforms implementing {@link ColumnarTransform} operate directly on the column vectors of the batch.
+     *     Other transforms are executed example by example, as per {@link #execute(List)}</li>
+     *     <li>Filters produce a selection vector (the indices of the examples to keep), evaluated via
+     *     {@link ColumnarCondition} for {@link ConditionFilter}s where possible. The batch is only compacted if any
+     *     examples were actually removed</li>
+     * </ul>
+     * As per {@link #execute(List)}, only transforms and filters are supported.<br>
+     * <b>NOTE:</b> Unlike {@link #execute(List)}, columnar transforms pass missing values (NullWritable) through as
+     * missing values instead of throwing an exception
+     *
+     * @param batch Examples to transform, with the initial schema of this TransformProcess
+     * @return Transformed examples, with the final schema of this TransformProcess
+     */
+    public ColumnarBatch executeBatch(ColumnarBatch batch) {
+        if (batch.numColumns() != initialSchema.numColumns()) {
+            throw new IllegalArgumentException("Invalid input: batch has " + batch.numColumns()
+                            + " columns; initial schema has " + initialSchema.numColumns() + " columns");
+        }
+
+        for (DataAction d : actionList) {
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                if (t instanceof ColumnarTransform) {
+                    batch = ((ColumnarTransform) t).mapBatch(batch);
+                } else {
+                    Schema outputSchema = t.transform(batch.getSchema());
+                    ColumnarBatch out = new ColumnarBatch(outputSchema, Math.max(1, batch.numRows()));
+                    for (List<Writable> record : batch.asRecords()) {
+                        out.addRecord(t.map(record));
+                    }
+                    batch = out;
+                }
+            } else if (d.getFilter() != null) {
+                Filter f = d.getFilter();
+                int n = batch.numRows();
+                int[] keep = new int[n];
+                int numKept = 0;
+                Condition c = (f instanceof ConditionFilter ? ((ConditionFilter) f).getCondition() : null);
+                if (c instanceof ColumnarCondition) {
+                    boolean[] remove = ((ColumnarCondition) c).conditionBatch(batch);
+                    for (int i = 0; i < n; i++) {
+                        if (!remove[i])
+                            keep[numKept++] = i;
+                    }
+                } else {
+                    List<List<Writable>> records = batch.asRecords();
+                    for (int i = 0; i < n; i++) {
+                        if (!f.removeExample(records.get(i)))
+                            keep[numKept++] = i;
+                    }
+                }
+                if (numKept < n) {
+                    batch = ColumnarOps.selectRows(batch, keep, numKept);
+                }
+            } else if (d.getConvertToSequence() != null) {
+                throw new RuntimeException(
+                                "Cannot execute examples as a batch: TransformProcess contains a ConvertToSequence operation");
+            } else if (d.getConvertFromSequence() != null) {
+                throw new RuntimeException(
+                                "Unexpected operation: TransformProcess contains a ConvertFromSequence operation");
+            } else if (d.getSequenceSplit() != null) {
+                throw new RuntimeException(
+                                "Cannot execute examples as a batch: TransformProcess contains a SequenceSplit operation");
+            } else {
+                throw new RuntimeException("Unknown action: " + d);
+            }
+        }
+
+        return batch;
+    }
+
     /**
      *
      * @param input
@@ -0,0 +1,150 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.transform.analysis.sketch.*;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass analysis of a data set, using mergeable sketches (see {@link ColumnSketch}).<br>
+ * Unlike exact analysis, histograms do not require a second pass over the data (they are derived from quantile
+ * sketches), and memory use is bounded regardless of the size of the data set. Instances for different splits of the
+ * data can be combined with {@link #merge(StreamingDataAnalysis)}, which makes this suitable both for a simple loop
+ * over a {@link RecordReader} (see {@link #analyze(Schema, RecordReader)}) and for distributed aggregation.<br>
+ * Numerical statistics (mean, variance, min/max and counts) are exact; histograms, quantiles, distinct counts and (for
+ * columns with very many distinct values) category counts are approximate.
+ */
+public class StreamingDataAnalysis implements Serializable {
+
+    public static final int DEFAULT_HISTOGRAM_BUCKETS = 30;
+
+    private final Schema schema;
+    private final List<ColumnSketch> sketches;
+
+    public StreamingDataAnalysis(Schema schema) {
+        this.schema = schema;
+        this.sketches = new ArrayList<>(schema.numColumns());
+        for (ColumnType ct : schema.getColumnTypes()) {
+            switch (ct) {
+                case Integer:
+                case Long:
+                case Double:
+                case Float:
+                case Time:
+                    sketches.add(new NumericalColumnSketch(ct));
+                    break;
+                case String:
+                    sketches.add(new StringColumnSketch());
+                    break;
+                case Categorical:
+                case Boolean:
+                    sketches.add(new CategoricalColumnSketch());
+                    break;
+                case Bytes:
+                    sketches.add(new BytesColumnSketch());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown column type: " + ct);
+            }
+        }
+    }
+
+    /**
+     * Add a single record (example) to the analysis
+     */
+    public StreamingDataAnalysis add(List<Writable> record) {
+        int size = sketches.size();
+        if (size != record.size()) {
+            throw new IllegalStateException("Record size and number of columns does not match (" + record.size()
+                            + " vs " + size + ")");
+        }
+        for (int i = 0; i < size; i++) {
+            sketches.get(i).add(record.get(i));
+        }
+        return this;
+    }
+
+    /**
+     * Merge the other analysis (for the same schema) into this one
+     */
+    public StreamingDataAnalysis merge(StreamingDataAnalysis other) {
+        if (other == null) {
+            return this;
+        }
+        if (!schema.sameTypes(other.schema)) {
+            throw new IllegalArgumentException("Cannot merge analysis for different schemas");
+        }
+        for (int i = 0; i < sketches.size(); i++) {
+            sketches.get(i).merge(other.sketches.get(i));
+        }
+        return this;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public ColumnSketch getColumnSketch(int column) {
+        return sketches.get(column);
+    }
+
+    public ColumnSketch getColumnSketch(String column) {
+        return sketches.get(schema.getIndexOfColumn(column));
+    }
+
+    public DataAnalysis toDataAnalysis() {
+        return toDataAnalysis(DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * @param maxHistogramBuckets Number of histogram buckets for numerical and String columns
+     */
+    public DataAnalysis toDataAnalysis(int maxHistogramBuckets) {
+        List<ColumnAnalysis> list = new ArrayList<>(sketches.size());
+        for (ColumnSketch sketch : sketches) {
+            list.add(sketch.toAnalysis(maxHistogramBuckets));
+        }
+        return new DataAnalysis(schema, list);
+    }
+
+    public static DataAnalysis analyze(Schema schema, RecordReader recordReader) {
+        return analyze(schema, recordReader, DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyse all remaining records from the RecordReader, in a single pass
+     *
+     * @param schema              Schema of the data
+     * @param recordReader        Source of the data
+     * @param maxHistogramBuckets Number of histogram buckets for numerical and String columns
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader recordReader, int maxHistogramBuckets) {
+        StreamingDataAnalysis analysis = new StreamingDataAnalysis(schema);
+        while (recordReader.hasNext()) {
+            analysis.add(recordReader.next());
+        }
+        return analysis.toDataAnalysis(maxHistogramBuckets);
+    }
+}
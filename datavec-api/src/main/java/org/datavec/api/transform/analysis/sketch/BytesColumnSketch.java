@@ -0,0 +1,55 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.transform.analysis.columns.BytesAnalysis;
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Column sketch for Bytes columns: counts values only
+ */
+public class BytesColumnSketch implements ColumnSketch<BytesColumnSketch> {
+
+    private long countTotal;
+
+    @Override
+    public BytesColumnSketch add(Writable writable) {
+        if (!(writable instanceof NullWritable)) {
+            countTotal++;
+        }
+        return this;
+    }
+
+    @Override
+    public BytesColumnSketch merge(BytesColumnSketch other) {
+        if (other != null) {
+            countTotal += other.countTotal;
+        }
+        return this;
+    }
+
+    public long getCountTotal() {
+        return countTotal;
+    }
+
+    @Override
+    public ColumnAnalysis toAnalysis(int histogramBuckets) {
+        return new BytesAnalysis.Builder().countTotal(countTotal).build();
+    }
+}
@@ -0,0 +1,67 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.transform.analysis.columns.CategoricalAnalysis;
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Column sketch for Categorical (and Boolean) columns, using a {@link FrequencySketch}. Category counts are exact
+ * unless the column has a very large number of distinct values.
+ */
+public class CategoricalColumnSketch implements ColumnSketch<CategoricalColumnSketch> {
+
+    private final FrequencySketch frequencies;
+
+    public CategoricalColumnSketch() {
+        this(FrequencySketch.DEFAULT_MAX_ITEMS);
+    }
+
+    /**
+     * @param maxCategories Maximum number of (most frequent) categories to track
+     */
+    public CategoricalColumnSketch(int maxCategories) {
+        this.frequencies = new FrequencySketch(maxCategories);
+    }
+
+    @Override
+    public CategoricalColumnSketch add(Writable writable) {
+        if (!(writable instanceof NullWritable)) {
+            frequencies.add(writable.toString());
+        }
+        return this;
+    }
+
+    @Override
+    public CategoricalColumnSketch merge(CategoricalColumnSketch other) {
+        if (other != null) {
+            frequencies.merge(other.frequencies);
+        }
+        return this;
+    }
+
+    public FrequencySketch getFrequencySketch() {
+        return frequencies;
+    }
+
+    @Override
+    public ColumnAnalysis toAnalysis(int histogramBuckets) {
+        return new CategoricalAnalysis(frequencies.getTopItems());
+    }
+}
@@ -0,0 +1,43 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+
+/**
+ * A mergeable, bounded memory summary of the values in a single column. Sketches can be built independently on
+ * different splits of a data set and merged, so that analysis needs only a single pass over the data.<br>
+ * Missing values ({@link org.datavec.api.writable.NullWritable}) are ignored.
+ */
+public interface ColumnSketch<T extends ColumnSketch> extends Serializable {
+
+    T add(Writable writable);
+
+    T merge(T other);
+
+    /**
+     * Convert the sketch to a column analysis. Histograms are derived from the sketch, with equal width buckets
+     * between the minimum and maximum values
+     *
+     * @param histogramBuckets Number of histogram buckets
+     */
+    ColumnAnalysis toAnalysis(int histogramBuckets);
+
+}
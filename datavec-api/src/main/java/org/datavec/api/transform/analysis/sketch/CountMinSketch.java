@@ -0,0 +1,116 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import java.io.Serializable;
+
+/**
+ * A count-min sketch (Cormode and Muthukrishnan), for estimating the frequency of values.<br>
+ * Estimates are never lower than the true count, and exceed it by at most e * total / width with probability
+ * 1 - exp(-depth). Row hashes are derived from a single 64-bit hash (Kirsch and Mitzenmacher), so each value is hashed
+ * only once.
+ */
+public class CountMinSketch implements Serializable {
+
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_WIDTH = 2048;
+
+    private final int depth;
+    private final int width;
+    private final long[] table;
+    private long total;
+
+    public CountMinSketch() {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+
+    /**
+     * @param depth Number of hash functions (rows)
+     * @param width Number of counters per row
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Invalid depth/width: must be > 0, got " + depth + ", " + width);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.table = new long[depth * width];
+    }
+
+    public void add(String value) {
+        addHash(SketchHash.hash(value), 1);
+    }
+
+    public long estimate(String value) {
+        return estimateHash(SketchHash.hash(value));
+    }
+
+    /**
+     * Add a count for a value, given its (well mixed) 64-bit hash
+     */
+    public void addHash(long hash, long count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < depth; i++) {
+            table[i * width + index(h1, h2, i)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Estimate the count for a value, given its (well mixed) 64-bit hash
+     */
+    public long estimateHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, table[i * width + index(h1, h2, i)]);
+        }
+        return min;
+    }
+
+    /**
+     * Merge the other sketch into this one. Both sketches must have the same depth and width
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other == null) {
+            return this;
+        }
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge sketches with different dimensions: (" + depth + ","
+                            + width + ") vs. (" + other.depth + "," + other.width + ")");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return Sum of all counts added to the sketch
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    private int index(int h1, int h2, int row) {
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
@@ -0,0 +1,151 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Heavy hitters sketch: tracks the most frequent values of a String or Categorical column, in bounded memory.<br>
+ * Counts are exact for as long as the number of distinct values seen is at most 2 * maxItems (which covers most
+ * categorical columns). Beyond that, the candidate set is pruned to the maxItems most frequent values, and values that
+ * (re-)enter the candidate set start from their {@link CountMinSketch} estimate - so counts become upper bounds.
+ */
+public class FrequencySketch implements Serializable {
+
+    public static final int DEFAULT_MAX_ITEMS = 1000;
+
+    private final int maxItems;
+    private final CountMinSketch countMin;
+    private final Map<String, Long> candidates;
+    private boolean exact = true;
+
+    public FrequencySketch() {
+        this(DEFAULT_MAX_ITEMS);
+    }
+
+    /**
+     * @param maxItems Maximum number of values to return from {@link #getTopItems()}
+     */
+    public FrequencySketch(int maxItems) {
+        if (maxItems <= 0) {
+            throw new IllegalArgumentException("Invalid maxItems: must be > 0, got " + maxItems);
+        }
+        this.maxItems = maxItems;
+        this.countMin = new CountMinSketch();
+        this.candidates = new HashMap<>();
+    }
+
+    public void add(String value) {
+        long hash = SketchHash.hash(value);
+        countMin.addHash(hash, 1);
+        Long current = candidates.get(value);
+        if (current != null) {
+            candidates.put(value, current + 1);
+        } else {
+            candidates.put(value, exact ? 1L : countMin.estimateHash(hash));
+            if (candidates.size() > 2 * maxItems) {
+                prune();
+            }
+        }
+    }
+
+    /**
+     * Merge the other sketch into this one. The other sketch is not modified.
+     */
+    public FrequencySketch merge(FrequencySketch other) {
+        if (other == null) {
+            return this;
+        }
+        //Values tracked by only one side may have been seen (and pruned) by the other, unless it is still exact
+        for (Map.Entry<String, Long> e : candidates.entrySet()) {
+            if (!other.candidates.containsKey(e.getKey()) && !other.exact) {
+                e.setValue(e.getValue() + other.countMin.estimate(e.getKey()));
+            }
+        }
+        for (Map.Entry<String, Long> e : other.candidates.entrySet()) {
+            Long current = candidates.get(e.getKey());
+            if (current != null) {
+                candidates.put(e.getKey(), current + e.getValue());
+            } else {
+                candidates.put(e.getKey(), e.getValue() + (exact ? 0L : countMin.estimate(e.getKey())));
+            }
+        }
+        countMin.merge(other.countMin);
+        exact &= other.exact;
+        if (candidates.size() > 2 * maxItems) {
+            prune();
+        }
+        return this;
+    }
+
+    /**
+     * Estimate the number of times the specified value has been seen
+     */
+    public long estimate(String value) {
+        Long count = candidates.get(value);
+        if (count != null) {
+            return count;
+        }
+        return (exact ? 0L : countMin.estimate(value));
+    }
+
+    /**
+     * @return The (up to) maxItems most frequent values, and their counts, ordered from most to least frequent
+     */
+    public Map<String, Long> getTopItems() {
+        List<Map.Entry<String, Long>> sorted = sortedCandidates();
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (int i = 0; i < sorted.size() && i < maxItems; i++) {
+            out.put(sorted.get(i).getKey(), sorted.get(i).getValue());
+        }
+        return out;
+    }
+
+    /**
+     * @return True if the counts returned by this sketch are exact (i.e., the candidate set has never been pruned)
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * @return Total number of values added to the sketch
+     */
+    public long getTotal() {
+        return countMin.getTotal();
+    }
+
+    private void prune() {
+        List<Map.Entry<String, Long>> sorted = sortedCandidates();
+        for (int i = maxItems; i < sorted.size(); i++) {
+            candidates.remove(sorted.get(i).getKey());
+        }
+        exact = false;
+    }
+
+    private List<Map.Entry<String, Long>> sortedCandidates() {
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(candidates.entrySet());
+        Collections.sort(sorted, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return -Long.compare(o1.getValue(), o2.getValue()); //Highest to lowest
+            }
+        });
+        return sorted;
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import java.io.Serializable;
+
+/**
+ * A HyperLogLog sketch (Flajolet et al.), for estimating the number of distinct values.<br>
+ * Uses 2^precision one byte registers; the relative standard error is approximately 1.04 / sqrt(2^precision), which
+ * is about 0.8% for the default precision of 14 (16 KB). Linear counting is used for small cardinalities. As 64-bit
+ * hashes are used, no large range correction is required.
+ */
+public class HyperLogLogSketch implements Serializable {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLogSketch() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision Number of bits of the hash used to select a register: 4 to 18 inclusive
+     */
+    public HyperLogLogSketch(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Invalid precision: must be in range 4 to 18, got " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(long value) {
+        addHash(SketchHash.hash(value));
+    }
+
+    public void add(double value) {
+        addHash(SketchHash.hash(value));
+    }
+
+    public void add(String value) {
+        addHash(SketchHash.hash(value));
+    }
+
+    /**
+     * Add a value, given its (well mixed) 64-bit hash
+     */
+    public void addHash(long hash) {
+        int idx = (int) (hash >>> (64 - precision));
+        //Position of the first 1 bit in the remaining bits; the sentinel bit caps the value at 64 - precision + 1
+        long w = (hash << precision) | (1L << (precision - 1));
+        byte rho = (byte) (Long.numberOfLeadingZeros(w) + 1);
+        if (rho > registers[idx]) {
+            registers[idx] = rho;
+        }
+    }
+
+    /**
+     * Merge the other sketch into this one. Both sketches must have the same precision
+     */
+    public HyperLogLogSketch merge(HyperLogLogSketch other) {
+        if (other == null) {
+            return this;
+        }
+        if (other.precision != precision) {
+            throw new IllegalArgumentException(
+                            "Cannot merge sketches with different precision: " + precision + " vs. " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Estimated number of distinct values added to the sketch
+     */
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * (double) m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            //Linear counting
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1.0 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Streaming summary statistics for double values: count, mean and variance (Welford's algorithm, merged with the
+ * parallel formula of Chan et al.), min/max (and their counts), and zero/positive/negative counts.
+ */
+@Getter
+public class MomentSketch implements Serializable {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long countMinValue;
+    private long countMaxValue;
+    private long countZero;
+    private long countPositive;
+    private long countNegative;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        if (value == 0.0) {
+            countZero++;
+        } else if (value > 0.0) {
+            countPositive++;
+        } else {
+            countNegative++;
+        }
+
+        if (value < min) {
+            min = value;
+            countMinValue = 1;
+        } else if (value == min) {
+            countMinValue++;
+        }
+        if (value > max) {
+            max = value;
+            countMaxValue = 1;
+        } else if (value == max) {
+            countMaxValue++;
+        }
+    }
+
+    public MomentSketch merge(MomentSketch other) {
+        if (other == null || other.count == 0) {
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * count * (double) other.count / n;
+        count = n;
+
+        countZero += other.countZero;
+        countPositive += other.countPositive;
+        countNegative += other.countNegative;
+
+        if (other.min < min) {
+            min = other.min;
+            countMinValue = other.countMinValue;
+        } else if (other.min == min) {
+            countMinValue += other.countMinValue;
+        }
+        if (other.max > max) {
+            max = other.max;
+            countMaxValue = other.countMaxValue;
+        } else if (other.max == max) {
+            countMaxValue += other.countMaxValue;
+        }
+        return this;
+    }
+
+    /**
+     * @return Sample variance, or NaN if fewer than 2 values have been added
+     */
+    public double getSampleVariance() {
+        return (count > 1 ? m2 / (count - 1) : Double.NaN);
+    }
+
+    /**
+     * @return Sample standard deviation, or NaN if fewer than 2 values have been added
+     */
+    public double getSampleStdev() {
+        return Math.sqrt(getSampleVariance());
+    }
+}
@@ -0,0 +1,170 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.columns.*;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Column sketch for Integer, Long, Double, Float and Time columns: streaming moments, a {@link QuantileSketch} (used
+ * for quantiles and histograms) and a {@link HyperLogLogSketch} (for the number of distinct values).<br>
+ * NaN values are counted, but are otherwise excluded from the statistics.
+ */
+public class NumericalColumnSketch implements ColumnSketch<NumericalColumnSketch> {
+
+    private final ColumnType columnType;
+    private final boolean integral;
+    private final MomentSketch moments;
+    private final QuantileSketch quantiles;
+    private final HyperLogLogSketch distinct;
+    private long countNaN;
+
+    public NumericalColumnSketch(ColumnType columnType) {
+        switch (columnType) {
+            case Integer:
+            case Long:
+            case Time:
+                integral = true;
+                break;
+            case Double:
+            case Float:
+                integral = false;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid column type for NumericalColumnSketch: " + columnType);
+        }
+        this.columnType = columnType;
+        this.moments = new MomentSketch();
+        this.quantiles = new QuantileSketch();
+        this.distinct = new HyperLogLogSketch();
+    }
+
+    @Override
+    public NumericalColumnSketch add(Writable writable) {
+        if (writable instanceof NullWritable) {
+            return this;
+        }
+        if (integral) {
+            long l = writable.toLong();
+            distinct.add(l);
+            addValue(l);
+        } else {
+            double d = writable.toDouble();
+            if (Double.isNaN(d)) {
+                countNaN++;
+                return this;
+            }
+            distinct.add(d);
+            addValue(d);
+        }
+        return this;
+    }
+
+    private void addValue(double value) {
+        moments.add(value);
+        quantiles.add(value);
+    }
+
+    @Override
+    public NumericalColumnSketch merge(NumericalColumnSketch other) {
+        if (other == null) {
+            return this;
+        }
+        if (other.columnType != columnType) {
+            throw new IllegalArgumentException("Cannot merge sketches for different column types: " + columnType
+                            + " vs. " + other.columnType);
+        }
+        moments.merge(other.moments);
+        quantiles.merge(other.quantiles);
+        distinct.merge(other.distinct);
+        countNaN += other.countNaN;
+        return this;
+    }
+
+    /**
+     * @return Estimated value at the given quantile (for example, 0.5 for the median)
+     */
+    public double getQuantile(double fraction) {
+        return quantiles.quantile(fraction);
+    }
+
+    /**
+     * @return Estimated number of distinct (non-NaN) values
+     */
+    public long getDistinctCount() {
+        return distinct.cardinality();
+    }
+
+    public MomentSketch getMoments() {
+        return moments;
+    }
+
+    public QuantileSketch getQuantileSketch() {
+        return quantiles;
+    }
+
+    public long getCountNaN() {
+        return countNaN;
+    }
+
+    @Override
+    public ColumnAnalysis toAnalysis(int histogramBuckets) {
+        double min = (moments.getCount() == 0 ? 0.0 : moments.getMin());
+        double max = (moments.getCount() == 0 ? 0.0 : moments.getMax());
+        double[] buckets = histogramEdges(min, max, histogramBuckets);
+        long[] counts = quantiles.histogram(buckets);
+
+        switch (columnType) {
+            case Integer:
+                return fill(new IntegerAnalysis.Builder().min((int) min).max((int) max), buckets, counts).build();
+            case Long:
+                return fill(new LongAnalysis.Builder().min((long) min).max((long) max), buckets, counts).build();
+            case Time:
+                return fill(new TimeAnalysis.Builder().min((long) min).max((long) max), buckets, counts).build();
+            default:
+                //Double, Float
+                return fill(new DoubleAnalysis.Builder().min(min).max(max).countNaN(countNaN), buckets, counts)
+                                .countTotal(moments.getCount() + countNaN).build();
+        }
+    }
+
+    private <T extends NumericalColumnAnalysis.Builder<T>> T fill(T builder, double[] buckets, long[] counts) {
+        return builder.mean(moments.getMean()).sampleStdev(moments.getSampleStdev())
+                        .sampleVariance(moments.getSampleVariance()).countZero(moments.getCountZero())
+                        .countNegative(moments.getCountNegative()).countPositive(moments.getCountPositive())
+                        .countMinValue(moments.getCountMinValue()).countMaxValue(moments.getCountMaxValue())
+                        .countTotal(moments.getCount()).histogramBuckets(buckets).histogramBucketCounts(counts);
+    }
+
+    /**
+     * Equal width histogram bucket edges between min and max (inclusive): nBuckets + 1 values
+     */
+    static double[] histogramEdges(double min, double max, int nBuckets) {
+        if (nBuckets <= 0) {
+            throw new IllegalArgumentException("Invalid number of histogram buckets: must be > 0, got " + nBuckets);
+        }
+        double[] edges = new double[nBuckets + 1];
+        double step = (max - min) / nBuckets;
+        for (int i = 0; i < nBuckets; i++) {
+            edges[i] = min + i * step;
+        }
+        edges[nBuckets] = max;
+        return edges;
+    }
+}
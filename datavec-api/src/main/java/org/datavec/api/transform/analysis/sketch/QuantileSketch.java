@@ -0,0 +1,308 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * A mergeable quantile sketch for double values, based on KLL (Karnin, Lang, Liberty - "Optimal Quantile
+ * Approximation in Streams").<br>
+ * Values are stored in a hierarchy of compactors: an item at level h represents 2^h values of the stream. When a level
+ * is full it is sorted and every second item (with a random offset) is promoted to the next level. Level capacities
+ * decay geometrically from the top level down, so memory use is O(k) regardless of the number of values, and the rank
+ * error is approximately O(1/k) (about 1-2% for the default k).<br>
+ * The total weight of the retained items is always exactly equal to the number of values added, so histograms
+ * computed from the sketch ({@link #histogram(double[])}) have exact totals.
+ */
+public class QuantileSketch implements Serializable {
+
+    public static final int DEFAULT_K = 200;
+    public static final long DEFAULT_SEED = 12345;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private final Random random;
+    private double[][] levels;
+    private int[] levelSizes;
+    private int numLevels;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k Size parameter: larger values give more accurate results, at the cost of more memory
+     */
+    public QuantileSketch(int k) {
+        this(k, DEFAULT_SEED);
+    }
+
+    /**
+     * @param k    Size parameter: larger values give more accurate results, at the cost of more memory
+     * @param seed Seed for the random choices made when compacting levels: sketches built from the same values, with
+     *             the same seed, give the same results
+     */
+    public QuantileSketch(int k, long seed) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("Invalid k: must be >= " + MIN_LEVEL_CAPACITY + ", got " + k);
+        }
+        this.k = k;
+        this.random = new Random(seed);
+        this.levels = new double[][] {new double[k]};
+        this.levelSizes = new int[1];
+        this.numLevels = 1;
+    }
+
+    /**
+     * Add a value to the sketch. NaN values are ignored, as they have no position in the ordering.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        if (levelSizes[0] >= capacity(0)) {
+            compress();
+        }
+    }
+
+    /**
+     * Merge the other sketch into this one. The other sketch is not modified.
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other == null || other.count == 0) {
+            return this;
+        }
+        for (int h = 0; h < other.numLevels; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        return this;
+    }
+
+    /**
+     * @return Number of (non-NaN) values added to the sketch
+     */
+    public long getN() {
+        return count;
+    }
+
+    public double getMin() {
+        return (count == 0 ? Double.NaN : min);
+    }
+
+    public double getMax() {
+        return (count == 0 ? Double.NaN : max);
+    }
+
+    /**
+     * @return Number of items currently retained by the sketch
+     */
+    public int getNumRetained() {
+        int n = 0;
+        for (int h = 0; h < numLevels; h++) {
+            n += levelSizes[h];
+        }
+        return n;
+    }
+
+    /**
+     * Estimate the number of values less than or equal to the specified value
+     */
+    public long rank(double value) {
+        long rank = 0;
+        for (int h = 0; h < numLevels; h++) {
+            double[] level = levels[h];
+            int c = 0;
+            for (int i = 0; i < levelSizes[h]; i++) {
+                if (level[i] <= value) {
+                    c++;
+                }
+            }
+            rank += ((long) c) << h;
+        }
+        return rank;
+    }
+
+    /**
+     * Estimate the value at the specified quantile
+     *
+     * @param fraction Quantile, in range 0 to 1 inclusive (for example, 0.5 for the median)
+     * @return Estimated value, or NaN if the sketch is empty
+     */
+    public double quantile(double fraction) {
+        return quantiles(new double[] {fraction})[0];
+    }
+
+    /**
+     * Estimate the values at each of the specified quantiles
+     *
+     * @param fractions Quantiles, each in range 0 to 1 inclusive
+     */
+    public double[] quantiles(double[] fractions) {
+        double[] out = new double[fractions.length];
+        if (count == 0) {
+            Arrays.fill(out, Double.NaN);
+            return out;
+        }
+
+        int n = getNumRetained();
+        final double[] values = new double[n];
+        long[] weights = new long[n];
+        Integer[] order = new Integer[n];
+        int j = 0;
+        for (int h = 0; h < numLevels; h++) {
+            for (int i = 0; i < levelSizes[h]; i++) {
+                values[j] = levels[h][i];
+                weights[j] = 1L << h;
+                order[j] = j;
+                j++;
+            }
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(values[o1], values[o2]);
+            }
+        });
+
+        for (int q = 0; q < fractions.length; q++) {
+            double f = fractions[q];
+            if (f < 0.0 || f > 1.0) {
+                throw new IllegalArgumentException("Invalid quantile: must be in range 0 to 1, got " + f);
+            }
+            if (f == 0.0) {
+                out[q] = min;
+                continue;
+            }
+            if (f == 1.0) {
+                out[q] = max;
+                continue;
+            }
+            double target = f * count;
+            long cumulative = 0;
+            out[q] = max;
+            for (int i = 0; i < n; i++) {
+                cumulative += weights[order[i]];
+                if (cumulative >= target) {
+                    out[q] = values[order[i]];
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Estimate the histogram for the given bucket edges. Bucket i counts values in the range edges[i] (inclusive) to
+     * edges[i+1] (exclusive), except for the last bucket which also includes values equal to the last edge. Values
+     * outside of the range of edges are counted in the first or last bucket, so the sum of the bucket counts is always
+     * equal to {@link #getN()}.
+     *
+     * @param edges Bucket edges, in ascending order. Length must be at least 2
+     * @return Bucket counts, of length edges.length - 1
+     */
+    public long[] histogram(double[] edges) {
+        if (edges.length < 2) {
+            throw new IllegalArgumentException("At least 2 bucket edges are required, got " + edges.length);
+        }
+        int nBuckets = edges.length - 1;
+        long[] counts = new long[nBuckets];
+        for (int h = 0; h < numLevels; h++) {
+            double[] level = levels[h];
+            long weight = 1L << h;
+            for (int i = 0; i < levelSizes[h]; i++) {
+                int idx = Arrays.binarySearch(edges, level[i]);
+                if (idx < 0) {
+                    //Not equal to an edge: -(insertion point) - 1, and bucket is insertion point - 1
+                    idx = -idx - 2;
+                }
+                //Duplicate edges (min == max) can make binarySearch return any of the equal edges; clamp to range
+                idx = Math.max(0, Math.min(nBuckets - 1, idx));
+                counts[idx] += weight;
+            }
+        }
+        return counts;
+    }
+
+    private int capacity(int level) {
+        int depth = numLevels - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+
+    private void append(int level, double value) {
+        if (level >= numLevels) {
+            //Merging a larger sketch can add several levels at once
+            if (level >= levels.length) {
+                levels = Arrays.copyOf(levels, Math.max(2 * levels.length, level + 1));
+                levelSizes = Arrays.copyOf(levelSizes, levels.length);
+            }
+            for (int h = numLevels; h <= level; h++) {
+                levels[h] = new double[MIN_LEVEL_CAPACITY];
+            }
+            numLevels = level + 1;
+        }
+        double[] buffer = levels[level];
+        if (levelSizes[level] == buffer.length) {
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            levels[level] = buffer;
+        }
+        buffer[levelSizes[level]++] = value;
+    }
+
+    private void compress() {
+        //Compacting a level can create a new top level, so numLevels is re-read on each iteration
+        for (int h = 0; h < numLevels; h++) {
+            if (levelSizes[h] >= capacity(h)) {
+                compact(h);
+            }
+        }
+    }
+
+    private void compact(int level) {
+        double[] buffer = levels[level];
+        int n = levelSizes[level];
+        Arrays.sort(buffer, 0, n);
+
+        //With an odd number of items, the largest stays at this level so that no weight is lost
+        int nPairs = n / 2;
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = 0; i < nPairs; i++) {
+            append(level + 1, buffer[2 * i + offset]);
+        }
+        if (n % 2 == 1) {
+            buffer[0] = buffer[n - 1];
+            levelSizes[level] = 1;
+        } else {
+            levelSizes[level] = 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+/**
+ * 64-bit hash functions shared by the sketches in this package. Hashes must be stable across JVMs (sketches built on
+ * different machines are merged), so {@link Object#hashCode()} is not used.
+ */
+class SketchHash {
+
+    private SketchHash() {}
+
+    /**
+     * Finalization step of MurmurHash3 (fmix64): spreads the bits of the input over the whole output
+     */
+    static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static long hash(long value) {
+        return mix64(value);
+    }
+
+    static long hash(double value) {
+        //+0.0 and -0.0 are equal values, and should have the same hash
+        return mix64(Double.doubleToLongBits(value == 0.0 ? 0.0 : value));
+    }
+
+    static long hash(String value) {
+        //FNV-1a over the UTF-16 chars, followed by a final mix
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix64(h ^ value.length());
+    }
+}
@@ -0,0 +1,108 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.transform.analysis.columns.StringAnalysis;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.Map;
+
+/**
+ * Column sketch for String columns: streaming moments and a {@link QuantileSketch} of the string lengths, a
+ * {@link HyperLogLogSketch} for the number of distinct values, and a {@link FrequencySketch} for the most frequent
+ * values.
+ */
+public class StringColumnSketch implements ColumnSketch<StringColumnSketch> {
+
+    private final MomentSketch lengthMoments;
+    private final QuantileSketch lengthQuantiles;
+    private final HyperLogLogSketch distinct;
+    private final FrequencySketch frequencies;
+
+    public StringColumnSketch() {
+        this(FrequencySketch.DEFAULT_MAX_ITEMS);
+    }
+
+    /**
+     * @param maxTopItems Maximum number of most frequent values to track
+     */
+    public StringColumnSketch(int maxTopItems) {
+        this.lengthMoments = new MomentSketch();
+        this.lengthQuantiles = new QuantileSketch();
+        this.distinct = new HyperLogLogSketch();
+        this.frequencies = new FrequencySketch(maxTopItems);
+    }
+
+    @Override
+    public StringColumnSketch add(Writable writable) {
+        if (writable instanceof NullWritable) {
+            return this;
+        }
+        String s = writable.toString();
+        lengthMoments.add(s.length());
+        lengthQuantiles.add(s.length());
+        distinct.add(s);
+        frequencies.add(s);
+        return this;
+    }
+
+    @Override
+    public StringColumnSketch merge(StringColumnSketch other) {
+        if (other == null) {
+            return this;
+        }
+        lengthMoments.merge(other.lengthMoments);
+        lengthQuantiles.merge(other.lengthQuantiles);
+        distinct.merge(other.distinct);
+        frequencies.merge(other.frequencies);
+        return this;
+    }
+
+    /**
+     * @return Estimated number of distinct values
+     */
+    public long getDistinctCount() {
+        return distinct.cardinality();
+    }
+
+    /**
+     * @return The most frequent values and their (estimated) counts, from most to least frequent
+     */
+    public Map<String, Long> getTopValues() {
+        return frequencies.getTopItems();
+    }
+
+    public FrequencySketch getFrequencySketch() {
+        return frequencies;
+    }
+
+    @Override
+    public ColumnAnalysis toAnalysis(int histogramBuckets) {
+        long count = lengthMoments.getCount();
+        int minLength = (count == 0 ? 0 : (int) lengthMoments.getMin());
+        int maxLength = (count == 0 ? 0 : (int) lengthMoments.getMax());
+        double[] buckets = NumericalColumnSketch.histogramEdges(minLength, maxLength, histogramBuckets);
+        long[] counts = lengthQuantiles.histogram(buckets);
+
+        return new StringAnalysis.Builder().countTotal(count).minLength(minLength).maxLength(maxLength)
+                        .meanLength(lengthMoments.getMean()).sampleStdevLength(lengthMoments.getSampleStdev())
+                        .sampleVarianceLength(lengthMoments.getSampleVariance()).histogramBuckets(buckets)
+                        .histogramBucketCounts(counts).build();
+    }
+}
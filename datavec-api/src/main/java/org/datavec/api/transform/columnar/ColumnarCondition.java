@@ -0,0 +1,39 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.condition.Condition;
+
+/**
+ * A {@link Condition} that can be evaluated for all records of a {@link ColumnarBatch} at once. Used by
+ * {@link org.datavec.api.transform.TransformProcess#executeBatch(ColumnarBatch)} to evaluate filters as a selection
+ * vector over the batch.
+ */
+public interface ColumnarCondition extends Condition {
+
+    /**
+     * Evaluate the condition for each record of the batch. Must give the same result as
+     * {@link Condition#condition(java.util.List)} for each record.
+     *
+     * @param batch Batch of records, with the input schema of this condition
+     * @return Result of the condition, one value per record
+     */
+    boolean[] conditionBatch(ColumnarBatch batch);
+
+}
@@ -0,0 +1,321 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.records.columnar.*;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.schema.Schema;
+
+/**
+ * Utility methods for implementing {@link ColumnarTransform} and {@link ColumnarCondition}
+ */
+public class ColumnarOps {
+
+    private ColumnarOps() {}
+
+    /**
+     * Get the values of a numerical column as a double[]. For a {@link DoubleColumnVector} this is the underlying
+     * array (not a copy); other column vectors are converted. Values for missing rows are undefined.
+     */
+    public static double[] doubleValues(ColumnVector column) {
+        if (column instanceof DoubleColumnVector) {
+            return ((DoubleColumnVector) column).getData();
+        }
+        int n = column.size();
+        double[] out = new double[n];
+        if (column instanceof IntColumnVector) {
+            int[] data = ((IntColumnVector) column).getData();
+            for (int i = 0; i < n; i++) {
+                out[i] = data[i];
+            }
+        } else if (column instanceof LongColumnVector) {
+            long[] data = ((LongColumnVector) column).getData();
+            for (int i = 0; i < n; i++) {
+                out[i] = data[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (!column.isNull(i)) {
+                    out[i] = column.get(i).toDouble();
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Get the values of a numerical column as an int[]. For an {@link IntColumnVector} this is the underlying array
+     * (not a copy); other column vectors are converted. Values for missing rows are undefined.
+     */
+    public static int[] intValues(ColumnVector column) {
+        if (column instanceof IntColumnVector) {
+            return ((IntColumnVector) column).getData();
+        }
+        int n = column.size();
+        int[] out = new int[n];
+        if (column instanceof LongColumnVector) {
+            long[] data = ((LongColumnVector) column).getData();
+            for (int i = 0; i < n; i++) {
+                out[i] = (int) data[i];
+            }
+        } else if (column instanceof DoubleColumnVector) {
+            double[] data = ((DoubleColumnVector) column).getData();
+            for (int i = 0; i < n; i++) {
+                out[i] = (int) data[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (!column.isNull(i)) {
+                    out[i] = column.get(i).toInt();
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Get the values of a numerical column as a long[]. For a {@link LongColumnVector} this is the underlying array
+     * (not a copy); other column vectors are converted. Values for missing rows are undefined.
+     */
+    public static long[] longValues(ColumnVector column) {
+        if (column instanceof LongColumnVector) {
+            return ((LongColumnVector) column).getData();
+        }
+        int n = column.size();
+        long[] out = new long[n];
+        if (column instanceof IntColumnVector) {
+            int[] data = ((IntColumnVector) column).getData();
+            for (int i = 0; i < n; i++) {
+                out[i] = data[i];
+            }
+        } else if (column instanceof DoubleColumnVector) {
+            double[] data = ((DoubleColumnVector) column).getData();
+            for (int i = 0; i < n; i++) {
+                out[i] = (long) data[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (!column.isNull(i)) {
+                    out[i] = column.get(i).toLong();
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Mark missing values in the new column wherever any of the source columns have missing values
+     */
+    public static <T extends ColumnVector> T withNulls(T newColumn, ColumnVector... sources) {
+        for (ColumnVector source : sources) {
+            if (!source.hasNulls()) {
+                continue;
+            }
+            if (sources.length == 1) {
+                newColumn.copyNullsFrom(source);
+            } else {
+                for (int i = 0; i < source.size(); i++) {
+                    if (source.isNull(i)) {
+                        newColumn.setNull(i);
+                    }
+                }
+            }
+        }
+        return newColumn;
+    }
+
+    /**
+     * Create a new batch with one column replaced. Other column vectors are shared with the input batch.
+     *
+     * @param batch        Input batch
+     * @param outputSchema Schema of the new batch
+     * @param column       Index of the column to replace
+     * @param newColumn    New values for the column
+     */
+    public static ColumnarBatch replaceColumn(ColumnarBatch batch, Schema outputSchema, int column,
+                    ColumnVector newColumn) {
+        ColumnVector[] columns = batch.getColumns().clone();
+        columns[column] = newColumn;
+        return new ColumnarBatch(outputSchema, columns);
+    }
+
+    /**
+     * Create a new batch with the given column(s) appended after the existing columns. The existing column vectors are
+     * shared with the input batch.
+     */
+    public static ColumnarBatch appendColumns(ColumnarBatch batch, Schema outputSchema, ColumnVector... newColumns) {
+        ColumnVector[] in = batch.getColumns();
+        ColumnVector[] columns = new ColumnVector[in.length + newColumns.length];
+        System.arraycopy(in, 0, columns, 0, in.length);
+        System.arraycopy(newColumns, 0, columns, in.length, newColumns.length);
+        return new ColumnarBatch(outputSchema, columns);
+    }
+
+    /**
+     * Create a new batch containing only the specified columns (in the specified order). The column vectors are shared
+     * with the input batch.
+     */
+    public static ColumnarBatch selectColumns(ColumnarBatch batch, Schema outputSchema, int[] columns) {
+        ColumnVector[] out = new ColumnVector[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            out[i] = batch.getColumn(columns[i]);
+        }
+        return new ColumnarBatch(outputSchema, out);
+    }
+
+    /**
+     * Create a new batch containing only the specified rows (a selection vector), in order
+     *
+     * @param batch   Input batch
+     * @param rows    Indices of the rows to keep
+     * @param numRows Number of entries in rows to use
+     */
+    public static ColumnarBatch selectRows(ColumnarBatch batch, int[] rows, int numRows) {
+        ColumnVector[] out = new ColumnVector[batch.numColumns()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = batch.getColumn(i).select(rows, numRows);
+        }
+        return new ColumnarBatch(batch.getSchema(), out);
+    }
+
+    /**
+     * Compare each value against a scalar. Only comparison ops (not InSet/NotInSet) are supported.
+     */
+    public static boolean[] compare(double[] x, int n, ConditionOp op, double value) {
+        boolean[] out = new boolean[n];
+        switch (op) {
+            case LessThan:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] < value;
+                }
+                break;
+            case LessOrEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] <= value;
+                }
+                break;
+            case GreaterThan:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] > value;
+                }
+                break;
+            case GreaterOrEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] >= value;
+                }
+                break;
+            case Equal:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] == value;
+                }
+                break;
+            case NotEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] != value;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not a comparison op: " + op);
+        }
+        return out;
+    }
+
+    /**
+     * Compare each value against a scalar. Only comparison ops (not InSet/NotInSet) are supported.
+     */
+    public static boolean[] compare(long[] x, int n, ConditionOp op, long value) {
+        boolean[] out = new boolean[n];
+        switch (op) {
+            case LessThan:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] < value;
+                }
+                break;
+            case LessOrEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] <= value;
+                }
+                break;
+            case GreaterThan:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] > value;
+                }
+                break;
+            case GreaterOrEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] >= value;
+                }
+                break;
+            case Equal:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] == value;
+                }
+                break;
+            case NotEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] != value;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not a comparison op: " + op);
+        }
+        return out;
+    }
+
+    /**
+     * Compare each value against a scalar. Only comparison ops (not InSet/NotInSet) are supported.
+     */
+    public static boolean[] compare(int[] x, int n, ConditionOp op, int value) {
+        boolean[] out = new boolean[n];
+        switch (op) {
+            case LessThan:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] < value;
+                }
+                break;
+            case LessOrEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] <= value;
+                }
+                break;
+            case GreaterThan:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] > value;
+                }
+                break;
+            case GreaterOrEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] >= value;
+                }
+                break;
+            case Equal:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] == value;
+                }
+                break;
+            case NotEqual:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[i] != value;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not a comparison op: " + op);
+        }
+        return out;
+    }
+}
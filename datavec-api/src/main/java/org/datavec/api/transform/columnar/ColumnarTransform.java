@@ -0,0 +1,43 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.Transform;
+
+/**
+ * A {@link Transform} that can also be applied to a whole {@link ColumnarBatch} at once, operating directly on the
+ * primitive arrays of the column vectors instead of one record (and one Writable per value) at a time.<br>
+ * Used by {@link org.datavec.api.transform.TransformProcess#executeBatch(ColumnarBatch)}; transforms that do not
+ * implement this interface are executed record by record instead.<br>
+ * Implementations must give the same result as {@link Transform#map(java.util.List)} applied to each record, with one
+ * exception: missing values (see {@link org.datavec.api.records.columnar.ColumnVector#isNull(int)}) in the input
+ * column(s) result in missing values in the output, rather than an exception.
+ */
+public interface ColumnarTransform extends Transform {
+
+    /**
+     * Apply the transform to all records of the batch. The input batch is not modified: unchanged column vectors may
+     * be shared between the input and output batches.
+     *
+     * @param batch Batch of records, with the input schema of this transform
+     * @return Batch with the output schema of this transform
+     */
+    ColumnarBatch mapBatch(ColumnarBatch batch);
+
+}
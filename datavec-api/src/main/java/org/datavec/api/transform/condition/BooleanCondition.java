@@ -18,6 +18,9 @@ package org.datavec.api.transform.condition;
 
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.ColumnarCondition;
+import org.datavec.api.transform.columnar.ColumnarOps;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 
@@ -33,7 +36,7 @@ import java.util.List;
  * @author Alex Black
  */
 @EqualsAndHashCode
-public class BooleanCondition implements Condition {
+public class BooleanCondition implements ColumnarCondition {
 
     /**
      * The output column name
@@ -104,6 +107,14 @@ public class BooleanCondition implements Condition {
         this.conditions = conditions;
     }
 
+    public Type getType() {
+        return type;
+    }
+
+    public Condition[] getConditions() {
+        return conditions;
+    }
+
     @Override
     public boolean condition(List<Writable> list) {
         switch (type) {
@@ -130,6 +141,66 @@ public class BooleanCondition implements Condition {
         }
     }
 
+    @Override
+    public boolean[] conditionBatch(ColumnarBatch batch) {
+        int n = batch.numRows();
+        switch (type) {
+            case AND:
+            case OR:
+                //As per condition(List<Writable>): conditions after the first are only evaluated for the rows where
+                //the result is not yet known
+                boolean decidedValue = (type == Type.OR);
+                boolean[] out = evaluate(conditions[0], batch);
+                int[] rows = new int[n];
+                for (int j = 1; j < conditions.length; j++) {
+                    int numRows = 0;
+                    for (int i = 0; i < n; i++) {
+                        if (out[i] != decidedValue)
+                            rows[numRows++] = i;
+                    }
+                    if (numRows == 0)
+                        break;
+                    boolean[] next;
+                    if (numRows == n) {
+                        next = evaluate(conditions[j], batch);
+                    } else {
+                        next = evaluate(conditions[j], ColumnarOps.selectRows(batch, rows, numRows));
+                    }
+                    for (int i = 0; i < numRows; i++) {
+                        out[rows[i]] = next[i];
+                    }
+                }
+                return out;
+            case NOT:
+                boolean[] not = evaluate(conditions[0], batch);
+                for (int i = 0; i < n; i++) {
+                    not[i] = !not[i];
+                }
+                return not;
+            case XOR:
+                boolean[] first = evaluate(conditions[0], batch);
+                boolean[] second = evaluate(conditions[1], batch);
+                for (int i = 0; i < n; i++) {
+                    first[i] ^= second[i];
+                }
+                return first;
+            default:
+                throw new RuntimeException("Unknown condition type: " + type);
+        }
+    }
+
+    private static boolean[] evaluate(Condition condition, ColumnarBatch batch) {
+        if (condition instanceof ColumnarCondition) {
+            return ((ColumnarCondition) condition).conditionBatch(batch);
+        }
+        List<List<Writable>> records = batch.asRecords();
+        boolean[] out = new boolean[records.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = condition.condition(records.get(i));
+        }
+        return out;
+    }
+
     /**
      * Condition on arbitrary input
      *
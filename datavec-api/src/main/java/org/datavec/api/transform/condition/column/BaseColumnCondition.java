@@ -18,6 +18,9 @@ package org.datavec.api.transform.condition.column;
 
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.ColumnarCondition;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
@@ -31,7 +34,7 @@ import java.util.List;
  */
 @JsonIgnoreProperties({"columnIdx", "schema", "sequenceMode"})
 @EqualsAndHashCode(exclude = {"columnIdx", "schema", "sequenceMode"})
-public abstract class BaseColumnCondition implements ColumnCondition {
+public abstract class BaseColumnCondition implements ColumnCondition, ColumnarCondition {
 
     protected final String columnName;
     protected int columnIdx = -1;
@@ -74,6 +77,20 @@ public abstract class BaseColumnCondition implements ColumnCondition {
         return columnCondition(list.get(columnIdx));
     }
 
+    /**
+     * Evaluate {@link #columnCondition(Writable)} for each value of the column. Subclasses may override this with a
+     * loop over the primitive values of the column vector.
+     */
+    @Override
+    public boolean[] conditionBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnIdx);
+        boolean[] out = new boolean[column.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = columnCondition(column.get(i));
+        }
+        return out;
+    }
+
     @Override
     public boolean conditionSequence(List<List<Writable>> list) {
         switch (sequenceMode) {
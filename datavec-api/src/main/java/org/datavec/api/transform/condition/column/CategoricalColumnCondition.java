@@ -16,6 +16,10 @@
 
 package org.datavec.api.transform.condition.column;
 
+import org.datavec.api.records.columnar.CategoricalColumnVector;
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.writable.Text;
 import lombok.Data;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import lombok.EqualsAndHashCode;
@@ -23,6 +27,7 @@ import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.condition.ConditionOp;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -135,6 +140,27 @@ public class CategoricalColumnCondition extends BaseColumnCondition {
         }
     }
 
+    @Override
+    public boolean[] conditionBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnIdx);
+        if (column.hasNulls() || !(column instanceof CategoricalColumnVector)) {
+            return super.conditionBatch(batch);
+        }
+        //Evaluate the condition once per category in the dictionary, instead of once per value
+        CategoricalColumnVector categorical = (CategoricalColumnVector) column;
+        List<String> dictionary = categorical.getDictionary();
+        boolean[] byCode = new boolean[dictionary.size()];
+        for (int i = 0; i < byCode.length; i++) {
+            byCode[i] = columnCondition(new Text(dictionary.get(i)));
+        }
+        int[] codes = categorical.getCodes();
+        boolean[] out = new boolean[column.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = byCode[codes[i]];
+        }
+        return out;
+    }
+
     @Override
     public String toString() {
         return "CategoricalColumnCondition(columnName=\"" + columnName + "\"," + op + ","
@@ -16,6 +16,10 @@
 
 package org.datavec.api.transform.condition.column;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.IntColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
 import lombok.Data;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import lombok.EqualsAndHashCode;
@@ -136,6 +140,15 @@ public class IntegerColumnCondition extends BaseColumnCondition {
         }
     }
 
+    @Override
+    public boolean[] conditionBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnIdx);
+        if (set != null || column.hasNulls() || !(column instanceof IntColumnVector)) {
+            return super.conditionBatch(batch);
+        }
+        return ColumnarOps.compare(((IntColumnVector) column).getData(), column.size(), op, value);
+    }
+
     @Override
     public String toString() {
         return "IntegerColumnCondition(columnName=\"" + columnName + "\"," + op + ","
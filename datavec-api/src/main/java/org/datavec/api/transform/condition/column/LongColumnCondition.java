@@ -16,6 +16,10 @@
 
 package org.datavec.api.transform.condition.column;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.LongColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
 import lombok.Data;
 import org.datavec.api.transform.schema.Schema;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
@@ -135,6 +139,15 @@ public class LongColumnCondition extends BaseColumnCondition {
         }
     }
 
+    @Override
+    public boolean[] conditionBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnIdx);
+        if (set != null || column.hasNulls() || !(column instanceof LongColumnVector)) {
+            return super.conditionBatch(batch);
+        }
+        return ColumnarOps.compare(((LongColumnVector) column).getData(), column.size(), op, value);
+    }
+
     @Override
     public String toString() {
         return "LongColumnCondition(columnName=\"" + columnName + "\"," + op + ","
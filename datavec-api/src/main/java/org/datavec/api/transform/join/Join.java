@@ -48,19 +48,51 @@ public class Join implements Serializable {
         Inner, LeftOuter, RightOuter, FullOuter
     };
 
+    /**
+     * Strategy (hint) for how a distributed join should be executed<br>
+     * Auto: broadcast the side that may be broadcast if it has at most {@link #getBroadcastThreshold()} examples;
+     * otherwise use a sort-merge join. For Inner joins, the side with fewer partitions (right if equal) is
+     * considered, as a proxy for the smaller side that does not require counting both sides<br>
+     * Broadcast: collect one side and broadcast it to all workers, so that the other side does not have to be
+     * shuffled. The side that is broadcast must not need to be preserved: i.e., right for LeftOuter, left for
+     * RightOuter; for Inner joins, the right side is broadcast. Not applicable to FullOuter joins (sort-merge is used
+     * instead)<br>
+     * SortMerge: partition both sides by key, sort within partitions, and stream both sides together. Only the
+     * right examples for the current key are held in memory<br>
+     * CoGroup: group all examples for each key from both sides, then join the groups
+     */
+    public enum Strategy {
+        Auto, Broadcast, SortMerge, CoGroup
+    }
+
+    /**
+     * Default maximum number of examples on one side, for that side to be broadcast with {@link Strategy#Auto}
+     */
+    public static final int DEFAULT_BROADCAST_THRESHOLD = 250000;
+
     private JoinType joinType;
     private Schema leftSchema;
     private Schema rightSchema;
     private String[] joinColumnsLeft;
     private String[] joinColumnsRight;
+    private Strategy strategy;
+    private int broadcastThreshold;
 
 
+    private Join() {
+        //No-arg constructor for Jackson. Defaults for properties absent from JSON written before they were added
+        this.strategy = Strategy.Auto;
+        this.broadcastThreshold = DEFAULT_BROADCAST_THRESHOLD;
+    }
+
     private Join(Builder builder) {
         this.joinType = builder.joinType;
         this.leftSchema = builder.leftSchema;
         this.rightSchema = builder.rightSchema;
         this.joinColumnsLeft = builder.joinColumnsLeft;
         this.joinColumnsRight = builder.joinColumnsRight;
+        this.strategy = builder.strategy;
+        this.broadcastThreshold = builder.broadcastThreshold;
 
         //Perform validation: ensure columns are correct, etc
         if (joinType == null)
@@ -69,6 +101,10 @@ public class Join implements Serializable {
             throw new IllegalArgumentException("Left schema cannot be null");
         if (rightSchema == null)
             throw new IllegalArgumentException("Right schema cannot be null");
+        if (strategy == null)
+            throw new IllegalArgumentException("Join strategy cannot be null");
+        if (broadcastThreshold < 0)
+            throw new IllegalArgumentException("Invalid broadcast threshold: " + broadcastThreshold);
         if (joinColumnsLeft == null || joinColumnsLeft.length == 0) {
             throw new IllegalArgumentException("Invalid left join columns: "
                             + (joinColumnsLeft == null ? null : Arrays.toString(joinColumnsLeft)));
@@ -102,6 +138,8 @@ public class Join implements Serializable {
         private Schema rightSchema;
         private String[] joinColumnsLeft;
         private String[] joinColumnsRight;
+        private Strategy strategy = Strategy.Auto;
+        private int broadcastThreshold = DEFAULT_BROADCAST_THRESHOLD;
 
         public Builder(JoinType type) {
             this.joinType = type;
@@ -169,6 +207,27 @@ public class Join implements Serializable {
             return this;
         }
 
+        /**
+         * Set the strategy used to execute the join. Default: {@link Strategy#Auto}
+         *
+         * @param strategy Join strategy
+         */
+        public Builder setStrategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Maximum number of examples in one side of the join, for that side to be broadcast when using
+         * {@link Strategy#Auto}. Set to 0 to never broadcast. Default: {@link #DEFAULT_BROADCAST_THRESHOLD}
+         *
+         * @param maxExamples Maximum number of examples to broadcast
+         */
+        public Builder setBroadcastThreshold(int maxExamples) {
+            this.broadcastThreshold = maxExamples;
+            return this;
+        }
+
         public Join build() {
             if (leftSchema == null || rightSchema == null)
                 throw new IllegalStateException("Cannot build Join: left and/or right schemas are null");
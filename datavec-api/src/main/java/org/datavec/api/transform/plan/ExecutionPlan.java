@@ -0,0 +1,502 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.plan;
+
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.condition.column.BaseColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.transform.transform.column.RemoveAllColumnsExceptForTransform;
+import org.datavec.api.transform.transform.column.RemoveColumnsTransform;
+import org.datavec.api.transform.transform.column.RenameColumnsTransform;
+import org.datavec.api.transform.transform.column.ReorderColumnsTransform;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.*;
+
+/**
+ * An optimized execution plan for the (non-sequence) transforms and filters of a {@link TransformProcess}.<br>
+ * Executing the actions one at a time creates a new List&lt;Writable&gt; for every transform, even if the transform
+ * only modifies a single column. Instead, the plan works on an array of "slots" (one per column value, including
+ * columns created part way through the process), and the schemas are analysed once when the plan is created:
+ * <ul>
+ *     <li>Single column transforms ({@link BaseColumnTransform}) replace the value in their slot. Consecutive single
+ *     column transforms are fused into one stage</li>
+ *     <li>Removing, renaming and reordering columns only changes which slots make up the record: no work is done
+ *     per record</li>
+ *     <li>Single column transforms whose output is never used (for example, on a column that is removed later)
+ *     are not executed</li>
+ *     <li>Filters on column conditions are moved ahead of single column transforms that don't modify the columns
+ *     they depend on, so filtered records are not transformed</li>
+ *     <li>Other transforms are executed on a list view of the current slots</li>
+ * </ul>
+ * The output list is only created once per record, at the end. Use {@link #explain()} to see the optimized plan.<br>
+ * Actions that can't be executed on individual examples (such as ConvertToSequence) end the plan: examples that
+ * reach such an action (i.e., are not removed by an earlier filter) cause an exception when executed.<br>
+ * Results are the same as executing the actions one by one, except that exceptions from transforms that are no
+ * longer executed for a record (eliminated transforms, or records removed by a filter that was moved ahead) do not
+ * occur.
+ */
+public class ExecutionPlan {
+
+    private final Schema inputSchema;
+    private final Schema outputSchema;
+    private final int numActions;
+    private final List<String> slotNames = new ArrayList<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<String> eliminated = new ArrayList<>();
+    private final int[] outputSlots;
+    private final String unsupported;
+
+    /**
+     * @param transformProcess Transform process to create the plan for. The plan stops at the first action that
+     *                         is not a transform or filter
+     */
+    public ExecutionPlan(TransformProcess transformProcess) {
+        this.inputSchema = transformProcess.getInitialSchema();
+        List<DataAction> actions = transformProcess.getActionList();
+        this.numActions = actions.size();
+
+        Schema schema = inputSchema;
+        int[] layout = new int[schema.numColumns()];
+        for (int i = 0; i < layout.length; i++) {
+            layout[i] = newSlot(schema.getName(i));
+        }
+
+        List<Step> steps = new ArrayList<>();
+        String unsupported = null;
+        for (DataAction d : actions) {
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                Schema outSchema = t.transform(schema);
+                if (isSingleColumnTransform(t)) {
+                    int column = schema.getIndexOfColumn(((BaseColumnTransform) t).getColumnName());
+                    steps.add(new MapStep((BaseColumnTransform) t, layout[column]));
+                } else if (isLayoutTransform(t)) {
+                    //Output columns are a subset/permutation of the input columns. Find out which, by mapping the
+                    //column indices (names are not necessarily unique)
+                    List<Writable> indices = new ArrayList<>(layout.length);
+                    for (int i = 0; i < layout.length; i++) {
+                        indices.add(new IntWritable(i));
+                    }
+                    List<Writable> out = t.map(indices);
+                    int[] newLayout = new int[out.size()];
+                    for (int i = 0; i < newLayout.length; i++) {
+                        newLayout[i] = layout[out.get(i).toInt()];
+                    }
+                    layout = newLayout;
+                } else {
+                    int[] newLayout = new int[outSchema.numColumns()];
+                    for (int i = 0; i < newLayout.length; i++) {
+                        newLayout[i] = newSlot(outSchema.getName(i));
+                    }
+                    steps.add(new RowStep(t, layout, newLayout));
+                    layout = newLayout;
+                }
+                schema = outSchema;
+            } else if (d.getFilter() != null) {
+                addFilter(steps, new FilterStep(d.getFilter(), layout, filterSlots(d.getFilter(), schema, layout)));
+            } else {
+                //Examples that get this far can't be executed: the remaining actions are not part of the plan
+                if (d.getConvertToSequence() != null) {
+                    unsupported = "Cannot execute examples individually: TransformProcess contains a ConvertToSequence "
+                                    + "operation";
+                } else if (d.getConvertFromSequence() != null) {
+                    unsupported = "Unexpected operation: TransformProcess contains a ConvertFromSequence operation";
+                } else if (d.getSequenceSplit() != null) {
+                    unsupported = "Cannot execute examples individually: TransformProcess contains a SequenceSplit "
+                                    + "operation";
+                } else {
+                    unsupported = "Unknown action: " + d;
+                }
+                break;
+            }
+        }
+        this.outputSchema = schema;
+        this.outputSlots = layout;
+        this.unsupported = unsupported;
+
+        eliminateUnusedSteps(steps);
+        fuse(steps);
+    }
+
+    private int newSlot(String name) {
+        slotNames.add(name);
+        return slotNames.size() - 1;
+    }
+
+    private static boolean isSingleColumnTransform(Transform t) {
+        if (!(t instanceof BaseColumnTransform)) {
+            return false;
+        }
+        try {
+            //Subclasses that override map(List<Writable>) may do more than map a single value
+            return t.getClass().getMethod("map", List.class).getDeclaringClass() == BaseColumnTransform.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLayoutTransform(Transform t) {
+        Class<?> c = t.getClass();
+        return c == RemoveColumnsTransform.class || c == RemoveAllColumnsExceptForTransform.class
+                        || c == ReorderColumnsTransform.class || c == RenameColumnsTransform.class;
+    }
+
+    /**
+     * Get the slots the filter depends on, or null if these can't be determined (i.e., all columns)
+     */
+    private static Set<Integer> filterSlots(Filter filter, Schema schema, int[] layout) {
+        if (!(filter instanceof ConditionFilter)) {
+            return null;
+        }
+        Set<String> columns = new HashSet<>();
+        if (!conditionColumns(((ConditionFilter) filter).getCondition(), columns)) {
+            return null;
+        }
+        Set<Integer> slots = new HashSet<>();
+        for (String s : columns) {
+            int idx = schema.getIndexOfColumn(s);
+            if (idx < 0) {
+                return null;
+            }
+            slots.add(layout[idx]);
+        }
+        return slots;
+    }
+
+    private static boolean conditionColumns(Condition condition, Set<String> columns) {
+        if (condition instanceof BaseColumnCondition) {
+            Collections.addAll(columns, condition.columnNames());
+            return true;
+        } else if (condition instanceof BooleanCondition) {
+            for (Condition c : ((BooleanCondition) condition).getConditions()) {
+                if (!conditionColumns(c, columns)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add the filter as early as possible: ahead of any single column transforms that don't modify the slots the
+     * filter depends on. Filters are never reordered relative to each other, or moved ahead of other transforms
+     */
+    private static void addFilter(List<Step> steps, FilterStep filter) {
+        int idx = steps.size();
+        while (idx > 0 && steps.get(idx - 1) instanceof MapStep
+                        && !filter.reads(((MapStep) steps.get(idx - 1)).slot)) {
+            idx--;
+        }
+        filter.movedAhead = steps.size() - idx;
+        steps.add(idx, filter);
+    }
+
+    /**
+     * Remove single column transforms whose output is not used by any later step, or by the output
+     */
+    private void eliminateUnusedSteps(List<Step> steps) {
+        Set<Integer> live = new HashSet<>();
+        for (int s : outputSlots) {
+            live.add(s);
+        }
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Step step = steps.get(i);
+            if (step instanceof MapStep) {
+                MapStep m = (MapStep) step;
+                if (!live.contains(m.slot)) {
+                    eliminated.add(m.transform + " (column \"" + slotNames.get(m.slot) + "\" is not used)");
+                    steps.remove(i);
+                }
+            } else if (step instanceof FilterStep) {
+                FilterStep f = (FilterStep) step;
+                if (f.slots == null) {
+                    for (int s : f.layout) {
+                        live.add(s);
+                    }
+                } else {
+                    live.addAll(f.slots);
+                }
+            } else {
+                RowStep r = (RowStep) step;
+                for (int s : r.outSlots) {
+                    live.remove(s);
+                }
+                for (int s : r.inSlots) {
+                    live.add(s);
+                }
+            }
+        }
+        Collections.reverse(eliminated);
+    }
+
+    /**
+     * Create the stages: consecutive single column transforms are fused into one stage
+     */
+    private void fuse(List<Step> steps) {
+        List<MapStep> current = new ArrayList<>();
+        for (Step step : steps) {
+            if (step instanceof MapStep) {
+                current.add((MapStep) step);
+                continue;
+            }
+            if (!current.isEmpty()) {
+                stages.add(new FusedMapStage(current));
+                current = new ArrayList<>();
+            }
+            stages.add((Stage) step);
+        }
+        if (!current.isEmpty()) {
+            stages.add(new FusedMapStage(current));
+        }
+    }
+
+    /**
+     * Execute the plan on a single example
+     *
+     * @param input Example, with the initial schema of the TransformProcess
+     * @return Transformed example, or null if the example was removed by a filter
+     * @throws RuntimeException If the example is not removed by a filter, and the plan ends at an action that can't
+     *                          be executed on individual examples (see {@link #isComplete()})
+     */
+    public List<Writable> execute(List<Writable> input) {
+        if (input.size() != inputSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute plan: input writables list length (" + input.size()
+                            + ") does not match expected number of elements (schema: " + inputSchema.numColumns()
+                            + ")");
+        }
+        Writable[] slots = new Writable[slotNames.size()];
+        for (int i = 0; i < input.size(); i++) {
+            slots[i] = input.get(i);
+        }
+        for (Stage stage : stages) {
+            if (!stage.apply(slots)) {
+                return null;
+            }
+        }
+        if (unsupported != null) {
+            throw new RuntimeException(unsupported);
+        }
+        List<Writable> out = new ArrayList<>(outputSlots.length);
+        for (int s : outputSlots) {
+            out.add(slots[s]);
+        }
+        return out;
+    }
+
+    public Schema getInputSchema() {
+        return inputSchema;
+    }
+
+    /**
+     * @return Schema of the examples returned by {@link #execute(List)}. If the plan is not complete, this is the
+     * schema before the first action that can't be executed on individual examples
+     */
+    public Schema getOutputSchema() {
+        return outputSchema;
+    }
+
+    /**
+     * @return False if the TransformProcess contains an action that can't be executed on individual examples (such
+     * as ConvertToSequence), in which case the plan stops before that action
+     */
+    public boolean isComplete() {
+        return unsupported == null;
+    }
+
+    /**
+     * @return Number of stages executed per example
+     */
+    public int numStages() {
+        return stages.size();
+    }
+
+    /**
+     * @return A human readable description of the plan
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ExecutionPlan: ").append(numActions).append(" actions -> ").append(stages.size())
+                        .append(" stages\n");
+        sb.append("Input: ").append(inputSchema.getColumnNames()).append("\n");
+        for (int i = 0; i < stages.size(); i++) {
+            sb.append("  ").append(i).append(": ");
+            stages.get(i).explain(sb);
+            sb.append("\n");
+        }
+        for (String s : eliminated) {
+            sb.append("  Eliminated: ").append(s).append("\n");
+        }
+        if (unsupported != null) {
+            sb.append("  Stop: ").append(unsupported).append("\n");
+        }
+        sb.append("Output: ").append(outputSchema.getColumnNames());
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    private static List<Writable> view(final Writable[] slots, final int[] layout) {
+        return new AbstractList<Writable>() {
+            @Override
+            public Writable get(int index) {
+                return slots[layout[index]];
+            }
+
+            @Override
+            public int size() {
+                return layout.length;
+            }
+        };
+    }
+
+    private interface Step {
+    }
+
+    private interface Stage {
+        /**
+         * @return False if the example was removed (filtered)
+         */
+        boolean apply(Writable[] slots);
+
+        void explain(StringBuilder sb);
+    }
+
+    private static class MapStep implements Step {
+        private final BaseColumnTransform transform;
+        private final int slot;
+
+        private MapStep(BaseColumnTransform transform, int slot) {
+            this.transform = transform;
+            this.slot = slot;
+        }
+    }
+
+    private class FusedMapStage implements Stage {
+        private final BaseColumnTransform[] transforms;
+        private final int[] slots;
+
+        private FusedMapStage(List<MapStep> steps) {
+            transforms = new BaseColumnTransform[steps.size()];
+            slots = new int[steps.size()];
+            for (int i = 0; i < transforms.length; i++) {
+                transforms[i] = steps.get(i).transform;
+                slots[i] = steps.get(i).slot;
+            }
+        }
+
+        @Override
+        public boolean apply(Writable[] values) {
+            for (int i = 0; i < transforms.length; i++) {
+                values[slots[i]] = transforms[i].map(values[slots[i]]);
+            }
+            return true;
+        }
+
+        @Override
+        public void explain(StringBuilder sb) {
+            sb.append("Fused column transforms (").append(transforms.length).append(")");
+            for (int i = 0; i < transforms.length; i++) {
+                sb.append("\n       \"").append(slotNames.get(slots[i])).append("\" <- ").append(transforms[i]);
+            }
+        }
+    }
+
+    private class RowStep implements Step, Stage {
+        private final Transform transform;
+        private final int[] inSlots;
+        private final int[] outSlots;
+
+        private RowStep(Transform transform, int[] inSlots, int[] outSlots) {
+            this.transform = transform;
+            this.inSlots = inSlots;
+            this.outSlots = outSlots;
+        }
+
+        @Override
+        public boolean apply(Writable[] slots) {
+            List<Writable> out = transform.map(view(slots, inSlots));
+            for (int i = 0; i < outSlots.length; i++) {
+                slots[outSlots[i]] = out.get(i);
+            }
+            return true;
+        }
+
+        @Override
+        public void explain(StringBuilder sb) {
+            sb.append("Transform ").append(transform);
+        }
+    }
+
+    private class FilterStep implements Step, Stage {
+        private final Filter filter;
+        private final int[] layout;
+        private final Set<Integer> slots;
+        private int movedAhead;
+
+        private FilterStep(Filter filter, int[] layout, Set<Integer> slots) {
+            this.filter = filter;
+            this.layout = layout;
+            this.slots = slots;
+        }
+
+        private boolean reads(int slot) {
+            if (slots != null) {
+                return slots.contains(slot);
+            }
+            for (int s : layout) {
+                if (s == slot) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean apply(Writable[] values) {
+            return !filter.removeExample(view(values, layout));
+        }
+
+        @Override
+        public void explain(StringBuilder sb) {
+            sb.append("Filter ").append(filter);
+            if (slots != null) {
+                List<String> names = new ArrayList<>();
+                for (int s : slots) {
+                    names.add(slotNames.get(s));
+                }
+                sb.append(" (depends on: ").append(names).append(")");
+            }
+            if (movedAhead > 0) {
+                sb.append(" [moved ahead of ").append(movedAhead).append(" transform(s)]");
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.analysis.sketch.HyperLogLogSketch;
+import org.datavec.api.writable.*;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Partial (mergeable) state for a built-in {@link ReduceOp} on a single column. States for different subsets of the
+ * values can be combined with {@link #merge(ColumnReduceState)}, so that reductions can be computed incrementally
+ * (for example, map-side in Spark) without collecting all values first.<br>
+ * The results are the same as {@link Reducer#reduceColumn} for the same op and values, with the following exceptions:
+ * with approximateCountUnique, CountUnique is estimated once the number of unique values is large; Stdev is computed
+ * incrementally, so may differ in the last bits; and TakeFirst/TakeLast on an empty Bytes column throw an
+ * IllegalStateException.<br>
+ * Checking for invalid values (if required) is done by the caller, before {@link #add(Writable)}, as it is for
+ * {@link Reducer#reduceColumn}: invalid values are skipped by every op, including TakeFirst and TakeLast.
+ */
+public abstract class ColumnReduceState implements Serializable {
+
+    /**
+     * Number of unique values above which approximate CountUnique states switch from an exact set to a HyperLogLog
+     * sketch
+     */
+    public static final int APPROX_COUNT_UNIQUE_THRESHOLD = 128;
+    /**
+     * HyperLogLog precision for approximate CountUnique: 4 KB per state, ~1.6% relative error
+     */
+    public static final int APPROX_COUNT_UNIQUE_PRECISION = 12;
+
+    public abstract void add(Writable writable);
+
+    public abstract void merge(ColumnReduceState other);
+
+    /**
+     * @return The result of the reduction
+     */
+    public abstract Writable get();
+
+    /**
+     * Create a new (empty) state for the given op and column type
+     *
+     * @param op                     Reduction op
+     * @param type                   Column type
+     * @param approximateCountUnique If true: use a HyperLogLog sketch for CountUnique once the number of unique values
+     *                               is large
+     * @throws UnsupportedOperationException If the op is not supported for the column type
+     */
+    public static ColumnReduceState create(ReduceOp op, ColumnType type, boolean approximateCountUnique) {
+        switch (type) {
+            case Integer:
+            case Long:
+            case Double:
+                break;
+            case String:
+            case Categorical:
+                if (op != ReduceOp.Count && op != ReduceOp.CountUnique && op != ReduceOp.TakeFirst
+                                && op != ReduceOp.TakeLast) {
+                    throw new UnsupportedOperationException("Cannot execute op \"" + op
+                                    + "\" on String/Categorical column (can only perform Count, CountUnique, "
+                                    + "TakeFirst and TakeLast ops on categorical columns)");
+                }
+                break;
+            case Time:
+                if (op == ReduceOp.Range || op == ReduceOp.Sum || op == ReduceOp.Stdev || op == ReduceOp.Prod) {
+                    throw new UnsupportedOperationException(
+                                    "Reduction op \"" + op + "\" not supported on time columns");
+                }
+                break;
+            case Bytes:
+                if (op != ReduceOp.TakeFirst && op != ReduceOp.TakeLast) {
+                    throw new UnsupportedOperationException("Cannot execute op \"" + op + "\" on Bytes column "
+                                    + "(can only perform TakeFirst or TakeLast ops on Bytes columns)");
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unknown or not implemented column type: " + type);
+        }
+
+        switch (op) {
+            case Count:
+                return new CountState();
+            case CountUnique:
+                return new CountUniqueState(type, approximateCountUnique);
+            case TakeFirst:
+                return new TakeState(type, true);
+            case TakeLast:
+                return new TakeState(type, false);
+            default:
+                return new NumericState(op, type);
+        }
+    }
+
+    /**
+     * Min, Max, Range, Sum, Prod, Mean and Stdev. Integer, Long and Time columns are reduced using long arithmetic
+     */
+    private static class NumericState extends ColumnReduceState {
+        private final ReduceOp op;
+        private final ColumnType type;
+        private final boolean integral;
+        private long count;
+        private long longMin = Long.MAX_VALUE;
+        private long longMax = Long.MIN_VALUE;
+        private long longSum;
+        private long longProd = 1;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double sum;
+        private double prod = 1.0;
+        private double mean;
+        private double m2;
+
+        private NumericState(ReduceOp op, ColumnType type) {
+            this.op = op;
+            this.type = type;
+            this.integral = (type != ColumnType.Double);
+        }
+
+        @Override
+        public void add(Writable writable) {
+            count++;
+            if (integral) {
+                long l = writable.toLong();
+                longMin = Math.min(longMin, l);
+                longMax = Math.max(longMax, l);
+                longSum += l;
+                longProd *= l;
+                addMoments(l);
+            } else {
+                double d = writable.toDouble();
+                min = Math.min(min, d);
+                max = Math.max(max, d);
+                sum += d;
+                prod *= d;
+                addMoments(d);
+            }
+        }
+
+        private void addMoments(double d) {
+            double delta = d - mean;
+            mean += delta / count;
+            m2 += delta * (d - mean);
+        }
+
+        @Override
+        public void merge(ColumnReduceState other) {
+            NumericState o = (NumericState) other;
+            if (o.count == 0) {
+                return;
+            }
+            long n = count + o.count;
+            double delta = o.mean - mean;
+            mean += delta * o.count / n;
+            m2 += o.m2 + delta * delta * count * (double) o.count / n;
+            count = n;
+
+            longMin = Math.min(longMin, o.longMin);
+            longMax = Math.max(longMax, o.longMax);
+            longSum += o.longSum;
+            longProd *= o.longProd;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            sum += o.sum;
+            prod *= o.prod;
+        }
+
+        @Override
+        public Writable get() {
+            switch (op) {
+                case Min:
+                    return (integral ? new LongWritable(longMin) : new DoubleWritable(min));
+                case Max:
+                    return (integral ? new LongWritable(longMax) : new DoubleWritable(max));
+                case Range:
+                    return (integral ? new LongWritable(longMax - longMin) : new DoubleWritable(max - min));
+                case Sum:
+                    return (integral ? new LongWritable(longSum) : new DoubleWritable(sum));
+                case Prod:
+                    return (integral ? new LongWritable(longProd) : new DoubleWritable(prod));
+                case Mean:
+                    if (type == ColumnType.Time) {
+                        return new LongWritable(count > 0 ? longSum / count : 0);
+                    }
+                    if (count == 0) {
+                        return new DoubleWritable(0.0);
+                    }
+                    return new DoubleWritable(integral ? ((double) longSum) / count : sum / count);
+                case Stdev:
+                    if (count == 0) {
+                        return new DoubleWritable(Double.NaN);
+                    }
+                    return new DoubleWritable(count == 1 ? 0.0 : Math.sqrt(m2 / (count - 1)));
+                default:
+                    throw new UnsupportedOperationException("Unknown or not implement op: " + op);
+            }
+        }
+    }
+
+    private static class CountState extends ColumnReduceState {
+        private long count;
+
+        @Override
+        public void add(Writable writable) {
+            count++;
+        }
+
+        @Override
+        public void merge(ColumnReduceState other) {
+            count += ((CountState) other).count;
+        }
+
+        @Override
+        public Writable get() {
+            return new IntWritable((int) count);
+        }
+    }
+
+    /**
+     * Exact set of unique values; or if approximate and the number of unique values is large, a HyperLogLog sketch
+     */
+    private static class CountUniqueState extends ColumnReduceState {
+        private final ColumnType type;
+        private final boolean approximate;
+        private Set<Object> values = new HashSet<>();
+        private HyperLogLogSketch sketch;
+
+        private CountUniqueState(ColumnType type, boolean approximate) {
+            this.type = type;
+            this.approximate = approximate;
+        }
+
+        @Override
+        public void add(Writable writable) {
+            Object value = valueOf(writable);
+            if (sketch != null) {
+                addToSketch(value);
+            } else {
+                values.add(value);
+                checkThreshold();
+            }
+        }
+
+        private Object valueOf(Writable writable) {
+            switch (type) {
+                case Integer:
+                case Long:
+                case Time:
+                    return writable.toLong();
+                case Double:
+                    return writable.toDouble();
+                default:
+                    return writable.toString();
+            }
+        }
+
+        private void addToSketch(Object value) {
+            if (value instanceof Long) {
+                sketch.add((Long) value);
+            } else if (value instanceof Double) {
+                sketch.add((Double) value);
+            } else {
+                sketch.add((String) value);
+            }
+        }
+
+        private void checkThreshold() {
+            if (approximate && values.size() > APPROX_COUNT_UNIQUE_THRESHOLD) {
+                sketch = new HyperLogLogSketch(APPROX_COUNT_UNIQUE_PRECISION);
+                for (Object o : values) {
+                    addToSketch(o);
+                }
+                values = null;
+            }
+        }
+
+        @Override
+        public void merge(ColumnReduceState other) {
+            CountUniqueState o = (CountUniqueState) other;
+            if (o.sketch != null) {
+                if (sketch == null) {
+                    sketch = new HyperLogLogSketch(APPROX_COUNT_UNIQUE_PRECISION);
+                    for (Object v : values) {
+                        addToSketch(v);
+                    }
+                    values = null;
+                }
+                sketch.merge(o.sketch);
+            } else if (sketch != null) {
+                for (Object v : o.values) {
+                    addToSketch(v);
+                }
+            } else {
+                values.addAll(o.values);
+                checkThreshold();
+            }
+        }
+
+        @Override
+        public Writable get() {
+            return new IntWritable((int) (sketch != null ? sketch.cardinality() : values.size()));
+        }
+    }
+
+    private static class TakeState extends ColumnReduceState {
+        private final ColumnType type;
+        private final boolean first;
+        private Writable value;
+
+        private TakeState(ColumnType type, boolean first) {
+            this.type = type;
+            this.first = first;
+        }
+
+        @Override
+        public void add(Writable writable) {
+            if (!first || value == null) {
+                value = writable;
+            }
+        }
+
+        @Override
+        public void merge(ColumnReduceState other) {
+            Writable otherValue = ((TakeState) other).value;
+            if (otherValue != null && (!first || value == null)) {
+                value = otherValue;
+            }
+        }
+
+        @Override
+        public Writable get() {
+            if (value != null) {
+                return value;
+            }
+            switch (type) {
+                case Integer:
+                case Long:
+                case Time:
+                    return new LongWritable(0);
+                case Double:
+                    return new DoubleWritable(0.0);
+                case String:
+                case Categorical:
+                    return new Text("");
+                default:
+                    throw new IllegalStateException("No values to reduce for column of type " + type);
+            }
+        }
+    }
+}
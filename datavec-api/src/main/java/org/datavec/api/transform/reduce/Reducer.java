@@ -64,17 +64,26 @@ public class Reducer implements IReducer {
     private Map<String, ColumnReduction> customReductions;
     private Map<String, ConditionalReduction> conditionalReductions;
     private Set<String> ignoreInvalidInColumns;
+    private final boolean approximateCountUnique;
 
     private Reducer(Builder builder) {
         this((builder.keyColumns == null ? null : Arrays.asList(builder.keyColumns)), builder.defaultOp, builder.opMap,
-                        builder.customReductions, builder.conditionalReductions, builder.ignoreInvalidInColumns);
+                        builder.customReductions, builder.conditionalReductions, builder.ignoreInvalidInColumns,
+                        builder.approximateCountUnique);
+    }
+
+    public Reducer(List<String> keyColumns, ReduceOp defaultOp, Map<String, ReduceOp> opMap,
+                    Map<String, ColumnReduction> customReductions,
+                    Map<String, ConditionalReduction> conditionalReductions, Set<String> ignoreInvalidInColumns) {
+        this(keyColumns, defaultOp, opMap, customReductions, conditionalReductions, ignoreInvalidInColumns, false);
     }
 
     public Reducer(@JsonProperty("keyColumns") List<String> keyColumns, @JsonProperty("defaultOp") ReduceOp defaultOp,
                     @JsonProperty("opMap") Map<String, ReduceOp> opMap,
                     @JsonProperty("customReductions") Map<String, ColumnReduction> customReductions,
                     @JsonProperty("conditionalReductions") Map<String, ConditionalReduction> conditionalReductions,
-                    @JsonProperty("ignoreInvalidInColumns") Set<String> ignoreInvalidInColumns) {
+                    @JsonProperty("ignoreInvalidInColumns") Set<String> ignoreInvalidInColumns,
+                    @JsonProperty("approximateCountUnique") boolean approximateCountUnique) {
         this.keyColumns = keyColumns;
         this.keyColumnsSet = (keyColumns == null ? null : new HashSet<>(keyColumns));
         this.defaultOp = defaultOp;
@@ -82,6 +91,7 @@ public class Reducer implements IReducer {
         this.customReductions = customReductions;
         this.conditionalReductions = conditionalReductions;
         this.ignoreInvalidInColumns = ignoreInvalidInColumns;
+        this.approximateCountUnique = approximateCountUnique;
     }
 
     @Override
@@ -177,7 +187,8 @@ public class Reducer implements IReducer {
                 inMeta.setName("last(" + name + ")");
                 return inMeta;
             case Sum:
-                String outName = "sum(" + name + ")";
+            case Prod:
+                String outName = (op == ReduceOp.Sum ? "sum(" : "prod(") + name + ")";
                 //Issue with sum: the input meta data restrictions probably won't hold. But the data _type_ should essentially remain the same
                 ColumnMetaData outMeta;
                 if (inMeta instanceof IntegerMetaData || inMeta instanceof LongMetaData) {
@@ -211,6 +222,14 @@ public class Reducer implements IReducer {
         if (schema == null)
             throw new IllegalStateException("Error: Schema has not been set");
 
+        if (isCombinable()) {
+            ReducerState state = createState();
+            for (List<Writable> example : examplesList) {
+                accumulate(state, example);
+            }
+            return state.getOutput();
+        }
+
         int nCols = schema.numColumns();
         List<String> colNames = schema.getColumnNames();
 
@@ -277,6 +296,75 @@ public class Reducer implements IReducer {
         return out;
     }
 
+    /**
+     * Whether this reducer can be executed incrementally, via {@link #createState()},
+     * {@link #accumulate(ReducerState, List)} and {@link ReducerState#merge(ReducerState)}, without collecting all
+     * examples for a key first. This is the case unless custom {@link ColumnReduction}s are used, as the built-in
+     * {@link ReduceOp}s all have mergeable partial states.
+     */
+    public boolean isCombinable() {
+        return customReductions == null || customReductions.isEmpty();
+    }
+
+    /**
+     * Create a new (empty) partial state for this reducer. The input schema must have been set.
+     *
+     * @throws IllegalStateException If this reducer is not combinable (see {@link #isCombinable()})
+     */
+    public ReducerState createState() {
+        if (schema == null)
+            throw new IllegalStateException("Error: Schema has not been set");
+        if (!isCombinable())
+            throw new IllegalStateException("Cannot create state: reducer uses custom column reductions");
+
+        int nCols = schema.numColumns();
+        List<String> colNames = schema.getColumnNames();
+        ColumnReduceState[] states = new ColumnReduceState[nCols];
+        for (int i = 0; i < nCols; i++) {
+            String colName = colNames.get(i);
+            if (keyColumnsSet != null && keyColumnsSet.contains(colName))
+                continue;
+            ReduceOp op;
+            if (conditionalReductions != null && conditionalReductions.containsKey(colName))
+                op = conditionalReductions.get(colName).getReduction();
+            else
+                op = opMap.get(colName);
+            if (op == null)
+                op = defaultOp;
+            states[i] = ColumnReduceState.create(op, schema.getType(i), approximateCountUnique);
+        }
+        return new ReducerState(states);
+    }
+
+    /**
+     * Add a single example to the partial state
+     *
+     * @param state   State, created by {@link #createState()}
+     * @param example Example to add
+     */
+    public void accumulate(ReducerState state, List<Writable> example) {
+        List<String> colNames = schema.getColumnNames();
+        for (int i = 0; i < state.columnStates.length; i++) {
+            if (state.columnStates[i] == null) {
+                //Key column: all values should be identical, so just take the first one
+                if (state.keyValues[i] == null)
+                    state.keyValues[i] = example.get(i);
+                continue;
+            }
+
+            String colName = colNames.get(i);
+            if (conditionalReductions != null && conditionalReductions.containsKey(colName)
+                            && !conditionalReductions.get(colName).getCondition().condition(example))
+                continue;
+
+            Writable w = example.get(i);
+            if (ignoreInvalidInColumns != null && ignoreInvalidInColumns.contains(colName)
+                            && !schema.getMetaData(i).isValid(w))
+                continue;
+            state.columnStates[i].add(w);
+        }
+    }
+
     public static Writable reduceColumn(ReduceOp op, ColumnType type, List<Writable> values, boolean ignoreInvalid,
                     ColumnMetaData metaData) {
         switch (type) {
@@ -327,6 +415,14 @@ public class Reducer implements IReducer {
                     max2 = Math.max(max2, l);
                 }
                 return new LongWritable(max2 - min2);
+            case Prod:
+                long prod = 1;
+                for (Writable w : values) {
+                    if (ignoreInvalid && !metaData.isValid(w))
+                        continue;
+                    prod *= w.toLong();
+                }
+                return new LongWritable(prod);
             case Sum:
             case Mean:
                 long sum = 0;
@@ -377,13 +473,8 @@ public class Reducer implements IReducer {
                 }
                 return new IntWritable(set.size());
             case TakeFirst:
-                if (values.size() > 0)
-                    return values.get(0);
-                return new LongWritable(0);
             case TakeLast:
-                if (values.size() > 0)
-                    return values.get(values.size() - 1);
-                return new LongWritable(0);
+                return take(op, values, ignoreInvalid, metaData, new LongWritable(0));
             default:
                 throw new UnsupportedOperationException("Unknown or not implement op: " + op);
         }
@@ -419,6 +510,14 @@ public class Reducer implements IReducer {
                     max2 = Math.max(max2, d);
                 }
                 return new DoubleWritable(max2 - min2);
+            case Prod:
+                double prod = 1.0;
+                for (Writable w : values) {
+                    if (ignoreInvalid && !metaData.isValid(w))
+                        continue;
+                    prod *= w.toDouble();
+                }
+                return new DoubleWritable(prod);
             case Sum:
             case Mean:
                 double sum = 0;
@@ -469,13 +568,8 @@ public class Reducer implements IReducer {
                 }
                 return new IntWritable(set.size());
             case TakeFirst:
-                if (values.size() > 0)
-                    return values.get(0);
-                return new DoubleWritable(0.0);
             case TakeLast:
-                if (values.size() > 0)
-                    return values.get(values.size() - 1);
-                return new DoubleWritable(0.0);
+                return take(op, values, ignoreInvalid, metaData, new DoubleWritable(0.0));
             default:
                 throw new UnsupportedOperationException("Unknown or not implement op: " + op);
         }
@@ -504,13 +598,8 @@ public class Reducer implements IReducer {
                 }
                 return new IntWritable(set.size());
             case TakeFirst:
-                if (values.size() > 0)
-                    return values.get(0);
-                return new Text("");
             case TakeLast:
-                if (values.size() > 0)
-                    return values.get(values.size() - 1);
-                return new Text("");
+                return take(op, values, ignoreInvalid, metaData, new Text(""));
             default:
                 throw new UnsupportedOperationException("Cannot execute op \"" + op + "\" on String/Categorical column "
                                 + "(can only perform Count, CountUnique, TakeFirst and TakeLast ops on categorical columns)");
@@ -567,13 +656,8 @@ public class Reducer implements IReducer {
                 }
                 return new IntWritable(set.size());
             case TakeFirst:
-                if (values.size() > 0)
-                    return values.get(0);
-                return new LongWritable(0);
             case TakeLast:
-                if (values.size() > 0)
-                    return values.get(values.size() - 1);
-                return new LongWritable(0);
+                return take(op, values, ignoreInvalid, metaData, new LongWritable(0));
             case Range:
             case Sum:
             case Stdev:
@@ -584,6 +668,21 @@ public class Reducer implements IReducer {
         throw new UnsupportedOperationException("Reduce ops for time columns: not yet implemented");
     }
 
+    /**
+     * TakeFirst or TakeLast: the first or last value (if ignoreInvalid: the first or last valid value), or ifEmpty if
+     * there is none
+     */
+    private static Writable take(ReduceOp op, List<Writable> values, boolean ignoreInvalid, ColumnMetaData metaData,
+                    Writable ifEmpty) {
+        int n = values.size();
+        for (int i = 0; i < n; i++) {
+            Writable w = values.get(op == ReduceOp.TakeFirst ? i : n - 1 - i);
+            if (!ignoreInvalid || metaData.isValid(w))
+                return w;
+        }
+        return ifEmpty;
+    }
+
     public static Writable reduceBytesColumn(ReduceOp op, List<Writable> list) {
         if (op == ReduceOp.TakeFirst)
             return list.get(0);
@@ -612,6 +711,9 @@ public class Reducer implements IReducer {
         if (ignoreInvalidInColumns != null) {
             sb.append(",ignoreInvalidInColumns=").append(ignoreInvalidInColumns);
         }
+        if (approximateCountUnique) {
+            sb.append(",approximateCountUnique=true");
+        }
         sb.append(")");
         return sb.toString();
     }
@@ -625,6 +727,7 @@ public class Reducer implements IReducer {
         private Map<String, ConditionalReduction> conditionalReductions = new HashMap<>();
         private Set<String> ignoreInvalidInColumns = new HashSet<>();
         private String[] keyColumns;
+        private boolean approximateCountUnique;
 
 
         /**
@@ -679,6 +782,13 @@ public class Reducer implements IReducer {
             return add(ReduceOp.Sum, columns);
         }
 
+        /**
+         * Reduce the specified columns by taking the product of values
+         */
+        public Builder prodColumns(String... columns) {
+            return add(ReduceOp.Prod, columns);
+        }
+
         /**
          * Reduce the specified columns by taking the mean of the values
          */
@@ -759,6 +869,7 @@ public class Reducer implements IReducer {
          * Invalid: defined as being not valid according to the ColumnMetaData: {@link ColumnMetaData#isValid(Writable)}.
          * For numerical columns, this typically means being unable to parse the Writable. For example, Writable.toLong() failing for a Long column.
          * If the column has any restrictions (min/max values, regex for Strings etc) these will also be taken into account.
+         * For TakeFirst and TakeLast, this means taking the first or last valid value.
          *
          * @param columns Columns to set 'ignore invalid' for
          */
@@ -767,6 +878,16 @@ public class Reducer implements IReducer {
             return this;
         }
 
+        /**
+         * If true: CountUnique reductions use a HyperLogLog sketch (approximately 1.6% relative error) once the number
+         * of unique values for a key exceeds {@link ColumnReduceState#APPROX_COUNT_UNIQUE_THRESHOLD}, instead of
+         * keeping the set of all unique values. Default: false (exact)
+         */
+        public Builder approximateCountUnique(boolean approximateCountUnique) {
+            this.approximateCountUnique = approximateCountUnique;
+            return this;
+        }
+
         public Reducer build() {
             return new Reducer(this);
         }
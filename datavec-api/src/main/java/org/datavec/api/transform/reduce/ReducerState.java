@@ -0,0 +1,67 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.reduce;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partial result of a {@link Reducer} for a set of examples: the key column values, and a {@link ColumnReduceState}
+ * for every other column.<br>
+ * Created with {@link Reducer#createState()} and updated with {@link Reducer#accumulate(ReducerState, List)}. States
+ * hold no reference to the Reducer itself, so they are compact to serialize (for example, when shuffled by Spark).
+ */
+public class ReducerState implements Serializable {
+
+    final Writable[] keyValues;
+    final ColumnReduceState[] columnStates;
+
+    ReducerState(ColumnReduceState[] columnStates) {
+        this.keyValues = new Writable[columnStates.length];
+        this.columnStates = columnStates;
+    }
+
+    /**
+     * Merge the other state (for the same Reducer) into this one
+     */
+    public ReducerState merge(ReducerState other) {
+        for (int i = 0; i < columnStates.length; i++) {
+            if (columnStates[i] == null) {
+                if (keyValues[i] == null) {
+                    keyValues[i] = other.keyValues[i];
+                }
+            } else {
+                columnStates[i].merge(other.columnStates[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return The reduced example
+     */
+    public List<Writable> getOutput() {
+        List<Writable> out = new ArrayList<>(columnStates.length);
+        for (int i = 0; i < columnStates.length; i++) {
+            out.add(columnStates[i] == null ? keyValues[i] : columnStates[i].get());
+        }
+        return out;
+    }
+}
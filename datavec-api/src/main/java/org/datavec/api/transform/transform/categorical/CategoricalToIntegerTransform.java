@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.categorical;
 
+import org.datavec.api.records.columnar.CategoricalColumnVector;
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.IntColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import lombok.Data;
@@ -34,7 +40,7 @@ import java.util.*;
  */
 @Data
 @JsonIgnoreProperties({"inputSchema", "columnIdx", "stateNames", "statesMap"})
-public class CategoricalToIntegerTransform extends BaseTransform {
+public class CategoricalToIntegerTransform extends BaseTransform implements ColumnarTransform {
 
     private String columnName;
     private int columnIdx = -1;
@@ -119,6 +125,58 @@ public class CategoricalToIntegerTransform extends BaseTransform {
         return out;
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnIdx);
+        int[] out = stateIndices(column);
+        IntColumnVector result = ColumnarOps.withNulls(new IntColumnVector(out, out.length), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnIdx, result);
+    }
+
+    /**
+     * Map each code of the column vector's dictionary to the index of the state, or -1 if it is not a known state
+     */
+    private int[] stateIndices(List<String> dictionary) {
+        int[] out = new int[dictionary.size()];
+        for (int i = 0; i < out.length; i++) {
+            Integer idx = statesMap.get(dictionary.get(i));
+            out[i] = (idx == null ? -1 : idx);
+        }
+        return out;
+    }
+
+    /**
+     * Get the state index for each row of the column. Values for missing rows are undefined
+     */
+    private int[] stateIndices(ColumnVector column) {
+        int n = column.size();
+        int[] out = new int[n];
+        if (column instanceof CategoricalColumnVector) {
+            CategoricalColumnVector categorical = (CategoricalColumnVector) column;
+            int[] codeToState = stateIndices(categorical.getDictionary());
+            int[] codes = categorical.getCodes();
+            for (int i = 0; i < n; i++) {
+                if (!column.isNull(i)) {
+                    int idx = codeToState[codes[i]];
+                    if (idx < 0)
+                        throw new RuntimeException("Unknown state (index not found): " + categorical.getCategory(i));
+                    out[i] = idx;
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (!column.isNull(i)) {
+                    String str = column.get(i).toString();
+                    Integer idx = statesMap.get(str);
+                    if (idx == null)
+                        throw new RuntimeException("Unknown state (index not found): " + str);
+                    out[i] = idx;
+                }
+            }
+        }
+        return out;
+    }
+
     /**
      * Transform an object
      * in to another object
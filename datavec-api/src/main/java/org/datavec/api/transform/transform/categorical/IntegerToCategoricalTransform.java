@@ -16,6 +16,11 @@
 
 package org.datavec.api.transform.transform.categorical;
 
+import org.datavec.api.records.columnar.CategoricalColumnVector;
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.transform.metadata.CategoricalMetaData;
@@ -32,7 +37,7 @@ import java.util.*;
  * @author Alex Black
  */
 @JsonIgnoreProperties({"inputSchema", "columnNumber"})
-public class IntegerToCategoricalTransform extends BaseColumnTransform {
+public class IntegerToCategoricalTransform extends BaseColumnTransform implements ColumnarTransform {
 
     private final Map<Integer, String> map;
 
@@ -60,6 +65,32 @@ public class IntegerToCategoricalTransform extends BaseColumnTransform {
         return new Text(map.get(columnWritable.toInt()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        int[] in = ColumnarOps.intValues(column);
+        int n = column.size();
+
+        List<String> dictionary = new ArrayList<>(map.values());
+        Map<Integer, Integer> codes = new HashMap<>();
+        for (Map.Entry<Integer, String> e : map.entrySet()) {
+            codes.put(e.getKey(), dictionary.indexOf(e.getValue()));
+        }
+
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (!column.isNull(i)) {
+                Integer code = codes.get(in[i]);
+                if (code == null)
+                    throw new IllegalStateException("No category for integer value " + in[i] + ": " + toString());
+                out[i] = code;
+            }
+        }
+        CategoricalColumnVector result =
+                        ColumnarOps.withNulls(new CategoricalColumnVector(dictionary, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
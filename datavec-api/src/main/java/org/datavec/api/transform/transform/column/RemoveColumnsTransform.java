@@ -16,6 +16,9 @@
 
 package org.datavec.api.transform.transform.column;
 
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.datavec.api.transform.ColumnOp;
 import org.datavec.api.util.StringUtils;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
@@ -35,7 +38,7 @@ import java.util.*;
  * @author Alex Black
  */
 @JsonIgnoreProperties({"inputSchema", "columnsToRemoveIdx", "indicesToRemove"})
-public class RemoveColumnsTransform extends BaseTransform implements ColumnOp {
+public class RemoveColumnsTransform extends BaseTransform implements ColumnOp, ColumnarTransform {
 
     private int[] columnsToRemoveIdx;
     private String[] columnsToRemove;
@@ -129,6 +132,17 @@ public class RemoveColumnsTransform extends BaseTransform implements ColumnOp {
         return outList;
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int[] keep = new int[batch.numColumns() - indicesToRemove.size()];
+        int j = 0;
+        for (int i = 0; i < batch.numColumns(); i++) {
+            if (!indicesToRemove.contains(i))
+                keep[j++] = i;
+        }
+        return ColumnarOps.selectColumns(batch, transform(batch.getSchema()), keep);
+    }
+
     /**
      * Transform an object
      * in to another object
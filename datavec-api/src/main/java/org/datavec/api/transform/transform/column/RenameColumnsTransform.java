@@ -16,12 +16,13 @@
 
 package org.datavec.api.transform.transform.column;
 
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.datavec.api.transform.ColumnOp;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.schema.Schema;
-import org.datavec.api.transform.Transform;
 import org.datavec.api.writable.Writable;
 
 import java.util.ArrayList;
@@ -34,7 +35,7 @@ import java.util.List;
  * @author Alex Black
  */
 @JsonIgnoreProperties({"inputSchema"})
-public class RenameColumnsTransform implements Transform, ColumnOp {
+public class RenameColumnsTransform implements ColumnarTransform, ColumnOp {
 
     private final List<String> oldNames;
     private final List<String> newNames;
@@ -116,6 +117,12 @@ public class RenameColumnsTransform implements Transform, ColumnOp {
         return sequence;
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        //Only the names change: column vectors are shared
+        return new ColumnarBatch(transform(batch.getSchema()), batch.getColumns().clone());
+    }
+
     /**
      * Transform an object
      * in to another object
@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.DoubleColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
+import org.datavec.api.transform.ColumnType;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -37,7 +43,7 @@ import java.util.List;
  * @author Alex Black
  * @see DoubleMathOpTransform To do an in-place mathematical operation of a double column and a double scalar value
  */
-public class DoubleColumnsMathOpTransform extends BaseColumnsMathOpTransform {
+public class DoubleColumnsMathOpTransform extends BaseColumnsMathOpTransform implements ColumnarTransform {
 
     public DoubleColumnsMathOpTransform(@JsonProperty("newColumnName") String newColumnName,
                     @JsonProperty("mathOp") MathOp mathOp, @JsonProperty("columns") List<String> columns) {
@@ -81,6 +87,55 @@ public class DoubleColumnsMathOpTransform extends BaseColumnsMathOpTransform {
         }
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int[] idxs = getColumnIdxs();
+        ColumnVector[] in = new ColumnVector[idxs.length];
+        double[][] x = new double[idxs.length][];
+        for (int j = 0; j < idxs.length; j++) {
+            in[j] = batch.getColumn(idxs[j]);
+            x[j] = ColumnarOps.doubleValues(in[j]);
+        }
+        int n = batch.numRows();
+        double[] out = new double[n];
+        switch (mathOp) {
+            case Add:
+                for (double[] values : x) {
+                    for (int i = 0; i < n; i++) {
+                        out[i] += values[i];
+                    }
+                }
+                break;
+            case Subtract:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[0][i] - x[1][i];
+                }
+                break;
+            case Multiply:
+                Arrays.fill(out, 1);
+                for (double[] values : x) {
+                    for (int i = 0; i < n; i++) {
+                        out[i] *= values[i];
+                    }
+                }
+                break;
+            case Divide:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[0][i] / x[1][i];
+                }
+                break;
+            case Modulus:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[0][i] % x[1][i];
+                }
+                break;
+            default:
+                throw new RuntimeException("Invalid mathOp: " + mathOp); //Should never happen
+        }
+        DoubleColumnVector result = ColumnarOps.withNulls(new DoubleColumnVector(ColumnType.Double, out, n), in);
+        return ColumnarOps.appendColumns(batch, transform(batch.getSchema()), result);
+    }
+
     @Override
     public String toString() {
         return "DoubleColumnsMathOpTransform(newColumnName=\"" + newColumnName + "\",mathOp=" + mathOp + ",columns="
@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.DoubleColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
+import org.datavec.api.transform.ColumnType;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -35,7 +41,7 @@ import java.util.List;
  * @author Alex Black
  * @see DoubleColumnsMathOpTransform to do a mathematical operation involving multiple columns (instead of a scalar)
  */
-public class DoubleMathOpTransform extends BaseColumnTransform {
+public class DoubleMathOpTransform extends BaseColumnTransform implements ColumnarTransform {
 
     private final MathOp mathOp;
     private final double scalar;
@@ -99,6 +105,37 @@ public class DoubleMathOpTransform extends BaseColumnTransform {
         return new DoubleWritable(doOp(columnWritable.toDouble()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        double[] in = ColumnarOps.doubleValues(column);
+        int n = column.size();
+        double[] out = new double[n];
+        switch (mathOp) {
+            case Add:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] + scalar;
+                }
+                break;
+            case Subtract:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] - scalar;
+                }
+                break;
+            case Multiply:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] * scalar;
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    out[i] = doOp(in[i]);
+                }
+        }
+        DoubleColumnVector result = ColumnarOps.withNulls(new DoubleColumnVector(ColumnType.Double, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "DoubleMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
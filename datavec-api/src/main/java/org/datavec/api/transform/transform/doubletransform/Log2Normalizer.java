@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.DoubleColumnVector;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -32,7 +38,7 @@ import java.util.List;
  *
  * @author Alex Black
  */
-public class Log2Normalizer extends BaseDoubleTransform {
+public class Log2Normalizer extends BaseDoubleTransform implements ColumnarTransform {
 
     protected static final double log2 = Math.log(2);
     protected final double columnMean;
@@ -70,6 +76,21 @@ public class Log2Normalizer extends BaseDoubleTransform {
         return new DoubleMetaData(newColumnName, 0.0, null);
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        double[] in = ColumnarOps.doubleValues(column);
+        int n = column.size();
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            double val = in[i];
+            out[i] = (Double.isNaN(val) ? 0 : normMean(val));
+        }
+        DoubleColumnVector result =
+                        ColumnarOps.withNulls(new DoubleColumnVector(ColumnType.Double, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "Log2Normalizer(columnMean=" + columnMean + ",columnMin=" + columnMin + ",scalingFactor=" + scalingFactor
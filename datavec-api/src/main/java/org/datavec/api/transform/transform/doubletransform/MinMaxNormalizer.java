@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.DoubleColumnVector;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -31,7 +37,7 @@ import org.datavec.api.writable.Writable;
  * @author Alex Black
  */
 @JsonIgnoreProperties({"ratio", "inputSchema", "columnNumber"})
-public class MinMaxNormalizer extends BaseDoubleTransform {
+public class MinMaxNormalizer extends BaseDoubleTransform implements ColumnarTransform {
 
     protected final double min;
     protected final double max;
@@ -67,6 +73,21 @@ public class MinMaxNormalizer extends BaseDoubleTransform {
         return new DoubleMetaData(newColumnName, newMin, newMax);
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        double[] in = ColumnarOps.doubleValues(column);
+        int n = column.size();
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            double val = in[i];
+            out[i] = (Double.isNaN(val) ? 0 : ratio * (val - min) + newMin);
+        }
+        DoubleColumnVector result =
+                        ColumnarOps.withNulls(new DoubleColumnVector(ColumnType.Double, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "MinMaxNormalizer(min=" + min + ",max=" + max + ",newMin=" + newMin + ",newMax=" + newMax + ")";
@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.DoubleColumnVector;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.Writable;
@@ -26,7 +32,7 @@ import org.datavec.api.writable.Writable;
  *
  * @author Alex Black
  */
-public class StandardizeNormalizer extends BaseDoubleTransform {
+public class StandardizeNormalizer extends BaseDoubleTransform implements ColumnarTransform {
 
     protected final double mean;
     protected final double stdev;
@@ -45,6 +51,20 @@ public class StandardizeNormalizer extends BaseDoubleTransform {
         return new DoubleWritable((val - mean) / stdev);
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        double[] in = ColumnarOps.doubleValues(column);
+        int n = column.size();
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = (in[i] - mean) / stdev;
+        }
+        DoubleColumnVector result =
+                        ColumnarOps.withNulls(new DoubleColumnVector(ColumnType.Double, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "StandardizeNormalizer(mean=" + mean + ",stdev=" + stdev + ")";
@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.DoubleColumnVector;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.Writable;
@@ -23,7 +29,7 @@ import org.datavec.api.writable.Writable;
 /**
  * Normalize by substracting the mean
  */
-public class SubtractMeanNormalizer extends BaseDoubleTransform {
+public class SubtractMeanNormalizer extends BaseDoubleTransform implements ColumnarTransform {
 
     private final double mean;
 
@@ -37,6 +43,20 @@ public class SubtractMeanNormalizer extends BaseDoubleTransform {
         return new DoubleWritable(writable.toDouble() - mean);
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        double[] in = ColumnarOps.doubleValues(column);
+        int n = column.size();
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = in[i] - mean;
+        }
+        DoubleColumnVector result =
+                        ColumnarOps.withNulls(new DoubleColumnVector(ColumnType.Double, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "SubstractMeanNormalizer(mean=" + mean + ")";
@@ -16,6 +16,11 @@
 
 package org.datavec.api.transform.transform.integer;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.IntColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -43,7 +48,7 @@ import java.util.List;
  * @author Alex Black
  * @see IntegerMathOpTransform To do an in-place mathematical operation of an integer column and an integer scalar value
  */
-public class IntegerColumnsMathOpTransform extends BaseColumnsMathOpTransform {
+public class IntegerColumnsMathOpTransform extends BaseColumnsMathOpTransform implements ColumnarTransform {
 
     /**
      * @param newColumnName Name of the new column (output column)
@@ -88,6 +93,61 @@ public class IntegerColumnsMathOpTransform extends BaseColumnsMathOpTransform {
         }
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int[] idxs = getColumnIdxs();
+        ColumnVector[] in = new ColumnVector[idxs.length];
+        int[][] x = new int[idxs.length][];
+        for (int j = 0; j < idxs.length; j++) {
+            in[j] = batch.getColumn(idxs[j]);
+            x[j] = ColumnarOps.intValues(in[j]);
+        }
+        int n = batch.numRows();
+        int[] out = new int[n];
+        switch (mathOp) {
+            case Add:
+                for (int[] values : x) {
+                    for (int i = 0; i < n; i++) {
+                        out[i] += values[i];
+                    }
+                }
+                break;
+            case Subtract:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[0][i] - x[1][i];
+                }
+                break;
+            case Multiply:
+                Arrays.fill(out, 1);
+                for (int[] values : x) {
+                    for (int i = 0; i < n; i++) {
+                        out[i] *= values[i];
+                    }
+                }
+                break;
+            case Divide:
+                for (int i = 0; i < n; i++) {
+                    //Skip missing values: integer division by an undefined value could throw
+                    if (!in[0].isNull(i) && !in[1].isNull(i)) {
+                        out[i] = x[0][i] / x[1][i];
+                    }
+                }
+                break;
+            case Modulus:
+                for (int i = 0; i < n; i++) {
+                    //Skip missing values: integer division by an undefined value could throw
+                    if (!in[0].isNull(i) && !in[1].isNull(i)) {
+                        out[i] = x[0][i] % x[1][i];
+                    }
+                }
+                break;
+            default:
+                throw new RuntimeException("Invalid mathOp: " + mathOp); //Should never happen
+        }
+        IntColumnVector result = ColumnarOps.withNulls(new IntColumnVector(out, n), in);
+        return ColumnarOps.appendColumns(batch, transform(batch.getSchema()), result);
+    }
+
     @Override
     public String toString() {
         return "IntegerColumnsMathOpTransform(newColumnName=\"" + newColumnName + "\",mathOp=" + mathOp + ",columns="
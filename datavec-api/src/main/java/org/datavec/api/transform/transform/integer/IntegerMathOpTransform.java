@@ -16,6 +16,11 @@
 
 package org.datavec.api.transform.transform.integer;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.IntColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
@@ -31,7 +36,7 @@ import org.datavec.api.writable.Writable;
  * @author Alex Black
  * @see IntegerColumnsMathOpTransform to do a mathematical operation involving multiple columns (instead of a scalar)
  */
-public class IntegerMathOpTransform extends BaseColumnTransform {
+public class IntegerMathOpTransform extends BaseColumnTransform implements ColumnarTransform {
 
     private final MathOp mathOp;
     private final int scalar;
@@ -95,6 +100,40 @@ public class IntegerMathOpTransform extends BaseColumnTransform {
         return new IntWritable(doOp(columnWritable.toInt()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        int[] in = ColumnarOps.intValues(column);
+        int n = column.size();
+        int[] out = new int[n];
+        switch (mathOp) {
+            case Add:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] + scalar;
+                }
+                break;
+            case Subtract:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] - scalar;
+                }
+                break;
+            case Multiply:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] * scalar;
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    //Skip missing values: integer division by an undefined value could throw
+                    if (!column.isNull(i)) {
+                        out[i] = doOp(in[i]);
+                    }
+                }
+        }
+        IntColumnVector result = ColumnarOps.withNulls(new IntColumnVector(out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "IntegerMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
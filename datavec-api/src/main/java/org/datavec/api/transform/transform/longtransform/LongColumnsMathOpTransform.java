@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.longtransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.LongColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
+import org.datavec.api.transform.ColumnType;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.writable.LongWritable;
 import org.datavec.api.transform.transform.doubletransform.DoubleColumnsMathOpTransform;
@@ -40,7 +46,7 @@ import java.util.List;
  * @author Alex Black
  * @see LongMathOpTransform To do an in-place mathematical operation of a long column and a long scalar value
  */
-public class LongColumnsMathOpTransform extends BaseColumnsMathOpTransform {
+public class LongColumnsMathOpTransform extends BaseColumnsMathOpTransform implements ColumnarTransform {
 
     public LongColumnsMathOpTransform(@JsonProperty("newColumnName") String newColumnName,
                     @JsonProperty("mathOp") MathOp mathOp, @JsonProperty("columns") String... columns) {
@@ -80,6 +86,61 @@ public class LongColumnsMathOpTransform extends BaseColumnsMathOpTransform {
         }
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int[] idxs = getColumnIdxs();
+        ColumnVector[] in = new ColumnVector[idxs.length];
+        long[][] x = new long[idxs.length][];
+        for (int j = 0; j < idxs.length; j++) {
+            in[j] = batch.getColumn(idxs[j]);
+            x[j] = ColumnarOps.longValues(in[j]);
+        }
+        int n = batch.numRows();
+        long[] out = new long[n];
+        switch (mathOp) {
+            case Add:
+                for (long[] values : x) {
+                    for (int i = 0; i < n; i++) {
+                        out[i] += values[i];
+                    }
+                }
+                break;
+            case Subtract:
+                for (int i = 0; i < n; i++) {
+                    out[i] = x[0][i] - x[1][i];
+                }
+                break;
+            case Multiply:
+                Arrays.fill(out, 1);
+                for (long[] values : x) {
+                    for (int i = 0; i < n; i++) {
+                        out[i] *= values[i];
+                    }
+                }
+                break;
+            case Divide:
+                for (int i = 0; i < n; i++) {
+                    //Skip missing values: integer division by an undefined value could throw
+                    if (!in[0].isNull(i) && !in[1].isNull(i)) {
+                        out[i] = x[0][i] / x[1][i];
+                    }
+                }
+                break;
+            case Modulus:
+                for (int i = 0; i < n; i++) {
+                    //Skip missing values: integer division by an undefined value could throw
+                    if (!in[0].isNull(i) && !in[1].isNull(i)) {
+                        out[i] = x[0][i] % x[1][i];
+                    }
+                }
+                break;
+            default:
+                throw new RuntimeException("Invalid mathOp: " + mathOp); //Should never happen
+        }
+        LongColumnVector result = ColumnarOps.withNulls(new LongColumnVector(ColumnType.Long, out, n), in);
+        return ColumnarOps.appendColumns(batch, transform(batch.getSchema()), result);
+    }
+
     @Override
     public String toString() {
         return "LongColumnsMathOpTransform(newColumnName=\"" + newColumnName + "\",mathOp=" + mathOp + ",columns="
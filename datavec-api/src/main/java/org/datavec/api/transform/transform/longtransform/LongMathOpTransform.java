@@ -16,6 +16,12 @@
 
 package org.datavec.api.transform.transform.longtransform;
 
+import org.datavec.api.records.columnar.ColumnVector;
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.records.columnar.LongColumnVector;
+import org.datavec.api.transform.columnar.ColumnarOps;
+import org.datavec.api.transform.columnar.ColumnarTransform;
+import org.datavec.api.transform.ColumnType;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 import org.datavec.api.writable.LongWritable;
 import org.datavec.api.transform.MathOp;
@@ -31,7 +37,7 @@ import org.datavec.api.writable.Writable;
  * @author Alex Black
  * @see LongColumnsMathOpTransform to do a mathematical operation involving multiple long columns (instead of a scalar)
  */
-public class LongMathOpTransform extends BaseColumnTransform {
+public class LongMathOpTransform extends BaseColumnTransform implements ColumnarTransform {
 
     private final MathOp mathOp;
     private final long scalar;
@@ -95,6 +101,40 @@ public class LongMathOpTransform extends BaseColumnTransform {
         return new LongWritable(doOp(columnWritable.toLong()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        ColumnVector column = batch.getColumn(columnNumber);
+        long[] in = ColumnarOps.longValues(column);
+        int n = column.size();
+        long[] out = new long[n];
+        switch (mathOp) {
+            case Add:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] + scalar;
+                }
+                break;
+            case Subtract:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] - scalar;
+                }
+                break;
+            case Multiply:
+                for (int i = 0; i < n; i++) {
+                    out[i] = in[i] * scalar;
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    //Skip missing values: integer division by an undefined value could throw
+                    if (!column.isNull(i)) {
+                        out[i] = doOp(in[i]);
+                    }
+                }
+        }
+        LongColumnVector result = ColumnarOps.withNulls(new LongColumnVector(ColumnType.Long, out, n), column);
+        return ColumnarOps.replaceColumn(batch, transform(batch.getSchema()), columnNumber, result);
+    }
+
     @Override
     public String toString() {
         return "LongMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -0,0 +1,156 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A sparse vector of doubles: the indices (in ascending order, with no duplicates) and values of the non-zero
+ * elements, along with the total length of the vector. Elements that are not stored are zero.
+ */
+public class SparseArrayWritable extends ArrayWritable {
+
+    private long length;
+    private int[] indices;
+    private double[] values;
+
+    public SparseArrayWritable() {
+        this(0, new int[0], new double[0]);
+    }
+
+    /**
+     * @param length  Length of the (dense) vector
+     * @param indices Indices of the non-zero values, in ascending order
+     * @param values  Values, one for each index
+     */
+    public SparseArrayWritable(long length, int[] indices, double[] values) {
+        set(length, indices, values);
+    }
+
+    public void set(long length, int[] indices, double[] values) {
+        if (indices.length != values.length) {
+            throw new IllegalArgumentException("Indices and values must have the same length: got "
+                            + indices.length + " and " + values.length);
+        }
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < 0 || indices[i] >= length || (i > 0 && indices[i] <= indices[i - 1])) {
+                throw new IllegalArgumentException("Invalid indices: must be in ascending order, with no duplicates, "
+                                + "in range 0 to " + (length - 1) + "; got " + Arrays.toString(indices));
+            }
+        }
+        this.length = length;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * @return Indices of the stored values, in ascending order
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return Stored values
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return Number of stored values
+     */
+    public int numStored() {
+        return indices.length;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public double getDouble(long i) {
+        if (i < 0 || i >= length)
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+        if (i > Integer.MAX_VALUE)
+            return 0.0;
+        int idx = Arrays.binarySearch(indices, (int) i);
+        return idx >= 0 ? values[idx] : 0.0;
+    }
+
+    @Override
+    public float getFloat(long i) {
+        return (float) getDouble(i);
+    }
+
+    @Override
+    public int getInt(long i) {
+        return (int) getDouble(i);
+    }
+
+    @Override
+    public long getLong(long i) {
+        return (long) getDouble(i);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(length);
+        out.writeInt(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            out.writeInt(indices[i]);
+            out.writeDouble(values[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        length = in.readLong();
+        int n = in.readInt();
+        indices = new int[n];
+        values = new double[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = in.readInt();
+            values[i] = in.readDouble();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SparseArrayWritable))
+            return false;
+        SparseArrayWritable other = (SparseArrayWritable) o;
+        return length == other.length && Arrays.equals(indices, other.indices) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (length ^ (length >>> 32));
+        result = 31 * result + Arrays.hashCode(indices);
+        return 31 * result + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "SparseArrayWritable(length=" + length + ",indices=" + Arrays.toString(indices) + ",values="
+                        + Arrays.toString(values) + ")";
+    }
+}
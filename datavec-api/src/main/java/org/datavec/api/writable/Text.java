@@ -210,6 +210,21 @@ public class Text extends BinaryComparable implements WritableComparable<BinaryC
         this.length = len;
     }
 
+    /**
+     * Set the Text to a range of bytes from a buffer (for example, a memory mapped file).
+     * The position and limit of the buffer are not modified.
+     * @param utf8 the buffer to copy from
+     * @param start the (absolute) position in the buffer of the new string
+     * @param len the number of bytes of the new string
+     */
+    public void set(ByteBuffer utf8, int start, int len) {
+        setCapacity(len, false);
+        ByteBuffer src = utf8.duplicate();
+        src.position(start);
+        src.get(bytes, 0, len);
+        this.length = len;
+    }
+
     /**
      * Append a range of bytes to the end of the given text
      * @param utf8 the data to copy from
@@ -0,0 +1,111 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.columnar;
+
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ColumnarBatchTest {
+
+    @Test
+    public void testRoundTrip() {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnLong("long").addColumnDouble("double")
+                        .addColumnFloat("float").addColumnCategorical("cat", "a", "b", "c").addColumnString("str")
+                        .build();
+
+        List<List<Writable>> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(Arrays.<Writable>asList(new IntWritable(i), new LongWritable(10L * i),
+                            new DoubleWritable(i / 2.0), new FloatWritable(i / 4.0f),
+                            new Text("abc".substring(i % 3, i % 3 + 1)), new Text("value_" + i)));
+        }
+        //Missing values
+        records.set(7, Arrays.<Writable>asList(NullWritable.INSTANCE, new LongWritable(70), NullWritable.INSTANCE,
+                        new FloatWritable(1.0f), NullWritable.INSTANCE, NullWritable.INSTANCE));
+
+        ColumnarBatch batch = ColumnarBatch.fromRecords(schema, records);
+        assertEquals(100, batch.numRows());
+        assertEquals(6, batch.numColumns());
+        assertEquals(records, batch.toRecords());
+        assertEquals(records, batch.asRecords());
+
+        DoubleColumnVector d = (DoubleColumnVector) batch.getColumn("double");
+        assertEquals(1, d.getNullCount());
+        assertTrue(d.isNull(7));
+        assertFalse(d.isNull(8));
+        assertEquals(4.0, d.getDouble(8), 0.0);
+
+        CategoricalColumnVector c = (CategoricalColumnVector) batch.getColumn("cat");
+        assertEquals(Arrays.asList("a", "b", "c"), c.getDictionary());
+        assertEquals(2, c.getCode(5));
+        assertEquals("c", c.getCategory(5));
+        assertNull(c.getCategory(7));
+
+        TextColumnVector t = (TextColumnVector) batch.getColumn("str");
+        assertEquals("value_99", t.getString(99));
+        assertNull(t.getString(7));
+
+        //Setting a value clears the missing flag
+        d.setDouble(7, 3.5);
+        assertFalse(d.isNull(7));
+        assertEquals(0, d.getNullCount());
+        assertEquals(new DoubleWritable(3.5), batch.asRecords().get(7).get(2));
+    }
+
+    @Test
+    public void testFromRecordReader() throws Exception {
+        Schema schema = new Schema.Builder().addColumnsDouble("c%d", 0, 3)
+                        .addColumnCategorical("label", "0", "1", "2").build();
+
+        CSVRecordReader rr = new CSVRecordReader(0, ",");
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        ColumnarBatch batch = ColumnarBatch.fromRecords(schema, rr.next(150));
+        assertEquals(150, batch.numRows());
+
+        rr.reset();
+        List<List<Writable>> asRecords = batch.asRecords();
+        for (int i = 0; i < 150; i++) {
+            List<Writable> expected = rr.next();
+            List<Writable> actual = asRecords.get(i);
+            for (int j = 0; j < 4; j++) {
+                assertEquals(expected.get(j).toDouble(), actual.get(j).toDouble(), 0.0);
+            }
+            assertEquals(expected.get(4).toString(), actual.get(4).toString());
+        }
+
+        //Numeric values are stored in primitive arrays
+        double[] data = ((DoubleColumnVector) batch.getColumn(0)).getData();
+        assertEquals(asRecords.get(0).get(0).toDouble(), data[0], 0.0);
+        assertTrue(batch.sizeInBytes() < 150 * 5 * 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRecord() {
+        Schema schema = new Schema.Builder().addColumnsDouble("a", "b").build();
+        new ColumnarBatch(schema).addRecord(Arrays.<Writable>asList(new DoubleWritable(0)));
+    }
+}
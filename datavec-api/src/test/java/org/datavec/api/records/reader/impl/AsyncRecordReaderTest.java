@@ -0,0 +1,208 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.SequenceRecord;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionSequenceRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVSequenceRecordReader;
+import org.datavec.api.split.CollectionInputSplit;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AsyncRecordReaderTest {
+
+    @Test
+    public void testAsyncRecordReader() throws Exception {
+        CSVRecordReader rr = new CSVRecordReader(0, ",");
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        List<Record> expected = new ArrayList<>();
+        while (rr.hasNext()) {
+            expected.add(rr.nextRecord());
+        }
+        rr.reset();
+
+        AsyncRecordReader async = new AsyncRecordReader(rr, 2, 7);
+        for (int epoch = 0; epoch < 3; epoch++) {
+            List<RecordMetaData> meta = new ArrayList<>();
+            int count = 0;
+            while (async.hasNext()) {
+                Record r = async.nextRecord();
+                assertEquals(expected.get(count).getRecord(), r.getRecord());
+                assertEquals(expected.get(count).getMetaData(), r.getMetaData());
+                meta.add(r.getMetaData());
+                count++;
+            }
+            assertEquals(150, count);
+            assertFalse(async.hasNext());
+
+            List<Record> fromMeta = async.loadFromMetaData(meta);
+            assertEquals(expected, fromMeta);
+            async.reset();
+        }
+        assertTrue(async.getAverageQueueOccupancy() <= async.getQueueCapacity());
+
+        //Batches span the prefetched batches
+        List<List<Writable>> batch = async.next(10);
+        assertEquals(10, batch.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.get(i).getRecord(), batch.get(i));
+        }
+        async.reset();
+
+        //Reset part way through an epoch
+        for (int i = 0; i < 20; i++) {
+            async.next();
+        }
+        async.reset();
+        assertEquals(expected.get(0).getRecord(), async.next());
+        async.close();
+    }
+
+    @Test
+    public void testAsyncRecordReaderException() throws Exception {
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Arrays.<Writable>asList(new IntWritable(i)));
+        }
+        RecordReader failing = new CollectionRecordReader(data) {
+            private int count = 0;
+
+            @Override
+            public Record nextRecord() {
+                if (count++ == 5) {
+                    throw new IllegalStateException("Test exception");
+                }
+                return super.nextRecord();
+            }
+        };
+
+        AsyncRecordReader async = new AsyncRecordReader(failing, 2, 2);
+        int count = 0;
+        try {
+            while (async.hasNext()) {
+                async.next();
+                count++;
+            }
+            fail("Expected exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        //All records read before the failure (including those of the partial batch) are returned first
+        assertEquals(5, count);
+        async.close();
+    }
+
+    @Test
+    public void testAsyncSequenceRecordReader() throws Exception {
+        List<List<List<Writable>>> sequences = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            List<List<Writable>> seq = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                seq.add(Arrays.<Writable>asList(new IntWritable(i), new IntWritable(j)));
+            }
+            sequences.add(seq);
+        }
+
+        AsyncSequenceRecordReader async =
+                        new AsyncSequenceRecordReader(new CollectionSequenceRecordReader(sequences), 1, 2);
+        for (int epoch = 0; epoch < 2; epoch++) {
+            List<RecordMetaData> meta = new ArrayList<>();
+            List<List<List<Writable>>> out = new ArrayList<>();
+            while (async.hasNext()) {
+                SequenceRecord r = async.nextSequence();
+                out.add(r.getSequenceRecord());
+                meta.add(r.getMetaData());
+            }
+            assertEquals(sequences, out);
+            assertEquals(sequences.get(3), async.loadSequenceFromMetaData(meta.get(3)).getSequenceRecord());
+            async.reset();
+        }
+
+        assertEquals(sequences.subList(0, 4), async.sequenceRecords(4));
+        try {
+            async.next(2);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected: records can't be read after sequences, until the reader is reset
+        }
+        async.close();
+    }
+
+    @Test
+    public void testAsyncSequenceRecordReaderRecords() throws Exception {
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            uris.add(new ClassPathResource("csvsequence_" + i + ".txt").getFile().toURI());
+        }
+        InputSplit split = new CollectionInputSplit(uris);
+
+        CSVSequenceRecordReader plain = new CSVSequenceRecordReader(0, ",");
+        plain.initialize(split);
+        List<List<Writable>> expRecords = new ArrayList<>();
+        while (plain.hasNext()) {
+            expRecords.add(plain.next());
+        }
+        plain.reset();
+        List<List<List<Writable>>> expSequences = new ArrayList<>();
+        while (plain.hasNext()) {
+            expSequences.add(plain.sequenceRecord());
+        }
+        assertTrue(expRecords.size() > 1);
+
+        CSVSequenceRecordReader underlying = new CSVSequenceRecordReader(0, ",");
+        underlying.initialize(split);
+        AsyncSequenceRecordReader async = new AsyncSequenceRecordReader(underlying, 1, 1);
+
+        List<List<Writable>> records = new ArrayList<>();
+        records.add(async.next());
+        records.add(async.nextRecord().getRecord());
+        records.addAll(async.next(expRecords.size()));
+        assertEquals(expRecords, records);
+        assertFalse(async.hasNext());
+        try {
+            async.sequenceRecord();
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected: sequences can't be read after records, until the reader is reset
+        }
+
+        //After a reset, the reader can be used for sequences instead
+        async.reset();
+        List<List<List<Writable>>> sequences = new ArrayList<>();
+        while (async.hasNext()) {
+            sequences.add(async.sequenceRecord());
+        }
+        assertEquals(expSequences, sequences);
+        async.close();
+    }
+}
@@ -17,8 +17,11 @@
 package org.datavec.api.records.reader.impl;
 
 import org.apache.commons.io.FileUtils;
+import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
+import org.datavec.api.records.listener.impl.LogRecordListener;
 import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.impl.csv.CSVByteTokenizer;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.records.reader.impl.csv.CSVRegexRecordReader;
 import org.datavec.api.writable.IntWritable;
@@ -31,10 +34,14 @@ import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.junit.Assert.*;
 
@@ -231,4 +238,144 @@ public class CSVRecordReaderTest {
         }
     }
 
+    @Test
+    public void testByteTokenizerMatchesDefault() throws Exception {
+        CSVRecordReader rr = new CSVRecordReader(10, ",");
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        CSVRecordReader rrBytes = new CSVRecordReader(10, ",", null, true);
+        rrBytes.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        for (int i = 0; i < 2; i++) {
+            int count = 0;
+            while (rr.hasNext()) {
+                assertTrue(rrBytes.hasNext());
+                assertEquals(rr.next(), rrBytes.next());
+                count++;
+            }
+            assertFalse(rrBytes.hasNext());
+            assertEquals(140, count);
+            rr.reset();
+            rrBytes.reset();
+        }
+    }
+
+    @Test
+    public void testByteTokenizerQuotes() throws Exception {
+        String data = "1,0,3,\"Braund, Mr. Owen Harris\",male,\"\"\"\"\r\n" + "a,\"multi\nline\",,\"\"\rb\n"
+                        + "\"x\"\"y\",z";
+        CSVByteTokenizer t = new CSVByteTokenizer(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)),
+                        ',', '"', 4);
+        assertEquals(Arrays.<Writable>asList(new Text("1"), new Text("0"), new Text("3"),
+                        new Text("Braund, Mr. Owen Harris"), new Text("male"), new Text("\"")), t.next());
+        assertEquals(Arrays.<Writable>asList(new Text("a"), new Text("multi\nline"), new Text(""), new Text("")),
+                        t.next());
+        assertEquals(Arrays.<Writable>asList(new Text("b")), t.next());
+        assertEquals(Arrays.<Writable>asList(new Text("x\"y"), new Text("z")), t.next());
+        assertFalse(t.hasNext());
+
+        CSVRecordReader reader = new CSVRecordReader(0, CSVRecordReader.QUOTE_HANDLING_DELIMITER, "\"", true);
+        reader.initialize(new StringSplit(data));
+        int count = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            count++;
+        }
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void testByteTokenizerConfiguration() throws Exception {
+        //Delimiter, quote and lines to skip must be set from the configuration before the tokenizer is opened
+        Configuration conf = new Configuration();
+        conf.setBoolean(CSVRecordReader.BYTE_TOKENIZER, true);
+        conf.set(CSVRecordReader.DELIMITER, ";");
+        conf.set(CSVRecordReader.QUOTE, "'");
+        conf.setInt(CSVRecordReader.SKIP_NUM_LINES, 1);
+        CSVRecordReader rr = new CSVRecordReader();
+        rr.initialize(conf, new StringSplit("header;header\n1;'a;b'\n2;c"));
+
+        assertEquals(Arrays.<Writable>asList(new Text("1"), new Text("a;b")), rr.next());
+        assertEquals(Arrays.<Writable>asList(new Text("2"), new Text("c")), rr.next());
+        assertFalse(rr.hasNext());
+    }
+
+    @Test
+    public void testByteTokenizerMeta() throws Exception {
+        CSVRecordReader rr = new CSVRecordReader(0, ",", null, true);
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        List<RecordMetaData> metaList = new ArrayList<>();
+        List<List<Writable>> writables = new ArrayList<>();
+        while (rr.hasNext()) {
+            Record r = rr.nextRecord();
+            metaList.add(r.getMetaData());
+            writables.add(r.getRecord());
+        }
+        assertEquals(150, writables.size());
+
+        List<Record> contents = rr.loadFromMetaData(metaList);
+        assertEquals(150, contents.size());
+        for (int i = 0; i < 150; i++) {
+            assertEquals(writables.get(i), contents.get(i).getRecord());
+        }
+
+        List<RecordMetaData> meta2 = Arrays.asList(metaList.get(100), metaList.get(3), metaList.get(100));
+        List<Record> contents2 = rr.loadFromMetaData(meta2);
+        assertEquals(writables.get(100), contents2.get(0).getRecord());
+        assertEquals(writables.get(3), contents2.get(1).getRecord());
+        assertEquals(writables.get(100), contents2.get(2).getRecord());
+    }
+
+    @Test
+    public void testNextBatch() throws Exception {
+        FileSplit split = new FileSplit(new ClassPathResource("iris.dat").getFile());
+        for (boolean byteTokenizer : new boolean[] {false, true}) {
+            CSVRecordReader rr = new CSVRecordReader(5, ",", null, byteTokenizer);
+            rr.initialize(split);
+            List<List<Writable>> expected = new ArrayList<>();
+            while (rr.hasNext()) {
+                expected.add(rr.next());
+            }
+            assertEquals(145, expected.size());
+
+            rr.reset();
+            assertTrue(rr.batchesSupported());
+            LogRecordListener listener = new LogRecordListener();
+            rr.setListeners(listener);
+            List<List<Writable>> actual = new ArrayList<>();
+            while (rr.hasNext()) {
+                List<List<Writable>> batch = rr.next(32);
+                assertTrue(batch.size() == 32 || !rr.hasNext());
+                actual.addAll(batch);
+            }
+            assertEquals(expected, actual);
+            assertTrue(listener.invoked());
+            try {
+                rr.next(32);
+                fail("Expected exception");
+            } catch (NoSuchElementException e) {
+                //Expected
+            }
+        }
+
+        //Subclasses that override next() opt out of batch reads, and fall back on reading one record at a time
+        CSVRecordReader custom = new CSVRecordReader(5, ",") {
+            @Override
+            public boolean batchesSupported() {
+                return false;
+            }
+
+            @Override
+            public List<Writable> next() {
+                List<Writable> l = new ArrayList<>(super.next());
+                l.add(new IntWritable(0));
+                return l;
+            }
+        };
+        custom.initialize(split);
+        assertFalse(custom.batchesSupported());
+        List<List<Writable>> batch = custom.next(10);
+        assertEquals(10, batch.size());
+        assertEquals(6, batch.get(0).size());
+    }
 }
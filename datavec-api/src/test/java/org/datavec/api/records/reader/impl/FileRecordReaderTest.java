@@ -16,8 +16,10 @@
 
 package org.datavec.api.records.reader.impl;
 
+import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.split.CollectionInputSplit;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.split.InputSplit;
@@ -97,4 +99,29 @@ public class FileRecordReaderTest {
         assertEquals(out3, fromMeta);
     }
 
+    @Test
+    public void testMemoryMapped() throws Exception {
+        URI[] arr = new URI[3];
+        arr[0] = new org.datavec.api.util.ClassPathResource("csvsequence_0.txt").getFile().toURI();
+        arr[1] = new org.datavec.api.util.ClassPathResource("csvsequence_1.txt").getFile().toURI();
+        arr[2] = new org.datavec.api.util.ClassPathResource("csvsequence_2.txt").getFile().toURI();
+        InputSplit is = new CollectionInputSplit(Arrays.asList(arr));
+
+        Configuration conf = new Configuration();
+        conf.setBoolean(FileRecordReader.APPEND_LABEL, false);
+        FileRecordReader rr = new FileRecordReader();
+        rr.initialize(conf, is);
+        conf.setBoolean(RecordReader.MEMORY_MAPPED, true);
+        FileRecordReader rrMapped = new FileRecordReader();
+        rrMapped.initialize(conf, is);
+
+        int count = 0;
+        while (rr.hasNext()) {
+            assertEquals(rr.next(), rrMapped.next());
+            count++;
+        }
+        assertFalse(rrMapped.hasNext());
+        assertEquals(3, count);
+    }
+
 }
@@ -21,12 +21,16 @@ import static org.junit.Assert.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.split.InputStreamInputSplit;
+import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
 
@@ -37,6 +41,7 @@ import java.io.*;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -185,4 +190,329 @@ public class LineReaderTest {
             e.printStackTrace();
         }
     }
+
+    @Test
+    public void testParallelLineReader() throws Exception {
+        File tmpdir = new File(System.getProperty("java.io.tmpdir"), "tmpdir-testParallelLineReader");
+        FileUtils.deleteDirectory(tmpdir);
+        tmpdir.mkdir();
+
+        for (int f = 0; f < 3; f++) {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                StringBuilder sb = new StringBuilder().append(f).append("_").append(i);
+                for (int j = 0; j < i % 17; j++) {
+                    sb.append("x");
+                }
+                lines.add(sb.toString());
+            }
+            FileUtils.writeLines(new File(tmpdir, "tmp" + f + ".txt"), lines, f == 1 ? "\r\n" : "\n");
+        }
+        InputSplit split = new FileSplit(tmpdir);
+
+        RecordReader sequential = new LineRecordReader();
+        sequential.initialize(split);
+        List<Record> expected = new ArrayList<>();
+        while (sequential.hasNext()) {
+            expected.add(sequential.nextRecord());
+        }
+        assertEquals(3000, expected.size());
+
+        for (boolean ordered : new boolean[] {true, false}) {
+            Configuration conf = new Configuration();
+            conf.setInt(LineRecordReader.PARALLEL_THREADS, 4);
+            conf.setLong(LineRecordReader.PARALLEL_CHUNK_SIZE, 100);
+            conf.setBoolean(LineRecordReader.PARALLEL_ORDERED, ordered);
+            RecordReader reader = new LineRecordReader();
+            reader.initialize(conf, split);
+
+            for (int epoch = 0; epoch < 2; epoch++) {
+                List<Record> actual = new ArrayList<>();
+                List<RecordMetaData> meta = new ArrayList<>();
+                while (reader.hasNext()) {
+                    Record r = reader.nextRecord();
+                    actual.add(r);
+                    meta.add(r.getMetaData());
+                }
+                assertEquals(3000, actual.size());
+
+                if (ordered) {
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertEquals(expected.get(i).getRecord(), actual.get(i).getRecord());
+                        RecordMetaDataLine m = (RecordMetaDataLine) actual.get(i).getMetaData();
+                        RecordMetaDataLine e = (RecordMetaDataLine) expected.get(i).getMetaData();
+                        assertEquals(e.getLineNumber(), m.getLineNumber());
+                        assertEquals(e.getURI(), m.getURI());
+                    }
+                } else {
+                    List<List<Writable>> e = new ArrayList<>();
+                    List<List<Writable>> a = new ArrayList<>();
+                    for (int i = 0; i < expected.size(); i++) {
+                        e.add(expected.get(i).getRecord());
+                        a.add(actual.get(i).getRecord());
+                    }
+                    assertEquals(new HashSet<>(e), new HashSet<>(a));
+                }
+
+                //Byte offsets: records can be loaded without scanning
+                List<Record> fromMeta = reader.loadFromMetaData(meta);
+                for (int i = 0; i < actual.size(); i++) {
+                    assertEquals(actual.get(i).getRecord(), fromMeta.get(i).getRecord());
+                }
+                reader.reset();
+            }
+            reader.close();
+        }
+
+        FileUtils.deleteDirectory(tmpdir);
+    }
+
+    @Test
+    public void testParallelCSVRecordReader() throws Exception {
+        InputSplit split = new FileSplit(new ClassPathResource("iris.dat").getFile());
+        for (boolean byteTokenizer : new boolean[] {false, true}) {
+            CSVRecordReader sequential = new CSVRecordReader(5, ",", null, byteTokenizer);
+            sequential.initialize(split);
+
+            Configuration conf = new Configuration();
+            conf.setInt(LineRecordReader.PARALLEL_THREADS, 3);
+            conf.setLong(LineRecordReader.PARALLEL_CHUNK_SIZE, 256);
+            conf.setInt(CSVRecordReader.SKIP_NUM_LINES, 5);
+            conf.setBoolean(CSVRecordReader.BYTE_TOKENIZER, byteTokenizer);
+            CSVRecordReader parallel = new CSVRecordReader();
+            parallel.initialize(conf, split);
+
+            int count = 0;
+            while (sequential.hasNext()) {
+                assertTrue(parallel.hasNext());
+                assertEquals(sequential.next(), parallel.next());
+                count++;
+            }
+            assertFalse(parallel.hasNext());
+            assertEquals(145, count);
+            parallel.close();
+        }
+    }
+
+    @Test
+    public void testParallelCSVRecordReaderQuotedLineBreaks() throws Exception {
+        File f = new File(System.getProperty("java.io.tmpdir"), "testParallelCSVRecordReaderQuotedLineBreaks.csv");
+        StringBuilder sb = new StringBuilder();
+        //Header records: longer than a chunk, with a quoted line break
+        sb.append("\"first header\nfield\",\"second header field\"\r\n");
+        sb.append("\"another header record, longer than a chunk\",x\n");
+        for (int i = 0; i < 50; i++) {
+            if (i % 3 == 0) {
+                sb.append(i).append(",\"multi\nline \"\"quoted\"\"\r\nvalue ").append(i).append("\"\n");
+            } else {
+                sb.append(i).append(",plain value ").append(i).append("\n");
+            }
+        }
+        FileUtils.writeStringToFile(f, sb.toString(), "UTF-8");
+        InputSplit split = new FileSplit(f);
+
+        CSVRecordReader sequential = new CSVRecordReader(2, ",", null, true);
+        sequential.initialize(split);
+        List<List<Writable>> expected = new ArrayList<>();
+        while (sequential.hasNext()) {
+            expected.add(sequential.next());
+        }
+        assertEquals(50, expected.size());
+        assertEquals("multi\nline \"quoted\"\r\nvalue 0", expected.get(0).get(1).toString());
+
+        for (long chunkSize : new long[] {16, 37, 1024}) {
+            Configuration conf = new Configuration();
+            conf.setInt(LineRecordReader.PARALLEL_THREADS, 3);
+            conf.setLong(LineRecordReader.PARALLEL_CHUNK_SIZE, chunkSize);
+            conf.setInt(CSVRecordReader.SKIP_NUM_LINES, 2);
+            conf.setBoolean(CSVRecordReader.BYTE_TOKENIZER, true);
+            CSVRecordReader parallel = new CSVRecordReader();
+            parallel.initialize(conf, split);
+
+            List<RecordMetaData> meta = new ArrayList<>();
+            for (int i = 0; i < expected.size(); i++) {
+                assertTrue(parallel.hasNext());
+                Record r = parallel.nextRecord();
+                assertEquals(expected.get(i), r.getRecord());
+                assertEquals(i + 2, ((RecordMetaDataLine) r.getMetaData()).getLineNumber());
+                meta.add(r.getMetaData());
+            }
+            assertFalse(parallel.hasNext());
+
+            //Reloading from the byte offsets should give complete records
+            List<Record> fromMeta = parallel.loadFromMetaData(meta);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), fromMeta.get(i).getRecord());
+            }
+            parallel.close();
+        }
+        f.delete();
+    }
+
+    @Test
+    public void testParallelLineReaderSkipPastFirstChunk() throws Exception {
+        Configuration conf = new Configuration();
+        conf.setInt(LineRecordReader.PARALLEL_THREADS, 2);
+        conf.setLong(LineRecordReader.PARALLEL_CHUNK_SIZE, 64);
+        conf.setInt(CSVRecordReader.SKIP_NUM_LINES, 20);
+        CSVRecordReader parallel = new CSVRecordReader();
+        parallel.initialize(conf, new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        CSVRecordReader sequential = new CSVRecordReader(20, ",");
+        sequential.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        int count = 0;
+        while (sequential.hasNext()) {
+            assertTrue(parallel.hasNext());
+            assertEquals(sequential.next(), parallel.next());
+            count++;
+        }
+        assertFalse(parallel.hasNext());
+        assertEquals(130, count);
+        parallel.close();
+    }
+
+    @Test
+    public void testMemoryMappedLineReader() throws Exception {
+        File tmpdir = new File(System.getProperty("java.io.tmpdir"), "tmpdir-testMemoryMappedLineReader");
+        FileUtils.deleteDirectory(tmpdir);
+        tmpdir.mkdir();
+        FileUtils.writeLines(new File(tmpdir, "tmp0.txt"), Arrays.asList("1", "", "333", "4444444444", "5"), "\n");
+        FileUtils.writeLines(new File(tmpdir, "tmp1.txt"), Arrays.asList("6", "77", "", "8"), "\r\n");
+        FileUtils.writeStringToFile(new File(tmpdir, "tmp2.txt"), "9\nno terminator");
+        InputSplit split = new FileSplit(tmpdir);
+
+        RecordReader sequential = new LineRecordReader();
+        sequential.initialize(split);
+        Configuration conf = new Configuration();
+        conf.setBoolean(RecordReader.MEMORY_MAPPED, true);
+        RecordReader mapped = new LineRecordReader();
+        mapped.initialize(conf, split);
+
+        List<RecordMetaData> meta = new ArrayList<>();
+        List<List<Writable>> records = new ArrayList<>();
+        while (sequential.hasNext()) {
+            assertTrue(mapped.hasNext());
+            Record r = mapped.nextRecord();
+            assertEquals(sequential.next(), r.getRecord());
+            assertTrue(((RecordMetaDataLine) r.getMetaData()).getByteOffset() >= 0);
+            meta.add(r.getMetaData());
+            records.add(r.getRecord());
+        }
+        assertFalse(mapped.hasNext());
+        assertEquals(11, records.size());
+
+        List<Record> fromMeta = mapped.loadFromMetaData(meta);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i), fromMeta.get(i).getRecord());
+        }
+        mapped.close();
+
+        //Small windows: lines span (and are longer than) the mapped windows
+        MappedLineIterator iter = new MappedLineIterator(new File(tmpdir, "tmp0.txt"), 3);
+        List<String> lines = new ArrayList<>();
+        while (iter.hasNext()) {
+            lines.add(iter.next());
+        }
+        iter.close();
+        assertEquals(Arrays.asList("1", "", "333", "4444444444", "5"), lines);
+
+        FileUtils.deleteDirectory(tmpdir);
+    }
+
+    @Test
+    public void testLineOffsetIndex() throws Exception {
+        File tmpdir = new File(System.getProperty("java.io.tmpdir"), "tmpdir-testLineOffsetIndex");
+        FileUtils.deleteDirectory(tmpdir);
+        File dataDir = new File(tmpdir, "data");
+        File cacheDir = new File(tmpdir, "cache");
+        dataDir.mkdirs();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            lines.add(i % 10 == 0 ? "" : "line_" + i);
+        }
+        File f = new File(dataDir, "data.txt");
+        FileUtils.writeLines(f, lines, "\r\n");
+        InputSplit split = new FileSplit(f);
+
+        RecordReader reader = new LineRecordReader();
+        reader.initialize(split);
+        List<RecordMetaData> meta = new ArrayList<>();
+        while (reader.hasNext()) {
+            meta.add(reader.nextRecord().getMetaData());
+        }
+        assertEquals(2500, meta.size());
+
+        Configuration conf = new Configuration();
+        conf.setInt(LineRecordReader.LINE_INDEX_INTERVAL, 100);
+        conf.set(LineRecordReader.LINE_INDEX_DIR, cacheDir.getAbsolutePath());
+        RecordReader indexed = new LineRecordReader();
+        indexed.initialize(conf, split);
+
+        List<RecordMetaData> subset = Arrays.asList(meta.get(2499), meta.get(0), meta.get(1234), meta.get(100),
+                        meta.get(99), meta.get(1234));
+        List<Record> fromMeta = indexed.loadFromMetaData(subset);
+        assertEquals(subset.size(), fromMeta.size());
+        for (int i = 0; i < subset.size(); i++) {
+            int lineNum = ((RecordMetaDataLine) subset.get(i)).getLineNumber();
+            assertEquals(lines.get(lineNum), fromMeta.get(i).getRecord().get(0).toString());
+            assertEquals(subset.get(i), fromMeta.get(i).getMetaData());
+        }
+
+        File indexFile = LineOffsetIndex.indexFileFor(f, cacheDir);
+        assertTrue(indexFile.exists());
+        LineOffsetIndex index = LineOffsetIndex.load(indexFile);
+        assertTrue(index.isValidFor(f));
+        assertEquals(2500, index.getNumLines());
+        assertEquals(lines.get(1500), indexed.loadFromMetaData(meta.get(1500)).getRecord().get(0).toString());
+
+        FileUtils.deleteDirectory(tmpdir);
+    }
+
+    @Test
+    public void testLineReaderNextBatch() throws Exception {
+        File tmpdir = new File(System.getProperty("java.io.tmpdir"), "tmpdir-testLineReaderNextBatch");
+        FileUtils.deleteDirectory(tmpdir);
+        tmpdir.mkdir();
+        for (int f = 0; f < 3; f++) {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                lines.add(f + "_" + i);
+            }
+            FileUtils.writeLines(new File(tmpdir, "tmp" + f + ".txt"), lines);
+        }
+        InputSplit split = new FileSplit(tmpdir);
+
+        RecordReader sequential = new LineRecordReader();
+        sequential.initialize(split);
+        List<List<Writable>> expected = new ArrayList<>();
+        while (sequential.hasNext()) {
+            expected.add(sequential.next());
+        }
+        assertEquals(75, expected.size());
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            Configuration conf = new Configuration();
+            if (parallel) {
+                conf.setInt(LineRecordReader.PARALLEL_THREADS, 2);
+                conf.setLong(LineRecordReader.PARALLEL_CHUNK_SIZE, 64);
+            }
+            LineRecordReader reader = new LineRecordReader();
+            reader.initialize(conf, split);
+            assertTrue(reader.batchesSupported());
+
+            //Batches span file boundaries
+            List<List<Writable>> actual = new ArrayList<>();
+            while (reader.hasNext()) {
+                actual.addAll(reader.next(10));
+            }
+            assertEquals(expected, actual);
+
+            reader.reset();
+            assertEquals(expected, reader.next(1000));
+            assertFalse(reader.hasNext());
+            reader.close();
+        }
+
+        FileUtils.deleteDirectory(tmpdir);
+    }
 }
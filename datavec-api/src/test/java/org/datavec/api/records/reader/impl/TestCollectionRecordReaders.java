@@ -18,6 +18,8 @@ package org.datavec.api.records.reader.impl;
 
 import org.datavec.api.records.SequenceRecord;
 import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
 import org.datavec.api.records.reader.impl.collection.CollectionSequenceRecordReader;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.records.reader.SequenceRecordReader;
@@ -83,4 +85,26 @@ public class TestCollectionRecordReaders {
         assertEquals(seq, fromMeta);
     }
 
+    @Test
+    public void testNextBatch() throws Exception {
+        List<List<Writable>> records = new ArrayList<>();
+        List<List<List<Writable>>> sequences = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(Arrays.asList((Writable) new IntWritable(i), new IntWritable(2 * i)));
+            sequences.add(Arrays.asList(Arrays.asList((Writable) new IntWritable(i)),
+                            Arrays.asList((Writable) new IntWritable(-i))));
+        }
+
+        CollectionRecordReader rr = new CollectionRecordReader(records);
+        assertTrue(rr.batchesSupported());
+        assertEquals(records.subList(0, 4), rr.next(4));
+        assertEquals(records.subList(4, 8), rr.next(4));
+        assertEquals(records.subList(8, 10), rr.next(4));
+        assertFalse(rr.hasNext());
+
+        CollectionSequenceRecordReader seqRR = new CollectionSequenceRecordReader(sequences);
+        assertEquals(sequences.subList(0, 3), seqRR.sequenceRecords(3));
+        assertEquals(sequences.subList(3, 10), seqRR.sequenceRecords(100));
+        assertFalse(seqRR.hasNext());
+    }
 }
@@ -0,0 +1,256 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.analysis;
+
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.transform.analysis.columns.*;
+import org.datavec.api.transform.analysis.sketch.*;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestStreamingDataAnalysis {
+
+    @Test
+    public void testQuantileSketch() {
+        Random r = new Random(12345);
+        int n = 100000;
+        double[] values = new double[n];
+        QuantileSketch s1 = new QuantileSketch();
+        QuantileSketch s2 = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            values[i] = r.nextGaussian();
+            (i % 2 == 0 ? s1 : s2).add(values[i]);
+        }
+        QuantileSketch sketch = s1.merge(s2);
+        Arrays.sort(values);
+
+        assertEquals(n, sketch.getN());
+        assertEquals(values[0], sketch.getMin(), 0.0);
+        assertEquals(values[n - 1], sketch.getMax(), 0.0);
+        assertTrue(sketch.getNumRetained() < 5000);
+
+        for (double q : new double[] {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            //Compare in rank space: the rank of the estimated quantile should be close to the requested rank
+            double estimate = sketch.quantile(q);
+            int idx = Arrays.binarySearch(values, estimate);
+            assertTrue(idx >= 0);
+            assertEquals(q, idx / (double) n, 0.02);
+        }
+
+        double[] edges = {-10, -1, 0, 1, 10};
+        long[] hist = sketch.histogram(edges);
+        long sum = 0;
+        for (int i = 0; i < hist.length; i++) {
+            sum += hist[i];
+        }
+        assertEquals(n, sum);
+        //Standard normal: ~34.1% of values in [0,1)
+        assertEquals(0.341, hist[2] / (double) n, 0.02);
+    }
+
+    @Test
+    public void testQuantileSketchMergeIntoEmpty() {
+        Random r = new Random(12345);
+        int n = 200000;
+        QuantileSketch large = new QuantileSketch();
+        QuantileSketch small = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            large.add(r.nextDouble());
+        }
+        for (int i = 0; i < 10; i++) {
+            small.add(r.nextDouble());
+        }
+
+        //As for the zero value in an aggregation: the large sketch has many more levels than the empty one
+        QuantileSketch merged = new QuantileSketch().merge(large).merge(small);
+        assertEquals(n + 10, merged.getN());
+        assertEquals(0.5, merged.quantile(0.5), 0.02);
+        assertEquals(0.9, merged.quantile(0.9), 0.02);
+        assertEquals(n + 10, merged.histogram(new double[] {0, 0.5, 1})[0] + merged.histogram(
+                        new double[] {0, 0.5, 1})[1]);
+
+        //Same values and seed: same results
+        QuantileSketch merged2 = new QuantileSketch().merge(large).merge(small);
+        assertEquals(merged.quantile(0.25), merged2.quantile(0.25), 0.0);
+        assertEquals(merged.quantile(0.75), merged2.quantile(0.75), 0.0);
+    }
+
+    @Test
+    public void testHyperLogLogSketch() {
+        HyperLogLogSketch s1 = new HyperLogLogSketch();
+        HyperLogLogSketch s2 = new HyperLogLogSketch();
+        assertEquals(0, s1.cardinality());
+
+        for (int i = 0; i < 100; i++) {
+            s1.add("value" + i);
+        }
+        assertEquals(100, s1.cardinality(), 2);
+
+        for (long i = 0; i < 200000; i++) {
+            s1.add(i);
+            s2.add(i + 100000); //Half overlapping
+        }
+        long estimate = s1.merge(s2).cardinality();
+        assertEquals(300100, estimate, 0.03 * 300100);
+    }
+
+    @Test
+    public void testFrequencySketch() {
+        FrequencySketch exact = new FrequencySketch();
+        for (int i = 0; i < 1000; i++) {
+            exact.add("c" + (i % 7));
+        }
+        assertTrue(exact.isExact());
+        assertEquals(7, exact.getTopItems().size());
+        assertEquals(143L, exact.estimate("c0"));
+        assertEquals(142L, exact.estimate("c6"));
+        assertEquals(0L, exact.estimate("other"));
+
+        //Heavy hitters among many distinct values
+        FrequencySketch s1 = new FrequencySketch(10);
+        FrequencySketch s2 = new FrequencySketch(10);
+        for (int i = 0; i < 20000; i++) {
+            FrequencySketch s = (i % 2 == 0 ? s1 : s2);
+            s.add("unique" + i);
+            if (i % 10 == 0) {
+                s.add("heavy" + (i % 30));
+            }
+        }
+        FrequencySketch merged = s1.merge(s2);
+        assertFalse(merged.isExact());
+        Map<String, Long> top = merged.getTopItems();
+        assertEquals(10, top.size());
+        List<String> keys = new ArrayList<>(top.keySet());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(keys.get(i), keys.get(i).startsWith("heavy"));
+            long est = top.get(keys.get(i));
+            assertTrue(est >= 667);
+            assertTrue(est < 667 + 0.01 * merged.getTotal());
+        }
+    }
+
+    @Test
+    public void testAnalysisMatchesExact() {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnDouble("double")
+                        .addColumnCategorical("cat", "a", "b", "c").addColumnString("str").addColumnTime("time",
+                                        TimeZone.getTimeZone("UTC"))
+                        .build();
+
+        Random r = new Random(12345);
+        String[] cats = {"a", "b", "c"};
+        List<List<Writable>> data = new ArrayList<>();
+        int n = 5000;
+        for (int i = 0; i < n; i++) {
+            data.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(100) - 50),
+                            new DoubleWritable(i == 7 ? Double.NaN : r.nextDouble() * 10), new Text(cats[i % 3]),
+                            new Text(i % 10 == 0 ? "" : "str" + r.nextInt(1000)), new LongWritable(1000L * i)));
+        }
+
+        //Analyze in 2 parts and merge; compare to a single pass via RecordReader
+        StreamingDataAnalysis a1 = new StreamingDataAnalysis(schema);
+        StreamingDataAnalysis a2 = new StreamingDataAnalysis(schema);
+        for (int i = 0; i < n; i++) {
+            (i < n / 3 ? a1 : a2).add(data.get(i));
+        }
+        DataAnalysis merged = a1.merge(a2).toDataAnalysis(10);
+        DataAnalysis single = StreamingDataAnalysis.analyze(schema, new CollectionRecordReader(data), 10);
+
+        for (DataAnalysis da : Arrays.asList(merged, single)) {
+            IntegerAnalysis ia = (IntegerAnalysis) da.getColumnAnalysis("int");
+            long sum = 0;
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            int countMin = 0;
+            int countZero = 0;
+            for (List<Writable> l : data) {
+                int v = l.get(0).toInt();
+                sum += v;
+                if (v < min) {
+                    min = v;
+                    countMin = 0;
+                }
+                if (v == min) {
+                    countMin++;
+                }
+                max = Math.max(max, v);
+                if (v == 0) {
+                    countZero++;
+                }
+            }
+            double mean = sum / (double) n;
+            double sumSq = 0;
+            for (List<Writable> l : data) {
+                sumSq += (l.get(0).toInt() - mean) * (l.get(0).toInt() - mean);
+            }
+            assertEquals(n, ia.getCountTotal());
+            assertEquals(min, ia.getMin());
+            assertEquals(max, ia.getMax());
+            assertEquals(countMin, ia.getCountMinValue());
+            assertEquals(countZero, ia.getCountZero());
+            assertEquals(mean, ia.getMean(), 1e-9);
+            assertEquals(sumSq / (n - 1), ia.getSampleVariance(), 1e-6);
+            assertEquals(10, ia.getHistogramBucketCounts().length);
+            assertEquals(n, sum(ia.getHistogramBucketCounts()));
+            assertEquals(min, ia.getHistogramBuckets()[0], 0.0);
+            assertEquals(max, ia.getHistogramBuckets()[10], 0.0);
+            //Approximately uniform: each bucket should hold about 10% of the values
+            for (long c : ia.getHistogramBucketCounts()) {
+                assertEquals(0.1, c / (double) n, 0.03);
+            }
+
+            DoubleAnalysis dbl = (DoubleAnalysis) da.getColumnAnalysis("double");
+            assertEquals(1, dbl.getCountNaN());
+            assertEquals(n, dbl.getCountTotal());
+            assertEquals(n - 1, sum(dbl.getHistogramBucketCounts()));
+            assertFalse(Double.isNaN(dbl.getMean()));
+
+            CategoricalAnalysis ca = (CategoricalAnalysis) da.getColumnAnalysis("cat");
+            assertEquals(1667L, (long) ca.getMapOfCounts().get("a"));
+            assertEquals(1667L, (long) ca.getMapOfCounts().get("b"));
+            assertEquals(1666L, (long) ca.getMapOfCounts().get("c"));
+
+            StringAnalysis sa = (StringAnalysis) da.getColumnAnalysis("str");
+            assertEquals(n, sa.getCountTotal());
+            assertEquals(0, sa.getMinLength());
+            assertEquals(6, sa.getMaxLength());
+            assertEquals(n, sum(sa.getHistogramBucketCounts()));
+
+            TimeAnalysis ta = (TimeAnalysis) da.getColumnAnalysis("time");
+            assertEquals(0L, ta.getMin());
+            assertEquals(1000L * (n - 1), ta.getMax());
+        }
+
+        NumericalColumnSketch ns = (NumericalColumnSketch) a1.getColumnSketch("int");
+        assertEquals(100, ns.getDistinctCount(), 2);
+        StringColumnSketch ss = (StringColumnSketch) a1.getColumnSketch("str");
+        assertEquals("", ss.getTopValues().keySet().iterator().next());
+        assertEquals(1001, ss.getDistinctCount(), 30);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long l : values) {
+            sum += l;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,142 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.records.columnar.ColumnarBatch;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.CategoricalColumnCondition;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.condition.column.NullWritableColumnCondition;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.doubletransform.MinMaxNormalizer;
+import org.datavec.api.transform.transform.doubletransform.StandardizeNormalizer;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestColumnarExecution {
+
+    private static Schema schema() {
+        return new Schema.Builder().addColumnInteger("int").addColumnLong("long").addColumnDouble("double")
+                        .addColumnCategorical("cat", "a", "b", "c").addColumnString("str").build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        String[] cats = {"a", "b", "c"};
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(20) - 5), new LongWritable(r.nextInt(1000)),
+                            new DoubleWritable(r.nextDouble() * 10), new Text(cats[r.nextInt(3)]),
+                            new Text("s" + i)));
+        }
+        return out;
+    }
+
+    private static List<List<Writable>> executeRows(TransformProcess tp, List<List<Writable>> data) {
+        List<List<Writable>> out = new ArrayList<>();
+        for (List<Writable> record : data) {
+            List<Writable> result = tp.execute(record);
+            if (result != null)
+                out.add(result);
+        }
+        return out;
+    }
+
+    @Test
+    public void testExecuteBatchMatchesExecute() {
+        Map<Integer, String> intToCat = new HashMap<>();
+        for (int i = 0; i < 45; i++) {
+            intToCat.put(i, "v" + (i % 3));
+        }
+
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                        .filter(new BooleanCondition(BooleanCondition.Type.AND,
+                                        new DoubleColumnCondition("double", ConditionOp.GreaterThan, 2.0),
+                                        new CategoricalColumnCondition("cat", ConditionOp.Equal, "a")))
+                        .integerMathOp("int", MathOp.Multiply, 3).longMathOp("long", MathOp.Modulus, 7)
+                        .doubleMathOp("double", MathOp.ReverseSubtract, 1.0)
+                        .integerColumnsMathOp("intSum", MathOp.Add, "int", "int")
+                        .doubleColumnsMathOp("doubleProduct", MathOp.Multiply, "double", "double")
+                        .transform(new MinMaxNormalizer("doubleProduct", -100, 100))
+                        .transform(new StandardizeNormalizer("double", 0.5, 2.0))
+                        .filter(new IntegerColumnCondition("intSum", ConditionOp.LessThan, 0))
+                        .appendStringColumnTransform("str", "_x") //Not columnar: executed row by row
+                        .integerToCategorical("int", intToCat).categoricalToInteger("cat")
+                        .categoricalToOneHot("int").removeColumns("long").renameColumn("str", "string")
+                        .filter(new CategoricalColumnCondition("int[v1]", ConditionOp.InSet,
+                                        Collections.singleton("nonexistent")))
+                        .build();
+
+        List<List<Writable>> data = data(200);
+        List<List<Writable>> expected = executeRows(tp, data);
+        List<List<Writable>> actual = tp.executeBatch(data);
+
+        assertTrue(expected.size() > 0 && expected.size() < data.size());
+        assertEquals(expected, actual);
+
+        ColumnarBatch batch = tp.executeBatch(ColumnarBatch.fromRecords(tp.getInitialSchema(), data));
+        assertEquals(tp.getFinalSchema(), batch.getSchema());
+        assertEquals(expected, batch.toRecords());
+    }
+
+    @Test
+    public void testFilterMissingValues() {
+        Schema schema = new Schema.Builder().addColumnDouble("double").addColumnInteger("int").build();
+
+        //Short circuit as per execute(List<Writable>): the double condition is never evaluated on the missing value
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .filter(new BooleanCondition(BooleanCondition.Type.OR,
+                                        new NullWritableColumnCondition("double"),
+                                        new DoubleColumnCondition("double", ConditionOp.LessThan, 0.0)))
+                        .build();
+
+        List<List<Writable>> data = new ArrayList<>();
+        data.add(Arrays.<Writable>asList(new DoubleWritable(1.0), new IntWritable(0)));
+        data.add(Arrays.<Writable>asList(NullWritable.INSTANCE, new IntWritable(1)));
+        data.add(Arrays.<Writable>asList(new DoubleWritable(-1.0), new IntWritable(2)));
+        data.add(Arrays.<Writable>asList(new DoubleWritable(2.0), new IntWritable(3)));
+
+        List<List<Writable>> expected = executeRows(tp, data);
+        assertEquals(2, expected.size());
+        assertEquals(expected, tp.executeBatch(data));
+    }
+
+    @Test
+    public void testMissingValuesPassThrough() {
+        Schema schema = new Schema.Builder().addColumnDouble("double").addColumnInteger("int").build();
+        TransformProcess tp = new TransformProcess.Builder(schema).doubleMathOp("double", MathOp.Add, 1.0)
+                        .integerMathOp("int", MathOp.ReverseDivide, 10).build();
+
+        List<List<Writable>> data = new ArrayList<>();
+        data.add(Arrays.<Writable>asList(new DoubleWritable(1.0), new IntWritable(2)));
+        data.add(Arrays.<Writable>asList(NullWritable.INSTANCE, NullWritable.INSTANCE));
+
+        List<List<Writable>> out = tp.executeBatch(data);
+        assertEquals(Arrays.<Writable>asList(new DoubleWritable(2.0), new IntWritable(5)), out.get(0));
+        assertEquals(Arrays.<Writable>asList(NullWritable.INSTANCE, NullWritable.INSTANCE), out.get(1));
+    }
+}
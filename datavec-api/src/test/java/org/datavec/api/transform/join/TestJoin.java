@@ -20,6 +20,11 @@ import org.datavec.api.writable.*;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.schema.Schema;
 import org.junit.Test;
+import org.nd4j.shade.jackson.annotation.JsonAutoDetect;
+import org.nd4j.shade.jackson.annotation.PropertyAccessor;
+import org.nd4j.shade.jackson.databind.ObjectMapper;
+import org.nd4j.shade.jackson.databind.node.ObjectNode;
+import org.nd4j.shade.jackson.datatype.joda.JodaModule;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -112,4 +117,27 @@ public class TestJoin {
         new Join.Builder(Join.JoinType.Inner).setJoinColumns("keyColumn1").setSchemas(firstSchema, secondSchema)
                         .build();
     }
+
+    @Test
+    public void testJsonDefaults() throws Exception {
+        Schema firstSchema = new Schema.Builder().addColumnString("keyColumn").addColumnInteger("first0").build();
+        Schema secondSchema = new Schema.Builder().addColumnString("keyColumn").addColumnInteger("second0").build();
+        Join join = new Join.Builder(Join.JoinType.LeftOuter).setJoinColumns("keyColumn")
+                        .setSchemas(firstSchema, secondSchema).build();
+
+        ObjectMapper om = new ObjectMapper();
+        om.registerModule(new JodaModule());
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        om.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        assertEquals(join, om.readValue(om.writeValueAsString(join), Join.class));
+
+        //JSON written before the strategy and broadcast threshold were added
+        ObjectNode node = om.valueToTree(join);
+        node.remove("strategy");
+        node.remove("broadcastThreshold");
+        Join old = om.treeToValue(node, Join.class);
+        assertEquals(Join.Strategy.Auto, old.getStrategy());
+        assertEquals(Join.DEFAULT_BROADCAST_THRESHOLD, old.getBroadcastThreshold());
+        assertEquals(join, old);
+    }
 }
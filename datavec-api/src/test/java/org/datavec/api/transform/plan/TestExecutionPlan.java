@@ -0,0 +1,146 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.plan;
+
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.CategoricalColumnCondition;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.filter.InvalidNumColumns;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.sequence.comparator.NumericalColumnComparator;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestExecutionPlan {
+
+    private static Schema schema() {
+        return new Schema.Builder().addColumnInteger("int").addColumnDouble("double")
+                        .addColumnCategorical("cat", "a", "b", "c").addColumnString("str").build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        String[] cats = {"a", "b", "c"};
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(20)), new DoubleWritable(r.nextDouble() * 10),
+                            new Text(cats[r.nextInt(3)]), new Text("s" + i)));
+        }
+        return out;
+    }
+
+    //Execute the actions one at a time, without a plan
+    private static List<Writable> executeActions(TransformProcess tp, List<Writable> record) {
+        for (DataAction d : tp.getActionList()) {
+            if (d.getTransform() != null) {
+                record = d.getTransform().map(record);
+            } else if (d.getFilter().removeExample(record)) {
+                return null;
+            }
+        }
+        return record;
+    }
+
+    private static TransformProcess transformProcess() {
+        return new TransformProcess.Builder(schema()).integerMathOp("int", MathOp.Add, 1)
+                        .doubleMathOp("double", MathOp.Multiply, 2.0)
+                        .appendStringColumnTransform("str", "_x")
+                        .filter(new IntegerColumnCondition("int", ConditionOp.GreaterThan, 15))
+                        .doubleColumnsMathOp("sum", MathOp.Add, "double", "double")
+                        .doubleMathOp("double", MathOp.Subtract, 1.0)
+                        .doubleMathOp("sum", MathOp.Divide, 4.0)
+                        .filter(new BooleanCondition(BooleanCondition.Type.AND,
+                                        new CategoricalColumnCondition("cat", ConditionOp.Equal, "b"),
+                                        new DoubleColumnCondition("sum", ConditionOp.LessThan, 3.0)))
+                        .integerMathOp("int", MathOp.Multiply, 10).removeColumns("double")
+                        .categoricalToInteger("cat").renameColumn("str", "string").reorderColumns("string", "int")
+                        .build();
+    }
+
+    @Test
+    public void testSameResultAsActions() {
+        TransformProcess tp = transformProcess();
+        int count = 0;
+        for (List<Writable> record : data(200)) {
+            List<Writable> expected = executeActions(tp, record);
+            assertEquals(expected, tp.execute(record));
+            if (expected != null)
+                count++;
+        }
+        assertTrue(count > 0 && count < 200);
+        assertEquals(tp.getFinalSchema(), tp.getExecutionPlan().getOutputSchema());
+    }
+
+    @Test
+    public void testPlan() {
+        TransformProcess tp = transformProcess();
+        ExecutionPlan plan = tp.getExecutionPlan();
+        String explain = tp.explain();
+
+        //Filter on "int" moved ahead of the transforms on "double" and "str"
+        //Transform on "double" after the columns math op: eliminated, as "double" is removed later
+        //Stages: fused(int), filter, fused(double, str), columns math op, fused(sum), filter, fused(int),
+        //categorical to integer
+        assertEquals(explain, 8, plan.numStages());
+        assertTrue(explain, explain.contains("[moved ahead of 2 transform(s)]"));
+        assertTrue(explain, explain.contains("Eliminated: DoubleMathOpTransform(mathOp=Subtract"));
+        assertTrue(explain, explain.contains("Fused column transforms (2)"));
+    }
+
+    @Test
+    public void testInvalidNumColumns() {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnDouble("double").build();
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .filter(new InvalidNumColumns(schema))
+                        .integerMathOp("int", MathOp.Add, 1).build();
+
+        assertNull(tp.execute(Collections.<Writable>singletonList(new IntWritable(0))));
+        assertEquals(Arrays.<Writable>asList(new IntWritable(1), new DoubleWritable(0)),
+                        tp.execute(Arrays.<Writable>asList(new IntWritable(0), new DoubleWritable(0))));
+    }
+
+    @Test
+    public void testFilteredBeforeConvertToSequence() {
+        TransformProcess tp = new TransformProcess.Builder(schema()).integerMathOp("int", MathOp.Add, 1)
+                        .filter(new IntegerColumnCondition("int", ConditionOp.GreaterThan, 5))
+                        .convertToSequence("cat", new NumericalColumnComparator("int")).build();
+        ExecutionPlan plan = tp.getExecutionPlan();
+        assertFalse(plan.isComplete());
+        assertTrue(plan.explain(), plan.explain().contains("Stop: "));
+
+        //Examples removed before the ConvertToSequence are filtered as usual; others can't be executed individually
+        assertNull(tp.execute(Arrays.<Writable>asList(new IntWritable(10), new DoubleWritable(0), new Text("a"),
+                        new Text("s"))));
+        try {
+            tp.execute(Arrays.<Writable>asList(new IntWritable(0), new DoubleWritable(0), new Text("a"),
+                            new Text("s")));
+            fail("Expected exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("ConvertToSequence"));
+        }
+    }
+}
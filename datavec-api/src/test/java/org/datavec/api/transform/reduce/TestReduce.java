@@ -356,4 +356,130 @@ public class TestReduce {
         assertEquals(Arrays.asList(ColumnType.String, ColumnType.Long, ColumnType.Integer, ColumnType.Integer),
                         outSchema.getColumnTypes());
     }
+
+    @Test
+    public void testMergedStatesMatchReduceColumn() {
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnInteger("int").addColumnDouble("double")
+                        .addColumnTime("time", TimeZone.getTimeZone("UTC")).build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> inputs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputs.add(Arrays.asList((Writable) new Text("someKey"), new IntWritable(r.nextInt(20) - 10),
+                            new DoubleWritable(r.nextGaussian()), new LongWritable(r.nextInt(100000))));
+        }
+
+        for (ReduceOp op : ReduceOp.values()) {
+            boolean timeSupported = op != ReduceOp.Range && op != ReduceOp.Sum && op != ReduceOp.Stdev
+                            && op != ReduceOp.Prod;
+            Reducer reducer = new Reducer.Builder(op).keyColumns("key").build();
+            if (!timeSupported) {
+                reducer = new Reducer.Builder(op).keyColumns("key").takeFirstColumns("time").build();
+            }
+            reducer.setInputSchema(schema);
+
+            //Accumulate in 3 parts, and merge
+            ReducerState s1 = reducer.createState();
+            ReducerState s2 = reducer.createState();
+            ReducerState s3 = reducer.createState();
+            for (int i = 0; i < inputs.size(); i++) {
+                reducer.accumulate(i < 10 ? s1 : (i < 60 ? s2 : s3), inputs.get(i));
+            }
+            List<Writable> out = s1.merge(s2).merge(s3).getOutput();
+
+            assertEquals(new Text("someKey"), out.get(0));
+            for (int col = 1; col <= 3; col++) {
+                List<Writable> values = new ArrayList<>();
+                for (List<Writable> l : inputs) {
+                    values.add(l.get(col));
+                }
+                ReduceOp colOp = (col == 3 && !timeSupported ? ReduceOp.TakeFirst : op);
+                Writable exp = Reducer.reduceColumn(colOp, schema.getType(col), values, false, schema.getMetaData(col));
+                String msg = op + " - " + schema.getName(col);
+                assertEquals(msg, exp.getClass(), out.get(col).getClass());
+                assertEquals(msg, exp.toDouble(), out.get(col).toDouble(), 1e-9);
+            }
+            List<Writable> single = reducer.reduce(inputs);
+            for (int col = 1; col <= 3; col++) {
+                assertEquals(op.toString(), single.get(col).toDouble(), out.get(col).toDouble(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testCombinableAndNonCombinableReduceMatch() {
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnInteger("first", 0, null)
+                        .addColumnInteger("last", 0, null).addColumnDouble("prod").addColumnString("other").build();
+
+        List<List<Writable>> inputs = new ArrayList<>();
+        inputs.add(Arrays.asList((Writable) new Text("someKey"), new IntWritable(-1), new IntWritable(5),
+                        new DoubleWritable(2.0), new Text("a")));
+        inputs.add(Arrays.asList((Writable) new Text("someKey"), new IntWritable(3), new IntWritable(7),
+                        new DoubleWritable(1.5), new Text("b")));
+        inputs.add(Arrays.asList((Writable) new Text("someKey"), new IntWritable(4), new IntWritable(-2),
+                        new DoubleWritable(4.0), new Text("c")));
+
+        //A custom reduction on an unrelated column should not change the other columns' results
+        for (boolean custom : new boolean[] {false, true}) {
+            Reducer.Builder builder = new Reducer.Builder(ReduceOp.TakeFirst).keyColumns("key")
+                            .takeFirstColumns("first").takeLastColumns("last").prodColumns("prod")
+                            .setIgnoreInvalid("first", "last");
+            if (custom)
+                builder.customReduction("other", new CustomReduceTakeSecond());
+            Reducer reducer = builder.build();
+            reducer.setInputSchema(schema);
+            assertEquals(!custom, reducer.isCombinable());
+
+            List<Writable> out = reducer.reduce(inputs);
+            //Invalid (negative) values are skipped by TakeFirst and TakeLast
+            assertEquals(new IntWritable(3), out.get(1));
+            assertEquals(new IntWritable(7), out.get(2));
+            assertEquals(new DoubleWritable(12.0), out.get(3));
+            assertEquals(new Text(custom ? "b" : "a"), out.get(4));
+        }
+
+        //Without ignore invalid: first and last values, as before
+        Reducer reducer = new Reducer.Builder(ReduceOp.TakeFirst).keyColumns("key").takeLastColumns("last")
+                        .customReduction("other", new CustomReduceTakeSecond()).build();
+        reducer.setInputSchema(schema);
+        List<Writable> out = reducer.reduce(inputs);
+        assertEquals(new IntWritable(-1), out.get(1));
+        assertEquals(new IntWritable(-2), out.get(2));
+    }
+
+    @Test
+    public void testReduceProdAndApproximateCountUnique() {
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnInteger("int").addColumnDouble("double")
+                        .addColumnString("str").build();
+
+        List<List<Writable>> inputs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputs.add(Arrays.asList((Writable) new Text("someKey"), new IntWritable(i % 50 == 0 ? 2 : 1),
+                            new DoubleWritable(i < 3 ? 0.5 : 1.0), new Text("s" + (i % 500))));
+        }
+
+        Reducer reducer = new Reducer.Builder(ReduceOp.Prod).keyColumns("key").countUniqueColumns("str")
+                        .approximateCountUnique(true).build();
+        reducer.setInputSchema(schema);
+        List<Writable> out = reducer.reduce(inputs);
+
+        assertEquals(new LongWritable(1L << 20), out.get(1));
+        assertEquals(0.125, out.get(2).toDouble(), 1e-12);
+        assertEquals(500, out.get(3).toInt(), 15);
+
+        Schema outSchema = reducer.transform(schema);
+        assertEquals(Arrays.asList("key", "prod(int)", "prod(double)", "countUnique(str)"),
+                        outSchema.getColumnNames());
+        assertEquals(Arrays.asList(ColumnType.String, ColumnType.Long, ColumnType.Double, ColumnType.Integer),
+                        outSchema.getColumnTypes());
+
+        //Exact count unique, below the threshold for approximate count unique
+        for (boolean approx : new boolean[] {false, true}) {
+            reducer = new Reducer.Builder(ReduceOp.TakeFirst).keyColumns("key").countUniqueColumns("str")
+                            .approximateCountUnique(approx).build();
+            reducer.setInputSchema(schema);
+            assertEquals(500, reducer.reduce(inputs).get(3).toInt(), approx ? 15 : 0);
+            assertEquals(100, reducer.reduce(inputs.subList(0, 100)).get(3).toInt());
+        }
+    }
 }
@@ -0,0 +1,202 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.audio.dsp;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precomputed FFT plan for a given size: twiddle factors and the bit-reversal permutation are computed once and
+ * reused for every transform. All transforms work in place on caller supplied arrays, so no memory is allocated per
+ * transform.<br>
+ * Plans are immutable, and can be shared between threads; use {@link #forSize(int)} to get a cached plan.
+ *
+ * @see FastFourierTransform
+ */
+public class FFTPlan {
+
+    private static final ConcurrentMap<Integer, FFTPlan> PLANS = new ConcurrentHashMap<>();
+
+    private final int n;
+    /** cos(2*pi*k/n) and sin(2*pi*k/n), for k = 0 to n/2 - 1 */
+    private final double[] cos;
+    private final double[] sin;
+    /** Bit reversal permutation, over log2(n) bits */
+    private final int[] bitReverse;
+
+    /**
+     * @param n Size of the transform; must be a power of 2
+     */
+    public FFTPlan(int n) {
+        if (n <= 0 || Integer.bitCount(n) != 1)
+            throw new IllegalArgumentException("FFT size must be a power of 2: got " + n);
+        this.n = n;
+        cos = new double[Math.max(n / 2, 1)];
+        sin = new double[cos.length];
+        for (int k = 0; k < n / 2; k++) {
+            double theta = 2 * Math.PI * k / n;
+            cos[k] = Math.cos(theta);
+            sin[k] = Math.sin(theta);
+        }
+        cos[0] = 1.0;
+
+        bitReverse = new int[n];
+        int bits = Integer.numberOfTrailingZeros(n);
+        for (int i = 0; i < n; i++) {
+            bitReverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    /**
+     * @return A (cached, shared) plan for the given size
+     */
+    public static FFTPlan forSize(int n) {
+        FFTPlan plan = PLANS.get(n);
+        if (plan == null) {
+            plan = new FFTPlan(n);
+            FFTPlan existing = PLANS.putIfAbsent(n, plan);
+            if (existing != null)
+                plan = existing;
+        }
+        return plan;
+    }
+
+    /**
+     * @return The size of this plan
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Forward complex FFT of n complex values, in place.
+     *
+     * @param data Interleaved complex values (real parts at even indexes, imaginary parts at odd indexes); length of
+     *             at least 2n
+     */
+    public void complexForward(double[] data) {
+        if (data.length < 2 * n)
+            throw new IllegalArgumentException("Expected at least " + 2 * n + " values, got " + data.length);
+        transform(data, n, 0);
+    }
+
+    /**
+     * Forward FFT of n real values, in place, computed with a complex FFT of size n/2.<br>
+     * The output is packed into the same n values: data[0] is the (real) value of frequency bin 0, data[1] is the
+     * (real) value of bin n/2, and data[2k], data[2k+1] are the real and imaginary parts of bin k, for 0 &lt; k &lt;
+     * n/2. The other bins are the complex conjugates of these.
+     *
+     * @param data Real input values; length of at least n
+     */
+    public void realForward(double[] data) {
+        if (data.length < n)
+            throw new IllegalArgumentException("Expected at least " + n + " values, got " + data.length);
+        if (n == 1)
+            return;
+
+        //Even samples as the real parts, odd samples as the imaginary parts
+        int m = n / 2;
+        transform(data, m, 1);
+
+        double z0r = data[0];
+        double z0i = data[1];
+        data[0] = z0r + z0i;
+        data[1] = z0r - z0i;
+        for (int k = 1; k <= m / 2; k++) {
+            int j = m - k;
+            double ar = data[2 * k];
+            double ai = data[2 * k + 1];
+            double cr = data[2 * j];
+            double ci = data[2 * j + 1];
+
+            double er = 0.5 * (ar + cr);
+            double ei = 0.5 * (ai - ci);
+            double or = 0.5 * (ai + ci);
+            double oi = -0.5 * (ar - cr);
+            //t = exp(-2*pi*i*k/n) * odd
+            double wr = cos[k];
+            double wi = -sin[k];
+            double tr = wr * or - wi * oi;
+            double ti = wr * oi + wi * or;
+
+            data[2 * k] = er + tr;
+            data[2 * k + 1] = ei + ti;
+            data[2 * j] = er - tr;
+            data[2 * j + 1] = -(ei - ti);
+        }
+    }
+
+    /**
+     * Magnitudes of the n/2 + 1 non-redundant frequency bins of a real FFT, as output by {@link #realForward(double[])}
+     *
+     * @param packed     Output of realForward
+     * @param magnitudes Output array; length of at least n/2 + 1
+     */
+    public void realMagnitudes(double[] packed, double[] magnitudes) {
+        int m = n / 2;
+        if (n == 1) {
+            magnitudes[0] = Math.abs(packed[0]);
+            return;
+        }
+        magnitudes[0] = Math.abs(packed[0]);
+        magnitudes[m] = Math.abs(packed[1]);
+        for (int k = 1; k < m; k++) {
+            double re = packed[2 * k];
+            double im = packed[2 * k + 1];
+            magnitudes[k] = Math.sqrt(re * re + im * im);
+        }
+    }
+
+    /**
+     * Iterative radix-2 decimation in time FFT of m complex values, where m = n >> shift. For i &lt; n/2, the bit
+     * reversal of i over log2(n) - 1 bits is bitReverse[i] >> 1
+     */
+    private void transform(double[] data, int m, int shift) {
+        for (int i = 0; i < m; i++) {
+            int j = bitReverse[i] >>> shift;
+            if (i < j) {
+                double tr = data[2 * i];
+                double ti = data[2 * i + 1];
+                data[2 * i] = data[2 * j];
+                data[2 * i + 1] = data[2 * j + 1];
+                data[2 * j] = tr;
+                data[2 * j + 1] = ti;
+            }
+        }
+
+        for (int len = 2; len <= m; len <<= 1) {
+            int half = len >> 1;
+            //Twiddles for this length: exp(-2*pi*i*k/len) = table entry k * n/len
+            int step = n / len;
+            for (int i = 0; i < m; i += len) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * step];
+                    double wi = -sin[k * step];
+                    int a = 2 * (i + k);
+                    int b = a + 2 * half;
+                    double xr = data[b] * wr - data[b + 1] * wi;
+                    double xi = data[b] * wi + data[b + 1] * wr;
+                    data[b] = data[a] - xr;
+                    data[b + 1] = data[a + 1] - xi;
+                    data[a] += xr;
+                    data[a + 1] += xi;
+                }
+            }
+        }
+    }
+}
@@ -16,8 +16,6 @@
 
 package org.datavec.audio.dsp;
 
-import com.sun.media.sound.FFT;
-
 /**
  * FFT object, transform amplitudes to frequency intensities
  * 
@@ -34,13 +32,26 @@ public class FastFourierTransform {
      * @return intensities of each frequency unit: mag[frequency_unit]=intensity
      */
     public double[] getMagnitudes(double[] amplitudes) {
+        double[] mag = new double[amplitudes.length / 4];
+        getMagnitudes(amplitudes, mag);
+        return mag;
+    }
+
+    /**
+     * Get the frequency intensities, without allocating. The amplitudes are treated as amplitudes.length / 2
+     * interleaved complex values, and are overwritten by their (complex) FFT
+     *
+     * @param amplitudes
+     *            amplitudes of the signal; length must be a power of 2
+     * @param magnitudes
+     *            output: intensities of each frequency unit; length of at least amplitudes.length / 4
+     */
+    public void getMagnitudes(double[] amplitudes, double[] magnitudes) {
 
         int sampleSize = amplitudes.length;
 
-        // call the fft and transform the complex numbers
-        FFT fft = new FFT(sampleSize / 2, -1);
-        fft.transform(amplitudes);
-        // end call the fft and transform the complex numbers
+        // fft of the complex numbers, using a cached plan (precomputed twiddle factors)
+        FFTPlan.forSize(sampleSize / 2).complexForward(amplitudes);
 
         // even indexes (0,2,4,6,...) are real parts
         // odd indexes (1,3,5,7,...) are img parts
@@ -50,14 +61,9 @@ public class FastFourierTransform {
         // values represent positive frequency components and the second half
         // represents negative frequency components.
         // we omit the negative ones
-        int positiveSize = indexSize / 2;
-
-        double[] mag = new double[positiveSize];
         for (int i = 0; i < indexSize; i += 2) {
-            mag[i / 2] = Math.sqrt(amplitudes[i] * amplitudes[i] + amplitudes[i + 1] * amplitudes[i + 1]);
+            magnitudes[i / 2] = Math.sqrt(amplitudes[i] * amplitudes[i] + amplitudes[i + 1] * amplitudes[i + 1]);
         }
-
-        return mag;
     }
 
 }
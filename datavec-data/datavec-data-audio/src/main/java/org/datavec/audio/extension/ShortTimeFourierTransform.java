@@ -0,0 +1,222 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.audio.extension;
+
+import org.datavec.audio.Wave;
+import org.datavec.audio.dsp.FFTPlan;
+import org.datavec.audio.dsp.FastFourierTransform;
+import org.datavec.audio.dsp.WindowFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streaming short time Fourier transform of a {@link Wave}: frames are windowed (Hamming) and transformed one at a
+ * time, and the magnitudes of each frame are passed to a {@link FrameHandler}, so the full spectrogram never needs to
+ * be materialized. The frame and magnitude buffers are reused for every frame.<br>
+ * Frames are laid out as in {@link Spectrogram} (including overlapping frames, for overlapFactor &gt; 1). By
+ * default, each frame of fftSampleSize samples is transformed as in {@link FastFourierTransform#getMagnitudes(double[])}
+ * (giving fftSampleSize/4 frequency units, as in {@link Spectrogram}); with realInput set, a real-input FFT is used
+ * instead, giving fftSampleSize/2 + 1 frequency units.<br>
+ * Long recordings can be processed in parallel with {@link #forEachFrame(FrameHandler, int)}.
+ */
+public class ShortTimeFourierTransform {
+
+    /**
+     * Receives the magnitudes for each frame
+     */
+    public interface FrameHandler {
+        /**
+         * @param frame      Index of the frame
+         * @param magnitudes Magnitudes of the frame's frequency units. This array is reused for the next frame: copy
+         *                   it to retain the values
+         */
+        void onFrame(int frame, double[] magnitudes);
+    }
+
+    private final short[] amplitudes;
+    private final int fftSampleSize;
+    private final boolean realInput;
+    private final int numFrames;
+    private final int numFrequencyUnit;
+    private final double[] window;
+    //Overlapping frames: each frame starts hop samples after the previous one
+    private final boolean overlap;
+    private final int hop;
+    private final int backSamples;
+
+    /**
+     * @param wave          Wave to transform
+     * @param fftSampleSize Number of samples per frame; must be a power of 2
+     * @param overlapFactor 1/overlapFactor overlapping, e.g. 1/4=25% overlapping, 0 for no overlapping
+     */
+    public ShortTimeFourierTransform(Wave wave, int fftSampleSize, int overlapFactor) {
+        this(wave, fftSampleSize, overlapFactor, false);
+    }
+
+    /**
+     * @param wave          Wave to transform
+     * @param fftSampleSize Number of samples per frame; must be a power of 2
+     * @param overlapFactor 1/overlapFactor overlapping, e.g. 1/4=25% overlapping, 0 for no overlapping
+     * @param realInput     If true: use a real-input FFT (fftSampleSize/2 + 1 frequency units)
+     */
+    public ShortTimeFourierTransform(Wave wave, int fftSampleSize, int overlapFactor, boolean realInput) {
+        if (fftSampleSize < 4 || Integer.bitCount(fftSampleSize) != 1)
+            throw new IllegalArgumentException("FFT sample size must be a power of 2 (4 or more): " + fftSampleSize);
+        this.amplitudes = wave.getSampleAmplitudes();
+        this.fftSampleSize = fftSampleSize;
+        this.realInput = realInput;
+
+        overlap = overlapFactor > 1;
+        if (overlap) {
+            backSamples = fftSampleSize * (overlapFactor - 1) / overlapFactor;
+            hop = fftSampleSize - backSamples;
+            numFrames = (int) ((long) amplitudes.length * overlapFactor / fftSampleSize);
+        } else {
+            backSamples = 0;
+            hop = fftSampleSize;
+            numFrames = amplitudes.length / fftSampleSize;
+        }
+        numFrequencyUnit = realInput ? fftSampleSize / 2 + 1 : fftSampleSize / 4;
+
+        WindowFunction windowFunction = new WindowFunction();
+        windowFunction.setWindowType("Hamming");
+        window = windowFunction.generate(fftSampleSize);
+    }
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public int getNumFrequencyUnit() {
+        return numFrequencyUnit;
+    }
+
+    public int getFftSampleSize() {
+        return fftSampleSize;
+    }
+
+    /**
+     * Transform all frames in order, on the calling thread
+     */
+    public void forEachFrame(FrameHandler handler) {
+        processFrames(0, numFrames, handler);
+    }
+
+    /**
+     * Transform all frames, splitting them into numThreads contiguous ranges that are processed in parallel. The
+     * handler is called concurrently (from different threads, for different frames) and so must be thread safe;
+     * frames are not passed to the handler in order.
+     *
+     * @param handler    Handler for the frames
+     * @param numThreads Number of threads to use
+     */
+    public void forEachFrame(final FrameHandler handler, int numThreads) {
+        if (numThreads <= 1 || numFrames < 2 * numThreads) {
+            forEachFrame(handler);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int framesPerThread = (numFrames + numThreads - 1) / numThreads;
+            for (int start = 0; start < numFrames; start += framesPerThread) {
+                final int from = start;
+                final int to = Math.min(numFrames, start + framesPerThread);
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        processFrames(from, to, handler);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while computing short time Fourier transform", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error computing short time Fourier transform", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void processFrames(int from, int to, FrameHandler handler) {
+        double[] frame = new double[fftSampleSize];
+        double[] magnitudes = new double[numFrequencyUnit];
+        FFTPlan plan = FFTPlan.forSize(fftSampleSize);
+        FastFourierTransform fft = new FastFourierTransform();
+        for (int f = from; f < to; f++) {
+            fillFrame(f, frame);
+            if (realInput) {
+                plan.realForward(frame);
+                plan.realMagnitudes(frame, magnitudes);
+            } else {
+                fft.getMagnitudes(frame, magnitudes);
+            }
+            handler.onFrame(f, magnitudes);
+        }
+    }
+
+    /**
+     * Copy the (windowed) samples of the given frame into the buffer
+     */
+    private void fillFrame(int f, double[] frame) {
+        int numSamples = amplitudes.length;
+        long start = (long) f * hop;
+        if (!overlap) {
+            for (int n = 0; n < fftSampleSize; n++) {
+                frame[n] = amplitudes[(int) start + n] * window[n];
+            }
+            return;
+        }
+
+        //Overlapping frames: frame samples are start, start+1, ..., start+fftSampleSize-2, and then (as in previous
+        //versions of Spectrogram) start+fftSampleSize-1-backSamples for the last sample of the frame. Samples are
+        //taken from the wave until the first frame that extends past its end; that frame is only partially filled,
+        //and all later frames are zeros
+        long firstPartialFrame = Math.max(0, (numSamples - fftSampleSize + 2 + hop - 1) / hop);
+        int numValid;
+        if (f < firstPartialFrame) {
+            numValid = fftSampleSize;
+        } else if (f == firstPartialFrame) {
+            numValid = (int) Math.max(0, numSamples - start);
+        } else {
+            numValid = 0;
+        }
+
+        int regular = Math.min(numValid, fftSampleSize - 1);
+        for (int n = 0; n < regular; n++) {
+            frame[n] = amplitudes[(int) (start + n)] * window[n];
+        }
+        for (int n = regular; n < fftSampleSize; n++) {
+            frame[n] = 0.0;
+        }
+        if (numValid == fftSampleSize) {
+            int last = fftSampleSize - 1;
+            frame[last] = amplitudes[(int) (start + last - backSamples)] * window[last];
+        }
+    }
+}
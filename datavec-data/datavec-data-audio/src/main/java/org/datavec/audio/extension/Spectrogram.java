@@ -17,8 +17,6 @@
 package org.datavec.audio.extension;
 
 
-import org.datavec.audio.dsp.FastFourierTransform;
-import org.datavec.audio.dsp.WindowFunction;
 import org.datavec.audio.Wave;
 
 /**
@@ -36,6 +34,7 @@ public class Spectrogram {
     private double[][] absoluteSpectrogram; // absolute spectrogram
     private int fftSampleSize; // number of sample in fft, the value needed to be a number to power of 2
     private int overlapFactor; // 1/overlapFactor overlapping, e.g. 1/4=25% overlapping
+    private int numThreads = 1; // number of threads used to compute the frames
     private int numFrames; // number of frames of the spectrogram
     private int framesPerSecond; // frame per second of the spectrogram
     private int numFrequencyUnit; // number of y-axis unit
@@ -62,6 +61,18 @@ public class Spectrogram {
      * @param overlapFactor	1/overlapFactor overlapping, e.g. 1/4=25% overlapping, 0 for no overlapping
      */
     public Spectrogram(Wave wave, int fftSampleSize, int overlapFactor) {
+        this(wave, fftSampleSize, overlapFactor, 1);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param wave
+     * @param fftSampleSize	number of sample in fft, the value needed to be a number to power of 2
+     * @param overlapFactor	1/overlapFactor overlapping, e.g. 1/4=25% overlapping, 0 for no overlapping
+     * @param numThreads	number of threads to compute the frames with, for long recordings
+     */
+    public Spectrogram(Wave wave, int fftSampleSize, int overlapFactor, int numThreads) {
         this.wave = wave;
 
         if (Integer.bitCount(fftSampleSize) == 1) {
@@ -72,6 +83,7 @@ public class Spectrogram {
         }
 
         this.overlapFactor = overlapFactor;
+        this.numThreads = numThreads;
 
         buildSpectrogram();
     }
@@ -81,53 +93,18 @@ public class Spectrogram {
      */
     private void buildSpectrogram() {
 
-        short[] amplitudes = wave.getSampleAmplitudes();
-        int numSamples = amplitudes.length;
-
-        int pointer = 0;
-        // overlapping
-        if (overlapFactor > 1) {
-            int numOverlappedSamples = numSamples * overlapFactor;
-            int backSamples = fftSampleSize * (overlapFactor - 1) / overlapFactor;
-            int fftSampleSize_1 = fftSampleSize - 1;
-            short[] overlapAmp = new short[numOverlappedSamples];
-            pointer = 0;
-            for (int i = 0; i < amplitudes.length; i++) {
-                overlapAmp[pointer++] = amplitudes[i];
-                if (pointer % fftSampleSize == fftSampleSize_1) {
-                    // overlap
-                    i -= backSamples;
-                }
-            }
-            numSamples = numOverlappedSamples;
-            amplitudes = overlapAmp;
-        }
-        // end overlapping
-
-        numFrames = numSamples / fftSampleSize;
+        // frames are windowed and transformed one at a time, reusing the frame buffers
+        ShortTimeFourierTransform stft = new ShortTimeFourierTransform(wave, fftSampleSize, overlapFactor);
+        numFrames = stft.getNumFrames();
         framesPerSecond = (int) (numFrames / wave.length());
 
-        // set signals for fft
-        WindowFunction window = new WindowFunction();
-        window.setWindowType("Hamming");
-        double[] win = window.generate(fftSampleSize);
-
-        double[][] signals = new double[numFrames][];
-        for (int f = 0; f < numFrames; f++) {
-            signals[f] = new double[fftSampleSize];
-            int startSample = f * fftSampleSize;
-            for (int n = 0; n < fftSampleSize; n++) {
-                signals[f][n] = amplitudes[startSample + n] * win[n];
-            }
-        }
-        // end set signals for fft
-
         absoluteSpectrogram = new double[numFrames][];
-        // for each frame in signals, do fft on it
-        FastFourierTransform fft = new FastFourierTransform();
-        for (int i = 0; i < numFrames; i++) {
-            absoluteSpectrogram[i] = fft.getMagnitudes(signals[i]);
-        }
+        stft.forEachFrame(new ShortTimeFourierTransform.FrameHandler() {
+            @Override
+            public void onFrame(int frame, double[] magnitudes) {
+                absoluteSpectrogram[frame] = magnitudes.clone();
+            }
+        }, numThreads);
 
         if (absoluteSpectrogram.length > 0) {
 
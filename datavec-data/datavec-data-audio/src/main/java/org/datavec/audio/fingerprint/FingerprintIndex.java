@@ -0,0 +1,488 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.audio.fingerprint;
+
+import org.datavec.audio.properties.FingerprintProperties;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index of fingerprints, for searching a library of tracks with a single lookup pass per query (instead of
+ * one {@link FingerprintSimilarityComputer} per track).<br>
+ * For each hashed pair (see {@link PairManager}), the index stores the (track id, position) of every occurrence, in
+ * primitive arrays. A query looks up the posting list of each of its hashed pairs, builds the histogram of offsets
+ * (track position - query position) for every track with a matching pair, and returns the top k tracks. Scores are
+ * computed as in {@link FingerprintSimilarityComputer}: the count of the most common offset, plus half the counts
+ * of its neighbouring offsets, divided by the number of frames of the shorter fingerprint. (When several offsets have
+ * the same count, the smallest offset is used.)<br>
+ * Tracks can be added at any time, including concurrently with queries. Indexes can be saved and loaded with
+ * {@link #save(File)} and {@link #load(File)}.
+ */
+public class FingerprintIndex {
+
+    /**
+     * A track matching a query
+     */
+    public static class Match {
+        private final int trackId;
+        private final FingerprintSimilarity similarity;
+        private final int[] offsets;
+        private final int[] counts;
+
+        private Match(int trackId, FingerprintSimilarity similarity, int[] offsets, int[] counts) {
+            this.trackId = trackId;
+            this.similarity = similarity;
+            this.offsets = offsets;
+            this.counts = counts;
+        }
+
+        /**
+         * @return Id of the matching track, as returned by {@link #addTrack(byte[])}
+         */
+        public int getTrackId() {
+            return trackId;
+        }
+
+        /**
+         * @return Similarity of the query to the track. The most similar frame position is the offset of the query
+         *         in the track (in frames)
+         */
+        public FingerprintSimilarity getSimilarity() {
+            return similarity;
+        }
+
+        /**
+         * @return Offsets (track position - query position) of the matching hashed pairs, in ascending order
+         */
+        public int[] getOffsets() {
+            return offsets;
+        }
+
+        /**
+         * @return Number of matching hashed pairs for each offset in {@link #getOffsets()}
+         */
+        public int[] getCounts() {
+            return counts;
+        }
+    }
+
+    private static final int INITIAL_POSTING_CAPACITY = 4;
+
+    private final int hashSpace;
+    //Postings for each hashed pair: (track id << 32) | position
+    private final long[][] postings;
+    private final int[] postingSizes;
+    private long numPostings;
+    //Fingerprint length (bytes) and number of frames for each track
+    private int[] trackLengths = new int[16];
+    private int[] trackNumFrames = new int[16];
+    private int numTracks;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Create an empty index, for fingerprints extracted with the current {@link FingerprintProperties}
+     */
+    public FingerprintIndex() {
+        this(FingerprintProperties.getInstance().getMaxPossiblePairHashcode() + 1);
+    }
+
+    private FingerprintIndex(int hashSpace) {
+        this.hashSpace = hashSpace;
+        this.postings = new long[hashSpace][];
+        this.postingSizes = new int[hashSpace];
+    }
+
+    /**
+     * Add a track to the index. This may be called at any time, including while other threads are querying the index
+     *
+     * @throws IllegalArgumentException If the fingerprint's hashed pairs are out of range for this index
+     * @param fingerprint Fingerprint of the track
+     * @return Id of the track: tracks are numbered 0, 1, 2, ... in the order they are added
+     */
+    public int addTrack(byte[] fingerprint) {
+        int[] pairPositions = new PairManager().getPairPositions(fingerprint);
+        int numFrames = FingerprintManager.getNumFrames(fingerprint);
+
+        for (int i = 0; i < pairPositions.length; i += 2) {
+            if (pairPositions[i] < 0 || pairPositions[i] >= hashSpace) {
+                throw new IllegalArgumentException("Invalid fingerprint: hashed pair " + pairPositions[i]
+                                + " is out of range (fingerprint extracted with different FingerprintProperties?)");
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            int trackId = numTracks;
+            if (trackId == trackLengths.length) {
+                trackLengths = Arrays.copyOf(trackLengths, 2 * trackId);
+                trackNumFrames = Arrays.copyOf(trackNumFrames, 2 * trackId);
+            }
+            trackLengths[trackId] = fingerprint.length;
+            trackNumFrames[trackId] = numFrames;
+            numTracks++;
+
+            for (int i = 0; i < pairPositions.length; i += 2) {
+                addPosting(pairPositions[i], ((long) trackId << 32) | (pairPositions[i + 1] & 0xFFFFFFFFL));
+            }
+            return trackId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addPosting(int hash, long posting) {
+        long[] list = postings[hash];
+        int size = postingSizes[hash];
+        if (list == null) {
+            list = new long[INITIAL_POSTING_CAPACITY];
+            postings[hash] = list;
+        } else if (size == list.length) {
+            list = Arrays.copyOf(list, size + (size >> 1) + 1);
+            postings[hash] = list;
+        }
+        list[size] = posting;
+        postingSizes[hash] = size + 1;
+        numPostings++;
+    }
+
+    /**
+     * @return Number of tracks in the index
+     */
+    public int numTracks() {
+        lock.readLock().lock();
+        try {
+            return numTracks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Total number of (hashed pair, track, position) entries in the index
+     */
+    public long numPostings() {
+        lock.readLock().lock();
+        try {
+            return numPostings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the tracks most similar to the given fingerprint
+     *
+     * @param fingerprint Fingerprint of the query clip
+     * @param k           Maximum number of matches to return
+     * @return Up to k matching tracks (i.e., tracks with at least one matching hashed pair), in descending order of
+     *         score
+     */
+    public List<Match> query(byte[] fingerprint, int k) {
+        int[] pairPositions = new PairManager().getPairPositions(fingerprint);
+        int queryLength = fingerprint.length;
+        int queryNumFrames = FingerprintManager.getNumFrames(fingerprint);
+
+        //Collect (track id, offset) for every matching hashed pair. Offsets are stored with a bias of 2^31 so that
+        // sorting groups the hits by track, then by offset
+        long[] hits = new long[64];
+        int numHits = 0;
+        //Track arrays are only ever replaced (not modified) for existing tracks, so a reference is safe to use later
+        int[] lengths;
+        int[] frames;
+        lock.readLock().lock();
+        try {
+            lengths = trackLengths;
+            frames = trackNumFrames;
+            for (int i = 0; i < pairPositions.length; i += 2) {
+                int hash = pairPositions[i];
+                if (hash < 0 || hash >= hashSpace || postingSizes[hash] == 0) {
+                    continue;
+                }
+                int queryPosition = pairPositions[i + 1];
+                long[] list = postings[hash];
+                int size = postingSizes[hash];
+                if (numHits + size > hits.length) {
+                    hits = Arrays.copyOf(hits, Math.max(2 * hits.length, numHits + size));
+                }
+                for (int j = 0; j < size; j++) {
+                    long track = list[j] >>> 32;
+                    long offset = (long) (int) list[j] - queryPosition - Integer.MIN_VALUE;
+                    hits[numHits++] = (track << 32) | offset;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(hits, 0, numHits);
+
+        //Score each track in one pass over the sorted hits; the hits for track i are runStart[i] to runStart[i+1]
+        int[] runStart = new int[16];
+        float[] scores = new float[16];
+        int numCandidates = 0;
+        int start = 0;
+        while (start < numHits) {
+            int trackId = (int) (hits[start] >>> 32);
+            int end = start;
+            while (end < numHits && (int) (hits[end] >>> 32) == trackId) {
+                end++;
+            }
+            if (numCandidates == scores.length) {
+                runStart = Arrays.copyOf(runStart, 2 * numCandidates);
+                scores = Arrays.copyOf(scores, 2 * numCandidates);
+            }
+            runStart[numCandidates] = start;
+            scores[numCandidates++] =
+                            score(trackId, hits, start, end, lengths, frames, queryLength, queryNumFrames, null);
+            start = end;
+        }
+
+        //Top k: min-heap on (score, -track id)
+        final float[] candidateScores = scores;
+        PriorityQueue<Integer> topK = new PriorityQueue<>(Math.max(1, Math.min(k, numCandidates)),
+                        new Comparator<Integer>() {
+                            @Override
+                            public int compare(Integer c1, Integer c2) {
+                                int c = Float.compare(candidateScores[c1], candidateScores[c2]);
+                                return c != 0 ? c : Integer.compare(c2, c1);
+                            }
+                        });
+        for (int c = 0; c < numCandidates && k > 0; c++) {
+            if (topK.size() < k) {
+                topK.add(c);
+            } else if (scores[c] > scores[topK.peek()]) {
+                topK.poll();
+                topK.add(c);
+            }
+        }
+
+        Match[] matches = new Match[topK.size()];
+        for (int i = matches.length - 1; i >= 0; i--) {
+            int c = topK.poll();
+            int end = c + 1 < numCandidates ? runStart[c + 1] : numHits;
+            int trackId = (int) (hits[runStart[c]] >>> 32);
+            Match[] match = new Match[1];
+            score(trackId, hits, runStart[c], end, lengths, frames, queryLength, queryNumFrames, match);
+            matches[i] = match[0];
+        }
+        return Arrays.asList(matches);
+    }
+
+    /**
+     * Score a track, given its hits (sorted by offset). If out is non-null, the match (including the offset
+     * histogram) is returned in out[0]
+     */
+    private static float score(int trackId, long[] hits, int start, int end, int[] trackLengths,
+                    int[] trackNumFrames, int queryLength, int queryNumFrames, Match[] out) {
+        //Run length encode the offsets, keeping track of the most common offset and its neighbours
+        int bestOffset = 0;
+        int bestCount = 0;
+        int bestPrevCount = 0;
+        int bestNextCount = 0;
+        int prevOffset = 0;
+        int prevCount = 0;
+        int i = start;
+        while (i < end) {
+            int offset = offset(hits[i]);
+            int j = i + 1;
+            while (j < end && hits[j] == hits[i]) {
+                j++;
+            }
+            int count = j - i;
+            if (bestCount > 0 && offset == bestOffset + 1 && prevOffset == bestOffset) {
+                bestNextCount = count;
+            }
+            if (count > bestCount) {
+                bestOffset = offset;
+                bestCount = count;
+                bestPrevCount = (prevCount > 0 && prevOffset == offset - 1) ? prevCount : 0;
+                bestNextCount = 0;
+            }
+            prevOffset = offset;
+            prevCount = count;
+            i = j;
+        }
+
+        // accumulate the scores from neighbours, as in FingerprintSimilarityComputer
+        float score = bestCount;
+        score += bestPrevCount / 2;
+        score += bestNextCount / 2;
+
+        // one frame may contain several points, use the shorter one be the denominator
+        int numFrames = trackLengths[trackId] > queryLength ? queryNumFrames : trackNumFrames[trackId];
+        score /= numFrames;
+
+        if (out != null) {
+            int[] offsets = new int[end - start];
+            int[] counts = new int[end - start];
+            int n = 0;
+            for (int h = start; h < end; h++) {
+                int offset = offset(hits[h]);
+                if (n > 0 && offsets[n - 1] == offset) {
+                    counts[n - 1]++;
+                } else {
+                    offsets[n] = offset;
+                    counts[n++] = 1;
+                }
+            }
+            FingerprintSimilarity similarity = new FingerprintSimilarity();
+            similarity.setMostSimilarFramePosition(bestOffset);
+            similarity.setScore(score);
+            similarity.setSimilarity(Math.min(score, 1.0f));
+            out[0] = new Match(trackId, similarity, Arrays.copyOf(offsets, n), Arrays.copyOf(counts, n));
+        }
+        return score;
+    }
+
+    private static int offset(long hit) {
+        return (int) ((hit & 0xFFFFFFFFL) + Integer.MIN_VALUE);
+    }
+
+    /**
+     * Query the index for a batch of fingerprints, in parallel
+     *
+     * @param fingerprints Fingerprints of the query clips
+     * @param k            Maximum number of matches to return for each query
+     * @param numThreads   Number of threads to use
+     * @return Results of {@link #query(byte[], int)} for each query, in the same order as the queries
+     */
+    public List<List<Match>> query(final List<byte[]> fingerprints, final int k, int numThreads) {
+        final List<List<Match>> results = new ArrayList<>(Collections.<List<Match>>nCopies(fingerprints.size(), null));
+        if (numThreads <= 1 || fingerprints.size() < 2) {
+            for (int i = 0; i < fingerprints.size(); i++) {
+                results.set(i, query(fingerprints.get(i), k));
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < fingerprints.size(); i++) {
+                final int idx = i;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        results.set(idx, query(fingerprints.get(idx), k));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while querying fingerprint index", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error querying fingerprint index", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Save the index to the given file
+     *
+     * @param file File to save to
+     * @see #load(File)
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            save(dos);
+        }
+    }
+
+    /**
+     * Save the index to the given output; see {@link #save(File)}
+     */
+    public void save(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(hashSpace);
+            out.writeInt(numTracks);
+            for (int i = 0; i < numTracks; i++) {
+                out.writeInt(trackLengths[i]);
+                out.writeInt(trackNumFrames[i]);
+            }
+            for (int hash = 0; hash < hashSpace; hash++) {
+                int size = postingSizes[hash];
+                if (size == 0) {
+                    continue;
+                }
+                out.writeInt(hash);
+                out.writeInt(size);
+                long[] list = postings[hash];
+                for (int j = 0; j < size; j++) {
+                    out.writeLong(list[j]);
+                }
+            }
+            out.writeInt(-1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Load an index saved with {@link #save(File)}
+     */
+    public static FingerprintIndex load(File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return load(dis);
+        }
+    }
+
+    /**
+     * Load an index saved with {@link #save(DataOutput)}
+     */
+    public static FingerprintIndex load(DataInput in) throws IOException {
+        FingerprintIndex index = new FingerprintIndex(in.readInt());
+        int numTracks = in.readInt();
+        index.numTracks = numTracks;
+        index.trackLengths = new int[Math.max(16, numTracks)];
+        index.trackNumFrames = new int[Math.max(16, numTracks)];
+        for (int i = 0; i < numTracks; i++) {
+            index.trackLengths[i] = in.readInt();
+            index.trackNumFrames[i] = in.readInt();
+        }
+        int hash;
+        while ((hash = in.readInt()) >= 0) {
+            int size = in.readInt();
+            long[] list = new long[Math.max(INITIAL_POSTING_CAPACITY, size)];
+            for (int j = 0; j < size; j++) {
+                list[j] = in.readLong();
+            }
+            index.postings[hash] = list;
+            index.postingSizes[hash] = size;
+            index.numPostings += size;
+        }
+        return index;
+    }
+}
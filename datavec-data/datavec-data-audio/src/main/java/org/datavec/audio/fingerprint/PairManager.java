@@ -100,6 +100,23 @@ public class PairManager {
         return pair_positionList_table;
     }
 
+    /**
+     * Get the hashed pairs and their positions as a primitive array, without grouping by hashed pair
+     *
+     * @param fingerprint	fingerprint bytes
+     * @return array of hashed pair (even indices) and position (odd indices)
+     */
+    public int[] getPairPositions(byte[] fingerprint) {
+        List<int[]> pairPositionList = getPairPositionList(fingerprint);
+        int[] pairPositions = new int[2 * pairPositionList.size()];
+        int i = 0;
+        for (int[] pair_position : pairPositionList) {
+            pairPositions[i++] = pair_position[0];
+            pairPositions[i++] = pair_position[1];
+        }
+        return pairPositions;
+    }
+
     // this return list contains: int[0]=pair_hashcode, int[1]=position
     private List<int[]> getPairPositionList(byte[] fingerprint) {
 
@@ -16,10 +16,13 @@
 
 package org.datavec.audio;
 
+import org.datavec.audio.dsp.FFTPlan;
 import org.datavec.audio.dsp.FastFourierTransform;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 public class TestFastFourierTransform {
 
     @Test
@@ -31,4 +34,56 @@ public class TestFastFourierTransform {
         Assert.assertEquals(2, frequencies.length);
         Assert.assertArrayEquals(new double[] {21.335, 18.513}, frequencies, 0.005);
     }
+
+    @Test
+    public void testFFTPlan() {
+        Random r = new Random(12345);
+        for (int n = 1; n <= 256; n *= 2) {
+            FFTPlan plan = FFTPlan.forSize(n);
+            Assert.assertSame(plan, FFTPlan.forSize(n));
+
+            //Complex FFT vs. naive DFT
+            double[] x = new double[2 * n];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = r.nextGaussian();
+            }
+            double[] y = x.clone();
+            plan.complexForward(y);
+            for (int k = 0; k < n; k++) {
+                double re = 0;
+                double im = 0;
+                for (int t = 0; t < n; t++) {
+                    double theta = -2 * Math.PI * k * t / n;
+                    re += x[2 * t] * Math.cos(theta) - x[2 * t + 1] * Math.sin(theta);
+                    im += x[2 * t] * Math.sin(theta) + x[2 * t + 1] * Math.cos(theta);
+                }
+                Assert.assertEquals(re, y[2 * k], 1e-9);
+                Assert.assertEquals(im, y[2 * k + 1], 1e-9);
+            }
+
+            //Real FFT vs. naive DFT
+            double[] real = new double[n];
+            for (int i = 0; i < n; i++) {
+                real[i] = r.nextGaussian();
+            }
+            double[] packed = real.clone();
+            plan.realForward(packed);
+            double[] magnitudes = new double[n / 2 + 1];
+            plan.realMagnitudes(packed, magnitudes);
+            for (int k = 0; k <= n / 2; k++) {
+                double re = 0;
+                double im = 0;
+                for (int t = 0; t < n; t++) {
+                    double theta = -2 * Math.PI * k * t / n;
+                    re += real[t] * Math.cos(theta);
+                    im += real[t] * Math.sin(theta);
+                }
+                Assert.assertEquals(Math.sqrt(re * re + im * im), magnitudes[k], 1e-9);
+                if (k > 0 && k < n / 2) {
+                    Assert.assertEquals(re, packed[2 * k], 1e-9);
+                    Assert.assertEquals(im, packed[2 * k + 1], 1e-9);
+                }
+            }
+        }
+    }
 }
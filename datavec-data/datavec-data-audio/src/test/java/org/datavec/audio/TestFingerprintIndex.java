@@ -0,0 +1,218 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.audio;
+
+import org.datavec.audio.fingerprint.FingerprintIndex;
+import org.datavec.audio.fingerprint.FingerprintSimilarity;
+import org.datavec.audio.fingerprint.FingerprintSimilarityComputer;
+import org.datavec.audio.properties.FingerprintProperties;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestFingerprintIndex {
+
+    private static final int NUM_TRACKS = 20;
+    private static final int NUM_FRAMES = 200;
+
+    /**
+     * Random fingerprint: 4 points per frame, each point being x (frame), y (frequency unit) and intensity
+     */
+    private static byte[][] tracks() {
+        Random r = new Random(12345);
+        int numFrequencyUnits = FingerprintProperties.getInstance().getNumFrequencyUnits();
+        byte[][] tracks = new byte[NUM_TRACKS][];
+        for (int t = 0; t < NUM_TRACKS; t++) {
+            int[] points = new int[3 * 4 * NUM_FRAMES];
+            for (int p = 0; p < 4 * NUM_FRAMES; p++) {
+                points[3 * p] = p / 4;
+                points[3 * p + 1] = r.nextInt(numFrequencyUnits);
+                points[3 * p + 2] = r.nextInt(Integer.MAX_VALUE);
+            }
+            tracks[t] = toFingerprint(points, 0, 4 * NUM_FRAMES, 0);
+        }
+        return tracks;
+    }
+
+    private static byte[] toFingerprint(int[] points, int fromPoint, int toPoint, int shift) {
+        byte[] fingerprint = new byte[8 * (toPoint - fromPoint)];
+        for (int p = fromPoint; p < toPoint; p++) {
+            int i = 8 * (p - fromPoint);
+            int x = points[3 * p] - shift;
+            int y = points[3 * p + 1];
+            int intensity = points[3 * p + 2];
+            fingerprint[i] = (byte) (x >> 8);
+            fingerprint[i + 1] = (byte) x;
+            fingerprint[i + 2] = (byte) (y >> 8);
+            fingerprint[i + 3] = (byte) y;
+            fingerprint[i + 4] = (byte) (intensity >> 24);
+            fingerprint[i + 5] = (byte) (intensity >> 16);
+            fingerprint[i + 6] = (byte) (intensity >> 8);
+            fingerprint[i + 7] = (byte) intensity;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Clip of the track: frames from (inclusive) to to (exclusive), with frame numbers starting at 0
+     */
+    private static byte[] clip(byte[] track, int from, int to) {
+        int[] points = new int[3 * track.length / 8];
+        for (int p = 0; p < track.length / 8; p++) {
+            points[3 * p] = (track[8 * p] & 0xff) << 8 | (track[8 * p + 1] & 0xff);
+            points[3 * p + 1] = (track[8 * p + 2] & 0xff) << 8 | (track[8 * p + 3] & 0xff);
+            points[3 * p + 2] = (track[8 * p + 4] & 0xff) << 24 | (track[8 * p + 5] & 0xff) << 16
+                            | (track[8 * p + 6] & 0xff) << 8 | (track[8 * p + 7] & 0xff);
+        }
+        return toFingerprint(points, 4 * from, 4 * to, from);
+    }
+
+    @Test
+    public void testQuery() {
+        byte[][] tracks = tracks();
+        FingerprintIndex index = new FingerprintIndex();
+        for (int t = 0; t < NUM_TRACKS; t++) {
+            assertEquals(t, index.addTrack(tracks[t]));
+        }
+        assertEquals(NUM_TRACKS, index.numTracks());
+        assertTrue(index.numPostings() > 0);
+
+        for (int t : new int[] {0, 7, 19}) {
+            byte[] query = clip(tracks[t], 40, 100);
+            List<FingerprintIndex.Match> matches = index.query(query, 5);
+            assertTrue(matches.size() > 1 && matches.size() <= 5);
+
+            FingerprintIndex.Match top = matches.get(0);
+            assertEquals(t, top.getTrackId());
+            assertEquals(40, top.getSimilarity().getMostSimilarFramePosition());
+
+            //Same score as the pairwise computation
+            FingerprintSimilarity expected = new FingerprintSimilarityComputer(tracks[t], query)
+                            .getFingerprintsSimilarity();
+            assertEquals(expected.getMostSimilarFramePosition(), top.getSimilarity().getMostSimilarFramePosition());
+            assertEquals(expected.getScore(), top.getSimilarity().getScore(), 1e-6);
+            assertEquals(expected.getSimilarity(), top.getSimilarity().getSimilarity(), 1e-6);
+
+            for (int i = 1; i < matches.size(); i++) {
+                assertTrue(matches.get(i - 1).getSimilarity().getScore() >= matches.get(i).getSimilarity().getScore());
+                assertTrue(top.getSimilarity().getScore() > 2 * matches.get(i).getSimilarity().getScore());
+            }
+
+            //Offset histogram: sorted offsets, peak at the clip offset
+            int[] offsets = top.getOffsets();
+            int[] counts = top.getCounts();
+            assertEquals(offsets.length, counts.length);
+            int peak = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                if (i > 0) {
+                    assertTrue(offsets[i] > offsets[i - 1]);
+                }
+                if (counts[i] > counts[peak]) {
+                    peak = i;
+                }
+            }
+            assertEquals(40, offsets[peak]);
+        }
+    }
+
+    @Test
+    public void testBatchQueryAndPersistence() throws Exception {
+        byte[][] tracks = tracks();
+        FingerprintIndex index = new FingerprintIndex();
+        for (byte[] track : tracks) {
+            index.addTrack(track);
+        }
+
+        List<byte[]> queries = new ArrayList<>();
+        for (int t = 0; t < NUM_TRACKS; t++) {
+            queries.add(clip(tracks[t], 4 * t, 4 * t + 60));
+        }
+
+        List<List<FingerprintIndex.Match>> batch = index.query(queries, 3, 4);
+        assertEquals(queries.size(), batch.size());
+
+        File f = File.createTempFile("fingerprintindex", ".bin");
+        f.deleteOnExit();
+        index.save(f);
+        FingerprintIndex loaded = FingerprintIndex.load(f);
+        assertEquals(index.numTracks(), loaded.numTracks());
+        assertEquals(index.numPostings(), loaded.numPostings());
+
+        for (int t = 0; t < NUM_TRACKS; t++) {
+            assertEquals(t, batch.get(t).get(0).getTrackId());
+            assertEquals(4 * t, batch.get(t).get(0).getSimilarity().getMostSimilarFramePosition());
+            assertSameMatches(index.query(queries.get(t), 3), batch.get(t));
+            assertSameMatches(index.query(queries.get(t), 3), loaded.query(queries.get(t), 3));
+        }
+    }
+
+    @Test
+    public void testIncrementalInsertion() {
+        byte[][] tracks = tracks();
+        FingerprintIndex index = new FingerprintIndex();
+        for (int t = 0; t < 10; t++) {
+            index.addTrack(tracks[t]);
+        }
+
+        byte[] query = clip(tracks[15], 100, 160);
+        for (FingerprintIndex.Match m : index.query(query, NUM_TRACKS)) {
+            assertTrue(m.getTrackId() < 10);
+        }
+
+        for (int t = 10; t < NUM_TRACKS; t++) {
+            index.addTrack(tracks[t]);
+        }
+        FingerprintIndex.Match top = index.query(query, 1).get(0);
+        assertEquals(15, top.getTrackId());
+        assertEquals(100, top.getSimilarity().getMostSimilarFramePosition());
+
+        assertTrue(index.query(query, 0).isEmpty());
+
+        //Pairs out of range for the index
+        byte[] invalid = clip(tracks[0], 0, 20);
+        for (int i = 0; i < invalid.length; i += 8) {
+            invalid[i + 2] = (byte) 0x7F;
+        }
+        try {
+            index.addTrack(invalid);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+        assertEquals(NUM_TRACKS, index.numTracks());
+    }
+
+    private static void assertSameMatches(List<FingerprintIndex.Match> expected, List<FingerprintIndex.Match> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            FingerprintIndex.Match e = expected.get(i);
+            FingerprintIndex.Match a = actual.get(i);
+            assertEquals(e.getTrackId(), a.getTrackId());
+            assertEquals(e.getSimilarity().getScore(), a.getSimilarity().getScore(), 0.0);
+            assertEquals(e.getSimilarity().getMostSimilarFramePosition(),
+                            a.getSimilarity().getMostSimilarFramePosition());
+            assertArrayEquals(e.getOffsets(), a.getOffsets());
+            assertArrayEquals(e.getCounts(), a.getCounts());
+        }
+    }
+}
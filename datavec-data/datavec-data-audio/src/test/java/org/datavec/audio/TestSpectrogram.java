@@ -0,0 +1,157 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.audio;
+
+import org.datavec.audio.dsp.FastFourierTransform;
+import org.datavec.audio.dsp.WindowFunction;
+import org.datavec.audio.extension.ShortTimeFourierTransform;
+import org.datavec.audio.extension.Spectrogram;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestSpectrogram {
+
+    private static Wave wave(int numSamples) {
+        Random r = new Random(12345);
+        byte[] data = new byte[2 * numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            short s = (short) (8000 * Math.sin(i * 0.05) + 3000 * Math.sin(i * 0.31) + 500 * r.nextGaussian());
+            data[2 * i] = (byte) s;
+            data[2 * i + 1] = (byte) (s >> 8);
+        }
+        WaveHeader header = new WaveHeader();
+        header.setSubChunk2Size(data.length);
+        return new Wave(header, data);
+    }
+
+    /**
+     * Absolute spectrogram, as computed by previous versions of Spectrogram: all (overlapped) frames materialized,
+     * and the previous FFT
+     */
+    private static double[][] reference(Wave wave, int fftSampleSize, int overlapFactor) {
+        short[] amplitudes = wave.getSampleAmplitudes();
+        int numSamples = amplitudes.length;
+        if (overlapFactor > 1) {
+            int numOverlappedSamples = numSamples * overlapFactor;
+            int backSamples = fftSampleSize * (overlapFactor - 1) / overlapFactor;
+            short[] overlapAmp = new short[numOverlappedSamples];
+            int pointer = 0;
+            for (int i = 0; i < amplitudes.length; i++) {
+                overlapAmp[pointer++] = amplitudes[i];
+                if (pointer % fftSampleSize == fftSampleSize - 1) {
+                    i -= backSamples;
+                }
+            }
+            numSamples = numOverlappedSamples;
+            amplitudes = overlapAmp;
+        }
+
+        int numFrames = numSamples / fftSampleSize;
+        WindowFunction window = new WindowFunction();
+        window.setWindowType("Hamming");
+        double[] win = window.generate(fftSampleSize);
+        double[][] out = new double[numFrames][];
+        for (int f = 0; f < numFrames; f++) {
+            double[] signal = new double[fftSampleSize];
+            for (int n = 0; n < fftSampleSize; n++) {
+                signal[n] = amplitudes[f * fftSampleSize + n] * win[n];
+            }
+            out[f] = previousMagnitudes(signal);
+        }
+        return out;
+    }
+
+    /**
+     * FastFourierTransform.getMagnitudes as in previous versions, which called com.sun.media.sound.FFT(n / 2, -1):
+     * the amplitudes are taken as n / 2 interleaved complex values, and the magnitudes of the first half of their
+     * forward DFT are returned. The DFT is computed directly here, independently of {@link FastFourierTransform}
+     */
+    private static double[] previousMagnitudes(double[] amplitudes) {
+        int n = amplitudes.length / 2;
+        double[] mag = new double[n / 2];
+        for (int k = 0; k < n / 2; k++) {
+            double re = 0;
+            double im = 0;
+            for (int t = 0; t < n; t++) {
+                double theta = -2 * Math.PI * ((long) k * t % n) / n;
+                double cos = Math.cos(theta);
+                double sin = Math.sin(theta);
+                re += amplitudes[2 * t] * cos - amplitudes[2 * t + 1] * sin;
+                im += amplitudes[2 * t] * sin + amplitudes[2 * t + 1] * cos;
+            }
+            mag[k] = Math.sqrt(re * re + im * im);
+        }
+        return mag;
+    }
+
+    @Test
+    public void testSpectrogramMatchesReference() {
+        for (int numSamples : new int[] {5000, 4096, 1000}) {
+            Wave wave = wave(numSamples);
+            for (int overlapFactor : new int[] {0, 1, 2, 4}) {
+                double[][] expected = reference(wave, 256, overlapFactor);
+                for (int numThreads : new int[] {1, 4}) {
+                    Spectrogram spectrogram = new Spectrogram(wave, 256, overlapFactor, numThreads);
+                    double[][] actual = spectrogram.getAbsoluteSpectrogramData();
+                    assertEquals(expected.length, actual.length);
+                    assertEquals(expected.length, spectrogram.getNumFrames());
+                    for (int f = 0; f < expected.length; f++) {
+                        assertArrayEquals(expected[f], actual[f], 1e-6 * (1 + expected[f][0]));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRealInputStft() {
+        Wave wave = wave(4096);
+        final short[] amplitudes = wave.getSampleAmplitudes();
+        final double[] win;
+        WindowFunction window = new WindowFunction();
+        window.setWindowType("Hamming");
+        win = window.generate(128);
+
+        ShortTimeFourierTransform stft = new ShortTimeFourierTransform(wave, 128, 0, true);
+        assertEquals(32, stft.getNumFrames());
+        assertEquals(65, stft.getNumFrequencyUnit());
+        final int[] count = new int[1];
+        stft.forEachFrame(new ShortTimeFourierTransform.FrameHandler() {
+            @Override
+            public void onFrame(int frame, double[] magnitudes) {
+                assertEquals(count[0]++, frame);
+                //Spot check some bins against a naive DFT
+                for (int k = 0; k <= 64; k += 16) {
+                    double re = 0;
+                    double im = 0;
+                    for (int t = 0; t < 128; t++) {
+                        double x = amplitudes[frame * 128 + t] * win[t];
+                        re += x * Math.cos(-2 * Math.PI * k * t / 128);
+                        im += x * Math.sin(-2 * Math.PI * k * t / 128);
+                    }
+                    assertEquals(Math.sqrt(re * re + im * im), magnitudes[k], 1e-6);
+                }
+            }
+        });
+        assertEquals(32, count[0]);
+    }
+}
@@ -70,6 +70,10 @@ public abstract class BaseCodecRecordReader extends FileRecordReader implements
         }
     }
 
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
     @Override
     public List<List<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
         return loadData(null, dataInputStream);
@@ -0,0 +1,327 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.loader;
+
+import org.bytedeco.javacpp.BytePointer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.bytedeco.javacpp.opencv_core.*;
+
+/**
+ * On-disk cache of decoded and resized images, so that later epochs do not need to decode the image files again.<br>
+ * Images are stored as uint8 pixels (height x width x channels, as in an OpenCV Mat), packed in a single file that
+ * is read through memory mapping. Each entry is keyed by the absolute path of the image file, along with its
+ * modification time and length: modified images are decoded (and cached) again. The loader parameters (height, width,
+ * channels and center cropping) are stored in the header of the file; a cache file created with other parameters is
+ * cleared when opened.<br>
+ * The file is mapped in segments of up to 1GB, and entries never span two segments. The index of the entries is
+ * rebuilt by scanning the file when the cache is opened. Superseded entries (for modified images) are not reclaimed.
+ * <br>
+ * Only 8 bit images are cached. The cache is thread safe, and is used with
+ * {@link NativeImageLoader#setImageCache(ImageCache)}.
+ */
+public class ImageCache implements Closeable {
+
+    private static final int MAGIC = 0x494D4743;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static class Entry {
+        private final long lastModified;
+        private final long length;
+        //Offset of the pixels in the file
+        private final long offset;
+
+        private Entry(long lastModified, long length, long offset) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.offset = offset;
+        }
+    }
+
+    private final File file;
+    private final int height;
+    private final int width;
+    private final int channels;
+    private final boolean centerCrop;
+    private final int imageSize;
+    private final long segmentSize;
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long end;
+
+    /**
+     * Open (or create) a cache file for images loaded with the given parameters
+     *
+     * @param file       the cache file
+     * @param height     height of the images
+     * @param width      width of the images
+     * @param channels   number of channels of the images
+     * @param centerCrop whether the images are center cropped before scaling
+     * @throws IOException
+     */
+    public ImageCache(File file, int height, int width, int channels, boolean centerCrop) throws IOException {
+        this(file, height, width, channels, centerCrop, DEFAULT_SEGMENT_SIZE);
+    }
+
+    ImageCache(File file, int height, int width, int channels, boolean centerCrop, long segmentSize)
+                    throws IOException {
+        if (height <= 0 || width <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("Height, width and channels must be positive for cached images: got "
+                            + height + ", " + width + ", " + channels);
+        }
+        this.file = file;
+        this.height = height;
+        this.width = width;
+        this.channels = channels;
+        this.centerCrop = centerCrop;
+        this.imageSize = height * width * channels;
+        this.segmentSize = segmentSize;
+        if (HEADER_SIZE + recordSize(0) > segmentSize) {
+            throw new IllegalArgumentException("Images of " + imageSize + " bytes are too large to be cached");
+        }
+
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        if (!readHeader()) {
+            channel.truncate(0);
+            writeHeader();
+        }
+        scan();
+    }
+
+    private boolean readHeader() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == height
+                        && header.getInt() == width && header.getInt() == channels
+                        && header.getInt() == (centerCrop ? 1 : 0);
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(height).putInt(width).putInt(channels).putInt(centerCrop ? 1 : 0);
+        header.flip();
+        channel.write(header, 0);
+        end = HEADER_SIZE;
+    }
+
+    /**
+     * Rebuild the index from the entries in the file. An incomplete entry at the end of the file (if writing it was
+     * interrupted) is discarded
+     */
+    private void scan() throws IOException {
+        long size = channel.size();
+        long pos = HEADER_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        while (true) {
+            if (remainingInSegment(pos) < 4) {
+                pos = nextSegment(pos);
+            }
+            if (pos + 4 > size) {
+                break;
+            }
+            buffer.clear();
+            channel.read(buffer, pos);
+            int pathLength = buffer.getInt(0);
+            if (pathLength < 0) {
+                //Padding until the next segment
+                pos = nextSegment(pos);
+                continue;
+            }
+            long recordSize = recordSize(pathLength);
+            if (pos + recordSize > size || recordSize > remainingInSegment(pos)) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(4 + pathLength + 16);
+            channel.read(record, pos);
+            record.position(4);
+            byte[] path = new byte[pathLength];
+            record.get(path);
+            long lastModified = record.getLong();
+            long length = record.getLong();
+            index.put(new String(path, UTF8), new Entry(lastModified, length, pos + 4 + pathLength + 16));
+            pos += recordSize;
+        }
+        end = pos;
+        if (size > end) {
+            channel.truncate(end);
+        }
+    }
+
+    private long recordSize(int pathLength) {
+        return 4 + pathLength + 16 + imageSize;
+    }
+
+    private long remainingInSegment(long pos) {
+        return segmentSize - pos % segmentSize;
+    }
+
+    private long nextSegment(long pos) {
+        return (pos / segmentSize + 1) * segmentSize;
+    }
+
+    /**
+     * @return the number of cached images
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the cache file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Check that the cache is for images loaded with the given parameters
+     *
+     * @throws IllegalArgumentException if the parameters differ from those of the cache
+     */
+    public void checkParameters(int height, int width, int channels, boolean centerCrop) {
+        if (height != this.height || width != this.width || channels != this.channels
+                        || centerCrop != this.centerCrop) {
+            throw new IllegalArgumentException("Image cache " + file + " is for images of height " + this.height
+                            + ", width " + this.width + ", channels " + this.channels + ", center crop "
+                            + this.centerCrop + ": got " + height + ", " + width + ", " + channels + ", "
+                            + centerCrop);
+        }
+    }
+
+    /**
+     * Get the cached image for the given file
+     *
+     * @param image the image file
+     * @return the image (of type CV_8UC(channels)), or null if the file is not cached or if it was modified since it
+     *         was cached. The Mat is backed by the memory mapped cache file, without copying the pixels: it is read
+     *         only, and must not be modified
+     */
+    public Mat get(File image) throws IOException {
+        ByteBuffer pixels;
+        synchronized (this) {
+            Entry entry = index.get(image.getAbsolutePath());
+            if (entry == null || entry.lastModified != image.lastModified() || entry.length != image.length()) {
+                return null;
+            }
+            int s = (int) (entry.offset / segmentSize);
+            MappedByteBuffer segment = s < segments.size() ? segments.get(s) : null;
+            int start = (int) (entry.offset % segmentSize);
+            if (segment == null || segment.limit() < start + imageSize) {
+                segment = map(s);
+            }
+            pixels = segment.duplicate();
+            pixels.position(start);
+            pixels.limit(start + imageSize);
+        }
+        //The Mat references the pointer, which references the mapped buffer: the segment stays mapped while in use
+        return new Mat(height, width, CV_8UC(channels), new BytePointer(pixels.slice()));
+    }
+
+    private MappedByteBuffer map(int s) throws IOException {
+        long start = s * segmentSize;
+        long size = Math.min(segmentSize, end - start);
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        while (segments.size() <= s) {
+            segments.add(null);
+        }
+        segments.set(s, segment);
+        return segment;
+    }
+
+    /**
+     * Add an image to the cache. Images that are not of type CV_8UC(channels) with the height and width of the cache
+     * are not cached
+     *
+     * @param image the image file
+     * @param mat   the decoded and resized image
+     * @return true if the image was cached
+     */
+    public boolean put(File image, Mat mat) throws IOException {
+        if (mat.type() != CV_8UC(channels) || mat.rows() != height || mat.cols() != width) {
+            return false;
+        }
+        if (!mat.isContinuous()) {
+            mat = mat.clone();
+        }
+        ByteBuffer pixels = mat.data().capacity(imageSize).asByteBuffer();
+
+        byte[] path = image.getAbsolutePath().getBytes(UTF8);
+        long lastModified = image.lastModified();
+        long length = image.length();
+        long recordSize = recordSize(path.length);
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer record = ByteBuffer.allocate(4 + path.length + 16);
+        record.putInt(path.length).put(path).putLong(lastModified).putLong(length);
+        record.flip();
+
+        synchronized (this) {
+            long pos = end;
+            if (recordSize > remainingInSegment(pos)) {
+                if (remainingInSegment(pos) >= 4) {
+                    ByteBuffer padding = ByteBuffer.allocate(4);
+                    padding.putInt(0, -1);
+                    channel.write(padding, pos);
+                }
+                pos = nextSegment(pos);
+            }
+            while (record.hasRemaining()) {
+                channel.write(record, pos + record.position());
+            }
+            //The pixels are written directly from the Mat
+            long pixelsStart = pos + record.limit();
+            while (pixels.hasRemaining()) {
+                channel.write(pixels, pixelsStart + pixels.position());
+            }
+            end = pos + recordSize;
+            index.put(image.getAbsolutePath(), new Entry(lastModified, length, pixelsStart));
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segments.clear();
+        channel.close();
+        raf.close();
+    }
+}
@@ -17,8 +17,13 @@ package org.datavec.image.loader;
 
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import org.apache.commons.io.IOUtils;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.DoublePointer;
 import org.bytedeco.javacpp.FloatPointer;
 import org.bytedeco.javacpp.Pointer;
@@ -54,6 +59,20 @@ public class NativeImageLoader extends BaseImageLoader {
                     "PNG", "TIF", "TIFF", "EXR", "WEBP"};
 
     OpenCVFrameConverter.ToMat converter = null;
+    protected ImageCache imageCache = null;
+
+    /**
+     * Buffers reused by the loads of each thread: the encoded image, and the intermediate images of
+     * {@link #resizeImage(Mat)}
+     */
+    private static class Scratch {
+        private ByteBuffer encoded = ByteBuffer.allocateDirect(1 << 16);
+        private final byte[] chunk = new byte[1 << 14];
+        private final Mat converted = new Mat();
+        private final Mat scaled = new Mat();
+    }
+
+    private transient ThreadLocal<Scratch> scratch = newScratch();
 
     /**
      * Loads images with no scaling or conversion.
@@ -181,26 +200,176 @@ public class NativeImageLoader extends BaseImageLoader {
     }
 
 
+    /**
+     * Use a cache of decoded and resized images: images loaded from files are decoded only once, and are read from the
+     * cache afterwards. The image transform (if any) is applied after the cache, to the resized image.
+     *
+     * @param imageCache the cache, created with the same height, width, channels and center cropping as this loader,
+     *                   or null to not use a cache
+     */
+    public void setImageCache(ImageCache imageCache) {
+        if (imageCache != null) {
+            imageCache.checkParameters(height, width, channels, centerCropIfNeeded);
+        }
+        this.imageCache = imageCache;
+    }
+
+    public ImageCache getImageCache() {
+        return imageCache;
+    }
+
     @Override
     public INDArray asMatrix(File f) throws IOException {
-        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
-            return asMatrix(bis);
+        if (imageCache != null) {
+            return toMatrix(loadCached(f));
         }
+        return asMatrix(decode(f));
+    }
+
+    /**
+     * Get the image from the cache, or decode, resize and cache it; then apply the image transform
+     */
+    private Mat loadCached(File f) throws IOException {
+        Mat image = imageCache.get(f);
+        if (image == null) {
+            image = resizeImage(decode(f));
+            imageCache.put(f, image);
+        }
+        if (imageTransform != null && converter != null) {
+            image = scalingIfNeed(convertChannels(applyTransform(image)));
+        }
+        return image;
     }
 
     @Override
     public INDArray asMatrix(InputStream is) throws IOException {
-        byte[] bytes = IOUtils.toByteArray(is);
-        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
+        return asMatrix(decode(is));
+    }
+
+    private static ThreadLocal<Scratch> newScratch() {
+        return new ThreadLocal<Scratch>() {
+            @Override
+            protected Scratch initialValue() {
+                return new Scratch();
+            }
+        };
+    }
+
+    private Scratch scratch() {
+        return scratch.get();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        scratch = newScratch();
+    }
+
+    private static ByteBuffer ensureCapacity(Scratch s, int capacity) {
+        if (s.encoded.capacity() < capacity) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(capacity, 2 * s.encoded.capacity()));
+            s.encoded.flip();
+            larger.put(s.encoded);
+            s.encoded = larger;
+        }
+        return s.encoded;
+    }
+
+    /**
+     * Decode an image file, read into the (reused) direct buffer of this thread
+     */
+    private Mat decode(File f) throws IOException {
+        Scratch s = scratch();
+        try (FileInputStream fis = new FileInputStream(f)) {
+            FileChannel channel = fis.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Image file too large: " + f);
+            }
+            s.encoded.clear();
+            ByteBuffer buffer = ensureCapacity(s, (int) size);
+            buffer.limit((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Decode an image stream, read into the (reused) direct buffer of this thread
+     */
+    private Mat decode(InputStream is) throws IOException {
+        Scratch s = scratch();
+        s.encoded.clear();
+        int n;
+        while ((n = is.read(s.chunk)) >= 0) {
+            ensureCapacity(s, s.encoded.position() + n).put(s.chunk, 0, n);
+        }
+        return decode(s.encoded);
+    }
+
+    private static Mat decode(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int length = buffer.limit();
+        BytePointer bytes = new BytePointer(buffer);
+        Mat image = imdecode(new Mat(1, length, CV_8UC1, bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
         if (image == null || image.empty()) {
-            PIX pix = pixReadMem(bytes, bytes.length);
+            PIX pix = pixReadMem(bytes, length);
             if (pix == null) {
                 throw new IOException("Could not decode image from input stream");
             }
             image = convert(pix);
             pixDestroy(pix);
         }
-        return asMatrix(image);
+        return image;
+    }
+
+    /**
+     * Load an image directly into an existing array (or view of an array, such as one example of a 4d minibatch
+     * array), without allocating a new array for it
+     *
+     * @param f    the image to load
+     * @param view array of shape [channels, height, width] or [1, channels, height, width] matching the loaded image
+     * @throws IOException
+     */
+    public void asMatrixView(File f, INDArray view) throws IOException {
+        if (imageCache != null) {
+            fillView(loadCached(f), view);
+            return;
+        }
+        asMatrixView(decode(f), view);
+    }
+
+    /**
+     * @see #asMatrixView(File, INDArray)
+     */
+    public void asMatrixView(InputStream is, INDArray view) throws IOException {
+        asMatrixView(decode(is), view);
+    }
+
+    /**
+     * @see #asMatrixView(File, INDArray)
+     */
+    public void asMatrixView(Mat image, INDArray view) throws IOException {
+        fillView(transformImage(image), view);
+    }
+
+    private void fillView(Mat image, INDArray view) {
+        int[] shape = view.shape();
+        if (shape.length == 4 && shape[0] == 1) {
+            shape = new int[] {shape[1], shape[2], shape[3]};
+        }
+        if (shape.length != 3 || shape[0] != image.channels() || shape[1] != image.rows()
+                        || shape[2] != image.cols()) {
+            throw new IllegalArgumentException("Invalid view shape: expected [" + image.channels() + ", "
+                            + image.rows() + ", " + image.cols() + "], got " + Arrays.toString(view.shape()));
+        }
+        if (view.rank() == 4) {
+            view = view.tensorAlongDimension(0, 1, 2, 3);
+        }
+        fillNDArray(image, view);
     }
 
     public INDArray asMatrix(BufferedImage image) throws IOException {
@@ -212,12 +381,61 @@ public class NativeImageLoader extends BaseImageLoader {
     }
 
     public INDArray asMatrix(Mat image) throws IOException {
+        return toMatrix(transformImage(image));
+    }
+
+    private INDArray toMatrix(Mat image) {
+        INDArray ret = Nd4j.create(image.channels(), image.rows(), image.cols());
+        fillNDArray(image, ret);
+        return ret.reshape(ArrayUtil.combine(new int[] {1}, ret.shape()));
+    }
+
+    /**
+     * Apply the image transform (if any), and convert, crop and scale the image as required
+     */
+    protected Mat transformImage(Mat image) throws IOException {
+        return resizeImage(applyTransform(image));
+    }
+
+    /**
+     * Apply the image transform, if any
+     */
+    protected Mat applyTransform(Mat image) {
         if (imageTransform != null && converter != null) {
             ImageWritable writable = new ImageWritable(converter.convert(image));
             writable = imageTransform.transform(writable);
             image = converter.convert(writable.getFrame());
         }
+        return image;
+    }
+
+    /**
+     * Convert, crop and scale the image as required
+     */
+    protected Mat resizeImage(Mat image) throws IOException {
+        image = convertChannels(image);
+        if (centerCropIfNeeded) {
+            image = centerCropIfNeeded(image);
+        }
+        return scalingIfNeed(image);
+    }
+
+    /**
+     * Convert the image to the number of channels of this loader, if needed. The converted image is reused by the next
+     * load on this thread
+     */
+    protected Mat convertChannels(Mat image) throws IOException {
+        return convertChannels(image, scratch().converted);
+    }
 
+    /**
+     * Convert the image to the number of channels of this loader, if needed, into the given image
+     *
+     * @param image    the image to convert
+     * @param newimage the image to convert into
+     * @return the converted image (newimage), or image if no conversion was needed
+     */
+    protected Mat convertChannels(Mat image, Mat newimage) throws IOException {
         if (channels > 0 && image.channels() != channels) {
             int code = -1;
             switch (image.channels()) {
@@ -255,24 +473,31 @@ public class NativeImageLoader extends BaseImageLoader {
             if (code < 0) {
                 throw new IOException("Cannot convert from " + image.channels() + " to " + channels + " channels.");
             }
-            Mat newimage = new Mat();
             cvtColor(image, newimage, code);
             image = newimage;
         }
-        if (centerCropIfNeeded) {
-            image = centerCropIfNeeded(image);
-        }
-        image = scalingIfNeed(image);
+        return image;
+    }
 
+    /**
+     * Copy the image to the given array of shape [channels, rows, cols], which may be a view
+     */
+    protected void fillNDArray(Mat image, INDArray ret) {
         int rows = image.rows();
         int cols = image.cols();
         int channels = image.channels();
+        int[] stride = ret.stride();
+        if (image.depth() == CV_8U && image.isContinuous() && ret.ordering() == 'c' && stride[2] == 1
+                        && stride[1] == cols && stride[0] == rows * cols) {
+            fillNDArrayUByte(image, ret);
+            return;
+        }
         Indexer idx = image.createIndexer();
-        INDArray ret = Nd4j.create(channels, rows, cols);
         Pointer pointer = ret.data().pointer();
-        int[] stride = ret.stride();
         boolean done = false;
         if (pointer instanceof FloatPointer) {
+            //Views share the buffer of the original array: index from the view's offset
+            pointer = new FloatPointer(pointer).position(ret.offset());
             FloatIndexer retidx = FloatIndexer.create((FloatPointer) pointer, new long[] {channels, rows, cols},
                             new long[] {stride[0], stride[1], stride[2]});
             if (idx instanceof UByteIndexer) {
@@ -317,6 +542,7 @@ public class NativeImageLoader extends BaseImageLoader {
                 done = true;
             }
         } else if (pointer instanceof DoublePointer) {
+            pointer = new DoublePointer(pointer).position(ret.offset());
             DoubleIndexer retidx = DoubleIndexer.create((DoublePointer) pointer, new long[] {channels, rows, cols},
                             new long[] {stride[0], stride[1], stride[2]});
             if (idx instanceof UByteIndexer) {
@@ -376,7 +602,44 @@ public class NativeImageLoader extends BaseImageLoader {
         }
         image.data(); // dummy call to make sure it does not get deallocated prematurely
         Nd4j.getAffinityManager().tagLocation(ret, AffinityManager.Location.HOST);
-        return ret.reshape(ArrayUtil.combine(new int[] {1}, ret.shape()));
+    }
+
+    /**
+     * Convert a continuous uint8 image (interleaved: rows x cols x channels) to a contiguous array of shape [channels,
+     * rows, cols] in a single loop, reading and writing the native memory of the image and of the array directly
+     */
+    private static void fillNDArrayUByte(Mat image, INDArray ret) {
+        int hw = image.rows() * image.cols();
+        int channels = image.channels();
+        int length = hw * channels;
+        ByteBuffer src = image.data().limit(length).asBuffer();
+        Pointer pointer = ret.data().pointer();
+        long offset = ret.offset();
+        if (pointer instanceof FloatPointer) {
+            FloatBuffer dst = new FloatPointer(pointer).position(offset).limit(offset + length).asBuffer();
+            for (int k = 0; k < channels; k++) {
+                int out = k * hw;
+                for (int p = 0, in = k; p < hw; p++, in += channels) {
+                    dst.put(out + p, src.get(in) & 0xFF);
+                }
+            }
+        } else if (pointer instanceof DoublePointer) {
+            DoubleBuffer dst = new DoublePointer(pointer).position(offset).limit(offset + length).asBuffer();
+            for (int k = 0; k < channels; k++) {
+                int out = k * hw;
+                for (int p = 0, in = k; p < hw; p++, in += channels) {
+                    dst.put(out + p, src.get(in) & 0xFF);
+                }
+            }
+        } else {
+            for (int k = 0; k < channels; k++) {
+                for (int p = 0, in = k; p < hw; p++, in += channels) {
+                    ret.putScalar(k * hw + p, src.get(in) & 0xFF);
+                }
+            }
+        }
+        image.data(); // dummy call to make sure it does not get deallocated prematurely
+        Nd4j.getAffinityManager().tagLocation(ret, AffinityManager.Location.HOST);
     }
 
     // TODO build flexibility on where to crop the image
@@ -401,11 +664,27 @@ public class NativeImageLoader extends BaseImageLoader {
         return scalingIfNeed(image, height, width);
     }
 
+    /**
+     * Scale the image, if needed. The scaled image is reused by the next load on this thread
+     */
     protected Mat scalingIfNeed(Mat image, int dstHeight, int dstWidth) {
-        Mat scaled = image;
+        return scalingIfNeed(image, dstHeight, dstWidth, scratch().scaled);
+    }
+
+    /**
+     * Scale the image, if needed, into the given image
+     *
+     * @param image     the image to scale
+     * @param dstHeight the height to scale to
+     * @param dstWidth  the width to scale to
+     * @param scaled    the image to scale into
+     * @return the scaled image (scaled), or image if no scaling was needed
+     */
+    protected Mat scalingIfNeed(Mat image, int dstHeight, int dstWidth, Mat scaled) {
         if (dstHeight > 0 && dstWidth > 0 && (image.rows() != dstHeight || image.cols() != dstWidth)) {
-            resize(image, scaled = new Mat(), new Size(dstWidth, dstHeight));
+            resize(image, scaled, new Size(dstWidth, dstHeight));
+            return scaled;
         }
-        return scaled;
+        return image;
     }
 }
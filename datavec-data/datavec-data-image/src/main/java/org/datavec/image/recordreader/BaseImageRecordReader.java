@@ -29,6 +29,7 @@ import org.datavec.api.util.files.FileFromPathIterator;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.RecordConverter;
+import org.datavec.image.loader.ImageCache;
 import org.datavec.image.loader.ImageLoader;
 import org.datavec.image.loader.NativeImageLoader;
 import org.datavec.image.loader.BaseImageLoader;
@@ -52,6 +53,10 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     protected File currentFile;
     protected PathLabelGenerator labelGenerator = null;
     protected List<String> labels = new ArrayList<>();
+    //Index of each label, built from labels; rebuilt when labels is replaced or its size changes
+    protected Map<String, Integer> labelIndices;
+    private List<String> labelIndicesList;
+    private int labelIndicesSize;
     protected boolean appendLabel = false;
     protected List<Writable> record;
     protected boolean hitImage = false;
@@ -59,6 +64,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     protected boolean cropImage = false;
     protected ImageTransform imageTransform;
     protected BaseImageLoader imageLoader;
+    protected ImageCache imageCache;
     protected InputSplit inputSplit;
     protected Map<String, String> fileNameMap = new LinkedHashMap<>();
     protected String pattern; // Pattern to split and segment file name, pass in regex
@@ -99,6 +105,9 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
         }
+        if (imageLoader instanceof NativeImageLoader) {
+            ((NativeImageLoader) imageLoader).setImageCache(imageCache);
+        }
         inputSplit = split;
         URI[] locations = split.locations();
         if (locations != null && locations.length >= 1) {
@@ -149,6 +158,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
 
         //To ensure consistent order for label assignment (irrespective of file iteration order), we want to sort the list of labels
         Collections.sort(labels);
+        labelIndices = null;
     }
 
 
@@ -170,6 +180,16 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     }
 
 
+    /**
+     * Use a cache of decoded and resized images (see {@link ImageCache}), so that images are decoded only once rather
+     * than every epoch. Must be called before initialization. The image transform, if any, is applied after the cache.
+     *
+     * @param imageCache the cache, for the same height, width and channels as this reader; null for no cache
+     */
+    public void setImageCache(ImageCache imageCache) {
+        this.imageCache = imageCache;
+    }
+
     /**
      * Called once at initialization.
      *
@@ -214,7 +234,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
                 INDArray row = imageLoader.asMatrix(image);
                 ret = RecordConverter.toRecord(row);
                 if (appendLabel)
-                    ret.add(new IntWritable(labels.indexOf(getLabel(image.getPath()))));
+                    ret.add(new IntWritable(labelIndex(getLabel(image.getPath()))));
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -227,6 +247,91 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         throw new IllegalStateException("No more elements");
     }
 
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!batchesSupported()) {
+            return super.next(num);
+        }
+        List<List<Writable>> ret = newBatch(num);
+        boolean notifyListeners = !listeners.isEmpty();
+        while (ret.size() < num && hasNext()) {
+            File image = iter.next();
+            if (image.isDirectory())
+                continue;
+            currentFile = image;
+            if (notifyListeners) {
+                invokeListeners(image);
+            }
+            try {
+                INDArray row = imageLoader.asMatrix(image);
+                List<Writable> record = RecordConverter.toRecord(row);
+                if (appendLabel) {
+                    record.add(new IntWritable(labelIndex(getLabel(image.getPath()))));
+                }
+                ret.add(record);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (ret.isEmpty()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        return ret;
+    }
+
+    /**
+     * Load the next images directly into the given (preallocated) arrays, instead of creating one array and record
+     * per image. Up to features.size(0) images are loaded; if fewer images remain, the remaining rows of the arrays are
+     * left unchanged.
+     *
+     * @param features   array of shape [n, channels, height, width] to load the images into
+     * @param labelArray array of shape [n, numLabels] for the one-hot labels; may be null. Only set when labels are
+     *                   appended
+     * @return the number of images loaded
+     */
+    public int nextBatch(INDArray features, INDArray labelArray) {
+        if (iter == null)
+            throw new IllegalStateException("Batches can only be loaded from an input split of image files");
+        if (features.rank() != 4)
+            throw new IllegalArgumentException("Features array must have shape [n, channels, height, width]; got "
+                            + Arrays.toString(features.shape()));
+        boolean notifyListeners = !listeners.isEmpty();
+        int n = 0;
+        while (n < features.size(0) && hasNext()) {
+            File image = iter.next();
+            if (image.isDirectory())
+                continue;
+            currentFile = image;
+            if (notifyListeners) {
+                invokeListeners(image);
+            }
+            try {
+                INDArray row = features.tensorAlongDimension(n, 1, 2, 3);
+                if (imageLoader instanceof NativeImageLoader) {
+                    ((NativeImageLoader) imageLoader).asMatrixView(image, row);
+                } else {
+                    row.assign(imageLoader.asMatrix(image).reshape(row.shape()));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (appendLabel && labelArray != null) {
+                INDArray labelRow = labelArray.getRow(n);
+                labelRow.assign(0.0);
+                int idx = labelIndex(getLabel(image.getPath()));
+                if (idx >= 0)
+                    labelRow.putScalar(idx, 1.0);
+            }
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return iter != null;
+    }
+
     @Override
     public boolean hasNext() {
         if (iter != null) {
@@ -285,8 +390,33 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
      */
     protected void accumulateLabel(String path) {
         String name = getLabel(path);
-        if (!labels.contains(name))
+        if (!labels.contains(name)) {
             labels.add(name);
+            labelIndices = null;
+        }
+    }
+
+    /**
+     * Get the index of the given label in {@link #getLabels()}, using a map (built on first use, and rebuilt if the
+     * labels change) rather than a linear search of the labels
+     *
+     * @param label the label
+     * @return the index of the label, or -1 if it is not one of the labels
+     */
+    protected int labelIndex(String label) {
+        Map<String, Integer> indices = labelIndices;
+        //Not indices.size() != labels.size(): that would rebuild the map on every call with duplicate labels
+        if (indices == null || labelIndicesList != labels || labelIndicesSize != labels.size()) {
+            indices = new HashMap<>();
+            for (int i = labels.size() - 1; i >= 0; i--) {
+                indices.put(labels.get(i), i);
+            }
+            labelIndices = indices;
+            labelIndicesList = labels;
+            labelIndicesSize = labels.size();
+        }
+        Integer idx = indices.get(label);
+        return idx == null ? -1 : idx;
     }
 
     /**
@@ -310,6 +440,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
 
     public void setLabels(List<String> labels) {
         this.labels = labels;
+        this.labelIndices = null;
     }
 
     @Override
@@ -340,7 +471,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         INDArray row = imageLoader.asMatrix(dataInputStream);
         List<Writable> ret = RecordConverter.toRecord(row);
         if (appendLabel)
-            ret.add(new IntWritable(labels.indexOf(getLabel(uri.getPath()))));
+            ret.add(new IntWritable(labelIndex(getLabel(uri.getPath()))));
         return ret;
     }
 
@@ -0,0 +1,440 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.common.RecordConverter;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.Pointer;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Base class for record readers of binary image datasets, that store fixed size uint8 images and labels at fixed
+ * offsets in a file (such as MNIST and CIFAR). The files are memory mapped, and the pixels of each example are copied
+ * from the mapping directly into the feature arrays: {@link #nextBatch(INDArray, INDArray)} and
+ * {@link #load(int[], INDArray, INDArray)} fill a whole minibatch with no intermediate objects.<br>
+ * Examples can be accessed at random by index, and the order of the examples returned by {@link #next()} and
+ * {@link #nextBatch(INDArray, INDArray)} can be set with {@link #setOrder(int[])} or {@link #shuffle(Random)}: as all
+ * examples are mapped, shuffled epochs have no seeking overhead.<br>
+ * Records consist of the features (an NDArrayWritable of shape [1, channels, height, width], with values 0 to 255,
+ * as for {@link org.datavec.image.loader.NativeImageLoader}) followed by the label index (an IntWritable).
+ */
+public abstract class BaseMappedImageRecordReader extends BaseRecordReader {
+
+    /**
+     * A mapped file (or pair of files) of examples: the pixels of example i start at pixelStart + i * pixelStride in
+     * pixels, and its label is the byte at labelStart + i * labelStride in labels.
+     */
+    protected static class Segment {
+        private final URI uri;
+        private final int count;
+        private final ByteBuffer pixels;
+        private final int pixelStart;
+        private final int pixelStride;
+        private final ByteBuffer labels;
+        private final int labelStart;
+        private final int labelStride;
+
+        public Segment(URI uri, int count, ByteBuffer pixels, int pixelStart, int pixelStride, ByteBuffer labels,
+                        int labelStart, int labelStride) {
+            this.uri = uri;
+            this.count = count;
+            this.pixels = pixels;
+            this.pixelStart = pixelStart;
+            this.pixelStride = pixelStride;
+            this.labels = labels;
+            this.labelStart = labelStart;
+            this.labelStride = labelStride;
+        }
+    }
+
+    protected final int height;
+    protected final int width;
+    protected final int channels;
+    protected final List<String> labels;
+    protected Configuration conf;
+    protected InputSplit inputSplit;
+
+    private List<Segment> segments = Collections.emptyList();
+    //Index of the first example of each segment
+    private int[] segmentStarts = new int[0];
+    private int numExamples;
+    private int[] order;
+    private int position;
+    private int lastIndex = -1;
+
+    /**
+     * @param height   Height of the images
+     * @param width    Width of the images
+     * @param channels Number of channels of the images
+     * @param labels   Names of the labels, by label index
+     */
+    protected BaseMappedImageRecordReader(int height, int width, int channels, List<String> labels) {
+        this.height = height;
+        this.width = width;
+        this.channels = channels;
+        this.labels = labels;
+    }
+
+    /**
+     * Map the given files (the locations of the input split)
+     *
+     * @return the mapped segments, in order
+     */
+    protected abstract List<Segment> map(List<File> files) throws IOException;
+
+    /**
+     * Index of the plane of the stored image to copy to the given channel. The pixels of each stored image are
+     * assumed to be in channel-major order (channels, height, width). Default: the same channel
+     */
+    protected int sourceChannel(int channel) {
+        return channel;
+    }
+
+    /**
+     * Map the whole of the given file, read only
+     */
+    protected static ByteBuffer mapFile(File f) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + f + " (" + channel.size() + " bytes)");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        this.inputSplit = split;
+        List<File> files = new ArrayList<>();
+        for (URI uri : split.locations()) {
+            files.add(new File(uri));
+        }
+        List<Segment> mapped = map(files);
+        int[] starts = new int[mapped.size()];
+        long total = 0;
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = (int) total;
+            total += mapped.get(i).count;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Too many examples: " + total);
+        }
+        this.segments = mapped;
+        this.segmentStarts = starts;
+        this.numExamples = (int) total;
+        this.order = null;
+        this.position = 0;
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        setConf(conf);
+        initialize(split);
+    }
+
+    /**
+     * @return The total number of examples, in all files
+     */
+    public int numExamples() {
+        return numExamples;
+    }
+
+    /**
+     * Set the order in which examples are returned by {@link #next()} and {@link #nextBatch(INDArray, INDArray)},
+     * starting from the first. The order is retained by {@link #reset()}.
+     *
+     * @param order Indices of the examples, in order; may be a subset of the examples. Null: all examples in order
+     */
+    public void setOrder(int[] order) {
+        if (order != null) {
+            for (int idx : order) {
+                checkIndex(idx);
+            }
+        }
+        this.order = order;
+        this.position = 0;
+    }
+
+    /**
+     * Shuffle the order of all examples (see {@link #setOrder(int[])}), and start again from the first
+     */
+    public void shuffle(Random random) {
+        int[] order = new int[numExamples];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        this.order = order;
+        this.position = 0;
+    }
+
+    /**
+     * @return The label index of the given example
+     * @throws IllegalStateException if the label in the file is not a valid label index (corrupt file)
+     */
+    public int getLabel(int index) {
+        int i = segmentIndex(index);
+        Segment s = segments.get(i);
+        int label = s.labels.get(s.labelStart + (index - segmentStarts[i]) * s.labelStride) & 0xFF;
+        if (label >= labels.size()) {
+            throw new IllegalStateException("Invalid label " + label + " for example " + (index - segmentStarts[i])
+                            + " of " + s.uri + ": expected label index less than " + labels.size());
+        }
+        return label;
+    }
+
+    /**
+     * Load the given example
+     *
+     * @return The record: features of shape [1, channels, height, width], and label index
+     */
+    public List<Writable> record(int index) {
+        INDArray features = Nd4j.create(1, channels, height, width);
+        load(new int[] {index}, features, null);
+        List<Writable> ret = RecordConverter.toRecord(features);
+        ret.add(new IntWritable(getLabel(index)));
+        return ret;
+    }
+
+    /**
+     * Load the given examples into the (preallocated) arrays
+     *
+     * @param indices    Indices of the examples to load
+     * @param features   Array of shape [n, channels, height, width], with n at least indices.length
+     * @param labelArray Array of shape [n, numLabels] for the one-hot labels; may be null
+     */
+    public void load(int[] indices, INDArray features, INDArray labelArray) {
+        checkShape(features, indices.length);
+        int[] stride = features.stride();
+        int length = channels * height * width;
+        boolean direct = features.ordering() == 'c' && stride[3] == 1 && stride[2] == width
+                        && stride[1] == height * width;
+        if (labelArray != null && indices.length > 0) {
+            labelArray.get(NDArrayIndex.interval(0, indices.length), NDArrayIndex.all()).assign(0.0);
+        }
+        for (int n = 0; n < indices.length; n++) {
+            int index = indices[n];
+            int i = segmentIndex(index);
+            Segment s = segments.get(i);
+            int pixelOffset = s.pixelStart + (index - segmentStarts[i]) * s.pixelStride;
+            if (direct) {
+                copy(s.pixels, pixelOffset, features, features.offset() + n * (long) stride[0], length);
+            } else {
+                INDArray row = Nd4j.create(1, channels, height, width);
+                copy(s.pixels, pixelOffset, row, row.offset(), length);
+                features.tensorAlongDimension(n, 1, 2, 3).assign(row.tensorAlongDimension(0, 1, 2, 3));
+            }
+            if (labelArray != null) {
+                labelArray.putScalar(n, getLabel(index), 1.0);
+            }
+        }
+        Nd4j.getAffinityManager().tagLocation(features, AffinityManager.Location.HOST);
+    }
+
+    /**
+     * Load the next examples (see {@link #setOrder(int[])}) into the (preallocated) arrays. Up to features.size(0)
+     * examples are loaded; if fewer examples remain, the remaining rows of the arrays are left unchanged.
+     *
+     * @param features   Array of shape [n, channels, height, width]
+     * @param labelArray Array of shape [n, numLabels] for the one-hot labels; may be null
+     * @return the number of examples loaded
+     */
+    public int nextBatch(INDArray features, INDArray labelArray) {
+        checkShape(features, 0);
+        int n = Math.min(features.size(0), remaining());
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = nextIndex();
+        }
+        load(indices, features, labelArray);
+        return n;
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more elements found!");
+        }
+        int index = nextIndex();
+        invokeListeners(index);
+        return record(index);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining() > 0;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+        lastIndex = -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        //Mappings are released when garbage collected
+        segments = Collections.emptyList();
+        segmentStarts = new int[0];
+        numExamples = 0;
+        order = null;
+        position = 0;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException("Reading records from a stream is not supported: files are mapped");
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        return new org.datavec.api.records.impl.Record(next,
+                        new RecordMetaDataIndex(lastIndex, segments.get(segmentIndex(lastIndex)).uri, getClass()));
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData meta : recordMetaDatas) {
+            if (!(meta instanceof RecordMetaDataIndex)) {
+                throw new IllegalArgumentException("Expected RecordMetaDataIndex; got: " + meta);
+            }
+            int index = (int) ((RecordMetaDataIndex) meta).getIndex();
+            out.add(new org.datavec.api.records.impl.Record(record(index), meta));
+        }
+        return out;
+    }
+
+    private int remaining() {
+        return (order == null ? numExamples : order.length) - position;
+    }
+
+    private int nextIndex() {
+        int index = order == null ? position : order[position];
+        position++;
+        lastIndex = index;
+        return index;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= numExamples) {
+            throw new IndexOutOfBoundsException("Invalid example index: " + index + " (" + numExamples
+                            + " examples)");
+        }
+    }
+
+    private void checkShape(INDArray features, int minExamples) {
+        int[] shape = features.shape();
+        if (shape.length != 4 || shape[1] != channels || shape[2] != height || shape[3] != width
+                        || shape[0] < minExamples) {
+            throw new IllegalArgumentException("Features array must have shape [n, " + channels + ", " + height
+                            + ", " + width + "] with n >= " + minExamples + "; got " + Arrays.toString(shape));
+        }
+    }
+
+    private int segmentIndex(int index) {
+        checkIndex(index);
+        int i = Arrays.binarySearch(segmentStarts, index);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        //Skip any empty segments starting at the same index
+        while (i + 1 < segmentStarts.length && segmentStarts[i + 1] == index) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Copy the pixels of one image from the mapped buffer to the array, converting uint8 to the array's data type.
+     * The array must be contiguous (c order) for the length of one image, from the given offset.
+     */
+    private void copy(ByteBuffer src, int srcOffset, INDArray dst, long dstOffset, int length) {
+        int planeSize = height * width;
+        Pointer pointer = dst.data().pointer();
+        if (pointer instanceof FloatPointer) {
+            FloatBuffer out = new FloatPointer(pointer).position(dstOffset).limit(dstOffset + length).asBuffer();
+            for (int c = 0; c < channels; c++) {
+                int in = srcOffset + sourceChannel(c) * planeSize;
+                for (int i = 0, o = c * planeSize; i < planeSize; i++) {
+                    out.put(o + i, src.get(in + i) & 0xFF);
+                }
+            }
+        } else if (pointer instanceof DoublePointer) {
+            DoubleBuffer out = new DoublePointer(pointer).position(dstOffset).limit(dstOffset + length).asBuffer();
+            for (int c = 0; c < channels; c++) {
+                int in = srcOffset + sourceChannel(c) * planeSize;
+                for (int i = 0, o = c * planeSize; i < planeSize; i++) {
+                    out.put(o + i, src.get(in + i) & 0xFF);
+                }
+            }
+        } else {
+            throw new UnsupportedOperationException("Unsupported data buffer: " + dst.data().dataType());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memory mapped record reader for the CIFAR-10 dataset, in its binary format (data_batch_1.bin to data_batch_5.bin,
+ * and test_batch.bin): each example is 3073 bytes, one byte for the label followed by the 32x32 red, green and blue
+ * planes.<br>
+ * Channels are returned in BGR order, as for {@link org.datavec.image.loader.CifarLoader} and other images loaded via
+ * OpenCV. Files in the input split other than .bin files (such as batches.meta.txt) are ignored.
+ * See {@link BaseMappedImageRecordReader} for batch and random access.
+ */
+public class CifarRecordReader extends BaseMappedImageRecordReader {
+
+    public static final int HEIGHT = 32;
+    public static final int WIDTH = 32;
+    public static final int CHANNELS = 3;
+    public static final int RECORD_LENGTH = 1 + HEIGHT * WIDTH * CHANNELS;
+
+    public CifarRecordReader() {
+        super(HEIGHT, WIDTH, CHANNELS, Arrays.asList("airplane", "automobile", "bird", "cat", "deer", "dog", "frog",
+                        "horse", "ship", "truck"));
+    }
+
+    @Override
+    protected int sourceChannel(int channel) {
+        //Stored as RGB
+        return CHANNELS - 1 - channel;
+    }
+
+    @Override
+    protected List<Segment> map(List<File> files) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        for (File f : files) {
+            if (f.isDirectory() || !f.getName().endsWith(".bin")) {
+                continue;
+            }
+            if (f.length() % RECORD_LENGTH != 0) {
+                throw new IOException("Invalid CIFAR-10 file " + f + ": length " + f.length()
+                                + " is not a multiple of " + RECORD_LENGTH);
+            }
+            ByteBuffer buffer = mapFile(f);
+            segments.add(new Segment(f.toURI(), buffer.limit() / RECORD_LENGTH, buffer, 1, RECORD_LENGTH, buffer, 0,
+                            RECORD_LENGTH));
+        }
+        return segments;
+    }
+}
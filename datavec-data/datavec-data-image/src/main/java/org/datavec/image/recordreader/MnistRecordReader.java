@@ -0,0 +1,106 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory mapped record reader for the MNIST dataset, in its original (uncompressed) IDX format: an images file
+ * (magic number 2051) and a labels file (magic number 2049), for instance train-images-idx3-ubyte and
+ * train-labels-idx1-ubyte.<br>
+ * The input split should contain the images file(s) and the corresponding labels file(s). Each images file is paired
+ * with the labels file in the same directory whose name is that of the images file, with "images" replaced by
+ * "labels" and "idx3" by "idx1" (for instance t10k-images-idx3-ubyte and t10k-labels-idx1-ubyte). Other files (such
+ * as the compressed .gz files) are ignored.
+ * See {@link BaseMappedImageRecordReader} for batch and random access.
+ */
+public class MnistRecordReader extends BaseMappedImageRecordReader {
+
+    public static final int IMAGES_MAGIC_NUMBER = 2051;
+    public static final int LABELS_MAGIC_NUMBER = 2049;
+    public static final int HEIGHT = 28;
+    public static final int WIDTH = 28;
+
+    public MnistRecordReader() {
+        super(HEIGHT, WIDTH, 1, Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"));
+    }
+
+    @Override
+    protected List<Segment> map(List<File> files) throws IOException {
+        List<File> imageFiles = new ArrayList<>();
+        List<ByteBuffer> images = new ArrayList<>();
+        Map<File, ByteBuffer> labels = new LinkedHashMap<>();
+        for (File f : files) {
+            if (f.isDirectory() || f.length() < 8) {
+                continue;
+            }
+            ByteBuffer buffer = mapFile(f);
+            int magic = buffer.getInt(0);
+            if (magic == IMAGES_MAGIC_NUMBER) {
+                if (buffer.limit() < 16 || buffer.getInt(8) != HEIGHT || buffer.getInt(12) != WIDTH) {
+                    throw new IOException("Invalid MNIST images file " + f + ": expected " + HEIGHT + "x" + WIDTH
+                                    + " images");
+                }
+                imageFiles.add(f);
+                images.add(buffer);
+            } else if (magic == LABELS_MAGIC_NUMBER) {
+                labels.put(f.getAbsoluteFile(), buffer);
+            }
+        }
+
+        List<Segment> segments = new ArrayList<>(images.size());
+        for (int i = 0; i < images.size(); i++) {
+            File imageFile = imageFiles.get(i);
+            File labelFile = labelsFile(imageFile);
+            ByteBuffer imageBuffer = images.get(i);
+            ByteBuffer labelBuffer = labels.remove(labelFile);
+            if (labelBuffer == null) {
+                throw new IOException("No labels file for MNIST images file " + imageFile + ": expected " + labelFile);
+            }
+            int count = imageBuffer.getInt(4);
+            if (labelBuffer.getInt(4) != count) {
+                throw new IOException("Number of images (" + count + ") in " + imageFile
+                                + " does not match number of labels (" + labelBuffer.getInt(4) + ") in " + labelFile);
+            }
+            if (imageBuffer.limit() < 16 + (long) count * HEIGHT * WIDTH || labelBuffer.limit() < 8L + count) {
+                throw new IOException("Truncated MNIST file: " + imageFile + " or " + labelFile);
+            }
+            segments.add(new Segment(imageFile.toURI(), count, imageBuffer, 16, HEIGHT * WIDTH, labelBuffer, 8, 1));
+        }
+        if (!labels.isEmpty()) {
+            throw new IOException("No images files for MNIST labels files " + labels.keySet());
+        }
+        return segments;
+    }
+
+    /**
+     * @return The labels file for the given images file: in the same directory, with "images" replaced by "labels" and
+     *         "idx3" by "idx1" in the file name
+     */
+    protected static File labelsFile(File imageFile) {
+        String name = imageFile.getName().replace("images", "labels").replace("idx3", "idx1");
+        return new File(imageFile.getAbsoluteFile().getParentFile(), name);
+    }
+}
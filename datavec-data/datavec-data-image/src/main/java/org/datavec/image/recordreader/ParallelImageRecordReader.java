@@ -0,0 +1,291 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import org.datavec.api.io.labels.PathLabelGenerator;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.common.RecordConverter;
+import org.datavec.image.loader.NativeImageLoader;
+import org.datavec.image.transform.ImageTransform;
+import org.datavec.image.transform.ImageTransformFactory;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Image record reader that decodes, scales and transforms images on a pool of worker threads.<br>
+ * Each worker has its own {@link NativeImageLoader} and its own image transform, created by an
+ * {@link ImageTransformFactory} (image transforms are not thread safe). Up to queueCapacity images are decoded ahead
+ * of the calls to {@link #next()}. Records are returned either in the order of the input split ("ordered"), or in
+ * the order in which the workers finish decoding them.<br>
+ * Augmentation is reproducible: the random object passed to each worker's transform is reseeded for each image, from
+ * the seed, the epoch (number of calls to {@link #reset()}) and the position of the image in the input split. Thus
+ * the same image is transformed in the same way regardless of the number of workers, or of the output order.<br>
+ * Note that {@link #loadFromMetaData(List)} decodes images on the calling thread, without transform.
+ */
+public class ParallelImageRecordReader extends BaseImageRecordReader {
+
+    private final ImageTransformFactory transformFactory;
+    private final int numWorkers;
+    private final int queueCapacity;
+    private final boolean ordered;
+    private final long seed;
+
+    private ExecutorService executor;
+    private ExecutorCompletionService<Result> completionService;
+    //Unordered mode only: decoded images, in the order in which they were completed
+    final BlockingQueue<Future<Result>> completed = new LinkedBlockingQueue<>();
+    //Images being (or waiting to be) decoded, in input order
+    private final Deque<Future<Result>> pending = new ArrayDeque<>();
+    private int epoch;
+    private int position;
+
+    //Per worker thread loader and transform
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+        @Override
+        protected Worker initialValue() {
+            return new Worker();
+        }
+    };
+
+    /**
+     * Loads images with given height, width, and channels, appending labels returned by the generator (if not null).
+     * Images are not transformed, and are returned in order.
+     */
+    public ParallelImageRecordReader(int height, int width, int channels, PathLabelGenerator labelGenerator,
+                    int numWorkers) {
+        this(height, width, channels, labelGenerator, null, numWorkers, true, 0);
+    }
+
+    /**
+     * Calls {@code this(height, width, channels, labelGenerator, transformFactory, numWorkers, 4 * numWorkers,
+     * ordered, seed)}.
+     */
+    public ParallelImageRecordReader(int height, int width, int channels, PathLabelGenerator labelGenerator,
+                    ImageTransformFactory transformFactory, int numWorkers, boolean ordered, long seed) {
+        this(height, width, channels, labelGenerator, transformFactory, numWorkers, 4 * numWorkers, ordered, seed);
+    }
+
+    /**
+     * @param height           height of the loaded images
+     * @param width            width of the loaded images
+     * @param channels         number of channels of the loaded images
+     * @param labelGenerator   generator of the labels to append, or null for no labels
+     * @param transformFactory factory for the image transform of each worker, or null for no transform
+     * @param numWorkers       number of worker threads
+     * @param queueCapacity    maximum number of images being decoded or waiting to be returned
+     * @param ordered          if true: return records in the order of the input split. Otherwise, in the order in
+     *                         which they are decoded
+     * @param seed             seed for the random image transforms
+     */
+    public ParallelImageRecordReader(int height, int width, int channels, PathLabelGenerator labelGenerator,
+                    ImageTransformFactory transformFactory, int numWorkers, int queueCapacity, boolean ordered,
+                    long seed) {
+        super(height, width, channels, labelGenerator);
+        if (numWorkers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Number of workers and queue capacity must be positive: got "
+                            + numWorkers + " and " + queueCapacity);
+        }
+        this.transformFactory = transformFactory;
+        this.numWorkers = numWorkers;
+        this.queueCapacity = queueCapacity;
+        this.ordered = ordered;
+        this.seed = seed;
+    }
+
+    private class Worker {
+        private final Random random = new Random();
+        private final NativeImageLoader loader;
+
+        private Worker() {
+            ImageTransform transform = transformFactory == null ? null : transformFactory.create(random);
+            loader = transform == null ? new NativeImageLoader(height, width, channels)
+                            : new NativeImageLoader(height, width, channels, transform);
+            loader.setImageCache(imageCache);
+        }
+
+        private INDArray load(File file, long imageSeed) throws IOException {
+            random.setSeed(imageSeed);
+            return loader.asMatrix(file);
+        }
+    }
+
+    private static class Result {
+        private final File file;
+        private final int label;
+        private final INDArray image;
+
+        private Result(File file, int label, INDArray image) {
+            this.file = file;
+            this.label = label;
+            this.image = image;
+        }
+    }
+
+    /**
+     * @return the seed of the random transformations for the image at the given position of the given epoch
+     */
+    private long imageSeed(int epoch, int position) {
+        //SplitMix64 finalizer, so that seeds of neighbouring images are unrelated
+        long z = seed + (((long) epoch << 32) | (position & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Submit images to the workers, until queueCapacity images are pending or there are no more images
+     */
+    private void fill() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(numWorkers, new ThreadFactory() {
+                private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = defaultFactory.newThread(r);
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            completionService = new ExecutorCompletionService<>(executor, completed);
+        }
+        while (pending.size() < queueCapacity && iter.hasNext()) {
+            final File file = iter.next();
+            if (file.isDirectory())
+                continue;
+            final long imageSeed = imageSeed(epoch, position++);
+            final int label = appendLabel ? labelIndex(getLabel(file.getPath())) : -1;
+            Callable<Result> task = new Callable<Result>() {
+                @Override
+                public Result call() throws Exception {
+                    return new Result(file, label, workers.get().load(file, imageSeed));
+                }
+            };
+            //Ordered mode takes the futures from pending: a completion queue would keep every decoded image
+            pending.add(ordered ? executor.submit(task) : completionService.submit(task));
+        }
+    }
+
+    private Result nextResult() {
+        if (!hasNext())
+            throw new NoSuchElementException("No more elements found!");
+        Result result;
+        try {
+            Future<Result> future;
+            if (ordered) {
+                future = pending.poll();
+            } else {
+                future = completionService.take();
+                pending.remove(future);
+            }
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading images", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error loading image", e.getCause());
+        }
+        fill();
+        currentFile = result.file;
+        invokeListeners(result.file);
+        return result;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (iter == null)
+            return super.hasNext();
+        fill();
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (iter == null)
+            return super.next();
+        Result result = nextResult();
+        List<Writable> ret = RecordConverter.toRecord(result.image);
+        if (appendLabel)
+            ret.add(new IntWritable(result.label));
+        return ret;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        //Images are decoded by the workers: read batches via next()
+        return false;
+    }
+
+    @Override
+    public int nextBatch(INDArray features, INDArray labelArray) {
+        if (iter == null)
+            return super.nextBatch(features, labelArray);
+        if (features.rank() != 4)
+            throw new IllegalArgumentException("Features array must have shape [n, channels, height, width]; got "
+                            + Arrays.toString(features.shape()));
+        int n = 0;
+        while (n < features.size(0) && hasNext()) {
+            Result result = nextResult();
+            INDArray row = features.tensorAlongDimension(n, 1, 2, 3);
+            row.assign(result.image.reshape(row.shape()));
+            if (appendLabel && labelArray != null) {
+                INDArray labelRow = labelArray.getRow(n);
+                labelRow.assign(0.0);
+                if (result.label >= 0)
+                    labelRow.putScalar(result.label, 1.0);
+            }
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Cancel the images being decoded
+     */
+    private void cancelPending() {
+        for (Future<Result> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        //Cancelled futures are queued as completed
+        completed.clear();
+    }
+
+    @Override
+    public void reset() {
+        cancelPending();
+        super.reset();
+        epoch++;
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cancelPending();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        super.close();
+    }
+}
@@ -284,6 +284,10 @@ public class VideoRecordReader extends BaseRecordReader implements SequenceRecor
         return ret;
     }
 
+    public List<List<List<Writable>>> sequenceRecords(int num) {
+        return readSequences(num);
+    }
+
     @Override
     public void setConf(Configuration conf) {
         this.conf = conf;
@@ -0,0 +1,35 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.transform;
+
+import java.util.Random;
+
+/**
+ * Creates {@link ImageTransform} instances. Image transforms are not thread safe (they hold a {@link Random} and
+ * frame converters), so components that transform images in parallel use a factory to create one instance per thread.
+ */
+public interface ImageTransformFactory {
+
+    /**
+     * @param random object that random transforms should use; it is reseeded for each image, which makes the
+     *               transformations reproducible
+     * @return a new image transform
+     */
+    ImageTransform create(Random random);
+
+}
@@ -0,0 +1,67 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.loader;
+
+import org.datavec.api.util.ClassPathResource;
+
+import java.io.File;
+
+/**
+ * Benchmark of {@link NativeImageLoader#asMatrix(File)} (reading the file into the decoding buffer, decoding, resizing
+ * and copying into the array), against loading as done before: reading into a byte array, decoding, resizing into a
+ * new image, and copying through the indexers.<br>
+ * Not run with the unit tests: run the main method.
+ */
+public class NativeImageLoaderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String[] paths = {"/testimages/class0/0.jpg", "/testimages/class0/1.png", "/testimages/class0/2.jpg",
+                        "/testimages/class1/A.jpg", "/testimages/class1/B.png", "/testimages/class1/C.jpg"};
+        File[] files = new File[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            files[i] = new ClassPathResource(paths[i]).getFile();
+        }
+        int w = 224, h = 224, iterations = 50;
+        NativeImageLoader loader = new NativeImageLoader(h, w, 3);
+
+        //First pass is warm up
+        long legacyTime = 0;
+        long time = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (File f : files) {
+                    TestNativeImageLoader.legacyAsMatrix(f, h, w);
+                }
+            }
+            legacyTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (File f : files) {
+                    loader.asMatrix(f);
+                }
+            }
+            time = System.nanoTime() - start;
+        }
+
+        int n = iterations * files.length;
+        System.out.println("Decode, resize and copy (" + h + "x" + w + "x3): indexer copy " + legacyTime / 1000 / n
+                        + " us/image, NativeImageLoader " + time / 1000 / n + " us/image");
+    }
+}
@@ -0,0 +1,183 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.loader;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.io.labels.ParentPathLabelGenerator;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.Writable;
+import org.datavec.image.recordreader.ImageRecordReader;
+import org.datavec.image.transform.FlipImageTransform;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestImageCache {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private File copyTestImages() throws Exception {
+        File src = new ClassPathResource("/testimages/class0/0.jpg").getFile().getParentFile().getParentFile();
+        File dir = testDir.newFolder("images");
+        FileUtils.copyDirectory(src, dir);
+        return dir;
+    }
+
+    @Test
+    public void testCachedImagesMatchDecoded() throws Exception {
+        File dir = copyTestImages();
+        Collection<File> images = FileUtils.listFiles(dir, null, true);
+        File cacheFile = new File(testDir.getRoot(), "cache.bin");
+
+        NativeImageLoader plain = new NativeImageLoader(24, 32, 3);
+        NativeImageLoader cached = new NativeImageLoader(24, 32, 3);
+        ImageCache cache = new ImageCache(cacheFile, 24, 32, 3, false);
+        cached.setImageCache(cache);
+        for (int epoch = 0; epoch < 2; epoch++) {
+            for (File f : images) {
+                assertEquals(plain.asMatrix(f), cached.asMatrix(f));
+            }
+            assertEquals(6, cache.size());
+        }
+        cache.close();
+
+        //Reopen: entries should be read from the file, and the images not decoded again
+        cache = new ImageCache(cacheFile, 24, 32, 3, false);
+        assertEquals(6, cache.size());
+        long size = cacheFile.length();
+        cached.setImageCache(cache);
+        for (File f : images) {
+            assertNotNull(cache.get(f));
+            assertEquals(plain.asMatrix(f), cached.asMatrix(f));
+        }
+        assertEquals(size, cacheFile.length());
+
+        //Modified images are not returned from the cache
+        File modified = images.iterator().next();
+        assertTrue(modified.setLastModified(modified.lastModified() - 10000));
+        assertNull(cache.get(modified));
+        assertEquals(plain.asMatrix(modified), cached.asMatrix(modified));
+        assertNotNull(cache.get(modified));
+        cache.close();
+
+        //Different loader parameters: the cache is cleared
+        cache = new ImageCache(cacheFile, 32, 32, 3, false);
+        assertEquals(0, cache.size());
+        try {
+            cached.setImageCache(cache);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+        cache.close();
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        File dir = copyTestImages();
+        List<File> images = new ArrayList<>(FileUtils.listFiles(dir, null, true));
+        File cacheFile = new File(testDir.getRoot(), "cache.bin");
+
+        //Small segments: about 2 images per segment, so that entries are padded to the start of the next segment
+        int imageSize = 16 * 16 * 3;
+        NativeImageLoader plain = new NativeImageLoader(16, 16, 3);
+        NativeImageLoader cached = new NativeImageLoader(16, 16, 3);
+        ImageCache cache = new ImageCache(cacheFile, 16, 16, 3, false, 2 * imageSize + 1000);
+        cached.setImageCache(cache);
+        for (File f : images) {
+            assertEquals(plain.asMatrix(f), cached.asMatrix(f));
+        }
+        for (File f : images) {
+            assertEquals(plain.asMatrix(f), cached.asMatrix(f));
+        }
+        cache.close();
+
+        cache = new ImageCache(cacheFile, 16, 16, 3, false, 2 * imageSize + 1000);
+        assertEquals(6, cache.size());
+        cached.setImageCache(cache);
+        for (File f : images) {
+            assertNotNull(cache.get(f));
+            assertEquals(plain.asMatrix(f), cached.asMatrix(f));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void testTransformAfterCache() throws Exception {
+        File dir = copyTestImages();
+        File cacheFile = new File(testDir.getRoot(), "cache.bin");
+        ImageCache cache = new ImageCache(cacheFile, 32, 32, 3, false);
+
+        //Flip around the y axis: applied to the cached (resized) images
+        NativeImageLoader plain = new NativeImageLoader(32, 32, 3);
+        NativeImageLoader flipped = new NativeImageLoader(32, 32, 3, new FlipImageTransform(1));
+        flipped.setImageCache(cache);
+        for (int epoch = 0; epoch < 2; epoch++) {
+            for (File f : FileUtils.listFiles(dir, null, true)) {
+                INDArray expected = plain.asMatrix(f);
+                INDArray actual = flipped.asMatrix(f);
+                for (int j = 0; j < 32; j++) {
+                    assertEquals(expected.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.all(),
+                                    NDArrayIndex.point(j)), actual.get(NDArrayIndex.all(), NDArrayIndex.all(),
+                                                    NDArrayIndex.all(), NDArrayIndex.point(31 - j)));
+                }
+            }
+        }
+        assertEquals(6, cache.size());
+        cache.close();
+    }
+
+    @Test
+    public void testImageRecordReaderWithCache() throws Exception {
+        File dir = copyTestImages();
+        ImageCache cache = new ImageCache(new File(testDir.getRoot(), "cache.bin"), 32, 32, 3, false);
+
+        ImageRecordReader plain = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        plain.initialize(new FileSplit(dir, new Random(12345)));
+        ImageRecordReader cached = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        cached.setImageCache(cache);
+        cached.initialize(new FileSplit(dir, new Random(12345)));
+
+        for (int epoch = 0; epoch < 2; epoch++) {
+            List<List<Writable>> expected = new ArrayList<>();
+            List<List<Writable>> actual = new ArrayList<>();
+            while (plain.hasNext()) {
+                expected.add(plain.next());
+                actual.add(cached.next());
+            }
+            assertFalse(cached.hasNext());
+            assertEquals(expected, actual);
+            plain.reset();
+            cached.reset();
+        }
+        assertEquals(6, cache.size());
+        cache.close();
+    }
+}
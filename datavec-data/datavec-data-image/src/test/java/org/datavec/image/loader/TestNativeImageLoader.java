@@ -16,17 +16,37 @@
 package org.datavec.image.loader;
 
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.io.IOUtils;
+import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.indexer.FloatIndexer;
 import org.bytedeco.javacpp.indexer.UByteIndexer;
 import org.bytedeco.javacv.Java2DFrameConverter;
 import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.datavec.api.util.ClassPathResource;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.bytedeco.javacpp.opencv_core.*;
+import static org.bytedeco.javacpp.opencv_imgcodecs.*;
+import static org.bytedeco.javacpp.opencv_imgproc.*;
 
 /**
  *
@@ -108,6 +128,35 @@ public class TestNativeImageLoader {
         assertEquals(w2, array4.size(3));
     }
 
+    @Test
+    public void testAsMatrixView() throws Exception {
+        Mat img1 = makeRandomImage(0, 0, 3);
+        Mat img2 = makeRandomImage(0, 0, 1);
+
+        int w = 45, h = 30, ch = 3;
+        NativeImageLoader loader = new NativeImageLoader(h, w, ch);
+
+        //Load into the examples of a minibatch array, leaving the others untouched
+        INDArray batch = Nd4j.valueArrayOf(new int[] {4, ch, h, w}, -1.0);
+        loader.asMatrixView(img1, batch.tensorAlongDimension(1, 1, 2, 3));
+        loader.asMatrixView(img2, batch.get(NDArrayIndex.point(2), NDArrayIndex.all(), NDArrayIndex.all(),
+                        NDArrayIndex.all()));
+
+        assertEquals(loader.asMatrix(img1).get(NDArrayIndex.point(0), NDArrayIndex.all(), NDArrayIndex.all(),
+                        NDArrayIndex.all()), batch.tensorAlongDimension(1, 1, 2, 3));
+        assertEquals(loader.asMatrix(img2).get(NDArrayIndex.point(0), NDArrayIndex.all(), NDArrayIndex.all(),
+                        NDArrayIndex.all()), batch.tensorAlongDimension(2, 1, 2, 3));
+        assertEquals(Nd4j.valueArrayOf(new int[] {ch, h, w}, -1.0), batch.tensorAlongDimension(0, 1, 2, 3));
+        assertEquals(Nd4j.valueArrayOf(new int[] {ch, h, w}, -1.0), batch.tensorAlongDimension(3, 1, 2, 3));
+
+        try {
+            loader.asMatrixView(img1, Nd4j.create(ch, h + 1, w));
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+    }
+
     @Test
     public void testScalingIfNeed() throws Exception {
         Mat img1 = makeRandomImage(0, 0, 1);
@@ -161,6 +210,117 @@ public class TestNativeImageLoader {
         assertEquals(img2.channels(), cropped2.channels());
     }
 
+    @Test
+    public void testAsMatrixMatchesIndexerCopy() throws Exception {
+        int w = 57, h = 41;
+        for (int ch : new int[] {1, 3, 4}) {
+            NativeImageLoader loader = new NativeImageLoader(h, w, ch);
+            for (int i = 0; i < 3; i++) {
+                Mat img = makeRandomImage(0, 0, ch);
+                Mat scaled = new Mat();
+                resize(img, scaled, new Size(w, h));
+                assertEquals(indexerCopy(scaled), loader.asMatrix(img));
+            }
+            //Non-continuous image: copied through the indexer
+            Mat img = makeRandomImage(h + 10, w + 10, ch);
+            Mat roi = img.apply(new Rect(5, 5, w, h));
+            assertEquals(indexerCopy(roi), loader.asMatrix(roi));
+        }
+
+        //Files are read directly into the decoding buffer; streams are read in chunks
+        NativeImageLoader loader = new NativeImageLoader(h, w, 3);
+        for (String path : new String[] {"/testimages/class0/0.jpg", "/testimages/class1/B.png"}) {
+            File f = new ClassPathResource(path).getFile();
+            INDArray expected = legacyAsMatrix(f, h, w);
+            assertEquals(expected, loader.asMatrix(f));
+            try (InputStream is = new BufferedInputStream(new FileInputStream(f))) {
+                assertEquals(expected, loader.asMatrix(is));
+            }
+        }
+    }
+
+    @Test
+    public void testResizeThroughHooks() throws Exception {
+        int w = 57, h = 41;
+        final AtomicInteger converted = new AtomicInteger();
+        final AtomicInteger scaled = new AtomicInteger();
+        NativeImageLoader loader = new NativeImageLoader(h, w, 1) {
+            @Override
+            protected Mat convertChannels(Mat image) throws IOException {
+                converted.incrementAndGet();
+                return super.convertChannels(image);
+            }
+
+            @Override
+            protected Mat scalingIfNeed(Mat image) {
+                scaled.incrementAndGet();
+                return super.scalingIfNeed(image);
+            }
+        };
+        Mat img = makeRandomImage(0, 0, 3);
+        INDArray array = loader.asMatrix(img);
+        assertEquals(1, converted.get());
+        assertEquals(1, scaled.get());
+        assertArrayEquals(new int[] {1, 1, h, w}, array.shape());
+
+        //The per-thread buffers are not serialized, and are created again when deserialized
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(new NativeImageLoader(h, w, 1));
+        }
+        NativeImageLoader deserialized;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            deserialized = (NativeImageLoader) ois.readObject();
+        }
+        assertEquals(array, deserialized.asMatrix(img));
+    }
+
+    /**
+     * Loading as done before: read into a byte array, decode, resize into a new image, and copy through the indexers
+     */
+    static INDArray legacyAsMatrix(File f, int h, int w) throws Exception {
+        byte[] bytes;
+        try (InputStream is = new BufferedInputStream(new FileInputStream(f))) {
+            bytes = IOUtils.toByteArray(is);
+        }
+        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
+        if (image.channels() == 4) {
+            Mat converted = new Mat();
+            cvtColor(image, converted, CV_BGRA2BGR);
+            image = converted;
+        }
+        Mat scaled = new Mat();
+        resize(image, scaled, new Size(w, h));
+        return indexerCopy(scaled);
+    }
+
+    static INDArray indexerCopy(Mat image) {
+        int rows = image.rows(), cols = image.cols(), channels = image.channels();
+        INDArray ret = Nd4j.create(channels, rows, cols);
+        UByteIndexer idx = image.createIndexer();
+        Pointer pointer = ret.data().pointer();
+        if (pointer instanceof FloatPointer) {
+            int[] stride = ret.stride();
+            FloatIndexer retidx = FloatIndexer.create((FloatPointer) pointer, new long[] {channels, rows, cols},
+                            new long[] {stride[0], stride[1], stride[2]});
+            for (int k = 0; k < channels; k++) {
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < cols; j++) {
+                        retidx.put(k, i, j, idx.get(i, j, k));
+                    }
+                }
+            }
+        } else {
+            for (int k = 0; k < channels; k++) {
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < cols; j++) {
+                        ret.putScalar(new int[] {k, i, j}, idx.get(i, j, k));
+                    }
+                }
+            }
+        }
+        return ret.reshape(1, channels, rows, cols);
+    }
 
     BufferedImage makeRandomBufferedImage(int height, int width, int channels) {
         Mat img = makeRandomImage(height, width, channels);
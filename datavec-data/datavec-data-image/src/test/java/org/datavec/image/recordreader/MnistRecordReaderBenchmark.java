@@ -0,0 +1,74 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.split.FileSplit;
+import org.datavec.image.mnist.MnistImageFile;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Benchmark of loading MNIST images with {@link MnistRecordReader} (memory mapped, copied in a single batch), against
+ * reading them one at a time with {@link MnistImageFile}.<br>
+ * Not run with the unit tests: run the main method.
+ */
+public class MnistRecordReaderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        File dir = Files.createTempDirectory("mnist").toFile();
+        try {
+            int count = 10000;
+            File images = new File(dir, "train-images-idx3-ubyte");
+            TestMappedImageRecordReader.writeMnist(images, new File(dir, "train-labels-idx1-ubyte"), count, 0,
+                            new Random(12345));
+
+            long start = System.currentTimeMillis();
+            try (MnistImageFile imageFile = new MnistImageFile(images.getPath(), "r")) {
+                INDArray all = Nd4j.create(count, 1, 28, 28);
+                for (int i = 0; i < count; i++) {
+                    int[][] image = imageFile.readImage();
+                    for (int y = 0; y < 28; y++) {
+                        for (int x = 0; x < 28; x++) {
+                            all.putScalar(new int[] {i, 0, y, x}, image[y][x]);
+                        }
+                    }
+                }
+            }
+            long fileTime = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            MnistRecordReader rr = new MnistRecordReader();
+            rr.initialize(new FileSplit(dir));
+            INDArray features = Nd4j.create(count, 1, 28, 28);
+            INDArray labels = Nd4j.create(count, 10);
+            int loaded = rr.nextBatch(features, labels);
+            long mappedTime = System.currentTimeMillis() - start;
+            rr.close();
+
+            System.out.println("Loading " + loaded + " MNIST images: MnistImageFile " + fileTime
+                            + " ms, MnistRecordReader " + mappedTime + " ms");
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+}
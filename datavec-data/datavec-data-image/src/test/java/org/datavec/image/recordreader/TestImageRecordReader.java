@@ -23,7 +23,10 @@ import org.datavec.api.split.CollectionInputSplit;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.Writable;
+import org.datavec.common.data.NDArrayWritable;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.File;
 import java.io.IOException;
@@ -31,10 +34,12 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * Created by Alex on 27/09/2016.
@@ -80,6 +85,38 @@ public class TestImageRecordReader {
         assertEquals(out3, fromMeta);
     }
 
+    @Test
+    public void testNextBatch() throws Exception {
+        File parentDir = new ClassPathResource("/testimages/class0/0.jpg").getFile().getParentFile().getParentFile();
+        ImageRecordReader rr = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        rr.initialize(new FileSplit(parentDir));
+        assertEquals(Arrays.asList("class0", "class1"), rr.getLabels());
+
+        List<List<Writable>> expected = new ArrayList<>();
+        while (rr.hasNext()) {
+            expected.add(rr.next());
+        }
+
+        rr.reset();
+        INDArray features = Nd4j.create(4, 3, 32, 32);
+        INDArray labels = Nd4j.create(4, 2);
+        int count = 0;
+        while (rr.hasNext()) {
+            int n = rr.nextBatch(features, labels);
+            assertEquals(count == 0 ? 4 : 2, n);
+            for (int i = 0; i < n; i++) {
+                List<Writable> record = expected.get(count++);
+                INDArray image = ((NDArrayWritable) record.get(0)).get();
+                assertEquals(image.reshape(3, 32, 32), features.tensorAlongDimension(i, 1, 2, 3));
+                int label = record.get(1).toInt();
+                assertEquals(1.0, labels.getDouble(i, label), 0.0);
+                assertEquals(1.0, labels.getRow(i).sumNumber().doubleValue(), 0.0);
+            }
+        }
+        assertEquals(6, count);
+        assertEquals(0, rr.nextBatch(features, labels));
+    }
+
     @Test
     public void testImageRecordReaderLabelsOrder() throws Exception {
         //Labels order should be consistent, regardless of file iteration order
@@ -108,6 +145,24 @@ public class TestImageRecordReader {
         assertEquals(labels0, labels1);
     }
 
+    @Test
+    public void testLabelIndex() throws Exception {
+        ImageRecordReader rr = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        rr.setLabels(new ArrayList<>(Arrays.asList("b", "a", "b", "c")));
+        assertEquals(0, rr.labelIndex("b"));
+        assertEquals(1, rr.labelIndex("a"));
+        assertEquals(3, rr.labelIndex("c"));
+        assertEquals(-1, rr.labelIndex("d"));
+        //Duplicate labels: the index is not rebuilt on every call
+        Map<String, Integer> indices = rr.labelIndices;
+        rr.labelIndex("a");
+        assertSame(indices, rr.labelIndices);
+
+        //Labels added to the list are indexed
+        rr.getLabels().add("d");
+        assertEquals(4, rr.labelIndex("d"));
+    }
+
 
     @Test
     public void testImageRecordReaderRandomization() throws Exception {
@@ -0,0 +1,289 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import org.bytedeco.javacpp.indexer.UByteIndexer;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.split.CollectionInputSplit;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.common.data.NDArrayWritable;
+import org.datavec.image.loader.NativeImageLoader;
+import org.datavec.image.mnist.MnistImageFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.junit.Assert.*;
+
+public class TestMappedImageRecordReader {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    /**
+     * Write MNIST images and labels files with random pixels, and labels i % 10
+     *
+     * @return pixels of each image
+     */
+    static byte[][] writeMnist(File images, File labels, int count, int firstLabel, Random r)
+                    throws Exception {
+        byte[][] pixels = new byte[count][28 * 28];
+        try (DataOutputStream img = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(images)));
+                        DataOutputStream lbl = new DataOutputStream(
+                                        new BufferedOutputStream(new FileOutputStream(labels)))) {
+            img.writeInt(MnistRecordReader.IMAGES_MAGIC_NUMBER);
+            img.writeInt(count);
+            img.writeInt(28);
+            img.writeInt(28);
+            lbl.writeInt(MnistRecordReader.LABELS_MAGIC_NUMBER);
+            lbl.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                r.nextBytes(pixels[i]);
+                img.write(pixels[i]);
+                lbl.writeByte((firstLabel + i) % 10);
+            }
+        }
+        return pixels;
+    }
+
+    private static void assertPixels(byte[] expected, INDArray actual) {
+        assertEquals(expected.length, actual.length());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i] & 0xFF, actual.getDouble(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testMnist() throws Exception {
+        File dir = testDir.newFolder("mnist");
+        Random r = new Random(12345);
+        byte[][] pixels = writeMnist(new File(dir, "train-images-idx3-ubyte"), new File(dir, "train-labels-idx1-ubyte"),
+                        25, 0, r);
+        new File(dir, "train-images-idx3-ubyte.gz").createNewFile();
+
+        MnistRecordReader rr = new MnistRecordReader();
+        rr.initialize(new FileSplit(dir));
+        assertEquals(25, rr.numExamples());
+        assertEquals(10, rr.getLabels().size());
+
+        //Sequential records match the file, and the existing MNIST file reader
+        try (MnistImageFile imageFile = new MnistImageFile(new File(dir, "train-images-idx3-ubyte").getPath(), "r")) {
+            for (int i = 0; i < 25; i++) {
+                assertTrue(rr.hasNext());
+                List<Writable> record = rr.next();
+                assertEquals(2, record.size());
+                INDArray features = ((NDArrayWritable) record.get(0)).get();
+                assertArrayEquals(new int[] {1, 1, 28, 28}, features.shape());
+                assertPixels(pixels[i], features);
+                assertEquals(i % 10, record.get(1).toInt());
+
+                int[][] image = imageFile.readImage();
+                for (int y = 0; y < 28; y++) {
+                    for (int x = 0; x < 28; x++) {
+                        assertEquals(image[y][x], features.getDouble(0, 0, y, x), 0.0);
+                    }
+                }
+            }
+        }
+        assertFalse(rr.hasNext());
+
+        //Batches: the last one is partial
+        rr.reset();
+        INDArray features = Nd4j.create(10, 1, 28, 28);
+        INDArray labels = Nd4j.create(10, 10);
+        int[] sizes = new int[3];
+        for (int b = 0; b < 3; b++) {
+            sizes[b] = rr.nextBatch(features, labels);
+            for (int i = 0; i < sizes[b]; i++) {
+                assertPixels(pixels[10 * b + i], features.tensorAlongDimension(i, 1, 2, 3));
+                assertEquals(1.0, labels.getDouble(i, (10 * b + i) % 10), 0.0);
+                assertEquals(1.0, labels.getRow(i).sumNumber().doubleValue(), 0.0);
+            }
+        }
+        assertArrayEquals(new int[] {10, 10, 5}, sizes);
+        assertEquals(0, rr.nextBatch(features, labels));
+    }
+
+    @Test
+    public void testRandomAccessAndShuffle() throws Exception {
+        File dir = testDir.newFolder("mnist");
+        Random r = new Random(12345);
+        List<byte[]> pixels = new ArrayList<>();
+        for (byte[] p : writeMnist(new File(dir, "a-images"), new File(dir, "a-labels"), 7, 0, r)) {
+            pixels.add(p);
+        }
+        for (byte[] p : writeMnist(new File(dir, "b-images"), new File(dir, "b-labels"), 6, 7, r)) {
+            pixels.add(p);
+        }
+        //Examples in the order of the images files in the split: a before b. Labels files are paired by name
+        List<URI> locations = new ArrayList<>();
+        for (String name : new String[] {"a-images", "b-labels", "b-images", "a-labels"}) {
+            locations.add(new File(dir, name).toURI());
+        }
+        MnistRecordReader rr = new MnistRecordReader();
+        rr.initialize(new CollectionInputSplit(locations));
+        assertEquals(13, rr.numExamples());
+
+        //Random access across files, into a view of a larger array
+        int[] indices = {12, 0, 7, 6, 3};
+        INDArray batch = Nd4j.create(6, 1, 28, 28);
+        INDArray view = batch.get(NDArrayIndex.interval(1, 6), NDArrayIndex.all(), NDArrayIndex.all(),
+                        NDArrayIndex.all());
+        rr.load(indices, view, null);
+        assertEquals(Nd4j.zeros(1, 28, 28), batch.tensorAlongDimension(0, 1, 2, 3));
+        for (int i = 0; i < indices.length; i++) {
+            assertPixels(pixels.get(indices[i]), batch.tensorAlongDimension(i + 1, 1, 2, 3));
+            assertEquals(indices[i] % 10, rr.getLabel(indices[i]));
+        }
+
+        //Shuffled epochs: every example once, in the shuffled order
+        rr.shuffle(new Random(42));
+        List<Record> records = new ArrayList<>();
+        List<RecordMetaData> meta = new ArrayList<>();
+        while (rr.hasNext()) {
+            Record record = rr.nextRecord();
+            records.add(record);
+            meta.add(record.getMetaData());
+        }
+        assertEquals(13, records.size());
+        boolean[] seen = new boolean[13];
+        boolean sequential = true;
+        for (int i = 0; i < records.size(); i++) {
+            List<Writable> record = records.get(i).getRecord();
+            int label = record.get(1).toInt();
+            //Find the example from its pixels
+            INDArray features = ((NDArrayWritable) record.get(0)).get();
+            int found = -1;
+            for (int j = 0; j < pixels.size(); j++) {
+                if (features.getDouble(0) == (pixels.get(j)[0] & 0xFF) && features.getDouble(1) == (pixels.get(j)[1]
+                                & 0xFF) && features.getDouble(2) == (pixels.get(j)[2] & 0xFF)) {
+                    found = j;
+                }
+            }
+            assertTrue(found >= 0 && !seen[found]);
+            seen[found] = true;
+            sequential &= found == i;
+            assertEquals(found % 10, label);
+        }
+        assertFalse(sequential);
+
+        //Metadata: random access to the same records
+        List<Record> loaded = rr.loadFromMetaData(meta);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i).getRecord(), loaded.get(i).getRecord());
+        }
+
+        //next(int) in the same (retained) order as next()
+        rr.reset();
+        List<List<Writable>> batchRecords = rr.next(20);
+        assertEquals(13, batchRecords.size());
+        for (int i = 0; i < 13; i++) {
+            assertEquals(records.get(i).getRecord(), batchRecords.get(i));
+        }
+    }
+
+    @Test
+    public void testInvalidLabel() throws Exception {
+        File dir = testDir.newFolder("mnist");
+        File labels = new File(dir, "train-labels-idx1-ubyte");
+        writeMnist(new File(dir, "train-images-idx3-ubyte"), labels, 3, 0, new Random(12345));
+        try (RandomAccessFile raf = new RandomAccessFile(labels, "rw")) {
+            raf.seek(8 + 1);
+            raf.writeByte(10);
+        }
+
+        MnistRecordReader rr = new MnistRecordReader();
+        rr.initialize(new FileSplit(dir));
+        assertEquals(0, rr.getLabel(0));
+        try {
+            rr.load(new int[] {0, 1}, Nd4j.create(2, 1, 28, 28), Nd4j.create(2, 10));
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+        rr.close();
+
+        //Unpaired files
+        writeMnist(new File(dir, "t10k-images-idx3-ubyte"), new File(dir, "t10k-labels"), 3, 0, new Random(12345));
+        try {
+            new MnistRecordReader().initialize(new FileSplit(dir));
+            fail("Expected exception");
+        } catch (IOException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void testCifar() throws Exception {
+        File dir = testDir.newFolder("cifar");
+        Random r = new Random(12345);
+        int count = 12;
+        byte[][] examples = new byte[count][CifarRecordReader.RECORD_LENGTH];
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "data_batch_1.bin"))) {
+            for (int i = 0; i < count; i++) {
+                r.nextBytes(examples[i]);
+                examples[i][0] = (byte) (i % 10);
+                out.write(examples[i]);
+            }
+        }
+        new File(dir, "batches.meta.txt").createNewFile();
+
+        CifarRecordReader rr = new CifarRecordReader();
+        rr.initialize(new FileSplit(dir));
+        assertEquals(count, rr.numExamples());
+
+        //Same as loading the (BGR) image built by CifarLoader.convertMat
+        NativeImageLoader loader = new NativeImageLoader();
+        INDArray features = Nd4j.create(count, 3, 32, 32);
+        INDArray labels = Nd4j.create(count, 10);
+        assertEquals(count, rr.nextBatch(features, labels));
+        for (int i = 0; i < count; i++) {
+            Mat image = new Mat(32, 32, CV_8UC(3));
+            UByteIndexer idx = image.createIndexer();
+            for (int p = 0; p < 32 * 32; p++) {
+                idx.put(p / 32, p % 32, 0, examples[i][1 + 2 * 1024 + p]);
+                idx.put(p / 32, p % 32, 1, examples[i][1 + 1024 + p]);
+                idx.put(p / 32, p % 32, 2, examples[i][1 + p]);
+            }
+            assertEquals(loader.asMatrix(image).tensorAlongDimension(0, 1, 2, 3),
+                            features.tensorAlongDimension(i, 1, 2, 3));
+            assertEquals(1.0, labels.getDouble(i, i % 10), 0.0);
+            assertEquals(new IntWritable(i % 10), rr.record(i).get(1));
+        }
+        assertFalse(rr.hasNext());
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.image.recordreader;
+
+import org.datavec.api.io.labels.ParentPathLabelGenerator;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.Writable;
+import org.datavec.image.transform.FlipImageTransform;
+import org.datavec.image.transform.ImageTransform;
+import org.datavec.image.transform.ImageTransformFactory;
+import org.datavec.image.transform.MultiImageTransform;
+import org.datavec.image.transform.WarpImageTransform;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestParallelImageRecordReader {
+
+    private static final ImageTransformFactory TRANSFORM_FACTORY = new ImageTransformFactory() {
+        @Override
+        public ImageTransform create(Random random) {
+            return new MultiImageTransform(random, new FlipImageTransform(random), new WarpImageTransform(random, 5));
+        }
+    };
+
+    private static File testImages() throws Exception {
+        return new ClassPathResource("/testimages/class0/0.jpg").getFile().getParentFile().getParentFile();
+    }
+
+    /**
+     * @return records by file, for one epoch
+     */
+    private static Map<File, List<Writable>> readAll(BaseImageRecordReader rr, List<File> order) {
+        Map<File, List<Writable>> out = new LinkedHashMap<>();
+        while (rr.hasNext()) {
+            List<Writable> record = rr.next();
+            assertEquals(2, record.size());
+            out.put(rr.getCurrentFile(), record);
+            if (order != null)
+                order.add(rr.getCurrentFile());
+        }
+        return out;
+    }
+
+    @Test
+    public void testOrderedMatchesImageRecordReader() throws Exception {
+        ImageRecordReader expectedReader = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        expectedReader.initialize(new FileSplit(testImages(), new Random(12345)));
+        List<File> expectedOrder = new ArrayList<>();
+        Map<File, List<Writable>> expected = readAll(expectedReader, expectedOrder);
+        assertEquals(6, expected.size());
+
+        ParallelImageRecordReader rr = new ParallelImageRecordReader(32, 32, 3, new ParentPathLabelGenerator(), 4);
+        rr.initialize(new FileSplit(testImages(), new Random(12345)));
+        assertEquals(expectedReader.getLabels(), rr.getLabels());
+        List<File> order = new ArrayList<>();
+        assertEquals(expected, readAll(rr, order));
+        assertEquals(expectedOrder, order);
+
+        //Next epoch: the same order as the image record reader after reset
+        expectedReader.reset();
+        rr.reset();
+        expectedOrder.clear();
+        order.clear();
+        assertEquals(readAll(expectedReader, expectedOrder), readAll(rr, order));
+        assertEquals(expectedOrder, order);
+        rr.close();
+    }
+
+    @Test
+    public void testReproducibleTransforms() throws Exception {
+        Map<File, List<Writable>> first = null;
+        for (int numWorkers : new int[] {1, 3}) {
+            for (boolean ordered : new boolean[] {true, false}) {
+                ParallelImageRecordReader rr = new ParallelImageRecordReader(32, 32, 3,
+                                new ParentPathLabelGenerator(), TRANSFORM_FACTORY, numWorkers, 2, ordered, 42);
+                rr.initialize(new FileSplit(testImages(), new Random(12345)));
+                Map<File, List<Writable>> out = readAll(rr, null);
+                assertEquals(6, out.size());
+                if (first == null) {
+                    first = out;
+                } else {
+                    //Same transformations for each image, regardless of the number of workers and output order
+                    assertEquals(first, out);
+                }
+                rr.close();
+            }
+        }
+
+        //Transforms should have been applied
+        ImageRecordReader plain = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        plain.initialize(new FileSplit(testImages(), new Random(12345)));
+        assertNotEquals(readAll(plain, null), first);
+    }
+
+    @Test
+    public void testCompletedImagesReleased() throws Exception {
+        for (boolean ordered : new boolean[] {true, false}) {
+            ParallelImageRecordReader rr = new ParallelImageRecordReader(32, 32, 3, new ParentPathLabelGenerator(),
+                            null, 2, 2, ordered, 42);
+            rr.initialize(new FileSplit(testImages(), new Random(12345)));
+            int count = 0;
+            while (rr.hasNext()) {
+                rr.next();
+                count++;
+                //No decoded image should be held once returned
+                if (ordered)
+                    assertEquals(0, rr.completed.size());
+                else
+                    assertTrue(rr.completed.size() <= 2);
+            }
+            //More images than the queue capacity
+            assertEquals(6, count);
+            rr.reset();
+            assertEquals(0, rr.completed.size());
+            rr.close();
+        }
+    }
+
+    @Test
+    public void testNextBatch() throws Exception {
+        ImageRecordReader expectedReader = new ImageRecordReader(32, 32, 3, new ParentPathLabelGenerator());
+        expectedReader.initialize(new FileSplit(testImages(), new Random(12345)));
+        INDArray expectedFeatures = Nd4j.create(6, 3, 32, 32);
+        INDArray expectedLabels = Nd4j.create(6, 2);
+        assertEquals(6, expectedReader.nextBatch(expectedFeatures, expectedLabels));
+
+        ParallelImageRecordReader rr = new ParallelImageRecordReader(32, 32, 3, new ParentPathLabelGenerator(), 2);
+        rr.initialize(new FileSplit(testImages(), new Random(12345)));
+        INDArray features = Nd4j.create(6, 3, 32, 32);
+        INDArray labels = Nd4j.create(6, 2);
+        assertEquals(4, rr.nextBatch(features.get(NDArrayIndex.interval(0, 4)),
+                        labels.get(NDArrayIndex.interval(0, 4))));
+        assertEquals(2, rr.nextBatch(features.get(NDArrayIndex.interval(4, 6)),
+                        labels.get(NDArrayIndex.interval(4, 6))));
+        assertFalse(rr.hasNext());
+        assertEquals(expectedFeatures, features);
+        assertEquals(expectedLabels, labels);
+        rr.close();
+    }
+}
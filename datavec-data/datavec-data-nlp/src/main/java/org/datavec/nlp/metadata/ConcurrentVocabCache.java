@@ -0,0 +1,406 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.metadata;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.util.Index;
+import org.datavec.api.util.MathUtils;
+import org.datavec.nlp.vectorizer.TextVectorizer;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe vocab cache, for counting words from multiple threads.<br>
+ * Words are partitioned into lock stripes by hash; each stripe maps words to ids with a {@link StringIntDictionary}
+ * and stores word and document counts in primitive long arrays (indexed by id). Threads counting different words
+ * rarely contend for the same lock.<br>
+ * As with {@link DefaultVocabCache}, a word is added to the vocab when its count reaches the min word frequency.
+ * Note that when counting from multiple threads, the order of the vocab words depends on the order in which
+ * their counts reach that threshold.<br>
+ * Counts are stored as longs: fractional increments are truncated. For this reason it is not the default vocab
+ * cache of {@link org.datavec.nlp.vectorizer.TextVectorizer}; set
+ * {@link org.datavec.nlp.vectorizer.TextVectorizer#VOCAB_CACHE} to use it where counts are integral.
+ */
+public class ConcurrentVocabCache implements VocabCache {
+    /** Number of lock stripes (rounded up to a power of 2). Default: 64 */
+    public static final String NUM_STRIPES = "org.datavec.nlp.vocabcache.stripes";
+    public static final int DEFAULT_NUM_STRIPES = 64;
+    private static final int FORMAT_VERSION = 1;
+
+    private int minWordFrequency;
+    private Stripe[] stripes;
+    private volatile Index vocabWords = new Index();
+    private final AtomicLong numDocs = new AtomicLong();
+
+    /**
+     * Instantiate with a given min word frequency
+     * @param minWordFrequency
+     */
+    public ConcurrentVocabCache(int minWordFrequency) {
+        this(minWordFrequency, DEFAULT_NUM_STRIPES);
+    }
+
+    /**
+     * @param minWordFrequency Min word frequency, for a word to be included in the vocab
+     * @param numStripes       Number of lock stripes
+     */
+    public ConcurrentVocabCache(int minWordFrequency, int numStripes) {
+        this.minWordFrequency = minWordFrequency;
+        initStripes(numStripes);
+    }
+
+    /*
+     * Constructor for use with initialize()
+     */
+    public ConcurrentVocabCache() {
+        this(0, DEFAULT_NUM_STRIPES);
+    }
+
+    private void initStripes(int numStripes) {
+        if (numStripes <= 0 || numStripes > 65536)
+            throw new IllegalArgumentException("Invalid number of stripes: " + numStripes + " (must be 1 to 65536)");
+        int n = Integer.highestOneBit(numStripes * 2 - 1);
+        stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripeFor(String word) {
+        //High bits: the dictionaries use the low bits of the same hash for their table positions
+        return stripes[(StringIntDictionary.hash(word) >>> 16) & (stripes.length - 1)];
+    }
+
+    @Override
+    public void initialize(Configuration conf) {
+        minWordFrequency = conf.getInt(TextVectorizer.MIN_WORD_FREQUENCY, 5);
+        initStripes(conf.getInt(NUM_STRIPES, DEFAULT_NUM_STRIPES));
+        vocabWords = new Index();
+        numDocs.set(0);
+    }
+
+    @Override
+    public void incrementNumDocs(double by) {
+        numDocs.addAndGet((long) by);
+    }
+
+    @Override
+    public double numDocs() {
+        return numDocs.get();
+    }
+
+    @Override
+    public String wordAt(int i) {
+        return vocabWords.get(i).toString();
+    }
+
+    @Override
+    public double wordFrequency(String word) {
+        Stripe s = stripeFor(word);
+        synchronized (s) {
+            int id = s.dict.get(word);
+            return id < 0 ? 0 : s.wordCounts[id];
+        }
+    }
+
+    @Override
+    public int minWordFrequency() {
+        return minWordFrequency;
+    }
+
+    @Override
+    public Index vocabWords() {
+        return vocabWords;
+    }
+
+    @Override
+    public void incrementDocCount(String word) {
+        incrementDocCount(word, 1.0);
+    }
+
+    @Override
+    public void incrementDocCount(String word, double by) {
+        Stripe s = stripeFor(word);
+        synchronized (s) {
+            int id = s.idFor(word);
+            s.docCounts[id] += (long) by;
+        }
+    }
+
+    @Override
+    public void incrementCount(String word) {
+        incrementCount(word, 1.0);
+    }
+
+    @Override
+    public void incrementCount(String word, double by) {
+        add(word, (long) by, 0);
+    }
+
+    private void add(String word, long wordCount, long docCount) {
+        Stripe s = stripeFor(word);
+        synchronized (s) {
+            int sizeBefore = s.dict.size();
+            int id = s.idFor(word);
+            long before = s.wordCounts[id];
+            long after = before + wordCount;
+            s.wordCounts[id] = after;
+            s.docCounts[id] += docCount;
+            //Updates to a word are serialized by the stripe lock: exactly one update reaches the threshold
+            if (after >= minWordFrequency && (before < minWordFrequency || id == sizeBefore))
+                vocabWords.add(word);
+        }
+    }
+
+    @Override
+    public double idf(String word) {
+        Stripe s = stripeFor(word);
+        synchronized (s) {
+            int id = s.dict.get(word);
+            return id < 0 ? 0 : s.docCounts[id];
+        }
+    }
+
+    @Override
+    public double tfidf(String word, double frequency) {
+        return MathUtils.tfidf(MathUtils.tf((int) frequency), MathUtils.idf(numDocs(), idf(word)));
+    }
+
+    /**
+     * @return Number of distinct words counted so far (including those not in the vocab)
+     */
+    public int numWords() {
+        int n = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                n += s.dict.size();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return All words counted so far (including those not in the vocab), in no particular order
+     */
+    public List<String> words() {
+        List<String> out = new ArrayList<>();
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                for (int id = 0; id < s.dict.size(); id++) {
+                    out.add(s.dict.key(id));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Add the word counts, document counts and number of documents of another cache to this cache. Words are added
+     * to the vocab of this cache as their counts reach this cache's min word frequency.
+     *
+     * @param other Cache to merge into this one
+     */
+    public void merge(ConcurrentVocabCache other) {
+        numDocs.addAndGet(other.numDocs.get());
+        for (Stripe s : other.stripes) {
+            synchronized (s) {
+                for (int id = 0; id < s.dict.size(); id++) {
+                    add(s.dict.key(id), s.wordCounts[id], s.docCounts[id]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all words with a frequency below minFrequency, freeing the memory used for rare words (most of which
+     * are typically below the min word frequency, and hence not in the vocab). If minFrequency is greater than the
+     * min word frequency, the vocab is also reduced (keeping the order of the remaining words) and the min word
+     * frequency is increased to minFrequency.<br>
+     * This should not be called while other threads are counting words.
+     *
+     * @param minFrequency Min frequency for a word to be retained
+     * @return Number of words removed
+     */
+    public int prune(int minFrequency) {
+        int removed = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                removed += s.prune(minFrequency);
+            }
+        }
+
+        if (minFrequency > minWordFrequency) {
+            minWordFrequency = minFrequency;
+            Index old = vocabWords;
+            Index pruned = new Index();
+            for (int i = 0; i < old.size(); i++) {
+                String word = old.get(i).toString();
+                if (wordFrequency(word) >= minFrequency)
+                    pruned.add(word);
+            }
+            vocabWords = pruned;
+        }
+        return removed;
+    }
+
+    /**
+     * Save the full state of the cache (all word and document counts, the vocab order, and the number of
+     * documents) in a compact binary format. Counts are written as variable length integers.
+     *
+     * @param file File to save to
+     * @see #load(File)
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            save(dos);
+        }
+    }
+
+    /**
+     * Save the cache to the given output; see {@link #save(File)}. This should not be called while other threads
+     * are counting words.
+     */
+    public void save(DataOutput out) throws IOException {
+        Index vocab = vocabWords;
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(minWordFrequency);
+        out.writeInt(stripes.length);
+        writeVLong(out, numDocs.get());
+        writeVLong(out, vocab.size());
+        writeVLong(out, numWords());
+
+        //Vocab words first (in order), then all other words
+        for (int i = 0; i < vocab.size(); i++) {
+            String word = vocab.get(i).toString();
+            Stripe s = stripeFor(word);
+            int id = s.dict.get(word);
+            writeWord(out, word, s.wordCounts[id], s.docCounts[id]);
+        }
+        for (Stripe s : stripes) {
+            for (int id = 0; id < s.dict.size(); id++) {
+                String word = s.dict.key(id);
+                if (vocab.indexOf(word) < 0)
+                    writeWord(out, word, s.wordCounts[id], s.docCounts[id]);
+            }
+        }
+    }
+
+    private static void writeWord(DataOutput out, String word, long wordCount, long docCount) throws IOException {
+        out.writeUTF(word);
+        writeVLong(out, wordCount);
+        writeVLong(out, docCount);
+    }
+
+    /**
+     * Load a cache saved with {@link #save(File)}
+     */
+    public static ConcurrentVocabCache load(File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return load(dis);
+        }
+    }
+
+    /**
+     * Load a cache saved with {@link #save(DataOutput)}
+     */
+    public static ConcurrentVocabCache load(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION)
+            throw new IOException("Unsupported vocab cache format version: " + version);
+        ConcurrentVocabCache cache = new ConcurrentVocabCache(in.readInt(), in.readInt());
+        cache.numDocs.set(readVLong(in));
+        long vocabSize = readVLong(in);
+        long numWords = readVLong(in);
+        for (long i = 0; i < numWords; i++) {
+            String word = in.readUTF();
+            Stripe s = cache.stripeFor(word);
+            int id = s.idFor(word);
+            s.wordCounts[id] = readVLong(in);
+            s.docCounts[id] = readVLong(in);
+            if (i < vocabSize)
+                cache.vocabWords.add(word);
+        }
+        return cache;
+    }
+
+    private static void writeVLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+
+    public int getMinWordFrequency() {
+        return minWordFrequency;
+    }
+
+    public void setMinWordFrequency(int minWordFrequency) {
+        this.minWordFrequency = minWordFrequency;
+    }
+
+    /**
+     * Words and their counts, for one lock stripe. Guarded by the stripe's monitor
+     */
+    private static class Stripe {
+        private StringIntDictionary dict = new StringIntDictionary();
+        private long[] wordCounts = new long[16];
+        private long[] docCounts = new long[16];
+
+        private int idFor(String word) {
+            int id = dict.getOrAdd(word);
+            if (id == wordCounts.length) {
+                wordCounts = Arrays.copyOf(wordCounts, id * 2);
+                docCounts = Arrays.copyOf(docCounts, id * 2);
+            }
+            return id;
+        }
+
+        private int prune(int minFrequency) {
+            StringIntDictionary oldDict = dict;
+            long[] oldWordCounts = wordCounts;
+            long[] oldDocCounts = docCounts;
+            dict = new StringIntDictionary(oldDict.size());
+            wordCounts = new long[Math.max(16, oldDict.size())];
+            docCounts = new long[wordCounts.length];
+            for (int i = 0; i < oldDict.size(); i++) {
+                if (oldWordCounts[i] >= minFrequency) {
+                    int id = dict.getOrAdd(oldDict.key(i));
+                    wordCounts[id] = oldWordCounts[i];
+                    docCounts[id] = oldDocCounts[i];
+                }
+            }
+            return oldDict.size() - dict.size();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.metadata;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing (linear probing) hash map from strings to int ids.<br>
+ * Ids are assigned in insertion order (0, 1, 2, ...), so they can be used to index into primitive arrays of
+ * per-string values (such as counts), avoiding the boxing and per-entry objects of a HashMap.<br>
+ * This class is not thread safe.
+ */
+public class StringIntDictionary {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Table of ids (-1 = empty slot), indexed by hash */
+    private int[] slots;
+    /** Hash of the key in each slot; avoids most string comparisons on collisions */
+    private int[] slotHashes;
+    /** Keys, indexed by id */
+    private String[] keys;
+    private int size;
+
+    public StringIntDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Expected number of keys (the table grows as required)
+     */
+    public StringIntDictionary(int expectedSize) {
+        int tableSize = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        slots = new int[tableSize];
+        Arrays.fill(slots, -1);
+        slotHashes = new int[tableSize];
+        keys = new String[Math.max(expectedSize, 4)];
+    }
+
+    /**
+     * Hash used for table positions: String.hashCode() (cached by String) with the bits mixed
+     */
+    static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The id of the key, or -1 if it is not present
+     */
+    public int get(String key) {
+        int h = hash(key);
+        int mask = slots.length - 1;
+        for (int i = h & mask;; i = (i + 1) & mask) {
+            int id = slots[i];
+            if (id < 0)
+                return -1;
+            if (slotHashes[i] == h && keys[id].equals(key))
+                return id;
+        }
+    }
+
+    /**
+     * @return The id of the key, adding it (with the next id, equal to {@link #size()} before this call) if it is
+     * not already present
+     */
+    public int getOrAdd(String key) {
+        int h = hash(key);
+        int mask = slots.length - 1;
+        int i = h & mask;
+        for (;; i = (i + 1) & mask) {
+            int id = slots[i];
+            if (id < 0)
+                break;
+            if (slotHashes[i] == h && keys[id].equals(key))
+                return id;
+        }
+
+        int id = size++;
+        if (id == keys.length)
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        keys[id] = key;
+        slots[i] = id;
+        slotHashes[i] = h;
+        //Load factor of at most 0.5, to keep probe sequences short
+        if (size * 2 > slots.length)
+            rehash(slots.length * 2);
+        return id;
+    }
+
+    private void rehash(int tableSize) {
+        int[] newSlots = new int[tableSize];
+        Arrays.fill(newSlots, -1);
+        int[] newHashes = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int j = 0; j < slots.length; j++) {
+            int id = slots[j];
+            if (id < 0)
+                continue;
+            int i = slotHashes[j] & mask;
+            while (newSlots[i] >= 0)
+                i = (i + 1) & mask;
+            newSlots[i] = id;
+            newHashes[i] = slotHashes[j];
+        }
+        slots = newSlots;
+        slotHashes = newHashes;
+    }
+
+    /**
+     * @return The key with the given id
+     */
+    public String key(int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("Invalid id: " + id + ", size " + size);
+        return keys[id];
+    }
+
+    /**
+     * @return Number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all keys, keeping the allocated capacity
+     */
+    public void clear() {
+        Arrays.fill(slots, -1);
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+}
@@ -23,26 +23,42 @@ import org.datavec.api.records.metadata.RecordMetaDataURI;
 import org.datavec.api.records.reader.impl.FileRecordReader;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.vector.Vectorizer;
+import org.datavec.api.writable.SparseArrayWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.data.NDArrayWritable;
 import org.datavec.nlp.vectorizer.TfidfVectorizer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
 /**
  * TFIDF record reader (wraps a tfidf vectorizer
  * for delivering labels and conforming to the record reader interface)
+ * <p>
+ * By default, all documents are vectorized (as dense NDArrayWritables) during initialization. In streaming mode
+ * ({@link #STREAMING}), documents are read twice instead: once to fit the vectorizer (without retaining them), and
+ * again, one document at a time, as {@link #next()} is called. Streaming mode returns sparse vectors
+ * ({@link SparseArrayWritable}), containing only the non-zero values for the words in each document.
+ * <p>
+ * If {@link #VOCABULARY_FILE} is set, the vocabulary is loaded from that file if it exists (skipping the fit pass);
+ * otherwise, it is saved to that file after fitting.
  *
  * @author Adam Gibson
  */
 public class TfidfRecordReader extends FileRecordReader {
+    /** Boolean: if true, use two-pass streaming mode, with sparse output vectors. Default: false */
+    public static final String STREAMING = "org.datavec.nlp.reader.tfidf.streaming";
+    /** Path of a vocabulary file, to load (if it exists) or save to (otherwise) */
+    public static final String VOCABULARY_FILE = "org.datavec.nlp.reader.tfidf.vocabularyfile";
+
     private TfidfVectorizer tfidfVectorizer;
     private List<Record> records = new ArrayList<>();
     private Iterator<Record> recordIter;
     private int numFeatures;
     private boolean initialized = false;
+    private boolean streaming = false;
 
 
     @Override
@@ -53,14 +69,28 @@ public class TfidfRecordReader extends FileRecordReader {
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
         super.initialize(conf, split);
-        //train  a new one since it hasn't been specified
+        boolean streamingMode = conf.getBoolean(STREAMING, false);
+        String vocabPath = conf.get(VOCABULARY_FILE, null);
+        File vocabFile = (vocabPath == null ? null : new File(vocabPath));
+
+        boolean needsFit = false;
         if (tfidfVectorizer == null) {
             tfidfVectorizer = new TfidfVectorizer();
             tfidfVectorizer.initialize(conf);
+            if (vocabFile != null && vocabFile.exists()) {
+                tfidfVectorizer.loadVocabulary(vocabFile);
+            } else {
+                needsFit = true;
+            }
+        }
 
-            //clear out old strings
-            records.clear();
+        //clear out old records
+        records = new ArrayList<>();
+        recordIter = null;
+        streaming = false;
 
+        if (needsFit && !streamingMode) {
+            //train  a new one since it hasn't been specified
             INDArray ret = tfidfVectorizer.fitTransform(this, new Vectorizer.RecordCallBack() {
                 @Override
                 public void onRecord(Record fullRecord) {
@@ -71,41 +101,68 @@ public class TfidfRecordReader extends FileRecordReader {
             //cache the number of features used for each document
             numFeatures = ret.columns();
             recordIter = records.iterator();
+        } else if (streamingMode) {
+            //First pass: fit only (records are not retained). Second pass: vectorize lazily in nextRecord()
+            if (needsFit) {
+                tfidfVectorizer.fit(this);
+                super.reset();
+            }
+            numFeatures = tfidfVectorizer.getCache().vocabWords().size();
+            streaming = true;
         } else {
-            records = new ArrayList<>();
-
             //the record reader has 2 phases, we are skipping the
             //document frequency phase and just using the super() to get the file contents
             //and pass it to the already existing vectorizer.
             while (super.hasNext()) {
-                Record fileContents = super.nextRecord();
-                INDArray transform = tfidfVectorizer.transform(fileContents);
-
-                org.datavec.api.records.impl.Record record = new org.datavec.api.records.impl.Record(
-                                new ArrayList<>(Collections.<Writable>singletonList(new NDArrayWritable(transform))),
-                                new RecordMetaDataURI(fileContents.getMetaData().getURI(), TfidfRecordReader.class));
-
-                if (appendLabel)
-                    record.getRecord().add(fileContents.getRecord().get(fileContents.getRecord().size() - 1));
-
-                records.add(record);
+                records.add(vectorize(super.nextRecord()));
             }
 
+            numFeatures = tfidfVectorizer.getCache().vocabWords().size();
             recordIter = records.iterator();
         }
 
+        if (needsFit && vocabFile != null) {
+            tfidfVectorizer.saveVocabulary(vocabFile);
+        }
+
         this.initialized = true;
     }
 
+    /**
+     * Vectorize the given file contents: dense (NDArrayWritable), or sparse (SparseArrayWritable) in streaming mode
+     */
+    private Record vectorize(Record fileContents) {
+        Writable vector;
+        if (streaming) {
+            vector = tfidfVectorizer.transformSparse(fileContents);
+        } else {
+            vector = new NDArrayWritable(tfidfVectorizer.transform(fileContents));
+        }
+
+        org.datavec.api.records.impl.Record record = new org.datavec.api.records.impl.Record(
+                        new ArrayList<>(Collections.singletonList(vector)),
+                        new RecordMetaDataURI(fileContents.getMetaData().getURI(), TfidfRecordReader.class));
+
+        if (appendLabel)
+            record.getRecord().add(fileContents.getRecord().get(fileContents.getRecord().size() - 1));
+        return record;
+    }
+
     @Override
     public void reset() {
         if (inputSplit == null)
             throw new UnsupportedOperationException("Cannot reset without first initializing");
-        recordIter = records.iterator();
+        if (streaming) {
+            super.reset();
+        } else {
+            recordIter = records.iterator();
+        }
     }
 
     @Override
     public Record nextRecord() {
+        if (streaming)
+            return vectorize(super.nextRecord());
         if (recordIter == null)
             return super.nextRecord();
         return recordIter.next();
@@ -119,7 +176,7 @@ public class TfidfRecordReader extends FileRecordReader {
     @Override
     public boolean hasNext() {
         //we aren't done vectorizing yet
-        if (recordIter == null)
+        if (streaming || recordIter == null)
             return super.hasNext();
         return recordIter.hasNext();
     }
@@ -160,6 +217,8 @@ public class TfidfRecordReader extends FileRecordReader {
     }
 
     public void shuffle(Random random) {
+        if (streaming)
+            throw new UnsupportedOperationException("Cannot shuffle in streaming mode: records are not retained");
         Collections.shuffle(this.records, random);
         this.reset();
     }
@@ -174,15 +233,7 @@ public class TfidfRecordReader extends FileRecordReader {
         List<Record> out = new ArrayList<>();
 
         for (Record fileContents : super.loadFromMetaData(recordMetaDatas)) {
-            INDArray transform = tfidfVectorizer.transform(fileContents);
-
-            org.datavec.api.records.impl.Record record = new org.datavec.api.records.impl.Record(
-                            new ArrayList<>(Collections.<Writable>singletonList(new NDArrayWritable(transform))),
-                            new RecordMetaDataURI(fileContents.getMetaData().getURI(), TfidfRecordReader.class));
-
-            if (appendLabel)
-                record.getRecord().add(fileContents.getRecord().get(fileContents.getRecord().size() - 1));
-            out.add(record);
+            out.add(vectorize(fileContents));
         }
 
         return out;
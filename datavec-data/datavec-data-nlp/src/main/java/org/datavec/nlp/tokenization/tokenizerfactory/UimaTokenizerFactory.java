@@ -42,7 +42,8 @@ public class UimaTokenizerFactory implements TokenizerFactory {
 
     private UimaResource uimaResource;
     private boolean checkForLabel;
-    private static AnalysisEngine defaultAnalysisEngine;
+    //Analysis engines are not thread safe: one default engine per thread
+    private static final ThreadLocal<AnalysisEngine> defaultAnalysisEngine = new ThreadLocal<>();
     private TokenPreProcess preProcess;
 
     public UimaTokenizerFactory() throws ResourceInitializationException {
@@ -102,18 +103,21 @@ public class UimaTokenizerFactory implements TokenizerFactory {
 
 
     /**
-     * Creates a tokenization,/stemming pipeline
+     * Creates a tokenization,/stemming pipeline. The pipeline is created once per thread, so factories created
+     * on different threads (for example, by the workers of a parallel fit) do not share an analysis engine
      * @return a tokenization/stemming pipeline
      */
     public static AnalysisEngine defaultAnalysisEngine() {
         try {
-            if (defaultAnalysisEngine == null)
-
-                defaultAnalysisEngine = AnalysisEngineFactory.createEngine(
+            AnalysisEngine engine = defaultAnalysisEngine.get();
+            if (engine == null) {
+                engine = AnalysisEngineFactory.createEngine(
                                 AnalysisEngineFactory.createEngineDescription(SentenceAnnotator.getDescription(),
                                                 TokenizerAnnotator.getDescription()));
+                defaultAnalysisEngine.set(engine);
+            }
 
-            return defaultAnalysisEngine;
+            return engine;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
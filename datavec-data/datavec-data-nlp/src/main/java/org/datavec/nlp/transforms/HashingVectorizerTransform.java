@@ -0,0 +1,131 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.transforms;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.writable.Writable;
+import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.datavec.nlp.vectorizer.HashingVectorizer;
+import org.datavec.nlp.vectorizer.TextVectorizer;
+import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
+import org.nd4j.shade.jackson.annotation.JsonProperty;
+
+/**
+ * Featurize a String (text) column inline, using the hashing trick (see {@link HashingVectorizer}): the text is
+ * replaced by a sparse vector ({@link org.datavec.api.writable.SparseArrayWritable}) of length numFeatures.<br>
+ * No vocabulary or fit pass is required. IDF weighting is not supported here, as an online estimate would make the
+ * output depend on the order in which records are transformed.
+ */
+@JsonIgnoreProperties({"inputSchema", "columnNumber", "vectorizer"})
+public class HashingVectorizerTransform extends BaseColumnTransform {
+
+    private final int numFeatures;
+    private final HashingVectorizer.TermFrequency termFrequency;
+    private final boolean signed;
+    private final String tokenizerFactory;
+
+    private transient volatile HashingVectorizer vectorizer;
+
+    /**
+     * Raw term frequencies, signed hashing, and the default tokenizer
+     *
+     * @param columnName  Name of the text column to featurize
+     * @param numFeatures Length of the output vectors
+     */
+    public HashingVectorizerTransform(String columnName, int numFeatures) {
+        this(columnName, numFeatures, HashingVectorizer.TermFrequency.Raw, true, null);
+    }
+
+    /**
+     * @param columnName       Name of the text column to featurize
+     * @param numFeatures      Length of the output vectors
+     * @param termFrequency    Term frequency type. If null: {@link HashingVectorizer.TermFrequency#Raw}
+     * @param signed           Whether to use signed hashing
+     * @param tokenizerFactory Class name of the tokenizer factory. If null: {@link DefaultTokenizerFactory}
+     */
+    public HashingVectorizerTransform(@JsonProperty("columnName") String columnName,
+                    @JsonProperty("numFeatures") int numFeatures,
+                    @JsonProperty("termFrequency") HashingVectorizer.TermFrequency termFrequency,
+                    @JsonProperty("signed") boolean signed, @JsonProperty("tokenizerFactory") String tokenizerFactory) {
+        super(columnName);
+        if (numFeatures <= 0)
+            throw new IllegalArgumentException("Invalid number of features: " + numFeatures);
+        this.numFeatures = numFeatures;
+        this.termFrequency = (termFrequency == null ? HashingVectorizer.TermFrequency.Raw : termFrequency);
+        this.signed = signed;
+        this.tokenizerFactory = tokenizerFactory;
+    }
+
+    private HashingVectorizer getVectorizer() {
+        HashingVectorizer v = vectorizer;
+        if (v == null) {
+            Configuration conf = new Configuration();
+            conf.setInt(HashingVectorizer.NUM_FEATURES, numFeatures);
+            conf.set(HashingVectorizer.TERM_FREQUENCY, termFrequency.name());
+            conf.setBoolean(HashingVectorizer.SIGNED, signed);
+            conf.set(TextVectorizer.TOKENIZER,
+                            tokenizerFactory == null ? DefaultTokenizerFactory.class.getName() : tokenizerFactory);
+            v = new HashingVectorizer();
+            v.initialize(conf);
+            vectorizer = v;
+        }
+        return v;
+    }
+
+    @Override
+    public ColumnMetaData getNewColumnMetaData(String newName, ColumnMetaData oldColumnType) {
+        return new SparseVectorMetaData(newName, numFeatures);
+    }
+
+    @Override
+    public Writable map(Writable columnWritable) {
+        return getVectorizer().transformSparse(columnWritable.toString());
+    }
+
+    @Override
+    public Object map(Object input) {
+        return getVectorizer().transformSparse(input.toString());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o))
+            return false;
+        HashingVectorizerTransform other = (HashingVectorizerTransform) o;
+        return numFeatures == other.numFeatures && termFrequency == other.termFrequency && signed == other.signed
+                        && (tokenizerFactory == null ? other.tokenizerFactory == null
+                                        : tokenizerFactory.equals(other.tokenizerFactory));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * super.hashCode() + numFeatures;
+        result = 31 * result + termFrequency.name().hashCode();
+        result = 31 * result + (signed ? 1 : 0);
+        result = 31 * result + (tokenizerFactory == null ? 0 : tokenizerFactory.hashCode());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "HashingVectorizerTransform(columnName=" + columnName + ",numFeatures=" + numFeatures
+                        + ",termFrequency=" + termFrequency + ",signed=" + signed + ")";
+    }
+}
@@ -0,0 +1,81 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.transforms;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.BaseColumnMetaData;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.writable.SparseArrayWritable;
+import org.datavec.api.writable.Writable;
+import org.nd4j.shade.jackson.annotation.JsonProperty;
+
+/**
+ * Metadata for a column of sparse vectors ({@link SparseArrayWritable}) of a fixed length.<br>
+ * There is no column type for vectors, so the column type is reported as {@link ColumnType#Bytes} (arbitrary data).
+ */
+public class SparseVectorMetaData extends BaseColumnMetaData {
+
+    private final long length;
+
+    public SparseVectorMetaData(@JsonProperty("name") String name, @JsonProperty("length") long length) {
+        super(name);
+        this.length = length;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public ColumnType getColumnType() {
+        return ColumnType.Bytes;
+    }
+
+    @Override
+    public boolean isValid(Writable writable) {
+        return writable instanceof SparseArrayWritable && ((SparseArrayWritable) writable).length() == length;
+    }
+
+    @Override
+    public boolean isValid(Object input) {
+        return input instanceof Writable && isValid((Writable) input);
+    }
+
+    @Override
+    public ColumnMetaData clone() {
+        return new SparseVectorMetaData(name, length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SparseVectorMetaData))
+            return false;
+        SparseVectorMetaData other = (SparseVectorMetaData) o;
+        return length == other.length && (name == null ? other.name == null : name.equals(other.name));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (name == null ? 0 : name.hashCode()) + (int) (length ^ (length >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "SparseVectorMetaData(name=\"" + name + "\",length=" + length + ")";
+    }
+}
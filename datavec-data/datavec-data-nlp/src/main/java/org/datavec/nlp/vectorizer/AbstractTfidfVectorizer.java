@@ -19,6 +19,7 @@ package org.datavec.nlp.vectorizer;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.nlp.metadata.VocabCache;
 import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
 import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
 import org.datavec.nlp.tokenization.tokenizerfactory.TokenizerFactory;
@@ -34,6 +35,11 @@ public abstract class AbstractTfidfVectorizer<VECTOR_TYPE> extends TextVectorize
 
     @Override
     public void doWithTokens(Tokenizer tokenizer) {
+        doWithTokens(tokenizer, cache);
+    }
+
+    @Override
+    public void doWithTokens(Tokenizer tokenizer, VocabCache cache) {
         Set<String> seen = new HashSet<>();
         while (tokenizer.hasMoreTokens()) {
             String token = tokenizer.nextToken();
@@ -47,6 +53,11 @@ public abstract class AbstractTfidfVectorizer<VECTOR_TYPE> extends TextVectorize
         }
     }
 
+    @Override
+    protected boolean parallelFitSupported() {
+        return true;
+    }
+
     @Override
     public TokenizerFactory createTokenizerFactory(Configuration conf) {
         String clazz = conf.get(TOKENIZER, DefaultTokenizerFactory.class.getName());
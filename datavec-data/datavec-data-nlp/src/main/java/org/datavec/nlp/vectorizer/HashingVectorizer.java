@@ -0,0 +1,341 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.vectorizer;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaDataURI;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.writable.SparseArrayWritable;
+import org.datavec.common.data.NDArrayWritable;
+import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
+import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.datavec.nlp.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Vectorizer using the hashing trick: each token is mapped straight to a feature index, (MurmurHash3 of the token)
+ * mod {@link #NUM_FEATURES}, so no vocabulary is needed and no fit pass is required before transforming.<br>
+ * With signed hashing ({@link #SIGNED}, default true), the sign of each token's contribution is also derived from its
+ * hash, so that collisions tend to cancel out rather than accumulate.<br>
+ * The value for each token is its term frequency ({@link #TERM_FREQUENCY}: binary, raw count or sublinear
+ * 1 + log(count)), optionally multiplied by an inverse document frequency ({@link #IDF}). Document frequencies are
+ * counted per feature index, by {@link #fit(RecordReader)} and - if {@link #ONLINE_IDF} is set - by every
+ * transform, so that the IDF estimate improves as documents are seen. IDF values are smoothed:
+ * log((1 + numDocs) / (1 + docFrequency)) + 1.<br>
+ * Transforming is thread safe.
+ */
+public class HashingVectorizer extends TextVectorizer<INDArray> {
+    /** Number of features (hash buckets). Default: 2^20 */
+    public static final String NUM_FEATURES = "org.datavec.nlp.hashing.numfeatures";
+    /** Term frequency: one of {@link TermFrequency} (name). Default: Raw */
+    public static final String TERM_FREQUENCY = "org.datavec.nlp.hashing.termfrequency";
+    /** Boolean: use signed hashing. Default: true */
+    public static final String SIGNED = "org.datavec.nlp.hashing.signed";
+    /** Boolean: multiply term frequencies by the inverse document frequency. Default: false */
+    public static final String IDF = "org.datavec.nlp.hashing.idf";
+    /** Boolean: update the document frequencies when transforming. Default: false */
+    public static final String ONLINE_IDF = "org.datavec.nlp.hashing.onlineidf";
+    public static final int DEFAULT_NUM_FEATURES = 1 << 20;
+
+    public enum TermFrequency {
+        /** 1 if the token is present */
+        Binary,
+        /** Number of times the token is present */
+        Raw,
+        /** 1 + log(count) */
+        Sublinear
+    }
+
+    private static final int SEED = 0;
+
+    private int numFeatures = DEFAULT_NUM_FEATURES;
+    private TermFrequency termFrequency = TermFrequency.Raw;
+    private boolean signed = true;
+    private boolean useIdf;
+    private boolean onlineIdf;
+    private AtomicLongArray docFrequencies;
+    private final AtomicLong numDocs = new AtomicLong();
+
+    @Override
+    public void initialize(Configuration conf) {
+        //No vocabulary is used, but the base class sets up the tokenizer factory and stop words
+        super.initialize(conf);
+        numFeatures = conf.getInt(NUM_FEATURES, DEFAULT_NUM_FEATURES);
+        if (numFeatures <= 0)
+            throw new IllegalArgumentException("Invalid number of features: " + numFeatures);
+        termFrequency = TermFrequency.valueOf(conf.get(TERM_FREQUENCY, TermFrequency.Raw.name()));
+        signed = conf.getBoolean(SIGNED, true);
+        useIdf = conf.getBoolean(IDF, false);
+        onlineIdf = conf.getBoolean(ONLINE_IDF, false);
+        docFrequencies = (useIdf ? new AtomicLongArray(numFeatures) : null);
+        numDocs.set(0);
+    }
+
+    /**
+     * Fit: only needed to estimate document frequencies, if IDF is used
+     */
+    @Override
+    public void fit(RecordReader reader, RecordCallBack callBack) {
+        while (reader.hasNext()) {
+            Record record = reader.nextRecord();
+            if (useIdf)
+                updateDocFrequencies(hash(tokenizerFactory.create(toString(record.getRecord()))));
+            if (callBack != null)
+                callBack.onRecord(record);
+        }
+    }
+
+    @Override
+    public void doWithTokens(Tokenizer tokenizer) {
+        if (useIdf)
+            updateDocFrequencies(hash(tokenizer));
+    }
+
+    @Override
+    public TokenizerFactory createTokenizerFactory(Configuration conf) {
+        String clazz = conf.get(TOKENIZER, DefaultTokenizerFactory.class.getName());
+        try {
+            Class<? extends TokenizerFactory> tokenizerFactoryClazz =
+                            (Class<? extends TokenizerFactory>) Class.forName(clazz);
+            return tokenizerFactoryClazz.newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param args the text (String) to vectorize
+     * @return the dense vector
+     */
+    @Override
+    public INDArray createVector(Object[] args) {
+        return toDense(transformSparse(args[0].toString()));
+    }
+
+    @Override
+    public INDArray fitTransform(RecordReader reader) {
+        return fitTransform(reader, null);
+    }
+
+    @Override
+    public INDArray fitTransform(RecordReader reader, RecordCallBack callBack) {
+        final List<Record> records = new ArrayList<>();
+        fit(reader, new RecordCallBack() {
+            @Override
+            public void onRecord(Record record) {
+                records.add(record);
+            }
+        });
+
+        if (records.isEmpty())
+            throw new IllegalStateException("No records found!");
+        INDArray ret = Nd4j.create(records.size(), numFeatures);
+        int i = 0;
+        for (Record record : records) {
+            INDArray transformed = transform(record);
+            ret.putRow(i++, transformed);
+            if (callBack != null) {
+                callBack.onRecord(new org.datavec.api.records.impl.Record(
+                                Arrays.asList(new NDArrayWritable(transformed),
+                                                record.getRecord().get(record.getRecord().size() - 1)),
+                                new RecordMetaDataURI(record.getMetaData().getURI(), reader.getClass())));
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public INDArray transform(Record record) {
+        return toDense(transformSparse(record));
+    }
+
+    /**
+     * Transform a record into a sparse vector, of length {@link #NUM_FEATURES}
+     */
+    public SparseArrayWritable transformSparse(Record record) {
+        return transformSparse(toString(record.getRecord()));
+    }
+
+    /**
+     * Transform the given text into a sparse vector, of length {@link #NUM_FEATURES}
+     */
+    public SparseArrayWritable transformSparse(String text) {
+        HashedTokens hashed = hash(tokenizerFactory.create(text));
+        if (useIdf && onlineIdf)
+            updateDocFrequencies(hashed);
+
+        //Sort the (index, value) pairs by index, then sum the values for each index
+        int n = hashed.size;
+        long[] keys = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            int hash = hashed.hashes[i];
+            double value = tf(hashed.counts[i]);
+            if (signed && hash < 0)
+                value = -value;
+            values[i] = value;
+            keys[i] = ((long) index(hash) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] outIndices = new int[n];
+        double[] outValues = new double[n];
+        int count = 0;
+        for (int i = 0; i < n;) {
+            int idx = (int) (keys[i] >>> 32);
+            double sum = 0.0;
+            for (; i < n && (int) (keys[i] >>> 32) == idx; i++) {
+                sum += values[(int) keys[i]];
+            }
+            if (useIdf)
+                sum *= idf(idx);
+            //Signed collisions may cancel out completely
+            if (sum != 0.0) {
+                outIndices[count] = idx;
+                outValues[count++] = sum;
+            }
+        }
+        return new SparseArrayWritable(numFeatures, Arrays.copyOf(outIndices, count),
+                        Arrays.copyOf(outValues, count));
+    }
+
+    private INDArray toDense(SparseArrayWritable sparse) {
+        double[] vector = new double[numFeatures];
+        int[] indices = sparse.getIndices();
+        double[] values = sparse.getValues();
+        for (int i = 0; i < indices.length; i++) {
+            vector[indices[i]] = values[i];
+        }
+        return Nd4j.create(vector);
+    }
+
+    /**
+     * @return The feature index for the given hash
+     */
+    public int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % numFeatures;
+    }
+
+    private double tf(int count) {
+        switch (termFrequency) {
+            case Binary:
+                return 1.0;
+            case Sublinear:
+                return 1.0 + Math.log(count);
+            default:
+                return count;
+        }
+    }
+
+    /**
+     * @return The current (smoothed) IDF estimate for the given feature index
+     */
+    public double idf(int index) {
+        if (!useIdf)
+            throw new IllegalStateException("IDF is not enabled");
+        return Math.log((1.0 + numDocs.get()) / (1.0 + docFrequencies.get(index))) + 1.0;
+    }
+
+    /**
+     * @return Number of documents used for the document frequencies
+     */
+    public long numDocs() {
+        return numDocs.get();
+    }
+
+    private void updateDocFrequencies(HashedTokens hashed) {
+        //Each index is counted once per document, even if several tokens map to it
+        int[] indices = new int[hashed.size];
+        for (int i = 0; i < hashed.size; i++) {
+            indices[i] = index(hashed.hashes[i]);
+        }
+        Arrays.sort(indices);
+        for (int i = 0; i < indices.length; i++) {
+            if (i == 0 || indices[i] != indices[i - 1])
+                docFrequencies.incrementAndGet(indices[i]);
+        }
+        numDocs.incrementAndGet();
+    }
+
+    /**
+     * Hash the tokens (excluding stop words), and count the occurrences of each distinct hash
+     */
+    private HashedTokens hash(Tokenizer tokenizer) {
+        int[] hashes = new int[16];
+        int n = 0;
+        while (tokenizer.hasMoreTokens()) {
+            String token = tokenizer.nextToken();
+            if (stopWords.contains(token))
+                continue;
+            if (n == hashes.length)
+                hashes = Arrays.copyOf(hashes, n * 2);
+            hashes[n++] = MurmurHash3.hash32(token, SEED);
+        }
+        Arrays.sort(hashes, 0, n);
+
+        HashedTokens out = new HashedTokens(n);
+        for (int i = 0; i < n;) {
+            int h = hashes[i];
+            int count = 0;
+            for (; i < n && hashes[i] == h; i++) {
+                count++;
+            }
+            out.hashes[out.size] = h;
+            out.counts[out.size++] = count;
+        }
+        return out;
+    }
+
+    public int getNumFeatures() {
+        return numFeatures;
+    }
+
+    public TermFrequency getTermFrequency() {
+        return termFrequency;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    public boolean isUseIdf() {
+        return useIdf;
+    }
+
+    /**
+     * Distinct token hashes for a document, with the number of occurrences of each
+     */
+    private static class HashedTokens {
+        private final int[] hashes;
+        private final int[] counts;
+        private int size;
+
+        private HashedTokens(int capacity) {
+            hashes = new int[capacity];
+            counts = new int[capacity];
+        }
+    }
+}
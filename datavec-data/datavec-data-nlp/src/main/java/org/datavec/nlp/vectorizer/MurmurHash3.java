@@ -0,0 +1,79 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.vectorizer;
+
+import java.nio.charset.Charset;
+
+/**
+ * MurmurHash3 (x86, 32 bit variant). Used for the hashing trick: hashes are stable across JVMs, so features hashed on
+ * different machines (or by different versions of a model) agree.
+ */
+public class MurmurHash3 {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private MurmurHash3() {}
+
+    /**
+     * Hash the UTF-8 bytes of the given string
+     */
+    public static int hash32(String s, int seed) {
+        byte[] bytes = s.getBytes(UTF8);
+        return hash32(bytes, 0, bytes.length, seed);
+    }
+
+    public static int hash32(byte[] data, int offset, int length, int seed) {
+        int h = seed;
+        int end = offset + (length & ~3);
+        for (int i = offset; i < end; i += 4) {
+            int k = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16) | (data[i + 3] << 24);
+            h ^= mixK(k);
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+
+        int k = 0;
+        switch (length & 3) {
+            case 3:
+                k = (data[end + 2] & 0xff) << 16;
+                //fall through
+            case 2:
+                k |= (data[end + 1] & 0xff) << 8;
+                //fall through
+            case 1:
+                k |= data[end] & 0xff;
+                h ^= mixK(k);
+        }
+
+        h ^= length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixK(int k) {
+        k *= C1;
+        k = Integer.rotateLeft(k, 15);
+        return k * C2;
+    }
+}
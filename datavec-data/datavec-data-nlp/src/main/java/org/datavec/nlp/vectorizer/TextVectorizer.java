@@ -20,19 +20,21 @@ import org.datavec.api.berkeley.Counter;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.util.Index;
 import org.datavec.api.vector.Vectorizer;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
+import org.datavec.nlp.metadata.ConcurrentVocabCache;
 import org.datavec.nlp.metadata.DefaultVocabCache;
 import org.datavec.nlp.metadata.VocabCache;
 import org.datavec.nlp.stopwords.StopWords;
 import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
 import org.datavec.nlp.tokenization.tokenizerfactory.TokenizerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.util.Collection;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Baseline text vectorizer that includes some common elements
@@ -48,13 +50,30 @@ public abstract class TextVectorizer<VECTOR_TYPE> implements Vectorizer<VECTOR_T
     public final static String STOP_WORDS = "org.nd4j.nlp.stopwords";
     public final static String TOKENIZER = "org.datavec.nlp.tokenizerfactory";
     public final static String VOCAB_CACHE = "org.datavec.nlp.vocabcache";
+    /**
+     * Number of worker threads used to tokenize documents in {@link #fit(RecordReader, RecordCallBack)}. Default: 1.
+     * Note that the vocab order of a parallel fit differs from that of a serial fit (see
+     * {@link #fitParallel(RecordReader, RecordCallBack)})
+     */
+    public final static String NUM_WORKERS = "org.datavec.nlp.vectorizer.numworkers";
+    /** Max number of records read ahead of the workers, when NUM_WORKERS > 1. Default: 16 per worker */
+    public final static String QUEUE_CAPACITY = "org.datavec.nlp.vectorizer.queuecapacity";
+    private static final int VOCAB_FORMAT_VERSION = 1;
+    private static final Record END_OF_INPUT =
+                    new org.datavec.api.records.impl.Record(Collections.<Writable>emptyList(), null);
     protected Collection<String> stopWords;
     protected VocabCache cache;
+    protected Configuration conf;
+    protected int numWorkers = 1;
+    protected int queueCapacity;
 
     @Override
     public void initialize(Configuration conf) {
+        this.conf = conf;
         tokenizerFactory = createTokenizerFactory(conf);
         minWordFrequency = conf.getInt(MIN_WORD_FREQUENCY, 5);
+        numWorkers = conf.getInt(NUM_WORKERS, 1);
+        queueCapacity = conf.getInt(QUEUE_CAPACITY, 16 * numWorkers);
         stopWords = conf.getStringCollection(STOP_WORDS);
         if (stopWords == null || stopWords.isEmpty())
             stopWords = StopWords.getStopWords();
@@ -74,8 +93,16 @@ public abstract class TextVectorizer<VECTOR_TYPE> implements Vectorizer<VECTOR_T
         fit(reader, null);
     }
 
+    /**
+     * Fit the vectorizer: count the words in all documents. If {@link #NUM_WORKERS} is greater than 1, documents are
+     * tokenized in parallel (see {@link #fitParallel(RecordReader, RecordCallBack)})
+     */
     @Override
     public void fit(RecordReader reader, RecordCallBack callBack) {
+        if (numWorkers > 1) {
+            fitParallel(reader, callBack);
+            return;
+        }
         while (reader.hasNext()) {
             Record record = reader.nextRecord();
             String s = toString(record.getRecord());
@@ -90,6 +117,175 @@ public abstract class TextVectorizer<VECTOR_TYPE> implements Vectorizer<VECTOR_T
     }
 
 
+    /**
+     * Parallel fit: records are read on the calling thread (which also calls the callback, in reader order) and
+     * passed to {@link #NUM_WORKERS} worker threads through a bounded queue, so the reader blocks when it gets more
+     * than {@link #QUEUE_CAPACITY} records ahead of the workers.<br>
+     * Each worker creates its own tokenizer factory (via {@link #createTokenizerFactory(Configuration)}, called on the
+     * worker thread), as tokenizers such as the UIMA-based tokenizers are not thread safe, and counts words into its
+     * own table. The tables are merged into the vocab cache at the end; words are added to the cache in order of
+     * decreasing frequency (then alphabetically), so the vocab order does not depend on thread scheduling.<br>
+     * This is <i>not</i> the vocab order of a serial fit, where words are added in the order they reach the minimum
+     * word frequency: the vocab words and their counts are the same, but their indices (and hence the vector
+     * columns) differ. Use {@link #saveVocabulary(File)} and {@link #loadVocabulary(File)} to reuse a vocabulary.
+     *
+     * @throws UnsupportedOperationException if this vectorizer does not support parallel fit (see
+     *                                       {@link #parallelFitSupported()})
+     */
+    protected void fitParallel(RecordReader reader, RecordCallBack callBack) {
+        //Check before any threads are started or records read
+        if (!parallelFitSupported())
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support parallel fit ("
+                            + NUM_WORKERS + " = " + numWorkers + ")");
+        final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(numWorkers);
+        List<Future<ConcurrentVocabCache>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < numWorkers; i++) {
+                futures.add(executor.submit(new Callable<ConcurrentVocabCache>() {
+                    @Override
+                    public ConcurrentVocabCache call() throws Exception {
+                        try {
+                            //No words are added to the vocab of the per-worker tables: only the counts are needed
+                            ConcurrentVocabCache counts = new ConcurrentVocabCache(Integer.MAX_VALUE, 1);
+                            TokenizerFactory workerTokenizerFactory = createTokenizerFactory(conf);
+                            Record record;
+                            while ((record = queue.take()) != END_OF_INPUT) {
+                                counts.incrementNumDocs(1);
+                                String s = TextVectorizer.this.toString(record.getRecord());
+                                doWithTokens(workerTokenizerFactory.create(s), counts);
+                            }
+                            return counts;
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t);
+                            throw t;
+                        }
+                    }
+                }));
+            }
+
+            while (reader.hasNext()) {
+                Record record = reader.nextRecord();
+                put(queue, record, failure);
+                if (callBack != null)
+                    callBack.onRecord(record);
+            }
+            for (int i = 0; i < numWorkers; i++) {
+                put(queue, END_OF_INPUT, failure);
+            }
+
+            ConcurrentVocabCache total = new ConcurrentVocabCache(Integer.MAX_VALUE);
+            for (Future<ConcurrentVocabCache> f : futures) {
+                total.merge(f.get());
+            }
+            mergeIntoCache(total);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during parallel fit", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error tokenizing documents during parallel fit", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void put(BlockingQueue<Record> queue, Record record, AtomicReference<Throwable> failure)
+                    throws InterruptedException {
+        while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+            //Don't block forever if the workers have stopped
+            if (failure.get() != null)
+                throw new RuntimeException("Error tokenizing documents during parallel fit", failure.get());
+        }
+    }
+
+    private void mergeIntoCache(final ConcurrentVocabCache counts) {
+        List<String> words = counts.words();
+        final Map<String, Double> frequencies = new HashMap<>(words.size() * 2);
+        for (String word : words) {
+            frequencies.put(word, counts.wordFrequency(word));
+        }
+        Collections.sort(words, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                int c = Double.compare(frequencies.get(o2), frequencies.get(o1));
+                return c != 0 ? c : o1.compareTo(o2);
+            }
+        });
+
+        cache.incrementNumDocs(counts.numDocs());
+        for (String word : words) {
+            cache.incrementCount(word, frequencies.get(word));
+            cache.incrementDocCount(word, counts.idf(word));
+        }
+    }
+
+    /**
+     * Save the vocabulary (the vocab words in index order, along with their word and document frequencies, and the
+     * number of documents) so that a later {@link #loadVocabulary(File)} can be used instead of fitting again
+     *
+     * @param file File to save the vocabulary to
+     */
+    public void saveVocabulary(File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            Index vocab = cache.vocabWords();
+            int n = vocab.size();
+            dos.writeInt(VOCAB_FORMAT_VERSION);
+            dos.writeDouble(cache.numDocs());
+            dos.writeInt(cache.minWordFrequency());
+            dos.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                String word = cache.wordAt(i);
+                dos.writeUTF(word);
+                dos.writeDouble(cache.wordFrequency(word));
+                dos.writeDouble(cache.idf(word));
+            }
+        }
+    }
+
+    /**
+     * Load a vocabulary saved with {@link #saveVocabulary(File)}, instead of fitting. The vectorizer must be
+     * initialized (but not fit) first.
+     *
+     * @param file File to load the vocabulary from
+     */
+    public void loadVocabulary(File file) throws IOException {
+        if (cache == null)
+            throw new IllegalStateException("Cannot load vocabulary: vectorizer has not been initialized");
+        if (cache.vocabWords().size() > 0)
+            throw new IllegalStateException("Cannot load vocabulary: vocabulary is not empty");
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int version = dis.readInt();
+            if (version != VOCAB_FORMAT_VERSION)
+                throw new IOException("Unknown vocabulary format version: " + version);
+            cache.incrementNumDocs(dis.readDouble());
+            int minWordFrequency = dis.readInt();
+            if (cache instanceof ConcurrentVocabCache)
+                ((ConcurrentVocabCache) cache).setMinWordFrequency(minWordFrequency);
+            else if (cache instanceof DefaultVocabCache)
+                ((DefaultVocabCache) cache).setMinWordFrequency(minWordFrequency);
+            int n = dis.readInt();
+            for (int i = 0; i < n; i++) {
+                String word = dis.readUTF();
+                cache.incrementCount(word, dis.readDouble());
+                cache.incrementDocCount(word, dis.readDouble());
+                if (cache.vocabWords().indexOf(word) != i) {
+                    throw new IllegalStateException("Could not load vocabulary: word \"" + word + "\" was not "
+                                    + "added to the vocab cache at index " + i
+                                    + " (cache minimum word frequency differs from saved vocabulary?)");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The vocab cache used by this vectorizer
+     */
+    public VocabCache getCache() {
+        return cache;
+    }
+
     protected Counter<String> wordFrequenciesForRecord(Collection<Writable> record) {
         String s = toString(record);
         Tokenizer tokenizer = tokenizerFactory.create(s);
@@ -123,6 +319,25 @@ public abstract class TextVectorizer<VECTOR_TYPE> implements Vectorizer<VECTOR_T
      */
     public abstract void doWithTokens(Tokenizer tokenizer);
 
+    /**
+     * Increment counts in the given vocab cache (rather than this vectorizer's cache). Used by the parallel fit, with
+     * a separate cache for each worker; must be thread safe. Vectorizers that implement this method also override
+     * {@link #parallelFitSupported()}
+     * @param tokenizer the tokenizer for the document
+     * @param cache the cache to count the tokens in
+     */
+    public void doWithTokens(Tokenizer tokenizer, VocabCache cache) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support parallel fit");
+    }
+
+    /**
+     * @return True if this vectorizer can be fit with more than one worker. False by default: vectorizers that
+     * implement {@link #doWithTokens(Tokenizer, VocabCache)} override this to return true
+     */
+    protected boolean parallelFitSupported() {
+        return false;
+    }
+
     /**
      * Create tokenizer factory based on the configuration
      * @param conf the configuration to use
@@ -21,6 +21,8 @@ import org.datavec.api.berkeley.Counter;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaDataURI;
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.util.Index;
+import org.datavec.api.writable.SparseArrayWritable;
 import org.datavec.common.data.NDArrayWritable;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
@@ -39,14 +41,50 @@ public class TfidfVectorizer extends AbstractTfidfVectorizer<INDArray> {
     @Override
     public INDArray createVector(Object[] args) {
         Counter<String> docFrequencies = (Counter<String>) args[0];
+        //Only words in the document can have non-zero values: no need to look up every vocab word
+        SparseArrayWritable sparse = createSparseVector(docFrequencies);
         double[] vector = new double[cache.vocabWords().size()];
-        for (int i = 0; i < cache.vocabWords().size(); i++) {
-            double freq = docFrequencies.getCount(cache.wordAt(i));
-            vector[i] = cache.tfidf(cache.wordAt(i), freq);
+        int[] indices = sparse.getIndices();
+        double[] values = sparse.getValues();
+        for (int i = 0; i < indices.length; i++) {
+            vector[indices[i]] = values[i];
         }
         return Nd4j.create(vector);
     }
 
+    /**
+     * Create a sparse TF-IDF vector (with length equal to the vocabulary size) from the word counts of a document.
+     * Only non-zero values are stored.
+     *
+     * @param wordFrequencies Number of times each word appears in the document
+     */
+    public SparseArrayWritable createSparseVector(Counter<String> wordFrequencies) {
+        Index vocab = cache.vocabWords();
+        int[] indices = new int[wordFrequencies.size()];
+        int n = 0;
+        for (String word : wordFrequencies.keySet()) {
+            int idx = vocab.indexOf(word);
+            if (idx >= 0) {
+                indices[n++] = idx;
+            }
+        }
+        Arrays.sort(indices, 0, n);
+
+        int[] outIndices = new int[n];
+        double[] outValues = new double[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            String word = cache.wordAt(indices[i]);
+            double value = cache.tfidf(word, wordFrequencies.getCount(word));
+            if (value != 0.0) {
+                outIndices[count] = indices[i];
+                outValues[count++] = value;
+            }
+        }
+        return new SparseArrayWritable(vocab.size(), Arrays.copyOf(outIndices, count),
+                        Arrays.copyOf(outValues, count));
+    }
+
     @Override
     public INDArray fitTransform(RecordReader reader) {
         return fitTransform(reader, null);
@@ -86,4 +124,14 @@ public class TfidfVectorizer extends AbstractTfidfVectorizer<INDArray> {
         Counter<String> wordFrequencies = wordFrequenciesForRecord(record.getRecord());
         return createVector(new Object[] {wordFrequencies});
     }
+
+    /**
+     * Transform a record into a sparse TF-IDF vector
+     *
+     * @param record the record to transform
+     * @return the sparse vector, with length equal to the vocabulary size
+     */
+    public SparseArrayWritable transformSparse(Record record) {
+        return createSparseVector(wordFrequenciesForRecord(record.getRecord()));
+    }
 }
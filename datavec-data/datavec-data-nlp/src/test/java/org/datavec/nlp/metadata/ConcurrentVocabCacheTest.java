@@ -0,0 +1,163 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.metadata;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentVocabCacheTest {
+
+    @Test
+    public void testStringIntDictionary() {
+        StringIntDictionary dict = new StringIntDictionary();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, dict.getOrAdd("word" + i));
+        }
+        assertEquals(10000, dict.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, dict.get("word" + i));
+            assertEquals(i, dict.getOrAdd("word" + i));
+            assertEquals("word" + i, dict.key(i));
+        }
+        assertEquals(-1, dict.get("other"));
+        assertEquals(10000, dict.size());
+
+        dict.clear();
+        assertEquals(0, dict.size());
+        assertEquals(-1, dict.get("word0"));
+        assertEquals(0, dict.getOrAdd("word1"));
+    }
+
+    @Test
+    public void testConcurrentCounting() throws Exception {
+        final int numThreads = 8;
+        final List<List<String>> docs = new ArrayList<>();
+        Random r = new Random(12345);
+        for (int i = 0; i < 2000; i++) {
+            List<String> doc = new ArrayList<>();
+            for (int j = 0; j < 50; j++) {
+                //Skewed distribution: a few common words, many rare words
+                doc.add("w" + (int) Math.pow(r.nextInt(1000), 2) / 100);
+            }
+            docs.add(doc);
+        }
+
+        DefaultVocabCache expected = new DefaultVocabCache(3);
+        for (List<String> doc : docs) {
+            count(expected, doc);
+        }
+
+        final ConcurrentVocabCache cache = new ConcurrentVocabCache(3, 4);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = thread; i < docs.size(); i += numThreads) {
+                        count(cache, docs.get(i));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(expected.numDocs(), cache.numDocs(), 0.0);
+        assertEquals(expected.vocabWords().size(), cache.vocabWords().size());
+        Set<String> vocab = new HashSet<>();
+        for (int i = 0; i < cache.vocabWords().size(); i++) {
+            String word = cache.wordAt(i);
+            assertTrue(vocab.add(word));
+            assertTrue(expected.vocabWords().indexOf(word) >= 0);
+            assertEquals(expected.wordFrequency(word), cache.wordFrequency(word), 0.0);
+            assertEquals(expected.idf(word), cache.idf(word), 0.0);
+            assertEquals(expected.tfidf(word, 2), cache.tfidf(word, 2), 1e-12);
+        }
+    }
+
+    private static void count(VocabCache cache, List<String> doc) {
+        cache.incrementNumDocs(1);
+        Set<String> seen = new HashSet<>();
+        for (String word : doc) {
+            cache.incrementCount(word);
+            if (seen.add(word))
+                cache.incrementDocCount(word);
+        }
+    }
+
+    @Test
+    public void testPruneSaveLoad() throws Exception {
+        ConcurrentVocabCache cache = new ConcurrentVocabCache(2);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j <= i % 5; j++) {
+                cache.incrementCount("word" + i);
+            }
+            cache.incrementDocCount("word" + i, 1 + i % 3);
+        }
+        cache.incrementNumDocs(10);
+        //Counts 1 to 5: 20 words each
+        assertEquals(100, cache.numWords());
+        assertEquals(80, cache.vocabWords().size());
+
+        //Below min word frequency: vocab is unchanged
+        assertEquals(20, cache.prune(2));
+        assertEquals(80, cache.numWords());
+        assertEquals(80, cache.vocabWords().size());
+        assertEquals(0.0, cache.wordFrequency("word0"), 0.0);
+
+        File f = File.createTempFile("vocabcache", ".bin");
+        f.deleteOnExit();
+        cache.save(f);
+        ConcurrentVocabCache loaded = ConcurrentVocabCache.load(f);
+        assertEquals(cache.numWords(), loaded.numWords());
+        assertEquals(cache.numDocs(), loaded.numDocs(), 0.0);
+        assertEquals(cache.minWordFrequency(), loaded.minWordFrequency());
+        assertEquals(cache.vocabWords().size(), loaded.vocabWords().size());
+        for (int i = 0; i < cache.vocabWords().size(); i++) {
+            String word = cache.wordAt(i);
+            assertEquals(word, loaded.wordAt(i));
+            assertEquals(cache.wordFrequency(word), loaded.wordFrequency(word), 0.0);
+            assertEquals(cache.idf(word), loaded.idf(word), 0.0);
+        }
+
+        //Above min word frequency: vocab is reduced, keeping order
+        List<String> before = new ArrayList<>();
+        for (int i = 0; i < loaded.vocabWords().size(); i++) {
+            if (loaded.wordFrequency(loaded.wordAt(i)) >= 4)
+                before.add(loaded.wordAt(i));
+        }
+        assertEquals(40, loaded.prune(4));
+        assertEquals(4, loaded.minWordFrequency());
+        assertEquals(before.size(), loaded.vocabWords().size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i), loaded.wordAt(i));
+        }
+    }
+}
@@ -21,17 +21,22 @@ import org.datavec.api.records.Record;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.SparseArrayWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.data.NDArrayWritable;
 import org.datavec.nlp.vectorizer.TfidfVectorizer;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Adam Gibson
@@ -100,4 +105,73 @@ public class TfidfRecordReaderTest {
         assertEquals(record.getRecord().get(1), reread.getRecord().get(1));
         assertEquals(record.getMetaData(), reread.getMetaData());
     }
+
+    @Test
+    public void testStreamingReader() throws Exception {
+        Configuration conf = new Configuration();
+        conf.setInt(TfidfVectorizer.MIN_WORD_FREQUENCY, 1);
+        conf.setBoolean(RecordReader.APPEND_LABEL, true);
+        TfidfRecordReader reader = new TfidfRecordReader();
+        reader.initialize(conf, new FileSplit(new ClassPathResource("labeled").getFile()));
+        List<Record> dense = new ArrayList<>();
+        while (reader.hasNext())
+            dense.add(reader.nextRecord());
+
+        Configuration streamingConf = new Configuration(conf);
+        streamingConf.setBoolean(TfidfRecordReader.STREAMING, true);
+        TfidfRecordReader streamingReader = new TfidfRecordReader();
+        streamingReader.initialize(streamingConf, new FileSplit(new ClassPathResource("labeled").getFile()));
+        assertEquals(reader.getNumFeatures(), streamingReader.getNumFeatures());
+
+        for (int pass = 0; pass < 2; pass++) {
+            int count = 0;
+            while (streamingReader.hasNext()) {
+                Record record = streamingReader.nextRecord();
+                Record expected = dense.get(count++);
+                assertEquals(expected.getMetaData(), record.getMetaData());
+                assertEquals(expected.getRecord().get(1), record.getRecord().get(1));
+
+                NDArrayWritable denseVector = (NDArrayWritable) expected.getRecord().get(0);
+                SparseArrayWritable sparseVector = (SparseArrayWritable) record.getRecord().get(0);
+                assertEquals(denseVector.get().length(), sparseVector.length());
+                assertTrue(sparseVector.numStored() < sparseVector.length());
+                for (int i = 0; i < sparseVector.length(); i++) {
+                    assertEquals(denseVector.get().getDouble(i), sparseVector.getDouble(i), 1e-6);
+                }
+
+                assertEquals(record.getRecord(), streamingReader.loadFromMetaData(record.getMetaData()).getRecord());
+            }
+            assertEquals(3, count);
+            streamingReader.reset();
+        }
+    }
+
+    @Test
+    public void testVocabularySaveLoad() throws Exception {
+        File vocabFile = File.createTempFile("vocab", ".bin");
+        vocabFile.delete();
+        vocabFile.deleteOnExit();
+
+        Configuration conf = new Configuration();
+        conf.setInt(TfidfVectorizer.MIN_WORD_FREQUENCY, 1);
+        conf.setBoolean(RecordReader.APPEND_LABEL, true);
+        conf.set(TfidfRecordReader.VOCABULARY_FILE, vocabFile.getAbsolutePath());
+
+        //First reader: fits and saves the vocabulary. Second reader: loads the vocabulary
+        TfidfRecordReader reader = new TfidfRecordReader();
+        reader.initialize(conf, new FileSplit(new ClassPathResource("labeled").getFile()));
+        assertTrue(vocabFile.exists());
+
+        TfidfRecordReader loaded = new TfidfRecordReader();
+        loaded.initialize(conf, new FileSplit(new ClassPathResource("labeled").getFile()));
+        assertEquals(reader.getTfidfVectorizer().getCache().vocabWords().size(),
+                        loaded.getTfidfVectorizer().getCache().vocabWords().size());
+        assertEquals(reader.getNumFeatures(), loaded.getNumFeatures());
+
+        while (reader.hasNext()) {
+            assertTrue(loaded.hasNext());
+            assertEquals(reader.next(), loaded.next());
+        }
+        assertTrue(!loaded.hasNext());
+    }
 }
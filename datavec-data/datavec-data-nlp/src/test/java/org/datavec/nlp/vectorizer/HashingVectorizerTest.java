@@ -0,0 +1,192 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.vectorizer;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseArrayWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.nlp.transforms.HashingVectorizerTransform;
+import org.datavec.nlp.transforms.SparseVectorMetaData;
+import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashingVectorizerTest {
+
+    @Test
+    public void testMurmurHash3() {
+        //Reference values for MurmurHash3_x86_32, seed 0
+        assertEquals(0, MurmurHash3.hash32("", 0));
+        assertEquals(0x248bfa47, MurmurHash3.hash32("hello", 0));
+        assertEquals(0x2e4ff723, MurmurHash3.hash32("The quick brown fox jumps over the lazy dog", 0));
+        assertEquals(0x514E28B7, MurmurHash3.hash32(new byte[0], 0, 0, 1));
+    }
+
+    private static HashingVectorizer vectorizer(int numFeatures, HashingVectorizer.TermFrequency tf, boolean signed,
+                    boolean idf) {
+        Configuration conf = new Configuration();
+        conf.setInt(HashingVectorizer.NUM_FEATURES, numFeatures);
+        conf.set(HashingVectorizer.TERM_FREQUENCY, tf.name());
+        conf.setBoolean(HashingVectorizer.SIGNED, signed);
+        conf.setBoolean(HashingVectorizer.IDF, idf);
+        HashingVectorizer vectorizer = new HashingVectorizer();
+        vectorizer.initialize(conf);
+        return vectorizer;
+    }
+
+    private static double expected(HashingVectorizer v, String token, double tf) {
+        int hash = MurmurHash3.hash32(token, 0);
+        return (v.isSigned() && hash < 0 ? -tf : tf);
+    }
+
+    @Test
+    public void testTermFrequencies() {
+        String text = "apple banana apple cherry apple banana";
+        for (HashingVectorizer.TermFrequency tf : HashingVectorizer.TermFrequency.values()) {
+            for (boolean signed : new boolean[] {false, true}) {
+                //Large number of features: no collisions for these tokens
+                HashingVectorizer v = vectorizer(1 << 20, tf, signed, false);
+                SparseArrayWritable sparse = v.transformSparse(text);
+                assertEquals(1 << 20, sparse.length());
+                assertEquals(3, sparse.numStored());
+
+                double[] counts = {3, 2, 1};
+                String[] tokens = {"apple", "banana", "cherry"};
+                for (int i = 0; i < tokens.length; i++) {
+                    double value;
+                    switch (tf) {
+                        case Binary:
+                            value = 1.0;
+                            break;
+                        case Sublinear:
+                            value = 1.0 + Math.log(counts[i]);
+                            break;
+                        default:
+                            value = counts[i];
+                    }
+                    int idx = v.index(MurmurHash3.hash32(tokens[i], 0));
+                    assertEquals(expected(v, tokens[i], value), sparse.getDouble(idx), 1e-12);
+                }
+
+                INDArray dense = v.createVector(new Object[] {text});
+                for (int i = 0; i < dense.length(); i += 997) {
+                    assertEquals(sparse.getDouble(i), dense.getDouble(i), 1e-6);
+                }
+                for (int idx : sparse.getIndices()) {
+                    assertEquals(sparse.getDouble(idx), dense.getDouble(idx), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCollisionsAndIdf() {
+        //Few features: many collisions. Values should equal the sum over the tokens mapped to each index
+        HashingVectorizer v = vectorizer(7, HashingVectorizer.TermFrequency.Raw, true, false);
+        String[] tokens = {"a1", "b2", "c3", "d4", "e5", "f6", "g7", "h8", "i9", "j10"};
+        double[] expected = new double[7];
+        for (String t : tokens) {
+            expected[v.index(MurmurHash3.hash32(t, 0))] += expected(v, t, 1.0);
+        }
+        SparseArrayWritable sparse = v.transformSparse(join(tokens));
+        for (int i = 0; i < 7; i++) {
+            assertEquals(expected[i], sparse.getDouble(i), 1e-12);
+        }
+
+        //IDF: fit on documents, then a token in every document has the minimum IDF (1.0)
+        HashingVectorizer idf = vectorizer(1 << 16, HashingVectorizer.TermFrequency.Raw, false, true);
+        List<List<Writable>> docs = new ArrayList<>();
+        docs.add(Collections.<Writable>singletonList(new Text("common rare1")));
+        docs.add(Collections.<Writable>singletonList(new Text("common rare2")));
+        docs.add(Collections.<Writable>singletonList(new Text("common other")));
+        idf.fit(new CollectionRecordReader(docs));
+        assertEquals(3, idf.numDocs());
+        int commonIdx = idf.index(MurmurHash3.hash32("common", 0));
+        int rareIdx = idf.index(MurmurHash3.hash32("rare1", 0));
+        assertEquals(1.0, idf.idf(commonIdx), 1e-12);
+        assertEquals(Math.log(4.0 / 2.0) + 1.0, idf.idf(rareIdx), 1e-12);
+        SparseArrayWritable out = idf.transformSparse("common rare1 rare1");
+        assertEquals(1.0, out.getDouble(commonIdx), 1e-12);
+        assertEquals(2 * (Math.log(2.0) + 1.0), out.getDouble(rareIdx), 1e-12);
+        //Not online: transforming does not change the estimate
+        assertEquals(3, idf.numDocs());
+    }
+
+    private static String join(String[] tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (String t : tokens) {
+            sb.append(t).append(" ");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testTransform() {
+        Schema schema = new Schema.Builder().addColumnString("text").addColumnInteger("label").build();
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .transform(new HashingVectorizerTransform("text", 1000)).build();
+
+        Schema outSchema = tp.getFinalSchema();
+        assertEquals(2, outSchema.numColumns());
+        assertTrue(outSchema.getMetaData(0) instanceof SparseVectorMetaData);
+        assertEquals(1000, ((SparseVectorMetaData) outSchema.getMetaData(0)).getLength());
+
+        List<Writable> out = tp.execute(Arrays.<Writable>asList(new Text("some text to featurize"), new IntWritable(3)));
+        assertEquals(2, out.size());
+        assertEquals(new IntWritable(3), out.get(1));
+        assertTrue(outSchema.getMetaData(0).isValid(out.get(0)));
+
+        HashingVectorizer v = vectorizer(1000, HashingVectorizer.TermFrequency.Raw, true, false);
+        assertEquals(v.transformSparse("some text to featurize"), out.get(0));
+    }
+
+    @Test
+    public void testTransformEqualsHashCode() {
+        //Term frequency missing (as in JSON without it): Raw, as for the 2 argument constructor
+        HashingVectorizerTransform t = new HashingVectorizerTransform("text", 1000);
+        HashingVectorizerTransform noTf = new HashingVectorizerTransform("text", 1000, null, true, null);
+        assertEquals(t, noTf);
+        assertEquals(t.hashCode(), noTf.hashCode());
+        assertEquals(t.map(new Text("some text")), noTf.map(new Text("some text")));
+
+        List<HashingVectorizerTransform> others = Arrays.asList(
+                        new HashingVectorizerTransform("text", 1000, HashingVectorizer.TermFrequency.Binary, true,
+                                        null),
+                        new HashingVectorizerTransform("text", 1000, HashingVectorizer.TermFrequency.Raw, false, null),
+                        new HashingVectorizerTransform("text", 1000, HashingVectorizer.TermFrequency.Raw, true,
+                                        DefaultTokenizerFactory.class.getName()));
+        for (HashingVectorizerTransform other : others) {
+            assertNotEquals(t, other);
+            assertNotEquals(t.hashCode(), other.hashCode());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.nlp.vectorizer;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.vector.Vectorizer;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.nlp.metadata.DefaultVocabCache;
+import org.datavec.nlp.metadata.VocabCache;
+import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
+import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.datavec.nlp.tokenization.tokenizerfactory.TokenizerFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TfidfVectorizerTest {
+
+    private static List<List<Writable>> documents() {
+        Random r = new Random(12345);
+        List<List<Writable>> docs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 30; j++) {
+                sb.append(" word").append(r.nextInt(200) * r.nextInt(200) / 200);
+            }
+            docs.add(Collections.<Writable>singletonList(new Text(sb.toString())));
+        }
+        return docs;
+    }
+
+    private static TfidfVectorizer fit(int numWorkers, final List<Record> recordsOut) {
+        Configuration conf = new Configuration();
+        conf.setInt(TfidfVectorizer.MIN_WORD_FREQUENCY, 2);
+        conf.setInt(TextVectorizer.NUM_WORKERS, numWorkers);
+        conf.setInt(TextVectorizer.QUEUE_CAPACITY, 4);
+        TfidfVectorizer vectorizer = new TfidfVectorizer();
+        vectorizer.initialize(conf);
+        vectorizer.fit(new CollectionRecordReader(documents()), new Vectorizer.RecordCallBack() {
+            @Override
+            public void onRecord(Record record) {
+                recordsOut.add(record);
+            }
+        });
+        return vectorizer;
+    }
+
+    @Test
+    public void testParallelFit() {
+        List<Record> sequentialRecords = new ArrayList<>();
+        VocabCache sequential = fit(1, sequentialRecords).getCache();
+        List<Record> parallelRecords = new ArrayList<>();
+        VocabCache parallel = fit(4, parallelRecords).getCache();
+        //Default cache, for both: fractional counts are kept
+        assertTrue(sequential instanceof DefaultVocabCache);
+        assertTrue(parallel instanceof DefaultVocabCache);
+
+        //Records are passed to the callback in reader order
+        assertEquals(sequentialRecords.size(), parallelRecords.size());
+        for (int i = 0; i < sequentialRecords.size(); i++) {
+            assertEquals(sequentialRecords.get(i).getRecord(), parallelRecords.get(i).getRecord());
+        }
+
+        assertEquals(sequential.numDocs(), parallel.numDocs(), 0.0);
+        assertEquals(sequential.vocabWords().size(), parallel.vocabWords().size());
+        assertTrue(parallel.vocabWords().size() > 0);
+        for (int i = 0; i < parallel.vocabWords().size(); i++) {
+            String word = parallel.wordAt(i);
+            assertTrue(sequential.vocabWords().indexOf(word) >= 0);
+            assertEquals(sequential.wordFrequency(word), parallel.wordFrequency(word), 0.0);
+            assertEquals(sequential.idf(word), parallel.idf(word), 0.0);
+            //Vocab is ordered by decreasing frequency
+            if (i > 0)
+                assertTrue(parallel.wordFrequency(parallel.wordAt(i - 1)) >= parallel.wordFrequency(word));
+        }
+
+        //Vocab order does not depend on thread scheduling
+        VocabCache parallel2 = fit(3, new ArrayList<Record>()).getCache();
+        assertEquals(parallel.vocabWords().size(), parallel2.vocabWords().size());
+        for (int i = 0; i < parallel.vocabWords().size(); i++) {
+            assertEquals(parallel.wordAt(i), parallel2.wordAt(i));
+        }
+    }
+
+    @Test
+    public void testParallelFitNotSupported() {
+        assertTrue(new TfidfVectorizer().parallelFitSupported());
+        assertFalse(new HashingVectorizer().parallelFitSupported());
+
+        Configuration conf = new Configuration();
+        conf.setInt(TextVectorizer.NUM_WORKERS, 4);
+        SerialOnlyVectorizer vectorizer = new SerialOnlyVectorizer();
+        vectorizer.initialize(conf);
+        assertFalse(vectorizer.parallelFitSupported());
+
+        RecordReader reader = new CollectionRecordReader(documents());
+        try {
+            vectorizer.fit(reader);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            //Expected - and thrown before any records are read
+            assertTrue(reader.hasNext());
+            reader.next();
+            assertTrue(reader.hasNext());
+        }
+    }
+
+    private static class SerialOnlyVectorizer extends TextVectorizer<Object> {
+        @Override
+        public void doWithTokens(Tokenizer tokenizer) {
+            while (tokenizer.hasMoreTokens())
+                cache.incrementCount(tokenizer.nextToken());
+        }
+
+        @Override
+        public TokenizerFactory createTokenizerFactory(Configuration conf) {
+            return new DefaultTokenizerFactory();
+        }
+
+        @Override
+        public Object createVector(Object[] args) {
+            return null;
+        }
+
+        @Override
+        public Object fitTransform(RecordReader reader) {
+            return null;
+        }
+
+        @Override
+        public Object fitTransform(RecordReader reader, RecordCallBack callBack) {
+            return null;
+        }
+
+        @Override
+        public Object transform(Record record) {
+            return null;
+        }
+    }
+}
@@ -49,6 +49,12 @@ public class SVMLightRecordReader extends LineRecordReader {
     }
 
 
+    @Override
+    public boolean batchesSupported() {
+        //Records are parsed by next(): read batches via next()
+        return false;
+    }
+
     /**
      * next() method for getting another K/V pair off disk from the SVMLight text file
      * 
@@ -0,0 +1,29 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.functions;
+
+import java.io.Serializable;
+
+/**
+ *
+ * A function that takes two inputs and returns zero or more output records.
+ *
+ * Adapter for Spark interface in order to freeze interface changes between spark versions
+ */
+public interface FlatMapFunction2Adapter<T1, T2, R> extends Serializable {
+    Iterable<R> call(T1 t1, T2 t2) throws Exception;
+}
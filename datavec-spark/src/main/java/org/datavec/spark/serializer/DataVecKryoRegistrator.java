@@ -0,0 +1,79 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.datavec.api.writable.*;
+import org.datavec.common.data.NDArrayWritable;
+import org.datavec.spark.transform.join.JoinKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+
+/**
+ * Kryo registrator for DataVec: registers compact serializers for the Writable classes
+ * ({@link WritableSerializers}), for records - i.e., List&lt;Writable&gt; - ({@link RecordSerializer}), and for join
+ * keys.<br>
+ * Usage: {@code conf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer")} and
+ * {@code conf.set("spark.kryo.registrator", DataVecKryoRegistrator.class.getName())}; or use
+ * {@link org.datavec.spark.transform.utils.SparkUtils#registerKryoClasses(org.apache.spark.SparkConf)}
+ */
+public class DataVecKryoRegistrator implements KryoRegistrator {
+
+    @Override
+    public void registerClasses(Kryo kryo) {
+        kryo.register(BooleanWritable.class, new WritableSerializers.BooleanWritableSerializer());
+        kryo.register(ByteWritable.class, new WritableSerializers.ByteWritableSerializer());
+        kryo.register(DoubleWritable.class, new WritableSerializers.DoubleWritableSerializer());
+        kryo.register(FloatWritable.class, new WritableSerializers.FloatWritableSerializer());
+        kryo.register(IntWritable.class, new WritableSerializers.IntWritableSerializer());
+        kryo.register(LongWritable.class, new WritableSerializers.LongWritableSerializer());
+        kryo.register(NullWritable.class, new WritableSerializers.NullWritableSerializer());
+        kryo.register(Text.class, new WritableSerializers.TextSerializer());
+        kryo.register(NDArrayWritable.class, new WritableSerializers.NDArrayWritableSerializer());
+
+        //Records may be any type of list; all are deserialized as ArrayLists
+        RecordSerializer recordSerializer = new RecordSerializer();
+        kryo.register(ArrayList.class, recordSerializer);
+        kryo.register(LinkedList.class, recordSerializer);
+        kryo.register(Arrays.asList().getClass(), recordSerializer);
+        kryo.register(Collections.singletonList(null).getClass(), recordSerializer);
+        kryo.register(Collections.unmodifiableList(new ArrayList<>()).getClass(), recordSerializer);
+
+        kryo.register(JoinKey.class, new JoinKeySerializer());
+    }
+
+    private static class JoinKeySerializer extends Serializer<JoinKey> {
+        @Override
+        public void write(Kryo kryo, Output output, JoinKey key) {
+            byte[] bytes = key.getBytes();
+            output.writeVarInt(bytes.length, true);
+            output.writeBytes(bytes);
+        }
+
+        @Override
+        public JoinKey read(Kryo kryo, Input input, Class<JoinKey> c) {
+            return new JoinKey(input.readBytes(input.readVarInt(true)));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kryo serializer for records (List&lt;Writable&gt;).<br>
+ * A record is written as: the number of values (varint), a type header with the type of each column packed into
+ * 4 bits (i.e., 2 columns per byte), and then the packed values (see {@link WritableSerializers}). The type header
+ * takes the place of the schema, so no class information is written per value.<br>
+ * As this serializer is registered for list classes in general, lists that contain anything other than
+ * (non-null) Writables are also supported: these are written as the elements' classes and values.<br>
+ * Lists are always deserialized as ArrayLists.
+ */
+public class RecordSerializer extends Serializer<List<?>> {
+
+    @Override
+    public void write(Kryo kryo, Output output, List<?> list) {
+        int n = list.size();
+        byte[] types = new byte[n];
+        boolean isRecord = true;
+        for (int i = 0; i < n; i++) {
+            Object o = list.get(i);
+            if (!(o instanceof Writable)) {
+                isRecord = false;
+                break;
+            }
+            types[i] = (byte) WritableSerializers.typeOf((Writable) o);
+        }
+
+        //Lowest bit: record (all Writables) vs. other list
+        output.writeVarInt((n << 1) | (isRecord ? 1 : 0), true);
+        if (!isRecord) {
+            for (Object o : list) {
+                kryo.writeClassAndObject(output, o);
+            }
+            return;
+        }
+
+        for (int i = 0; i < n; i += 2) {
+            int b = types[i];
+            if (i + 1 < n)
+                b |= types[i + 1] << 4;
+            output.writeByte(b);
+        }
+        for (int i = 0; i < n; i++) {
+            WritableSerializers.writeValue(kryo, output, types[i], (Writable) list.get(i));
+        }
+    }
+
+    @Override
+    public List<?> read(Kryo kryo, Input input, Class<List<?>> c) {
+        int header = input.readVarInt(true);
+        int n = header >>> 1;
+        boolean isRecord = (header & 1) != 0;
+
+        if (!isRecord) {
+            List<Object> out = new ArrayList<>(n);
+            kryo.reference(out);
+            for (int i = 0; i < n; i++) {
+                out.add(kryo.readClassAndObject(input));
+            }
+            return out;
+        }
+
+        List<Writable> out = new ArrayList<>(n);
+        kryo.reference(out);
+        byte[] types = input.readBytes((n + 1) / 2);
+        for (int i = 0; i < n; i++) {
+            int type = (types[i >> 1] >> ((i & 1) << 2)) & 0x0F;
+            out.add(WritableSerializers.readValue(kryo, input, type));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,246 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.*;
+import org.datavec.common.data.NDArrayWritable;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Kryo serializers for the DataVec {@link Writable} classes.<br>
+ * Values are written as packed primitives: ints and longs are zig-zag varint encoded (so small values of either sign
+ * take 1 or 2 bytes), Text is written as its length (varint) plus its UTF-8 bytes, and NDArrayWritable values are
+ * written with their shape (unlike {@link NDArrayWritable#write(java.io.DataOutput)}, which flattens the array).<br>
+ * The type ids and value encodings are shared with {@link RecordSerializer}.
+ */
+public class WritableSerializers {
+
+    static final int TYPE_NULL = 0;
+    static final int TYPE_INT = 1;
+    static final int TYPE_LONG = 2;
+    static final int TYPE_DOUBLE = 3;
+    static final int TYPE_FLOAT = 4;
+    static final int TYPE_TEXT = 5;
+    static final int TYPE_BOOLEAN = 6;
+    static final int TYPE_BYTE = 7;
+    static final int TYPE_NDARRAY = 8;
+    /** Any other Writable: written using Kryo (class and object) */
+    static final int TYPE_OTHER = 15;
+
+    private WritableSerializers() {}
+
+    /**
+     * @return The type id for the given writable (one of the TYPE_ constants, always in range 0 to 15)
+     */
+    static int typeOf(Writable w) {
+        Class<?> c = w.getClass();
+        if (c == IntWritable.class)
+            return TYPE_INT;
+        if (c == LongWritable.class)
+            return TYPE_LONG;
+        if (c == DoubleWritable.class)
+            return TYPE_DOUBLE;
+        if (c == Text.class)
+            return TYPE_TEXT;
+        if (c == NullWritable.class)
+            return TYPE_NULL;
+        if (c == FloatWritable.class)
+            return TYPE_FLOAT;
+        if (c == BooleanWritable.class)
+            return TYPE_BOOLEAN;
+        if (c == ByteWritable.class)
+            return TYPE_BYTE;
+        if (c == NDArrayWritable.class)
+            return TYPE_NDARRAY;
+        return TYPE_OTHER;
+    }
+
+    /**
+     * Write the value of the writable only (no type information), given its type id
+     */
+    static void writeValue(Kryo kryo, Output output, int type, Writable w) {
+        switch (type) {
+            case TYPE_NULL:
+                break;
+            case TYPE_INT:
+                output.writeVarInt(((IntWritable) w).get(), false);
+                break;
+            case TYPE_LONG:
+                output.writeVarLong(((LongWritable) w).get(), false);
+                break;
+            case TYPE_DOUBLE:
+                output.writeDouble(((DoubleWritable) w).get());
+                break;
+            case TYPE_FLOAT:
+                output.writeFloat(((FloatWritable) w).get());
+                break;
+            case TYPE_TEXT:
+                Text t = (Text) w;
+                output.writeVarInt(t.getLength(), true);
+                output.writeBytes(t.getBytes(), 0, t.getLength());
+                break;
+            case TYPE_BOOLEAN:
+                output.writeBoolean(((BooleanWritable) w).get());
+                break;
+            case TYPE_BYTE:
+                output.writeByte(((ByteWritable) w).get());
+                break;
+            case TYPE_NDARRAY:
+                writeNDArray(output, ((NDArrayWritable) w).get());
+                break;
+            default:
+                kryo.writeClassAndObject(output, w);
+        }
+    }
+
+    /**
+     * Read a value written by {@link #writeValue(Kryo, Output, int, Writable)}
+     */
+    static Writable readValue(Kryo kryo, Input input, int type) {
+        switch (type) {
+            case TYPE_NULL:
+                return NullWritable.INSTANCE;
+            case TYPE_INT:
+                return new IntWritable(input.readVarInt(false));
+            case TYPE_LONG:
+                return new LongWritable(input.readVarLong(false));
+            case TYPE_DOUBLE:
+                return new DoubleWritable(input.readDouble());
+            case TYPE_FLOAT:
+                return new FloatWritable(input.readFloat());
+            case TYPE_TEXT:
+                return new Text(input.readBytes(input.readVarInt(true)));
+            case TYPE_BOOLEAN:
+                return new BooleanWritable(input.readBoolean());
+            case TYPE_BYTE:
+                return new ByteWritable(input.readByte());
+            case TYPE_NDARRAY:
+                return new NDArrayWritable(readNDArray(input));
+            case TYPE_OTHER:
+                return (Writable) kryo.readClassAndObject(input);
+            default:
+                throw new KryoException("Invalid writable type id: " + type);
+        }
+    }
+
+    private static void writeNDArray(Output output, INDArray array) {
+        output.writeBoolean(array != null);
+        if (array == null)
+            return;
+        try {
+            Nd4j.write(array, new DataOutputStream(output));
+        } catch (IOException e) {
+            throw new KryoException(e);
+        }
+    }
+
+    private static INDArray readNDArray(Input input) {
+        if (!input.readBoolean())
+            return null;
+        try {
+            return Nd4j.read(new DataInputStream(input));
+        } catch (IOException e) {
+            throw new KryoException(e);
+        }
+    }
+
+    /**
+     * Base class for the serializers of a single Writable class
+     */
+    private abstract static class BaseWritableSerializer<T extends Writable> extends Serializer<T> {
+        private final int type;
+
+        protected BaseWritableSerializer(int type) {
+            this.type = type;
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, T object) {
+            writeValue(kryo, output, type, object);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T read(Kryo kryo, Input input, Class<T> c) {
+            return (T) readValue(kryo, input, type);
+        }
+    }
+
+    public static class IntWritableSerializer extends BaseWritableSerializer<IntWritable> {
+        public IntWritableSerializer() {
+            super(TYPE_INT);
+        }
+    }
+
+    public static class LongWritableSerializer extends BaseWritableSerializer<LongWritable> {
+        public LongWritableSerializer() {
+            super(TYPE_LONG);
+        }
+    }
+
+    public static class DoubleWritableSerializer extends BaseWritableSerializer<DoubleWritable> {
+        public DoubleWritableSerializer() {
+            super(TYPE_DOUBLE);
+        }
+    }
+
+    public static class FloatWritableSerializer extends BaseWritableSerializer<FloatWritable> {
+        public FloatWritableSerializer() {
+            super(TYPE_FLOAT);
+        }
+    }
+
+    public static class TextSerializer extends BaseWritableSerializer<Text> {
+        public TextSerializer() {
+            super(TYPE_TEXT);
+        }
+    }
+
+    public static class BooleanWritableSerializer extends BaseWritableSerializer<BooleanWritable> {
+        public BooleanWritableSerializer() {
+            super(TYPE_BOOLEAN);
+        }
+    }
+
+    public static class ByteWritableSerializer extends BaseWritableSerializer<ByteWritable> {
+        public ByteWritableSerializer() {
+            super(TYPE_BYTE);
+        }
+    }
+
+    public static class NullWritableSerializer extends BaseWritableSerializer<NullWritable> {
+        public NullWritableSerializer() {
+            super(TYPE_NULL);
+        }
+    }
+
+    public static class NDArrayWritableSerializer extends BaseWritableSerializer<NDArrayWritable> {
+        public NDArrayWritableSerializer() {
+            super(TYPE_NDARRAY);
+        }
+    }
+}
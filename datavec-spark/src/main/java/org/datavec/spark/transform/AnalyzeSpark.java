@@ -20,6 +20,7 @@ import org.apache.spark.api.java.JavaPairRDD;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.analysis.DataAnalysis;
 import org.datavec.api.transform.analysis.SequenceDataAnalysis;
+import org.datavec.api.transform.analysis.StreamingDataAnalysis;
 import org.datavec.api.transform.analysis.columns.*;
 import org.datavec.api.transform.quality.columns.*;
 import org.datavec.api.transform.metadata.*;
@@ -50,6 +51,8 @@ import org.datavec.spark.transform.analysis.SelectColumnFunction;
 import org.datavec.spark.transform.analysis.SequenceLengthFunction;
 import org.datavec.spark.transform.analysis.aggregate.AnalysisAddFunction;
 import org.datavec.spark.transform.analysis.aggregate.AnalysisCombineFunction;
+import org.datavec.spark.transform.analysis.aggregate.SketchAnalysisAddFunction;
+import org.datavec.spark.transform.analysis.aggregate.SketchAnalysisCombineFunction;
 import org.datavec.spark.transform.analysis.columns.BytesAnalysisCounter;
 import org.datavec.spark.transform.analysis.columns.IntegerAnalysisCounter;
 import org.datavec.spark.transform.analysis.columns.LongAnalysisCounter;
@@ -270,6 +273,28 @@ public class AnalyzeSpark {
         return new DataAnalysis(schema, list);
     }
 
+    public static DataAnalysis analyzeSketch(Schema schema, JavaRDD<List<Writable>> data) {
+        return analyzeSketch(schema, data, DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyze the data in a single pass, using mergeable sketches (see {@link StreamingDataAnalysis}).<br>
+     * Unlike {@link #analyze(Schema, JavaRDD, int)}, this does not cache the data or make a second pass to compute
+     * histograms, which makes it suitable for very large data sets. Numerical statistics (mean, variance, min/max and
+     * counts) are exact; histograms are derived from quantile sketches, and are approximate.
+     *
+     * @param schema              Schema of the data
+     * @param data                Data to analyze
+     * @param maxHistogramBuckets Number of histogram buckets for numerical and String columns
+     * @return                    Analysis of the data
+     */
+    public static DataAnalysis analyzeSketch(Schema schema, JavaRDD<List<Writable>> data, int maxHistogramBuckets) {
+        //Sketches are tens of KB per column: use a tree reduction, so the driver doesn't merge one per partition
+        StreamingDataAnalysis analysis = data.treeAggregate(new StreamingDataAnalysis(schema),
+                        new SketchAnalysisAddFunction(), new SketchAnalysisCombineFunction());
+        return analysis.toDataAnalysis(maxHistogramBuckets);
+    }
+
     /**
      * Randomly sample values from a single column
      *
@@ -20,7 +20,6 @@ import org.datavec.api.berkeley.Iterators;
 import org.datavec.spark.SequenceEmptyRecordFunction;
 import org.datavec.spark.functions.EmptyRecordFunction;
 import org.datavec.spark.transform.join.*;
-import org.datavec.spark.transform.misc.ColumnAsKeyPairFunction;
 import org.datavec.spark.transform.reduce.MapToPairForReducerFunction;
 import org.datavec.spark.transform.sequence.SparkMapToPairByColumnFunction;
 import org.datavec.spark.transform.transform.SequenceSplitFunction;
@@ -28,8 +27,12 @@ import org.datavec.spark.transform.sequence.SparkGroupToSequenceFunction;
 import org.datavec.spark.transform.sequence.SparkSequenceFilterFunction;
 import org.datavec.spark.transform.sequence.SparkSequenceTransformFunction;
 import org.apache.commons.math3.util.Pair;
+import org.apache.spark.HashPartitioner;
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.api.java.function.Function;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.transform.DataAction;
@@ -40,21 +43,34 @@ import org.datavec.api.transform.rank.CalculateSortedRank;
 import org.datavec.api.transform.sequence.ConvertToSequence;
 import org.datavec.api.transform.filter.Filter;
 import org.datavec.api.transform.reduce.IReducer;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.reduce.ReducerState;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.transform.sequence.SequenceSplit;
 import org.datavec.spark.transform.analysis.SequenceFlatMapFunction;
-import org.datavec.spark.transform.rank.UnzipForCalculateSortedRankFunction;
+import org.datavec.spark.transform.rank.CountByRankPartitionFunction;
+import org.datavec.spark.transform.rank.ExtractRankKeyFunction;
+import org.datavec.spark.transform.rank.RankKeyComparator;
+import org.datavec.spark.transform.rank.RankRangePartitioner;
+import org.datavec.spark.transform.rank.SampleRankKeysFunction;
+import org.datavec.spark.transform.rank.SortedRankPartitionFunction;
+import org.datavec.spark.transform.rank.SumLongArraysFunction;
 import org.datavec.spark.transform.filter.SparkFilterFunction;
+import org.datavec.spark.transform.reduce.ReducerCreateCombinerFunction;
 import org.datavec.spark.transform.reduce.ReducerFunction;
+import org.datavec.spark.transform.reduce.ReducerMergeCombinersFunction;
+import org.datavec.spark.transform.reduce.ReducerMergeValueFunction;
+import org.datavec.spark.transform.reduce.ReducerStateToOutputFunction;
 import org.datavec.spark.transform.transform.SparkTransformFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Tuple2;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Execute a datavec
@@ -254,7 +270,16 @@ public class SparkTransformExecutor {
                 JavaPairRDD<String, List<Writable>> pair =
                                 currentWritables.mapToPair(new MapToPairForReducerFunction(reducer));
 
-                currentWritables = pair.groupByKey().map(new ReducerFunction(reducer));
+                if (reducer instanceof Reducer && ((Reducer) reducer).isCombinable()) {
+                    //Built-in reduce ops: combine map-side, so only one compact partial state per key per partition
+                    //is shuffled, instead of every example
+                    Reducer r = (Reducer) reducer;
+                    JavaPairRDD<String, ReducerState> combined = pair.combineByKey(new ReducerCreateCombinerFunction(r),
+                                    new ReducerMergeValueFunction(r), new ReducerMergeCombinersFunction());
+                    currentWritables = combined.values().map(new ReducerStateToOutputFunction());
+                } else {
+                    currentWritables = pair.groupByKey().map(new ReducerFunction(reducer));
+                }
             } else if (d.getCalculateSortedRank() != null) {
                 CalculateSortedRank csr = d.getCalculateSortedRank();
 
@@ -264,17 +289,7 @@ public class SparkTransformExecutor {
                                                     + "Trying to execute a CalculateSortedRank operation on a sequence? (not currently supported)");
                 }
 
-                Comparator<Writable> comparator = csr.getComparator();
-                String sortColumn = csr.getSortOnColumn();
-                int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(sortColumn);
-                boolean ascending = csr.isAscending();
-                //NOTE: this likely isn't the most efficient implementation.
-                JavaPairRDD<Writable, List<Writable>> pairRDD =
-                                currentWritables.mapToPair(new ColumnAsKeyPairFunction(sortColumnIdx));
-                pairRDD = pairRDD.sortByKey(comparator, ascending);
-
-                JavaPairRDD<Tuple2<Writable, List<Writable>>, Long> zipped = pairRDD.zipWithIndex();
-                currentWritables = zipped.map(new UnzipForCalculateSortedRankFunction());
+                currentWritables = executeCalculateSortedRank(csr, currentWritables);
             } else {
                 throw new RuntimeException("Unknown/not implemented action: " + d);
             }
@@ -288,7 +303,51 @@ public class SparkTransformExecutor {
     }
 
     /**
-     * Execute a join on the specified data
+     * Execute a CalculateSortedRank operation.<br>
+     * Keys are sampled (one job) to build range partitions, and the number of examples in each range partition is
+     * counted (one job); both jobs are narrow (no shuffle). The examples are then shuffled into the range
+     * partitions, sorted within each partition (using a radix sort on primitive keys for the standard numerical
+     * comparators), and assigned ranks using the counts of the earlier partitions.<br>
+     * As the input is evaluated 3 times, it may be worth persisting it first if it is expensive to compute.
+     * Examples with equal keys are assigned distinct (consecutive) ranks.
+     */
+    private static JavaRDD<List<Writable>> executeCalculateSortedRank(CalculateSortedRank csr,
+                    JavaRDD<List<Writable>> input) {
+        int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(csr.getSortOnColumn());
+        RankKeyComparator comparator = new RankKeyComparator(csr.getComparator(), csr.isAscending());
+
+        JavaPairRDD<Object, List<Writable>> keyed = input.mapToPair(new ExtractRankKeyFunction(sortColumnIdx,
+                        comparator));
+        JavaRDD<Object> keys = keyed.keys();
+
+        //Sample the keys: approx. 20 keys per output partition (as per Spark's RangePartitioner), oversampled 3x
+        int numPartitions = Math.max(1, input.partitions().size());
+        int samplePerPartition = (int) Math.ceil(3.0 * Math.min(20.0 * numPartitions, 1e6) / numPartitions);
+        List<Tuple2<Long, List<Object>>> samples = keys
+                        .mapPartitionsWithIndex(new SampleRankKeysFunction(samplePerPartition, 12345L), false)
+                        .collect();
+        RankRangePartitioner partitioner = RankRangePartitioner.fromSamples(samples, numPartitions, comparator);
+
+        //Rank of the first example in each partition
+        long[] counts = keys.mapPartitionsWithIndex(new CountByRankPartitionFunction(partitioner), false)
+                        .reduce(new SumLongArraysFunction());
+        long[] offsets = new long[counts.length];
+        for (int i = 1; i < counts.length; i++) {
+            offsets[i] = offsets[i - 1] + counts[i - 1];
+        }
+
+        return keyed.partitionBy(partitioner).mapPartitionsWithIndex(
+                        new SortedRankPartitionFunction(offsets, comparator), true);
+    }
+
+    /**
+     * Execute a join on the specified data.<br>
+     * The join is executed using the {@link Join.Strategy} of the Join. With {@link Join.Strategy#Auto}, the side of
+     * the join that may be broadcast is broadcast if it has at most {@link Join#getBroadcastThreshold()} examples;
+     * otherwise, a sort-merge join is used. For Inner joins, the side with fewer partitions (right if equal) is the
+     * one considered for broadcast: the number of partitions is known without running a job, whereas comparing the
+     * number of examples would need a job for each side. Checking the size requires one Spark job, taking no more
+     * than threshold+1 examples; if the side is broadcast, the examples taken are the ones broadcast.
      *
      * @param join  Join to execute
      * @param left  Left data for join
@@ -303,19 +362,107 @@ public class SparkTransformExecutor {
         for (int i = 0; i < leftColumnNames.length; i++) {
             leftColumnIndexes[i] = join.getLeftSchema().getIndexOfColumn(leftColumnNames[i]);
         }
-        JavaPairRDD<List<Writable>, List<Writable>> leftJV = left.mapToPair(new ExtractKeysFunction(leftColumnIndexes));
 
         String[] rightColumnNames = join.getJoinColumnsRight();
         int[] rightColumnIndexes = new int[rightColumnNames.length];
         for (int i = 0; i < rightColumnNames.length; i++) {
             rightColumnIndexes[i] = join.getRightSchema().getIndexOfColumn(rightColumnNames[i]);
         }
-        JavaPairRDD<List<Writable>, List<Writable>> rightJV =
-                        right.mapToPair(new ExtractKeysFunction(rightColumnIndexes));
 
-        JavaPairRDD<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> cogroupedJV =
-                        leftJV.cogroup(rightJV);
+        Join.JoinType jt = join.getJoinType();
+        //Broadcasting the left side is only possible if the left examples don't need to be preserved; same for right
+        boolean canBroadcastLeft = (jt == Join.JoinType.Inner || jt == Join.JoinType.RightOuter);
+        boolean canBroadcastRight = (jt == Join.JoinType.Inner || jt == Join.JoinType.LeftOuter);
+
+        Join.Strategy strategy = join.getStrategy();
+        if (strategy == null) {
+            strategy = Join.Strategy.Auto;
+        }
+
+        switch (strategy) {
+            case CoGroup:
+                JavaPairRDD<JoinKey, List<Writable>> leftJV =
+                                left.mapToPair(new ExtractKeysFunction(leftColumnIndexes));
+                JavaPairRDD<JoinKey, List<Writable>> rightJV =
+                                right.mapToPair(new ExtractKeysFunction(rightColumnIndexes));
+
+                JavaPairRDD<JoinKey, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> cogroupedJV =
+                                leftJV.cogroup(rightJV);
+
+                return cogroupedJV.flatMap(new ExecuteJoinFromCoGroupFlatMapFunction(join));
+            case Broadcast:
+                if (canBroadcastRight) {
+                    return executeBroadcastHashJoin(join, left, right.collect(), true, leftColumnIndexes,
+                                    rightColumnIndexes);
+                } else if (canBroadcastLeft) {
+                    return executeBroadcastHashJoin(join, right, left.collect(), false, rightColumnIndexes,
+                                    leftColumnIndexes);
+                }
+                log.warn("Cannot execute {} join as a broadcast hash join: using sort-merge join instead", jt);
+                break;
+            case Auto:
+                int threshold = join.getBroadcastThreshold();
+                if (threshold <= 0 || !(canBroadcastLeft || canBroadcastRight)) {
+                    break;
+                }
+                //At most one job: only one side is checked
+                boolean broadcastRight = canBroadcastRight && (!canBroadcastLeft
+                                || right.partitions().size() <= left.partitions().size());
+                if (broadcastRight) {
+                    List<List<Writable>> rightExamples = right.take(threshold + 1);
+                    if (rightExamples.size() <= threshold) {
+                        return executeBroadcastHashJoin(join, left, rightExamples, true, leftColumnIndexes,
+                                        rightColumnIndexes);
+                    }
+                } else {
+                    List<List<Writable>> leftExamples = left.take(threshold + 1);
+                    if (leftExamples.size() <= threshold) {
+                        return executeBroadcastHashJoin(join, right, leftExamples, false, rightColumnIndexes,
+                                        leftColumnIndexes);
+                    }
+                }
+                break;
+            case SortMerge:
+                break;
+            default:
+                throw new UnsupportedOperationException("Unknown join strategy: " + strategy);
+        }
+
+        return executeSortMergeJoin(join, left, right, leftColumnIndexes, rightColumnIndexes);
+    }
+
+    private static JavaRDD<List<Writable>> executeBroadcastHashJoin(Join join, JavaRDD<List<Writable>> streamed,
+                    List<List<Writable>> broadcastExamples, boolean streamLeft, int[] streamedColumnIndexes,
+                    int[] broadcastColumnIndexes) {
+        Map<JoinKey, List<List<Writable>>> map = new HashMap<>();
+        for (List<Writable> example : broadcastExamples) {
+            JoinKey key = JoinKey.create(example, broadcastColumnIndexes);
+            List<List<Writable>> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                map.put(key, list);
+            }
+            list.add(example);
+        }
+
+        JavaSparkContext sc = JavaSparkContext.fromSparkContext(streamed.context());
+        Broadcast<Map<JoinKey, List<List<Writable>>>> broadcast = sc.broadcast(map);
+        return streamed.flatMap(
+                        new BroadcastHashJoinFlatMapFunction(join, broadcast, streamLeft, streamedColumnIndexes));
+    }
+
+    private static JavaRDD<List<Writable>> executeSortMergeJoin(Join join, JavaRDD<List<Writable>> left,
+                    JavaRDD<List<Writable>> right, int[] leftColumnIndexes, int[] rightColumnIndexes) {
+        //Both sides must use the same partitioner, so that partition i on the left contains the same keys as
+        //partition i on the right
+        Partitioner partitioner = new HashPartitioner(Math.max(left.partitions().size(), right.partitions().size()));
+
+        JavaPairRDD<JoinKey, List<Writable>> leftSorted = left.mapToPair(new ExtractKeysFunction(leftColumnIndexes))
+                        .repartitionAndSortWithinPartitions(partitioner);
+        JavaPairRDD<JoinKey, List<Writable>> rightSorted =
+                        right.mapToPair(new ExtractKeysFunction(rightColumnIndexes))
+                                        .repartitionAndSortWithinPartitions(partitioner);
 
-        return cogroupedJV.flatMap(new ExecuteJoinFromCoGroupFlatMapFunction(join));
+        return leftSorted.zipPartitions(rightSorted, new SortMergeJoinFlatMapFunction(join));
     }
 }
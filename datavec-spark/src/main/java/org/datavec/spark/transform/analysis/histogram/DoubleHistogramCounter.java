@@ -53,16 +53,18 @@ public class DoubleHistogramCounter implements HistogramCounter {
     public HistogramCounter add(Writable w) {
         double d = w.toDouble();
 
-        //Not super efficient, but linear search on 20-50 items should be good enough
-        int idx = -1;
-        for (int i = 0; i < nBins; i++) {
-            if (d >= bins[i] && d < bins[i + 1]) {
-                idx = i;
-                break;
-            }
+        //Bins are equal width: compute the index directly. Out of range values (and the max value itself) are
+        //counted in the first/last bins
+        int idx = nBins - 1;
+        if (maxValue > minValue && d < maxValue) {
+            idx = (int) ((d - minValue) / (maxValue - minValue) * nBins);
+            idx = Math.max(0, Math.min(nBins - 1, idx));
+            //Correct for rounding, so that bins[idx] <= d < bins[idx+1] as before
+            if (idx > 0 && d < bins[idx])
+                idx--;
+            else if (idx < nBins - 1 && d >= bins[idx + 1])
+                idx++;
         }
-        if (idx == -1)
-            idx = nBins - 1;
 
         binCounts[idx]++;
 
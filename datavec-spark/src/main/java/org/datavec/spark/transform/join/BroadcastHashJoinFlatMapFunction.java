@@ -0,0 +1,43 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Execute a broadcast hash join: the examples from one side of the join are streamed, and joined with the
+ * (broadcast) examples from the other side that have the same key
+ */
+public class BroadcastHashJoinFlatMapFunction extends BaseFlatMapFunctionAdaptee<List<Writable>, List<Writable>> {
+
+    /**
+     * @param join          Join to execute
+     * @param broadcast     Examples from the broadcast side of the join, grouped by key
+     * @param streamLeft    If true: the examples being streamed are from the left side of the join (otherwise right)
+     * @param columnIndexes Indexes of the key columns, for the streamed side
+     */
+    public BroadcastHashJoinFlatMapFunction(Join join, Broadcast<Map<JoinKey, List<List<Writable>>>> broadcast,
+                    boolean streamLeft, int[] columnIndexes) {
+        super(new BroadcastHashJoinFlatMapFunctionAdapter(join, broadcast, streamLeft, columnIndexes));
+    }
+}
@@ -0,0 +1,77 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Execute a broadcast hash join: the examples from one side of the join are streamed, and joined with the
+ * (broadcast) examples from the other side that have the same key
+ */
+public class BroadcastHashJoinFlatMapFunctionAdapter implements FlatMapFunctionAdapter<List<Writable>, List<Writable>> {
+
+    private final Join join;
+    private final Broadcast<Map<JoinKey, List<List<Writable>>>> broadcast;
+    private final boolean streamLeft;
+    private final int[] columnIndexes;
+    private final boolean keepUnmatched;
+
+    public BroadcastHashJoinFlatMapFunctionAdapter(Join join, Broadcast<Map<JoinKey, List<List<Writable>>>> broadcast,
+                    boolean streamLeft, int[] columnIndexes) {
+        this.join = join;
+        this.broadcast = broadcast;
+        this.streamLeft = streamLeft;
+        this.columnIndexes = columnIndexes;
+
+        Join.JoinType jt = join.getJoinType();
+        if (jt == Join.JoinType.FullOuter) {
+            throw new IllegalArgumentException("Cannot execute FullOuter join as a broadcast hash join");
+        }
+        if ((streamLeft && jt == Join.JoinType.RightOuter) || (!streamLeft && jt == Join.JoinType.LeftOuter)) {
+            throw new IllegalArgumentException("Cannot execute " + jt + " join by broadcasting the "
+                            + (streamLeft ? "right" : "left") + " examples");
+        }
+        //Streamed examples without a match are kept for the preserved side of an outer join
+        this.keepUnmatched = (jt != Join.JoinType.Inner);
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(List<Writable> example) throws Exception {
+        List<List<Writable>> matches = broadcast.getValue().get(JoinKey.create(example, columnIndexes));
+        if (matches == null) {
+            if (!keepUnmatched) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(streamLeft ? join.joinExamples(example, null)
+                            : join.joinExamples(null, example));
+        }
+
+        List<List<Writable>> ret = new ArrayList<>(matches.size());
+        for (List<Writable> m : matches) {
+            ret.add(streamLeft ? join.joinExamples(example, m) : join.joinExamples(m, example));
+        }
+        return ret;
+    }
+}
@@ -29,7 +29,7 @@ import java.util.List;
  * @author Alex Black
  */
 public class ExecuteJoinFromCoGroupFlatMapFunction extends
-                BaseFlatMapFunctionAdaptee<Tuple2<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>>, List<Writable>> {
+                BaseFlatMapFunctionAdaptee<Tuple2<JoinKey, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>>, List<Writable>> {
 
     public ExecuteJoinFromCoGroupFlatMapFunction(Join join) {
         super(new ExecuteJoinFromCoGroupFlatMapFunctionAdapter(join));
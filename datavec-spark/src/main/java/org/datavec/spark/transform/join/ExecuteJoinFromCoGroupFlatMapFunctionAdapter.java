@@ -1,6 +1,5 @@
 package org.datavec.spark.transform.join;
 
-import com.google.common.collect.Iterables;
 import org.datavec.api.transform.join.Join;
 import org.datavec.api.writable.Writable;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
@@ -15,7 +14,7 @@ import java.util.List;
  * @author Alex Black
  */
 public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
-                FlatMapFunctionAdapter<Tuple2<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>>, List<Writable>> {
+                FlatMapFunctionAdapter<Tuple2<JoinKey, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>>, List<Writable>> {
 
     private final Join join;
 
@@ -25,11 +24,14 @@ public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
 
     @Override
     public Iterable<List<Writable>> call(
-                    Tuple2<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> t2)
+                    Tuple2<JoinKey, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> t2)
                     throws Exception {
 
         Iterable<List<Writable>> leftList = t2._2()._1();
         Iterable<List<Writable>> rightList = t2._2()._2();
+        //Check emptiness once, rather than counting the (possibly large) groups for every example
+        boolean leftEmpty = !leftList.iterator().hasNext();
+        boolean rightEmpty = !rightList.iterator().hasNext();
 
         List<List<Writable>> ret = new ArrayList<>();
         Join.JoinType jt = join.getJoinType();
@@ -47,7 +49,7 @@ public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
             case LeftOuter:
                 //Return all records from left, even if no corresponding right value (NullWritable in that case)
                 for (List<Writable> jvl : leftList) {
-                    if (Iterables.size(rightList) == 0) {
+                    if (rightEmpty) {
                         List<Writable> joined = join.joinExamples(jvl, null);
                         ret.add(joined);
                     } else {
@@ -61,7 +63,7 @@ public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
             case RightOuter:
                 //Return all records from right, even if no corresponding left value (NullWritable in that case)
                 for (List<Writable> jvr : rightList) {
-                    if (Iterables.size(leftList) == 0) {
+                    if (leftEmpty) {
                         List<Writable> joined = join.joinExamples(null, jvr);
                         ret.add(joined);
                     } else {
@@ -74,13 +76,13 @@ public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
                 break;
             case FullOuter:
                 //Return all records, even if no corresponding left/right value (NullWritable in that case)
-                if (Iterables.size(leftList) == 0) {
+                if (leftEmpty) {
                     //Only right values
                     for (List<Writable> jvr : rightList) {
                         List<Writable> joined = join.joinExamples(null, jvr);
                         ret.add(joined);
                     }
-                } else if (Iterables.size(rightList) == 0) {
+                } else if (rightEmpty) {
                     //Only left values
                     for (List<Writable> jvl : leftList) {
                         List<Writable> joined = join.joinExamples(jvl, null);
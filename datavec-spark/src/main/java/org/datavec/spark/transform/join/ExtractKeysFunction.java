@@ -2,34 +2,22 @@ package org.datavec.spark.transform.join;
 
 import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.PairFunction;
-import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import scala.Tuple2;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
-/** Created by huitseeker on 3/6/17. */
+/**
+ * Extract the join key (as a compact binary {@link JoinKey}) from each example
+ *
+ * Created by huitseeker on 3/6/17.
+ */
 @AllArgsConstructor
-public class ExtractKeysFunction implements PairFunction<List<Writable>, List<Writable>, List<Writable>> {
+public class ExtractKeysFunction implements PairFunction<List<Writable>, JoinKey, List<Writable>> {
     private int[] columnIndexes;
 
     @Override
-    public Tuple2<List<Writable>, List<Writable>> call(List<Writable> writables) throws Exception {
-
-        Schema schema;
-
-        List<Writable> keyValues;
-        if (columnIndexes.length == 1) {
-            keyValues = Collections.singletonList(writables.get(columnIndexes[0]));
-        } else {
-            keyValues = new ArrayList<>(columnIndexes.length);
-            for (int i : columnIndexes) {
-                keyValues.add(writables.get(columnIndexes[i]));
-            }
-        }
-
-        return new Tuple2<>(keyValues, writables);
+    public Tuple2<JoinKey, List<Writable>> call(List<Writable> writables) throws Exception {
+        return new Tuple2<>(JoinKey.create(writables, columnIndexes), writables);
     }
 }
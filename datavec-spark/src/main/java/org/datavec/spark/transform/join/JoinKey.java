@@ -0,0 +1,124 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.datavec.api.writable.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary key for joins: the join column values of an example, serialized to a single byte array.<br>
+ * Two keys are equal if the values have the same Writable types and serialized values - i.e., the same as equality
+ * of the List&lt;Writable&gt; key values. Keys are ordered by unsigned lexicographic comparison of the bytes, which
+ * is an arbitrary (but consistent) order suitable for sort-merge joins.
+ */
+public class JoinKey implements Comparable<JoinKey>, Serializable {
+
+    private final byte[] bytes;
+    private final int hash;
+
+    public JoinKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Create the key for the given example
+     *
+     * @param example       Example to create the key for
+     * @param columnIndexes Indexes of the join columns
+     */
+    public static JoinKey create(List<Writable> example, int[] columnIndexes) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(8 * columnIndexes.length + 8);
+        DataOutputStream dos = new DataOutputStream(baos);
+        try {
+            for (int idx : columnIndexes) {
+                Writable w = example.get(idx);
+                int typeId = typeId(w);
+                dos.writeByte(typeId);
+                if (typeId == 0) {
+                    dos.writeUTF(w.getClass().getName());
+                }
+                w.write(dos);
+            }
+        } catch (IOException e) {
+            //Should never happen when writing to a byte array
+            throw new RuntimeException(e);
+        }
+        return new JoinKey(baos.toByteArray());
+    }
+
+    private static int typeId(Writable w) {
+        if (w instanceof IntWritable)
+            return 1;
+        if (w instanceof LongWritable)
+            return 2;
+        if (w instanceof DoubleWritable)
+            return 3;
+        if (w instanceof FloatWritable)
+            return 4;
+        if (w instanceof Text)
+            return 5;
+        if (w instanceof BooleanWritable)
+            return 6;
+        if (w instanceof ByteWritable)
+            return 7;
+        if (w instanceof NullWritable)
+            return 8;
+        return 0;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public int compareTo(JoinKey o) {
+        int n = Math.min(bytes.length, o.bytes.length);
+        for (int i = 0; i < n; i++) {
+            int c = (bytes[i] & 0xFF) - (o.bytes[i] & 0xFF);
+            if (c != 0)
+                return c;
+        }
+        return bytes.length - o.bytes.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof JoinKey))
+            return false;
+        JoinKey other = (JoinKey) o;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "JoinKey(" + Arrays.toString(bytes) + ")";
+    }
+}
@@ -0,0 +1,173 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunction2Adapter;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Execute a sort-merge join on a pair of co-partitioned partitions, each sorted by {@link JoinKey}.<br>
+ * Both sides are streamed: the only examples held in memory are the right examples for the current key.
+ * Note that the returned Iterable can only be iterated over once.
+ */
+public class SortMergeJoinFlatMapFunctionAdapter implements
+                FlatMapFunction2Adapter<Iterator<Tuple2<JoinKey, List<Writable>>>, Iterator<Tuple2<JoinKey, List<Writable>>>, List<Writable>> {
+
+    private final Join join;
+
+    public SortMergeJoinFlatMapFunctionAdapter(Join join) {
+        this.join = join;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(final Iterator<Tuple2<JoinKey, List<Writable>>> left,
+                    final Iterator<Tuple2<JoinKey, List<Writable>>> right) throws Exception {
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new SortMergeJoinIterator(join, left, right);
+            }
+        };
+    }
+
+    private static class SortMergeJoinIterator implements Iterator<List<Writable>> {
+        private final Join join;
+        private final Iterator<Tuple2<JoinKey, List<Writable>>> leftIter;
+        private final Iterator<Tuple2<JoinKey, List<Writable>>> rightIter;
+        private final boolean keepLeft;
+        private final boolean keepRight;
+
+        //Next (not yet consumed) example from each side; null if that side is exhausted
+        private Tuple2<JoinKey, List<Writable>> leftHead;
+        private Tuple2<JoinKey, List<Writable>> rightHead;
+
+        //Current key group: the left example being joined, and all right examples with the same key
+        private List<Writable> currentLeft;
+        private JoinKey currentKey;
+        private List<List<Writable>> rightGroup;
+        private int rightGroupIdx;
+
+        private List<Writable> next;
+
+        private SortMergeJoinIterator(Join join, Iterator<Tuple2<JoinKey, List<Writable>>> leftIter,
+                        Iterator<Tuple2<JoinKey, List<Writable>>> rightIter) {
+            this.join = join;
+            this.leftIter = leftIter;
+            this.rightIter = rightIter;
+            Join.JoinType jt = join.getJoinType();
+            this.keepLeft = (jt == Join.JoinType.LeftOuter || jt == Join.JoinType.FullOuter);
+            this.keepRight = (jt == Join.JoinType.RightOuter || jt == Join.JoinType.FullOuter);
+            this.leftHead = (leftIter.hasNext() ? leftIter.next() : null);
+            this.rightHead = (rightIter.hasNext() ? rightIter.next() : null);
+        }
+
+        private Tuple2<JoinKey, List<Writable>> advanceLeft() {
+            Tuple2<JoinKey, List<Writable>> t = leftHead;
+            leftHead = (leftIter.hasNext() ? leftIter.next() : null);
+            return t;
+        }
+
+        private Tuple2<JoinKey, List<Writable>> advanceRight() {
+            Tuple2<JoinKey, List<Writable>> t = rightHead;
+            rightHead = (rightIter.hasNext() ? rightIter.next() : null);
+            return t;
+        }
+
+        private List<Writable> computeNext() {
+            while (true) {
+                if (currentLeft != null) {
+                    if (rightGroupIdx < rightGroup.size()) {
+                        return join.joinExamples(currentLeft, rightGroup.get(rightGroupIdx++));
+                    }
+                    //Done with this left example: move on to the next left example with the same key, if any
+                    if (leftHead != null && leftHead._1().equals(currentKey)) {
+                        currentLeft = advanceLeft()._2();
+                        rightGroupIdx = 0;
+                        continue;
+                    }
+                    currentLeft = null;
+                    currentKey = null;
+                    rightGroup = null;
+                }
+
+                if (leftHead == null && (rightHead == null || !keepRight))
+                    return null;
+                if (rightHead == null && !keepLeft)
+                    return null;
+
+                int c;
+                if (leftHead == null) {
+                    c = 1;
+                } else if (rightHead == null) {
+                    c = -1;
+                } else {
+                    c = leftHead._1().compareTo(rightHead._1());
+                }
+
+                if (c < 0) {
+                    //Left example without any matching right examples
+                    List<Writable> l = advanceLeft()._2();
+                    if (keepLeft)
+                        return join.joinExamples(l, null);
+                } else if (c > 0) {
+                    //Right example without any matching left examples
+                    List<Writable> r = advanceRight()._2();
+                    if (keepRight)
+                        return join.joinExamples(null, r);
+                } else {
+                    //Matching keys: collect the right examples for this key, then stream the left examples
+                    currentKey = rightHead._1();
+                    rightGroup = new ArrayList<>();
+                    while (rightHead != null && rightHead._1().equals(currentKey)) {
+                        rightGroup.add(advanceRight()._2());
+                    }
+                    currentLeft = advanceLeft()._2();
+                    rightGroupIdx = 0;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            List<Writable> ret = next;
+            next = null;
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Not supported");
+        }
+    }
+}
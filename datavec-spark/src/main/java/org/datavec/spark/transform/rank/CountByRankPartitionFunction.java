@@ -0,0 +1,41 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function2;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Count the number of keys that will be assigned to each partition of a {@link RankRangePartitioner}
+ */
+@AllArgsConstructor
+public class CountByRankPartitionFunction implements Function2<Integer, Iterator<Object>, Iterator<long[]>> {
+
+    private final RankRangePartitioner partitioner;
+
+    @Override
+    public Iterator<long[]> call(Integer partitionIdx, Iterator<Object> keys) throws Exception {
+        long[] counts = new long[partitioner.numPartitions()];
+        while (keys.hasNext()) {
+            counts[partitioner.getPartition(keys.next())]++;
+        }
+        return Collections.singletonList(counts).iterator();
+    }
+}
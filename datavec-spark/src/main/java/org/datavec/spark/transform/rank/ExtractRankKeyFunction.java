@@ -0,0 +1,39 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.PairFunction;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.List;
+
+/**
+ * Extract the sort key (see {@link RankKeyComparator#toKey(Writable)}) for CalculateSortedRank
+ */
+@AllArgsConstructor
+public class ExtractRankKeyFunction implements PairFunction<List<Writable>, Object, List<Writable>> {
+
+    private final int sortColumnIdx;
+    private final RankKeyComparator comparator;
+
+    @Override
+    public Tuple2<Object, List<Writable>> call(List<Writable> writables) throws Exception {
+        return new Tuple2<>(comparator.toKey(writables.get(sortColumnIdx)), writables);
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import java.util.Arrays;
+
+/**
+ * Least significant digit radix sort for (signed) long keys
+ */
+public class LongRadixSort {
+
+    private static final int BITS = 8;
+    private static final int BUCKETS = 1 << BITS;
+
+    private LongRadixSort() {}
+
+    /**
+     * Sort the first n keys, returning the sorted order (as indexes into the keys array). The sort is stable: equal
+     * keys retain their original relative order. The keys array itself is not modified.
+     *
+     * @param keys Keys to sort
+     * @param n    Number of keys (from the start of the array) to sort
+     * @return Indexes of the keys, in ascending order of key
+     */
+    public static int[] argSort(long[] keys, int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = i;
+        }
+        int[] tmp = new int[n];
+        int[] counts = new int[BUCKETS + 1];
+
+        for (int shift = 0; shift < 64; shift += BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[digit(keys[i], shift) + 1]++;
+            }
+
+            //Skip this pass if all keys have the same digit (common for the high bits of small values)
+            boolean allSame = false;
+            for (int b = 1; b <= BUCKETS; b++) {
+                if (counts[b] == n) {
+                    allSame = true;
+                    break;
+                }
+            }
+            if (allSame)
+                continue;
+
+            for (int b = 0; b < BUCKETS; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int i = 0; i < n; i++) {
+                int j = idx[i];
+                tmp[counts[digit(keys[j], shift)]++] = j;
+            }
+            int[] t = idx;
+            idx = tmp;
+            tmp = t;
+        }
+        return idx;
+    }
+
+    private static int digit(long key, int shift) {
+        //Flip the sign bit, so that negative values sort before positive values
+        return (int) (((key ^ Long.MIN_VALUE) >>> shift) & (BUCKETS - 1));
+    }
+}
@@ -0,0 +1,120 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.comparator.*;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Sort keys for CalculateSortedRank.<br>
+ * For the standard numerical comparators ({@link IntWritableComparator}, {@link LongWritableComparator},
+ * {@link FloatWritableComparator} and {@link DoubleWritableComparator}), the keys are primitive longs, encoded such
+ * that the natural order of the longs matches the comparator (including descending order, if required). This allows
+ * keys to be compared without calling the comparator, and to be sorted with a radix sort.<br>
+ * For any other comparator, the keys are the Writables themselves, and are compared using the comparator.
+ */
+public class RankKeyComparator implements Comparator<Object>, Serializable {
+
+    private enum KeyType {
+        Int, Long, Float, Double, Writable
+    }
+
+    private final WritableComparator comparator;
+    private final boolean ascending;
+    private final KeyType keyType;
+
+    public RankKeyComparator(WritableComparator comparator, boolean ascending) {
+        this.comparator = comparator;
+        this.ascending = ascending;
+
+        //Exact class checks: subclasses may override the comparison
+        Class<?> c = comparator.getClass();
+        if (c == IntWritableComparator.class) {
+            keyType = KeyType.Int;
+        } else if (c == LongWritableComparator.class) {
+            keyType = KeyType.Long;
+        } else if (c == FloatWritableComparator.class) {
+            keyType = KeyType.Float;
+        } else if (c == DoubleWritableComparator.class) {
+            keyType = KeyType.Double;
+        } else {
+            keyType = KeyType.Writable;
+        }
+    }
+
+    /**
+     * @return True if keys are primitive longs; false if they are Writables
+     */
+    public boolean isPrimitive() {
+        return keyType != KeyType.Writable;
+    }
+
+    /**
+     * Get the sort key for the given value: a Long if {@link #isPrimitive()}, or the Writable otherwise
+     */
+    public Object toKey(Writable w) {
+        long key;
+        switch (keyType) {
+            case Int:
+                key = w.toInt();
+                break;
+            case Long:
+                key = w.toLong();
+                break;
+            case Float:
+                int fBits = Float.floatToIntBits(w.toFloat());
+                key = fBits ^ ((fBits >> 31) & 0x7FFFFFFF);
+                break;
+            case Double:
+                //Same order as Double.compare: -0.0 before 0.0, NaN after positive infinity
+                long dBits = Double.doubleToLongBits(w.toDouble());
+                key = dBits ^ ((dBits >> 63) & 0x7FFFFFFFFFFFFFFFL);
+                break;
+            default:
+                return w;
+        }
+        //~key reverses the order, without overflow
+        return ascending ? key : ~key;
+    }
+
+    @Override
+    public int compare(Object o1, Object o2) {
+        if (keyType != KeyType.Writable) {
+            return Long.compare((Long) o1, (Long) o2);
+        }
+        if (ascending) {
+            return comparator.compare((Writable) o1, (Writable) o2);
+        }
+        return comparator.compare((Writable) o2, (Writable) o1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RankKeyComparator))
+            return false;
+        RankKeyComparator other = (RankKeyComparator) o;
+        return ascending == other.ascending && keyType == other.keyType && comparator.equals(other.comparator);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * keyType.hashCode() + (ascending ? 1 : 0);
+    }
+}
@@ -0,0 +1,119 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.Partitioner;
+import scala.Tuple2;
+
+import java.util.*;
+
+/**
+ * Range partitioner for CalculateSortedRank: partition i contains keys that are (according to the
+ * {@link RankKeyComparator}) greater than bounds[i-1] and less than or equal to bounds[i]. Equal keys are always
+ * in the same partition.<br>
+ * Bounds are estimated from a sample of the keys; see {@link #fromSamples(List, int, RankKeyComparator)}
+ */
+public class RankRangePartitioner extends Partitioner {
+
+    private final Object[] bounds;
+    private final RankKeyComparator comparator;
+
+    public RankRangePartitioner(Object[] bounds, RankKeyComparator comparator) {
+        this.bounds = bounds;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Create a partitioner from per-partition samples of the keys
+     *
+     * @param samples       For each input partition: the total number of keys, and a uniform sample of those keys
+     * @param numPartitions Maximum number of partitions
+     * @param comparator    Comparator for the keys
+     */
+    public static RankRangePartitioner fromSamples(List<Tuple2<Long, List<Object>>> samples, int numPartitions,
+                    final RankKeyComparator comparator) {
+        //Each sampled key represents (partition count / partition sample size) keys
+        List<Tuple2<Object, Double>> weighted = new ArrayList<>();
+        double totalWeight = 0.0;
+        for (Tuple2<Long, List<Object>> t : samples) {
+            List<Object> sample = t._2();
+            if (sample.isEmpty())
+                continue;
+            double weight = t._1() / (double) sample.size();
+            for (Object key : sample) {
+                weighted.add(new Tuple2<>(key, weight));
+            }
+            totalWeight += weight * sample.size();
+        }
+        Collections.sort(weighted, new Comparator<Tuple2<Object, Double>>() {
+            @Override
+            public int compare(Tuple2<Object, Double> o1, Tuple2<Object, Double> o2) {
+                return comparator.compare(o1._1(), o2._1());
+            }
+        });
+
+        List<Object> bounds = new ArrayList<>();
+        double step = totalWeight / numPartitions;
+        double cumulative = 0.0;
+        Object last = null;
+        for (Tuple2<Object, Double> t : weighted) {
+            if (bounds.size() >= numPartitions - 1)
+                break;
+            cumulative += t._2();
+            if (cumulative >= step * (bounds.size() + 1)
+                            && (last == null || comparator.compare(t._1(), last) > 0)) {
+                bounds.add(t._1());
+                last = t._1();
+            }
+        }
+        return new RankRangePartitioner(bounds.toArray(), comparator);
+    }
+
+    @Override
+    public int numPartitions() {
+        return bounds.length + 1;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+        //Index of the first bound >= key
+        int lo = 0;
+        int hi = bounds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(bounds[mid], key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RankRangePartitioner))
+            return false;
+        RankRangePartitioner other = (RankRangePartitioner) o;
+        return comparator.equals(other.comparator) && Arrays.equals(bounds, other.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(bounds) + comparator.hashCode();
+    }
+}
@@ -0,0 +1,58 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function2;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reservoir sample of the keys in each partition, along with the total number of keys in the partition
+ */
+@AllArgsConstructor
+public class SampleRankKeysFunction
+                implements Function2<Integer, Iterator<Object>, Iterator<Tuple2<Long, List<Object>>>> {
+
+    private final int sampleSize;
+    private final long seed;
+
+    @Override
+    public Iterator<Tuple2<Long, List<Object>>> call(Integer partitionIdx, Iterator<Object> keys) throws Exception {
+        Random r = new Random(seed + partitionIdx);
+        List<Object> sample = new ArrayList<>(sampleSize);
+        long count = 0;
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            if (count < sampleSize) {
+                sample.add(key);
+            } else {
+                long j = (long) (r.nextDouble() * (count + 1));
+                if (j < sampleSize) {
+                    sample.set((int) j, key);
+                }
+            }
+            count++;
+        }
+        return Collections.singletonList(new Tuple2<>(count, sample)).iterator();
+    }
+}
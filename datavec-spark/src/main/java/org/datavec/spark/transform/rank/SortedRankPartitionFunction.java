@@ -0,0 +1,91 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.*;
+
+/**
+ * Sort the examples in one partition (of a {@link RankRangePartitioner}) by key, and append the rank of each
+ * example: the number of examples in all previous partitions, plus the position of the example in this partition.
+ * Primitive keys are sorted with a radix sort; other keys are sorted with the comparator. Both sorts are stable.
+ */
+public class SortedRankPartitionFunction
+                implements Function2<Integer, Iterator<Tuple2<Object, List<Writable>>>, Iterator<List<Writable>>> {
+
+    private final long[] partitionOffsets;
+    private final RankKeyComparator comparator;
+
+    /**
+     * @param partitionOffsets Rank of the first example in each partition
+     * @param comparator       Key comparator
+     */
+    public SortedRankPartitionFunction(long[] partitionOffsets, RankKeyComparator comparator) {
+        this.partitionOffsets = partitionOffsets;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public Iterator<List<Writable>> call(Integer partitionIdx, Iterator<Tuple2<Object, List<Writable>>> iter)
+                    throws Exception {
+        List<Tuple2<Object, List<Writable>>> examples = new ArrayList<>();
+        while (iter.hasNext()) {
+            examples.add(iter.next());
+        }
+        int n = examples.size();
+
+        int[] order;
+        if (comparator.isPrimitive()) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = (Long) examples.get(i)._1();
+            }
+            order = LongRadixSort.argSort(keys, n);
+        } else {
+            Integer[] boxed = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                boxed[i] = i;
+            }
+            final List<Tuple2<Object, List<Writable>>> ex = examples;
+            Arrays.sort(boxed, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return comparator.compare(ex.get(o1)._1(), ex.get(o2)._1());
+                }
+            });
+            order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = boxed[i];
+            }
+        }
+
+        long offset = partitionOffsets[partitionIdx];
+        List<List<Writable>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Writable> in = examples.get(order[i])._2();
+            List<Writable> l = new ArrayList<>(in.size() + 1);
+            l.addAll(in);
+            l.add(new LongWritable(offset + i));
+            out.add(l);
+        }
+        return out.iterator();
+    }
+}
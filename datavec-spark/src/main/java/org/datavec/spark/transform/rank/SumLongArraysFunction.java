@@ -0,0 +1,32 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Element-wise sum of two long arrays (of equal length). The first array is modified and returned.
+ */
+public class SumLongArraysFunction implements Function2<long[], long[], long[]> {
+    @Override
+    public long[] call(long[] v1, long[] v2) throws Exception {
+        for (int i = 0; i < v1.length; i++) {
+            v1[i] += v2[i];
+        }
+        return v1;
+    }
+}
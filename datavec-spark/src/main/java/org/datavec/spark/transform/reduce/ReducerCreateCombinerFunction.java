@@ -0,0 +1,42 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.reduce;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.reduce.ReducerState;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * Spark function for creating a (map-side) partial reduction state from the first example for a key.
+ * Used with {@link ReducerMergeValueFunction} and {@link ReducerMergeCombinersFunction} in combineByKey
+ */
+@AllArgsConstructor
+public class ReducerCreateCombinerFunction implements Function<List<Writable>, ReducerState> {
+
+    private final Reducer reducer;
+
+    @Override
+    public ReducerState call(List<Writable> writables) throws Exception {
+        ReducerState state = reducer.createState();
+        reducer.accumulate(state, writables);
+        return state;
+    }
+}
@@ -0,0 +1,31 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.reduce;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.reduce.ReducerState;
+
+/**
+ * Spark function for merging two partial reduction states for the same key
+ */
+public class ReducerMergeCombinersFunction implements Function2<ReducerState, ReducerState, ReducerState> {
+
+    @Override
+    public ReducerState call(ReducerState s1, ReducerState s2) throws Exception {
+        return s1.merge(s2);
+    }
+}
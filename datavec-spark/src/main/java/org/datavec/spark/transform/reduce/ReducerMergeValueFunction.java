@@ -0,0 +1,40 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.reduce;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.reduce.ReducerState;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * Spark function for adding an example to a partial reduction state
+ */
+@AllArgsConstructor
+public class ReducerMergeValueFunction implements Function2<ReducerState, List<Writable>, ReducerState> {
+
+    private final Reducer reducer;
+
+    @Override
+    public ReducerState call(ReducerState state, List<Writable> writables) throws Exception {
+        reducer.accumulate(state, writables);
+        return state;
+    }
+}
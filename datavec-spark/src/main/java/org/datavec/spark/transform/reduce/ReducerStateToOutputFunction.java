@@ -0,0 +1,34 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.reduce;
+
+import org.apache.spark.api.java.function.Function;
+import org.datavec.api.transform.reduce.ReducerState;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * Spark function for converting the final (merged) reduction state for a key to the reduced example
+ */
+public class ReducerStateToOutputFunction implements Function<ReducerState, List<Writable>> {
+
+    @Override
+    public List<Writable> call(ReducerState state) throws Exception {
+        return state.getOutput();
+    }
+}
@@ -30,6 +30,8 @@ import org.datavec.api.transform.split.SplitStrategy;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.datavec.api.transform.ui.HtmlAnalysis;
 import org.datavec.api.writable.*;
+import org.datavec.common.data.NDArrayWritable;
+import org.datavec.spark.serializer.DataVecKryoRegistrator;
 
 import java.io.*;
 import java.util.*;
@@ -221,14 +223,23 @@ public class SparkUtils {
     }
 
     /**
-     * Register the DataVec writable classes for Kryo
+     * Register the DataVec writable classes for Kryo, along with {@link DataVecKryoRegistrator} (compact serializers
+     * for the writables, records and join keys). Any registrators already set in the configuration are retained.
      */
     public static void registerKryoClasses(SparkConf conf) {
         List<Class<?>> classes = Arrays.<Class<?>>asList(BooleanWritable.class, ByteWritable.class,
                         DoubleWritable.class, FloatWritable.class, IntWritable.class, LongWritable.class,
-                        NullWritable.class, Text.class);
+                        NullWritable.class, Text.class, NDArrayWritable.class);
 
-        conf.registerKryoClasses((Class<?>[]) classes.toArray());
+        conf.registerKryoClasses(classes.toArray(new Class<?>[classes.size()]));
+
+        String registrator = DataVecKryoRegistrator.class.getName();
+        String current = conf.get("spark.kryo.registrator", "");
+        if (current.isEmpty()) {
+            conf.set("spark.kryo.registrator", registrator);
+        } else if (!Arrays.asList(current.split(",")).contains(registrator)) {
+            conf.set("spark.kryo.registrator", current + "," + registrator);
+        }
     }
 
     public static Class<? extends CompressionCodec> getCompressionCodeClass(String compressionCodecClass) {
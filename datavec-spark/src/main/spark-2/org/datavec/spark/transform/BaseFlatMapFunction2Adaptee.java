@@ -0,0 +1,42 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform;
+
+import java.util.Iterator;
+
+import org.apache.spark.api.java.function.FlatMapFunction2;
+import org.datavec.spark.functions.FlatMapFunction2Adapter;
+
+/**
+ * FlatMapFunction2 adapter to hide incompatibilities between Spark 1.x and Spark 2.x
+ *
+ * This class should be used instead of direct referral to FlatMapFunction2
+ *
+ */
+public class BaseFlatMapFunction2Adaptee<T1, T2, R> implements FlatMapFunction2<T1, T2, R> {
+
+    protected final FlatMapFunction2Adapter<T1, T2, R> adapter;
+
+    public BaseFlatMapFunction2Adaptee(FlatMapFunction2Adapter<T1, T2, R> adapter) {
+        this.adapter = adapter;
+    }
+
+    @Override
+    public Iterator<R> call(T1 t1, T2 t2) throws Exception {
+        return adapter.call(t1, t2).iterator();
+    }
+}
@@ -0,0 +1,129 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.serializer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.spark.transform.SparkTransformExecutor;
+import org.datavec.spark.transform.utils.SparkUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shuffle benchmark for {@link DataVecKryoRegistrator}: bytes shuffled and time taken to repartition records, and to
+ * execute a sort-merge join, with the previous Kryo configuration (the writable classes registered, with Kryo's
+ * default serializers) and with {@link SparkUtils#registerKryoClasses(SparkConf)}.<br>
+ * Shuffle bytes are measured as the size of the shuffle files written to the Spark local directory, with shuffle
+ * compression disabled so that the serialized size is measured.<br>
+ * Not run with the unit tests: run the main method (optional argument: number of records, default 500000).
+ */
+public class KryoShuffleBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+
+        //Typical records: id, count, value, category, timestamp
+        Random r = new Random(12345);
+        List<List<Writable>> records = new ArrayList<>(numRecords);
+        for (int i = 0; i < numRecords; i++) {
+            records.add(Arrays.<Writable>asList(new LongWritable(i), new IntWritable(r.nextInt(100)),
+                            new DoubleWritable(r.nextDouble()), new Text("category" + r.nextInt(10)),
+                            new LongWritable(1483228800000L + r.nextInt(1000000))));
+        }
+        List<List<Writable>> amounts = new ArrayList<>(numRecords / 10);
+        for (int i = 0; i < numRecords / 10; i++) {
+            amounts.add(Arrays.<Writable>asList(new LongWritable(i * 10), new DoubleWritable(r.nextDouble())));
+        }
+
+        Schema schema = new Schema.Builder().addColumnLong("id").addColumnInteger("count").addColumnDouble("value")
+                        .addColumnString("category").addColumnLong("timestamp").build();
+        Schema amountSchema = new Schema.Builder().addColumnLong("id").addColumnDouble("amount").build();
+        Join join = new Join.Builder(Join.JoinType.LeftOuter).setJoinColumns("id").setSchemas(schema, amountSchema)
+                        .setStrategy(Join.Strategy.SortMerge).build();
+
+        for (boolean registrator : new boolean[] {false, true}) {
+            File localDir = Files.createTempDirectory("shuffle").toFile();
+            SparkConf conf = new SparkConf().setMaster("local[4]").setAppName("KryoShuffleBenchmark")
+                            .set("spark.driverEnv.SPARK_LOCAL_IP", "127.0.0.1")
+                            .set("spark.executorEnv.SPARK_LOCAL_IP", "127.0.0.1")
+                            .set("spark.shuffle.compress", "false").set("spark.local.dir", localDir.getPath());
+            if (registrator) {
+                SparkUtils.registerKryoClasses(conf);
+            } else {
+                conf.registerKryoClasses(new Class<?>[] {BooleanWritable.class, ByteWritable.class,
+                                DoubleWritable.class, FloatWritable.class, IntWritable.class, LongWritable.class,
+                                NullWritable.class, Text.class});
+            }
+
+            JavaSparkContext sc = new JavaSparkContext(conf);
+            try {
+                JavaRDD<List<Writable>> data = sc.parallelize(records, 8).cache();
+                JavaRDD<List<Writable>> right = sc.parallelize(amounts, 8).cache();
+                data.count();
+                right.count();
+
+                //First pass is warm up
+                long[] repartition = null;
+                long[] joined = null;
+                for (int pass = 0; pass < 2; pass++) {
+                    long bytes = shuffleBytes(localDir);
+                    long start = System.currentTimeMillis();
+                    data.repartition(8).count();
+                    repartition = new long[] {shuffleBytes(localDir) - bytes, System.currentTimeMillis() - start};
+
+                    bytes = shuffleBytes(localDir);
+                    start = System.currentTimeMillis();
+                    SparkTransformExecutor.executeJoin(join, data, right).count();
+                    joined = new long[] {shuffleBytes(localDir) - bytes, System.currentTimeMillis() - start};
+                }
+
+                String name = registrator ? "DataVecKryoRegistrator" : "Kryo, writables registered";
+                System.out.println(name + " - repartition: " + repartition[0] / (double) numRecords
+                                + " shuffle bytes/record, " + repartition[1] + " ms");
+                System.out.println(name + " - sort-merge join: " + joined[0] / (double) numRecords
+                                + " shuffle bytes/record, " + joined[1] + " ms");
+            } finally {
+                sc.stop();
+                FileUtils.deleteQuietly(localDir);
+            }
+        }
+    }
+
+    /**
+     * @return Total size of the shuffle data files in the given (Spark local) directory
+     */
+    private static long shuffleBytes(File dir) {
+        long bytes = 0;
+        for (File f : FileUtils.listFiles(dir, null, true)) {
+            if (f.getName().startsWith("shuffle_") && f.getName().endsWith(".data")) {
+                bytes += f.length();
+            }
+        }
+        return bytes;
+    }
+}
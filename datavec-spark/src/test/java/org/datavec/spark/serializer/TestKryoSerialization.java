@@ -0,0 +1,193 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.serializer.KryoSerializer;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.common.data.NDArrayWritable;
+import org.datavec.spark.transform.SparkTransformExecutor;
+import org.datavec.spark.transform.join.JoinKey;
+import org.datavec.spark.transform.utils.SparkUtils;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestKryoSerialization {
+
+    private static final Logger log = LoggerFactory.getLogger(TestKryoSerialization.class);
+
+    private static Kryo newKryo(boolean registrator) {
+        SparkConf conf = new SparkConf();
+        if (registrator) {
+            SparkUtils.registerKryoClasses(conf);
+        }
+        return new KryoSerializer(conf).newKryo();
+    }
+
+    private static byte[] serialize(Kryo kryo, Object o) {
+        Output output = new Output(1024, -1);
+        kryo.writeClassAndObject(output, o);
+        return output.toBytes();
+    }
+
+    private static Object deserialize(Kryo kryo, byte[] bytes) {
+        return kryo.readClassAndObject(new Input(bytes));
+    }
+
+    @Test
+    public void testWritablesRoundTrip() {
+        Kryo kryo = newKryo(true);
+
+        List<Writable> writables = Arrays.<Writable>asList(new IntWritable(0), new IntWritable(Integer.MIN_VALUE),
+                        new IntWritable(-1), new LongWritable(Long.MAX_VALUE), new LongWritable(-123456789L),
+                        new DoubleWritable(Math.PI), new DoubleWritable(Double.NaN), new FloatWritable(-1.5f),
+                        new Text(""), new Text("text \u00e9"), new BooleanWritable(true),
+                        new ByteWritable((byte) -7), NullWritable.INSTANCE);
+
+        for (Writable w : writables) {
+            Object out = deserialize(kryo, serialize(kryo, w));
+            assertEquals(w.getClass(), out.getClass());
+            assertEquals(w.toString(), out.toString());
+        }
+
+        //Shape should be retained for NDArrayWritables
+        INDArray arr = Nd4j.linspace(1, 12, 12).reshape(3, 4);
+        NDArrayWritable out = (NDArrayWritable) deserialize(kryo, serialize(kryo, new NDArrayWritable(arr)));
+        assertArrayEquals(arr.shape(), out.get().shape());
+        assertEquals(arr, out.get());
+
+        assertNull(((NDArrayWritable) deserialize(kryo, serialize(kryo, new NDArrayWritable()))).get());
+    }
+
+    @Test
+    public void testRecordsRoundTrip() {
+        Kryo kryo = newKryo(true);
+
+        List<List<?>> lists = new ArrayList<>();
+        lists.add(new ArrayList<Writable>());
+        lists.add(Arrays.<Writable>asList(new Text("a"), new IntWritable(3), new LongWritable(-4),
+                        new DoubleWritable(5.0), NullWritable.INSTANCE));
+        lists.add(new ArrayList<>(Arrays.<Writable>asList(new NDArrayWritable(Nd4j.ones(2, 2)),
+                        new BooleanWritable(false))));
+        lists.add(Collections.singletonList(new FloatWritable(1.0f)));
+        //Not records: should still round trip
+        lists.add(Arrays.asList("a", null, 3));
+        lists.add(Arrays.asList(Arrays.<Writable>asList(new IntWritable(1)),
+                        Arrays.<Writable>asList(new IntWritable(2), new Text("b"))));
+
+        for (List<?> l : lists) {
+            Object out = deserialize(kryo, serialize(kryo, l));
+            assertEquals(l, out);
+        }
+
+        JoinKey key = JoinKey.create(Arrays.<Writable>asList(new Text("key"), new LongWritable(1)), new int[] {1, 0});
+        assertEquals(key, deserialize(kryo, serialize(kryo, key)));
+    }
+
+    @Test
+    public void testSerializedSizeBenchmark() {
+        //Typical records: id, count, value, category, timestamp
+        Random r = new Random(12345);
+        List<List<Writable>> records = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            records.add(new ArrayList<>(Arrays.<Writable>asList(new LongWritable(i), new IntWritable(r.nextInt(100)),
+                            new DoubleWritable(r.nextDouble()), new Text("category" + r.nextInt(10)),
+                            new LongWritable(1483228800000L + r.nextInt(1000000)))));
+        }
+
+        long[] defaultStats = benchmark(newKryo(false), records);
+        long[] dataVecStats = benchmark(newKryo(true), records);
+
+        log.info("Default Kryo: {} bytes/record, {} ms", defaultStats[0] / (double) records.size(), defaultStats[1]);
+        log.info("DataVec Kryo: {} bytes/record, {} ms", dataVecStats[0] / (double) records.size(), dataVecStats[1]);
+
+        assertTrue(dataVecStats[0] * 2 < defaultStats[0]);
+    }
+
+    /**
+     * @return Total serialized size, and time to serialize and deserialize (ms) all records, after a warmup pass
+     */
+    private static long[] benchmark(Kryo kryo, List<List<Writable>> records) {
+        long bytes = 0;
+        long time = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            bytes = 0;
+            long start = System.currentTimeMillis();
+            Output output = new Output(4096, -1);
+            for (List<Writable> l : records) {
+                output.clear();
+                kryo.writeClassAndObject(output, l);
+                byte[] b = output.toBytes();
+                bytes += b.length;
+                assertEquals(l, deserialize(kryo, b));
+            }
+            time = System.currentTimeMillis() - start;
+        }
+        return new long[] {bytes, time};
+    }
+
+    @Test
+    public void testShuffleWithRegistrator() {
+        SparkConf conf = new SparkConf().setMaster("local[*]").set("spark.driverEnv.SPARK_LOCAL_IP", "127.0.0.1")
+                        .set("spark.executorEnv.SPARK_LOCAL_IP", "127.0.0.1").setAppName("sparktest");
+        SparkUtils.registerKryoClasses(conf);
+        JavaSparkContext sc = new JavaSparkContext(conf);
+        try {
+            Schema schemaLeft = new Schema.Builder().addColumnLong("id").addColumnString("name").build();
+            Schema schemaRight = new Schema.Builder().addColumnLong("id").addColumnDouble("amount").build();
+
+            List<List<Writable>> left = new ArrayList<>();
+            List<List<Writable>> right = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                left.add(Arrays.<Writable>asList(new LongWritable(i), new Text("name" + i)));
+                right.add(Arrays.<Writable>asList(new LongWritable(i % 50), new DoubleWritable(i)));
+            }
+            JavaRDD<List<Writable>> leftRDD = sc.parallelize(left, 4);
+            JavaRDD<List<Writable>> rightRDD = sc.parallelize(right, 4);
+
+            Join join = new Join.Builder(Join.JoinType.LeftOuter).setJoinColumns("id")
+                            .setSchemas(schemaLeft, schemaRight).setStrategy(Join.Strategy.SortMerge).build();
+            List<List<Writable>> out = SparkTransformExecutor.executeJoin(join, leftRDD, rightRDD).collect();
+
+            //Ids 0 to 49: 2 matches each; 50 to 99: no matches
+            assertEquals(150, out.size());
+            int nullCount = 0;
+            for (List<Writable> l : out) {
+                assertEquals(3, l.size());
+                if (l.get(2) instanceof NullWritable)
+                    nullCount++;
+            }
+            assertEquals(50, nullCount);
+        } finally {
+            sc.stop();
+        }
+    }
+}
@@ -18,7 +18,9 @@ package org.datavec.spark.transform;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.ReduceOp;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.reduce.Reducer;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.writable.DoubleWritable;
@@ -117,4 +119,37 @@ public class ExecutionTest extends BaseSparkTest {
         assertEquals(expectedSequence, out);
     }
 
+    @Test
+    public void testReductionByKey() {
+        Schema schema = new Schema.Builder().addColumnInteger("key").addColumnDouble("value")
+                        .addColumnString("str").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).reduce(new Reducer.Builder(ReduceOp.Sum)
+                        .keyColumns("key").meanColumns("value").countUniqueColumns("str").build()).build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputData.add(Arrays.<Writable>asList(new IntWritable(i % 3), new DoubleWritable(i),
+                            new Text("s" + (i % 5))));
+        }
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(inputData, 4);
+
+        List<List<Writable>> out = new ArrayList<>(SparkTransformExecutor.execute(rdd, tp).collect());
+
+        Collections.sort(out, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return Integer.compare(o1.get(0).toInt(), o2.get(0).toInt());
+            }
+        });
+
+        //Key 0: 0, 3, ..., 99 (34 values); key 1: 1, 4, ..., 97 (33 values); key 2: 2, 5, ..., 98 (33 values)
+        List<List<Writable>> expected = new ArrayList<>();
+        expected.add(Arrays.<Writable>asList(new IntWritable(0), new DoubleWritable(49.5), new IntWritable(5)));
+        expected.add(Arrays.<Writable>asList(new IntWritable(1), new DoubleWritable(49.0), new IntWritable(5)));
+        expected.add(Arrays.<Writable>asList(new IntWritable(2), new DoubleWritable(50.0), new IntWritable(5)));
+
+        assertEquals(expected, out);
+    }
 }
@@ -29,6 +29,7 @@ import org.junit.Test;
 
 import java.util.*;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -110,6 +111,58 @@ public class TestAnalysis extends BaseSparkTest {
         assertEquals(1, countD[countD.length - 1]);
     }
 
+    @Test
+    public void testAnalysisSketch() {
+        Schema schema = new Schema.Builder().addColumnInteger("intCol").addColumnDouble("doubleCol")
+                        .addColumnTime("timeCol", DateTimeZone.UTC).addColumnCategorical("catCol", "A", "B")
+                        .addColumnString("strCol").build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            data.add(Arrays.asList((Writable) new IntWritable(r.nextInt(50)), new DoubleWritable(r.nextGaussian()),
+                            new LongWritable(1000L * r.nextInt(100)), new Text(r.nextBoolean() ? "A" : "B"),
+                            new Text("s" + r.nextInt(200))));
+        }
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 4);
+
+        DataAnalysis exact = AnalyzeSpark.analyze(schema, rdd, 10);
+        DataAnalysis sketch = AnalyzeSpark.analyzeSketch(schema, rdd, 10);
+
+        for (int i = 0; i < 3; i++) {
+            NumericalColumnAnalysis e = (NumericalColumnAnalysis) exact.getColumnAnalysis().get(i);
+            NumericalColumnAnalysis s = (NumericalColumnAnalysis) sketch.getColumnAnalysis().get(i);
+            assertEquals(e.getMinDouble(), s.getMinDouble(), 0.0);
+            assertEquals(e.getMaxDouble(), s.getMaxDouble(), 0.0);
+            assertEquals(e.getMean(), s.getMean(), 1e-6);
+            assertEquals(e.getSampleStdev(), s.getSampleStdev(), 1e-6);
+            assertEquals(e.getCountTotal(), s.getCountTotal());
+            assertEquals(e.getCountMinValue(), s.getCountMinValue());
+            assertEquals(e.getCountMaxValue(), s.getCountMaxValue());
+            assertArrayEquals(e.getHistogramBuckets(), s.getHistogramBuckets(), 1e-6);
+
+            long[] eCounts = e.getHistogramBucketCounts();
+            long[] sCounts = s.getHistogramBucketCounts();
+            long sum = 0;
+            for (int j = 0; j < eCounts.length; j++) {
+                assertEquals(eCounts[j], sCounts[j], 0.05 * data.size());
+                sum += sCounts[j];
+            }
+            assertEquals(data.size(), sum);
+        }
+
+        assertEquals(((CategoricalAnalysis) exact.getColumnAnalysis("catCol")).getMapOfCounts(),
+                        ((CategoricalAnalysis) sketch.getColumnAnalysis("catCol")).getMapOfCounts());
+
+        StringAnalysis e = (StringAnalysis) exact.getColumnAnalysis("strCol");
+        StringAnalysis s = (StringAnalysis) sketch.getColumnAnalysis("strCol");
+        assertEquals(e.getMinLength(), s.getMinLength());
+        assertEquals(e.getMaxLength(), s.getMaxLength());
+        assertEquals(e.getMeanLength(), s.getMeanLength(), 1e-6);
+        assertEquals(e.getCountTotal(), s.getCountTotal());
+    }
+
 
     @Test
     public void testAnalysisStdev() {
@@ -28,6 +28,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 13/10/2016.
@@ -232,4 +233,54 @@ public class TestJoin extends BaseSparkTest {
         assertEquals(4, count);
     }
 
+    @Test
+    public void testJoinStrategies() {
+        //Two join columns, with duplicate keys on both sides and keys that only appear on one side
+        Schema schemaLeft = new Schema.Builder().addColumnInteger("k1").addColumnString("k2")
+                        .addColumnDouble("leftValue").build();
+        Schema schemaRight = new Schema.Builder().addColumnString("k2").addColumnDouble("rightValue")
+                        .addColumnInteger("k1").build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> leftList = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            leftList.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(10)), new Text("s" + r.nextInt(5)),
+                            new DoubleWritable(i)));
+        }
+        List<List<Writable>> rightList = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rightList.add(Arrays.<Writable>asList(new Text("s" + r.nextInt(6)), new DoubleWritable(-i),
+                            new IntWritable(r.nextInt(12))));
+        }
+
+        JavaRDD<List<Writable>> left = sc.parallelize(leftList, 4);
+        JavaRDD<List<Writable>> right = sc.parallelize(rightList, 3);
+
+        for (Join.JoinType jt : Join.JoinType.values()) {
+            Join.Builder b = new Join.Builder(jt).setJoinColumns("k1", "k2").setSchemas(schemaLeft, schemaRight);
+
+            List<String> expected = joinAsSortedStrings(b.setStrategy(Join.Strategy.CoGroup).build(), left, right);
+            assertTrue(expected.size() > 0);
+
+            for (Join.Strategy strategy : Join.Strategy.values()) {
+                List<String> out = joinAsSortedStrings(b.setStrategy(strategy).build(), left, right);
+                assertEquals(jt + " - " + strategy, expected, out);
+            }
+
+            //Auto: always sort-merge, and always broadcast (where possible)
+            b.setStrategy(Join.Strategy.Auto);
+            assertEquals(expected, joinAsSortedStrings(b.setBroadcastThreshold(0).build(), left, right));
+            assertEquals(expected, joinAsSortedStrings(b.setBroadcastThreshold(1000).build(), left, right));
+        }
+    }
+
+    private static List<String> joinAsSortedStrings(Join join, JavaRDD<List<Writable>> left,
+                    JavaRDD<List<Writable>> right) {
+        List<String> out = new ArrayList<>();
+        for (List<Writable> l : SparkTransformExecutor.executeJoin(join, left, right).collect()) {
+            out.add(l.toString());
+        }
+        Collections.sort(out);
+        return out;
+    }
 }
@@ -19,20 +19,17 @@ package org.datavec.spark.transform.rank;
 import org.datavec.spark.BaseSparkTest;
 import org.datavec.spark.transform.SparkTransformExecutor;
 import org.apache.spark.api.java.JavaRDD;
-import org.datavec.api.writable.DoubleWritable;
-import org.datavec.api.writable.Text;
-import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.*;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.TransformProcess;
-import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.*;
 import org.datavec.api.transform.schema.Schema;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 1/06/2016.
@@ -74,4 +71,50 @@ public class TestCalculateSortedRank extends BaseSparkTest {
         }
     }
 
+    @Test
+    public void testCalculateSortedRankComparatorsAndTies() {
+        Schema schema = new Schema.Builder().addColumnInteger("IntCol").addColumnLong("LongCol")
+                        .addColumnFloat("FloatCol").addColumnDouble("DoubleCol").addColumnString("TextCol").build();
+
+        //Small value ranges, so there are many ties; negative values and -0.0 included
+        Random r = new Random(12345);
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int v = r.nextInt(41) - 20;
+            data.add(Arrays.<Writable>asList(new IntWritable(v), new LongWritable(v * 1000000000L),
+                            new FloatWritable(v / 4.0f), new DoubleWritable(v == 0 ? -0.0 : v / 3.0),
+                            new Text(String.valueOf(v))));
+        }
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 7);
+
+        String[] columns = {"IntCol", "LongCol", "FloatCol", "DoubleCol", "TextCol"};
+        WritableComparator[] comparators = {new IntWritableComparator(), new LongWritableComparator(),
+                        new FloatWritableComparator(), new DoubleWritableComparator(), new TextWritableComparator()};
+
+        for (int c = 0; c < columns.length; c++) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                TransformProcess tp = new TransformProcess.Builder(schema)
+                                .calculateSortedRank("rank", columns[c], comparators[c], ascending).build();
+                List<List<Writable>> out = new ArrayList<>(SparkTransformExecutor.execute(rdd, tp).collect());
+                assertEquals(data.size(), out.size());
+
+                //Ranks should be 0 to n-1, and in sorted order of the column values
+                Collections.sort(out, new Comparator<List<Writable>>() {
+                    @Override
+                    public int compare(List<Writable> o1, List<Writable> o2) {
+                        return Long.compare(o1.get(5).toLong(), o2.get(5).toLong());
+                    }
+                });
+                for (int i = 0; i < out.size(); i++) {
+                    assertEquals(6, out.get(i).size());
+                    assertEquals(i, out.get(i).get(5).toLong());
+                    if (i > 0) {
+                        int cmp = comparators[c].compare(out.get(i - 1).get(c), out.get(i).get(c));
+                        String msg = columns[c] + ", ascending=" + ascending;
+                        assertTrue(msg, ascending ? cmp <= 0 : cmp >= 0);
+                    }
+                }
+            }
+        }
+    }
 }